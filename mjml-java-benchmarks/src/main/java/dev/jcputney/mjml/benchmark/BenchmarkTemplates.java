@@ -0,0 +1,136 @@
+package dev.jcputney.mjml.benchmark;
+
+/** Generates synthetic MJML templates of configurable size for benchmarks. */
+public final class BenchmarkTemplates {
+
+  private BenchmarkTemplates() {}
+
+  /**
+   * Builds a newsletter-style template with the given number of sections. Each section contains two
+   * columns with an image, text, a button and a divider, and the head declares attributes, fonts
+   * and styles.
+   *
+   * @param sections the number of sections to generate
+   * @return the MJML source
+   */
+  public static String newsletter(int sections) {
+    StringBuilder sb = new StringBuilder(sections * 900 + 1024);
+    sb.append(
+        """
+        <mjml>
+          <mj-head>
+            <mj-title>Benchmark newsletter</mj-title>
+            <mj-preview>Benchmark preview text</mj-preview>
+            <mj-font name="Roboto" href="https://fonts.googleapis.com/css?family=Roboto" />
+            <mj-attributes>
+              <mj-all font-family="Roboto, Arial, sans-serif" />
+              <mj-text font-size="14px" line-height="22px" color="#333333" />
+              <mj-class name="muted" color="#888888" />
+            </mj-attributes>
+            <mj-style inline="inline">
+              .footer td a { color: #999999; text-decoration: none; }
+              .headline div { font-weight: bold; }
+            </mj-style>
+            <mj-style>
+              @media (max-width: 480px) { .stack { width: 100% !important; } }
+            </mj-style>
+          </mj-head>
+          <mj-body background-color="#f4f4f4">
+        """);
+    for (int i = 0; i < sections; i++) {
+      sb.append("    <mj-section background-color=\"#ffffff\" padding=\"20px 0\">\n");
+      for (int c = 0; c < 2; c++) {
+        sb.append("      <mj-column css-class=\"stack\">\n")
+            .append("        <mj-image src=\"https://example.com/img/")
+            .append(i)
+            .append('-')
+            .append(c)
+            .append(".png\" alt=\"Item ")
+            .append(i)
+            .append("\" width=\"250px\" />\n")
+            .append("        <mj-text css-class=\"headline\">Headline ")
+            .append(i)
+            .append("</mj-text>\n")
+            .append("        <mj-text mj-class=\"muted\">Lorem ipsum dolor sit amet, ")
+            .append("<b>consectetur</b> adipiscing elit, sed do eiusmod tempor ")
+            .append("<a href=\"https://example.com\">incididunt</a> ut labore.</mj-text>\n")
+            .append("        <mj-button href=\"https://example.com/")
+            .append(i)
+            .append("\" background-color=\"#0066cc\">Read more</mj-button>\n")
+            .append("        <mj-divider border-color=\"#eeeeee\" />\n")
+            .append("      </mj-column>\n");
+      }
+      sb.append("    </mj-section>\n");
+    }
+    sb.append(
+        """
+            <mj-section css-class="footer">
+              <mj-column>
+                <mj-text>Footer <a href="https://example.com/unsubscribe">unsubscribe</a></mj-text>
+              </mj-column>
+            </mj-section>
+          </mj-body>
+        </mjml>
+        """);
+    return sb.toString();
+  }
+
+  /**
+   * Builds an HTML document with roughly {@code elements} elements spread over nested tables, using
+   * a pool of 50 class names and per-row ids, for CSS inlining benchmarks.
+   *
+   * @param elements the approximate number of elements to generate
+   * @return the HTML source
+   */
+  public static String largeHtml(int elements) {
+    StringBuilder sb = new StringBuilder(elements * 80 + 256);
+    sb.append(
+        "<!doctype html><html><head><title>Benchmark</title></head><body><div class=\"wrapper\">");
+    int rows = Math.max(1, elements / 5);
+    for (int i = 0; i < rows; i++) {
+      sb.append("<table class=\"section c")
+          .append(i % 50)
+          .append("\" id=\"row")
+          .append(i)
+          .append("\"><tr><td class=\"cell c")
+          .append((i * 7) % 50)
+          .append("\" style=\"padding:4px\"><a href=\"#\" class=\"link\">Link ")
+          .append(i)
+          .append("</a><span class=\"c")
+          .append((i * 13) % 50)
+          .append("\">Text</span></td></tr></table>");
+    }
+    sb.append("</div></body></html>");
+    return sb.toString();
+  }
+
+  /**
+   * Builds a stylesheet with the given number of rules, mixing class, compound, descendant, child,
+   * id, type, and attribute selectors in the proportions of a typical brand stylesheet.
+   *
+   * @param rules the number of rules to generate
+   * @return the CSS source
+   */
+  public static String largeStylesheet(int rules) {
+    StringBuilder sb = new StringBuilder(rules * 60);
+    for (int i = 0; i < rules; i++) {
+      int c = i % 50;
+      switch (i % 8) {
+        case 0 -> sb.append(".c").append(c);
+        case 1 -> sb.append("td.c").append(c);
+        case 2 -> sb.append(".section .c").append(c);
+        case 3 -> sb.append(".wrapper > table.c").append(c);
+        case 4 -> sb.append("#row").append(i);
+        case 5 -> sb.append("span.c").append(c).append(", a.c").append(c);
+        case 6 -> sb.append("a[href]");
+        default -> sb.append("table td");
+      }
+      sb.append(" { color: #")
+          .append(String.format("%06x", i * 2654435 & 0xFFFFFF))
+          .append("; margin: ")
+          .append(i % 10)
+          .append("px; }\n");
+    }
+    return sb.toString();
+  }
+}
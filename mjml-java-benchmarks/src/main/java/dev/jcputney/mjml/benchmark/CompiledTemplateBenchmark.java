@@ -0,0 +1,58 @@
+package dev.jcputney.mjml.benchmark;
+
+import dev.jcputney.mjml.MjmlConfiguration;
+import dev.jcputney.mjml.parser.CompiledTemplateCodec;
+import dev.jcputney.mjml.parser.MjmlDocument;
+import dev.jcputney.mjml.parser.MjmlParser;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares loading a template from the binary compiled-template format against parsing the MJML
+ * source.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompiledTemplateBenchmark {
+
+  @Param({"10", "100"})
+  int sections;
+
+  private String source;
+  private byte[] compiled;
+
+  @Setup
+  public void setup() {
+    source = BenchmarkTemplates.newsletter(sections);
+    compiled = CompiledTemplateCodec.encode(MjmlParser.parse(source));
+  }
+
+  @Benchmark
+  public MjmlDocument parseSource() {
+    return MjmlParser.parse(source);
+  }
+
+  @Benchmark
+  public MjmlDocument loadCompiled() {
+    return CompiledTemplateCodec.decode(compiled);
+  }
+
+  @Benchmark
+  public String hashKey() {
+    return CompiledTemplateCodec.key(source, MjmlConfiguration.defaults());
+  }
+}
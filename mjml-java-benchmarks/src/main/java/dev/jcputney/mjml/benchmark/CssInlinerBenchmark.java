@@ -0,0 +1,58 @@
+package dev.jcputney.mjml.benchmark;
+
+import dev.jcputney.mjml.css.CompiledStylesheet;
+import dev.jcputney.mjml.css.CssInliner;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures CSS inlining of large stylesheets into large documents. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CssInlinerBenchmark {
+
+  @Param({"30", "300"})
+  int rules;
+
+  @Param({"5000"})
+  int elements;
+
+  private String html;
+  private String css;
+  private CompiledStylesheet stylesheet;
+
+  @Setup
+  public void setup() {
+    html = BenchmarkTemplates.largeHtml(elements);
+    css = BenchmarkTemplates.largeStylesheet(rules);
+    stylesheet = CompiledStylesheet.compile(css);
+  }
+
+  @Benchmark
+  public String inlineAdditionalOnly() {
+    return CssInliner.inlineAdditionalOnly(html, css);
+  }
+
+  @Benchmark
+  public String inlineCompiledStylesheet() {
+    return CssInliner.inlineAdditionalOnly(html, stylesheet);
+  }
+
+  @Benchmark
+  public CompiledStylesheet compileStylesheet() {
+    return CompiledStylesheet.compile(css);
+  }
+}
@@ -0,0 +1,123 @@
+package dev.jcputney.mjml.benchmark;
+
+import dev.jcputney.mjml.util.CssUnitParser;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures parsing the CSS lengths and shorthands that layout reads thousands of times per render,
+ * against the regular expression and substring parsing it replaced. Run with {@code -prof gc} to
+ * compare allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CssUnitParserBenchmark {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final Pattern VALID_CSS_NUMBER =
+      Pattern.compile("^\\s*-?\\d+(?:\\.\\d+)?(?:px|%|em|rem)?\\s*$");
+  private static final Pattern UNIT_SUFFIX = Pattern.compile("(?:px|%|em|rem)$");
+
+  private final String[] lengths = {"600px", "50%", "25px", "12.5px", "0", "100%"};
+  private final String[] shorthands = {"10px 25px", "0px", "20px 0 10px", "4px 8px 4px 8px"};
+  private final double[] shorthand = new double[4];
+
+  @Benchmark
+  public double toPixels() {
+    double total = 0;
+    for (String length : lengths) {
+      total += CssUnitParser.toPixels(length, 600);
+    }
+    return total;
+  }
+
+  @Benchmark
+  public double toPixelsRegexBaseline() {
+    double total = 0;
+    for (String length : lengths) {
+      String value = length.trim();
+      if (value.endsWith("%")) {
+        total += 600 * parseNumber(value.substring(0, value.length() - 1)) / 100.0;
+      } else if (value.endsWith("px")) {
+        total += parseNumber(value.substring(0, value.length() - 2));
+      } else {
+        total += parseNumber(value);
+      }
+    }
+    return total;
+  }
+
+  @Benchmark
+  public double parseShorthand() {
+    double total = 0;
+    for (String value : shorthands) {
+      CssUnitParser.parseShorthand(value, shorthand);
+      total += shorthand[1] + shorthand[3];
+    }
+    return total;
+  }
+
+  @Benchmark
+  public double parseShorthandRegexBaseline() {
+    double total = 0;
+    for (String value : shorthands) {
+      String[] parts = WHITESPACE.split(value.trim());
+      double[] result = new double[4];
+      result[0] = parsePx(parts[0]);
+      result[1] = parts.length > 1 ? parsePx(parts[1]) : result[0];
+      result[2] = parts.length > 2 ? parsePx(parts[2]) : result[0];
+      result[3] = parts.length > 3 ? parsePx(parts[3]) : result[1];
+      total += result[1] + result[3];
+    }
+    return total;
+  }
+
+  @Benchmark
+  public int parseIntPx() {
+    int total = 0;
+    for (String length : lengths) {
+      total += CssUnitParser.parseIntPx(length);
+    }
+    return total;
+  }
+
+  @Benchmark
+  public int parseIntPxRegexBaseline() {
+    int total = 0;
+    for (String length : lengths) {
+      if (VALID_CSS_NUMBER.matcher(length).matches()) {
+        total += (int) parseNumber(UNIT_SUFFIX.matcher(length.trim()).replaceAll("").trim());
+      }
+    }
+    return total;
+  }
+
+  private static double parsePx(String value) {
+    value = value.trim();
+    if (value.endsWith("px")) {
+      value = value.substring(0, value.length() - 2);
+    }
+    return parseNumber(value);
+  }
+
+  private static double parseNumber(String value) {
+    try {
+      return Double.parseDouble(value.trim());
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+}
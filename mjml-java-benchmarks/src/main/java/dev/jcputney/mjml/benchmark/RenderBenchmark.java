@@ -0,0 +1,45 @@
+package dev.jcputney.mjml.benchmark;
+
+import dev.jcputney.mjml.MjmlRenderer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures rendering a newsletter template end to end. Run with {@code -prof gc} to see the bytes
+ * allocated per render.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+
+  @Param({"10", "100"})
+  int sections;
+
+  private MjmlRenderer renderer;
+  private String source;
+
+  @Setup
+  public void setup() {
+    renderer = MjmlRenderer.create();
+    source = BenchmarkTemplates.newsletter(sections);
+  }
+
+  @Benchmark
+  public String render() {
+    return renderer.renderTemplate(source).html();
+  }
+}
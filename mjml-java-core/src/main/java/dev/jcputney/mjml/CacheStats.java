@@ -0,0 +1,22 @@
+package dev.jcputney.mjml;
+
+/**
+ * A snapshot of the activity of one of the renderer's process-wide caches.
+ *
+ * @param hits the number of lookups answered from the cache
+ * @param misses the number of lookups that had to compute their value
+ * @param size the number of entries currently held
+ * @param maxSize the number of entries the cache holds before evicting
+ */
+public record CacheStats(long hits, long misses, int size, int maxSize) {
+
+  /**
+   * Returns the fraction of lookups answered from the cache.
+   *
+   * @return the hit rate between 0 and 1, or 0 if there were no lookups
+   */
+  public double hitRate() {
+    long lookups = hits + misses;
+    return lookups == 0 ? 0 : (double) hits / lookups;
+  }
+}
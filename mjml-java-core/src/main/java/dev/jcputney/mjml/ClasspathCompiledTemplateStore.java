@@ -0,0 +1,81 @@
+package dev.jcputney.mjml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Read-only {@link CompiledTemplateStore} that loads compiled templates packaged on the classpath,
+ * for example by the {@code mjml-java-maven-plugin} in {@code compiled} mode. Entries are looked up
+ * as {@code <prefix><key>.mjmlc}; {@link #store(String, byte[])} is a no-op.
+ *
+ * <p>Keys depend on the configuration (see {@link
+ * dev.jcputney.mjml.parser.CompiledTemplateCodec#key(String, MjmlConfiguration)}). The plugin
+ * compiles with an include resolver and default limits, so the renderer loading its output needs an
+ * include resolver too, which also serves any template that was not precompiled.
+ *
+ * <h2>Usage</h2>
+ *
+ * <pre>{@code
+ * MjmlConfiguration config = MjmlConfiguration.builder()
+ *     .includeResolver(new ClasspathIncludeResolver())
+ *     .compiledTemplateStore(new ClasspathCompiledTemplateStore("mjml-compiled/"))
+ *     .build();
+ * }</pre>
+ */
+public final class ClasspathCompiledTemplateStore implements CompiledTemplateStore {
+
+  private static final Logger LOG =
+      Logger.getLogger(ClasspathCompiledTemplateStore.class.getName());
+  private static final Pattern VALID_KEY = Pattern.compile("[0-9a-zA-Z_-]{1,128}");
+
+  private final ClassLoader classLoader;
+  private final String prefix;
+
+  /**
+   * Creates a store that uses the thread's context class loader.
+   *
+   * @param prefix the resource directory holding compiled templates (e.g. {@code "mjml-compiled/"})
+   */
+  public ClasspathCompiledTemplateStore(String prefix) {
+    this(Thread.currentThread().getContextClassLoader(), prefix);
+  }
+
+  /**
+   * Creates a store that uses the given class loader.
+   *
+   * @param classLoader the class loader to use for resource lookups
+   * @param prefix the resource directory holding compiled templates (e.g. {@code "mjml-compiled/"})
+   */
+  public ClasspathCompiledTemplateStore(ClassLoader classLoader, String prefix) {
+    if (classLoader == null) {
+      throw new IllegalArgumentException("classLoader cannot be null");
+    }
+    if (prefix == null) {
+      throw new IllegalArgumentException("prefix cannot be null");
+    }
+    this.classLoader = classLoader;
+    String normalized = prefix.startsWith("/") ? prefix.substring(1) : prefix;
+    this.prefix = normalized.isEmpty() || normalized.endsWith("/") ? normalized : normalized + "/";
+  }
+
+  @Override
+  public byte[] load(String key) {
+    if (key == null || !VALID_KEY.matcher(key).matches()) {
+      throw new IllegalArgumentException("Invalid compiled template key: " + key);
+    }
+    String resource = prefix + key + FileSystemCompiledTemplateStore.EXTENSION;
+    try (InputStream is = classLoader.getResourceAsStream(resource)) {
+      return is != null ? is.readAllBytes() : null;
+    } catch (IOException e) {
+      LOG.warning(() -> "Failed to read compiled template " + resource + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  @Override
+  public void store(String key, byte[] compiled) {
+    // Classpath resources are read-only
+  }
+}
@@ -0,0 +1,45 @@
+package dev.jcputney.mjml;
+
+/**
+ * Storage for compiled templates: include-expanded MJML trees serialized with {@link
+ * dev.jcputney.mjml.parser.CompiledTemplateCodec}. When a store is configured, the renderer looks
+ * up each template by the content hash of its source before parsing, and saves the compiled form
+ * after a miss. Stores can be backed by the file system, a shared volume, a distributed cache, etc.
+ *
+ * <p>Stored trees have {@code mj-include} already expanded. Keys cover the configuration's limits
+ * but not the included content, so a store should only be shared by renderers whose include
+ * resolvers return the same content, and {@link
+ * MjmlConfiguration.Builder#compiledTemplateVersion(String)} should change whenever that content
+ * does.
+ *
+ * <p>Implementations must be thread-safe. They should treat the store as a cache: returning {@code
+ * null} from {@link #load(String)} is always safe, and data that fails to decode is ignored and
+ * recompiled by the renderer.
+ *
+ * <h2>Usage</h2>
+ *
+ * <pre>{@code
+ * MjmlConfiguration config = MjmlConfiguration.builder()
+ *     .compiledTemplateStore(new FileSystemCompiledTemplateStore(Path.of("/var/cache/mjml")))
+ *     .build();
+ * }</pre>
+ */
+public interface CompiledTemplateStore {
+
+  /**
+   * Returns the compiled template stored under the given key, or {@code null} if there is none.
+   *
+   * @param key the content hash key (see {@link
+   *     dev.jcputney.mjml.parser.CompiledTemplateCodec#key(String, MjmlConfiguration)})
+   * @return the encoded compiled template, or {@code null}
+   */
+  byte[] load(String key);
+
+  /**
+   * Stores a compiled template under the given key, replacing any existing entry.
+   *
+   * @param key the content hash key
+   * @param compiled the encoded compiled template
+   */
+  void store(String key, byte[] compiled);
+}
@@ -0,0 +1,107 @@
+package dev.jcputney.mjml;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Stores compiled templates as files in a directory, one {@code <key>.mjmlc} file per template.
+ * Writes go to a temporary file that is atomically moved into place, so several processes can share
+ * the directory (e.g. a mounted volume) without observing partially written entries.
+ *
+ * <p>I/O failures are logged and treated as cache misses rather than failing the render.
+ *
+ * <h2>Usage</h2>
+ *
+ * <pre>{@code
+ * MjmlConfiguration config = MjmlConfiguration.builder()
+ *     .compiledTemplateStore(new FileSystemCompiledTemplateStore(Path.of("/var/cache/mjml")))
+ *     .build();
+ * }</pre>
+ */
+public final class FileSystemCompiledTemplateStore implements CompiledTemplateStore {
+
+  /** File extension used for stored compiled templates. */
+  public static final String EXTENSION = ".mjmlc";
+
+  private static final Logger LOG =
+      Logger.getLogger(FileSystemCompiledTemplateStore.class.getName());
+  private static final Pattern VALID_KEY = Pattern.compile("[0-9a-zA-Z_-]{1,128}");
+
+  private final Path directory;
+
+  /**
+   * Creates a store backed by the given directory, creating it if necessary.
+   *
+   * @param directory the directory holding compiled template files
+   * @throws IllegalArgumentException if the directory cannot be created
+   */
+  public FileSystemCompiledTemplateStore(Path directory) {
+    this.directory = directory.toAbsolutePath().normalize();
+    try {
+      Files.createDirectories(this.directory);
+    } catch (IOException e) {
+      throw new IllegalArgumentException(
+          "Compiled template directory cannot be created: " + this.directory, e);
+    }
+  }
+
+  /**
+   * Returns the directory backing this store.
+   *
+   * @return the absolute store directory
+   */
+  public Path getDirectory() {
+    return directory;
+  }
+
+  @Override
+  public byte[] load(String key) {
+    Path file = fileFor(key);
+    try {
+      return Files.readAllBytes(file);
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException e) {
+      LOG.warning(() -> "Failed to read compiled template " + file + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  @Override
+  public void store(String key, byte[] compiled) {
+    Path file = fileFor(key);
+    Path temp = null;
+    try {
+      temp = Files.createTempFile(directory, key, ".tmp");
+      Files.write(temp, compiled);
+      try {
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      LOG.warning(() -> "Failed to write compiled template " + file + ": " + e.getMessage());
+      if (temp != null) {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException ignored) {
+          // Best effort cleanup
+        }
+      }
+    }
+  }
+
+  private Path fileFor(String key) {
+    // Keys become file names, so reject anything that could escape the directory
+    if (key == null || !VALID_KEY.matcher(key).matches()) {
+      throw new IllegalArgumentException("Invalid compiled template key: " + key);
+    }
+    return directory.resolve(key + EXTENSION);
+  }
+}
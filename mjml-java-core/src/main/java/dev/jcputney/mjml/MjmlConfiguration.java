@@ -2,9 +2,13 @@ package dev.jcputney.mjml;
 
 import dev.jcputney.mjml.component.ComponentFactory;
 import dev.jcputney.mjml.component.ContainerComponentFactory;
+import dev.jcputney.mjml.css.HtmlFilter;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 /** Configuration for the MJML renderer. Use the {@link #builder()} method to create instances. */
@@ -33,6 +37,9 @@ public final class MjmlConfiguration {
   private final int maxNestingDepth;
   private final int maxIncludeDepth;
   private final ContentSanitizer contentSanitizer;
+  private final CompiledTemplateStore compiledTemplateStore;
+  private final String compiledTemplateVersion;
+  private final List<Supplier<? extends HtmlFilter>> htmlFilters;
 
   private MjmlConfiguration(Builder builder) {
     this.language = builder.language;
@@ -45,6 +52,9 @@ public final class MjmlConfiguration {
     this.maxNestingDepth = builder.maxNestingDepth;
     this.maxIncludeDepth = builder.maxIncludeDepth;
     this.contentSanitizer = builder.contentSanitizer;
+    this.compiledTemplateStore = builder.compiledTemplateStore;
+    this.compiledTemplateVersion = builder.compiledTemplateVersion;
+    this.htmlFilters = List.copyOf(builder.htmlFilters);
   }
 
   /**
@@ -167,6 +177,37 @@ public final class MjmlConfiguration {
     return contentSanitizer;
   }
 
+  /**
+   * Returns the optional compiled template store, or {@code null} if none is configured. When set,
+   * include-expanded templates are loaded from the store by content hash instead of being parsed,
+   * and newly parsed templates are saved to it.
+   *
+   * @return the compiled template store, or {@code null} if none is configured
+   */
+  public CompiledTemplateStore getCompiledTemplateStore() {
+    return compiledTemplateStore;
+  }
+
+  /**
+   * Returns the version of the included content that compiled templates are keyed by, or an empty
+   * string if none is set.
+   *
+   * @return the compiled template version
+   */
+  public String getCompiledTemplateVersion() {
+    return compiledTemplateVersion;
+  }
+
+  /**
+   * Returns the factories of the filters applied to every rendered document, in the order they were
+   * added. Each render creates its own filter instances.
+   *
+   * @return an unmodifiable list of filter factories (empty if none are configured)
+   */
+  public List<Supplier<? extends HtmlFilter>> getHtmlFilters() {
+    return htmlFilters;
+  }
+
   /**
    * Returns a builder pre-populated with this configuration's values.
    *
@@ -184,6 +225,9 @@ public final class MjmlConfiguration {
     b.maxNestingDepth = this.maxNestingDepth;
     b.maxIncludeDepth = this.maxIncludeDepth;
     b.contentSanitizer = this.contentSanitizer;
+    b.compiledTemplateStore = this.compiledTemplateStore;
+    b.compiledTemplateVersion = this.compiledTemplateVersion;
+    b.htmlFilters.addAll(this.htmlFilters);
     return b;
   }
 
@@ -204,7 +248,10 @@ public final class MjmlConfiguration {
         && includeResolver == that.includeResolver
         && Objects.equals(customComponents, that.customComponents)
         && Objects.equals(customContainerComponents, that.customContainerComponents)
-        && contentSanitizer == that.contentSanitizer;
+        && contentSanitizer == that.contentSanitizer
+        && compiledTemplateStore == that.compiledTemplateStore
+        && compiledTemplateVersion.equals(that.compiledTemplateVersion)
+        && htmlFilters.equals(that.htmlFilters);
   }
 
   @Override
@@ -219,6 +266,9 @@ public final class MjmlConfiguration {
     result = 31 * result + maxNestingDepth;
     result = 31 * result + maxIncludeDepth;
     result = 31 * result + System.identityHashCode(contentSanitizer);
+    result = 31 * result + System.identityHashCode(compiledTemplateStore);
+    result = 31 * result + compiledTemplateVersion.hashCode();
+    result = 31 * result + htmlFilters.hashCode();
     return result;
   }
 
@@ -247,6 +297,15 @@ public final class MjmlConfiguration {
         + (includeResolver != null ? includeResolver.getClass().getSimpleName() : "null")
         + ", contentSanitizer="
         + (contentSanitizer != null ? "configured" : "null")
+        + ", compiledTemplateStore="
+        + (compiledTemplateStore != null
+            ? compiledTemplateStore.getClass().getSimpleName()
+            : "null")
+        + ", compiledTemplateVersion='"
+        + compiledTemplateVersion
+        + '\''
+        + ", htmlFilters="
+        + htmlFilters.size()
         + '}';
   }
 
@@ -259,6 +318,7 @@ public final class MjmlConfiguration {
     private final Map<String, ComponentFactory> customComponents = new LinkedHashMap<>();
     private final Map<String, ContainerComponentFactory> customContainerComponents =
         new LinkedHashMap<>();
+    private final List<Supplier<? extends HtmlFilter>> htmlFilters = new ArrayList<>();
     private String language = "und";
     private Direction direction = Direction.AUTO;
     private IncludeResolver includeResolver;
@@ -267,6 +327,8 @@ public final class MjmlConfiguration {
     private int maxNestingDepth = DEFAULT_MAX_NESTING_DEPTH;
     private int maxIncludeDepth = DEFAULT_MAX_INCLUDE_DEPTH;
     private ContentSanitizer contentSanitizer;
+    private CompiledTemplateStore compiledTemplateStore;
+    private String compiledTemplateVersion = "";
 
     /** Creates a new builder with default configuration values. */
     Builder() {}
@@ -422,6 +484,50 @@ public final class MjmlConfiguration {
       return this;
     }
 
+    /**
+     * Sets an optional store for compiled templates. When set, the renderer loads include-expanded
+     * templates from the store by content hash instead of parsing them, and saves templates it had
+     * to parse. Pass {@code null} to disable (the default).
+     *
+     * @param compiledTemplateStore the compiled template store, or {@code null} to disable
+     * @return this builder
+     */
+    public Builder compiledTemplateStore(CompiledTemplateStore compiledTemplateStore) {
+      this.compiledTemplateStore = compiledTemplateStore;
+      return this;
+    }
+
+    /**
+     * Sets the version of the included content that compiled templates are keyed by. Stored
+     * templates have their includes already expanded, and the key covers only the top-level source,
+     * so change the version whenever the content the include resolver returns changes (for example,
+     * set it to the release of the deployed partials). Defaults to an empty string.
+     *
+     * @param compiledTemplateVersion the version of the included content
+     * @return this builder
+     */
+    public Builder compiledTemplateVersion(String compiledTemplateVersion) {
+      this.compiledTemplateVersion =
+          Objects.requireNonNull(
+              compiledTemplateVersion, "compiledTemplateVersion must not be null");
+      return this;
+    }
+
+    /**
+     * Adds a filter applied to every rendered document. Filters run after the built-in rewrites
+     * (MSO section merging, {@code mj-html-attributes}, and CSS inlining), within the same single
+     * pass over the document, in the order they were added. When CSS is inlined, tags are then
+     * serialized as the official toolchain writes them, which keeps changes filters made to their
+     * elements. Since filters may keep state between tokens, the factory is called once per render.
+     *
+     * @param filter the factory creating the filter for each render
+     * @return this builder
+     */
+    public Builder addHtmlFilter(Supplier<? extends HtmlFilter> filter) {
+      htmlFilters.add(Objects.requireNonNull(filter, "filter must not be null"));
+      return this;
+    }
+
     /**
      * Builds and returns a new {@link MjmlConfiguration} with the current builder settings.
      *
@@ -1,9 +1,12 @@
 package dev.jcputney.mjml;
 
+import dev.jcputney.mjml.parser.MjmlDocument;
 import dev.jcputney.mjml.render.RenderPipeline;
+import dev.jcputney.mjml.util.CacheRegistry;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 
 /**
  * Public API entry point for rendering MJML templates to HTML.
@@ -61,6 +64,18 @@ public final class MjmlRenderer {
     return create(MjmlConfiguration.defaults());
   }
 
+  /**
+   * Returns the hit and miss counts and sizes of the renderer's process-wide caches, by name:
+   * parsed CSS selectors and inline styles ({@code css.*}), processed heads and serialized document
+   * starts ({@code render.*}), and layout computations such as box models, column widths, and
+   * shorthand values ({@code layout.*}). Caches appear once the code that uses them has run.
+   *
+   * @return the statistics of each cache, sorted by name
+   */
+  public static Map<String, CacheStats> cacheStats() {
+    return CacheRegistry.stats();
+  }
+
   /**
    * Renders an MJML template to HTML using default configuration.
    *
@@ -148,6 +163,24 @@ public final class MjmlRenderer {
     return pipeline.render(mjml);
   }
 
+  /**
+   * Renders a parsed MJML document to HTML using this instance's configuration. The document is not
+   * changed, so a {@linkplain MjmlDocument#freeze() frozen} document can be parsed once, cached,
+   * and rendered from many threads without copying it.
+   *
+   * <pre>{@code
+   * MjmlDocument template = MjmlParser.parse(mjml).freeze();
+   * MjmlRenderResult result = renderer.renderTemplate(template);
+   * }</pre>
+   *
+   * @param document the parsed document
+   * @return the render result containing HTML and metadata
+   * @throws MjmlException if include expansion or rendering fails
+   */
+  public MjmlRenderResult renderTemplate(MjmlDocument document) {
+    return pipeline.render(document);
+  }
+
   /**
    * Renders an MJML file to HTML using this instance's configuration. If no include resolver is
    * configured, one is automatically created using the file's parent directory.
@@ -0,0 +1,515 @@
+package dev.jcputney.mjml.codegen;
+
+import dev.jcputney.mjml.MjmlConfiguration;
+import dev.jcputney.mjml.MjmlValidationException;
+import dev.jcputney.mjml.render.RenderPipeline;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generates Java source for a class that emits a template's final HTML without any MJML work at
+ * runtime.
+ *
+ * <p>The template is rendered once at generation time, so the attribute cascade, layout widths,
+ * media queries, CSS inlining and the skeleton are all resolved up front. Placeholders in the
+ * rendered HTML become the only data-dependent parts: each distinct placeholder name becomes a
+ * {@code String} parameter of the generated {@code render} methods, and everything between
+ * placeholders becomes string constants that are copied with bulk appends into a builder pre-sized
+ * from their known total length.
+ *
+ * <ul>
+ *   <li>{@code {{name}}} inserts the value HTML-escaped (safe in text and attribute values)
+ *   <li>{@code {{{name}}}} inserts the value as raw HTML
+ * </ul>
+ *
+ * <p>Placeholders are only supported where the renderer passes values through unchanged, such as
+ * text content and string attributes like {@code href}, {@code src} or {@code alt}. Attributes the
+ * renderer computes with (widths, paddings, colors used in VML) must be literal. Link targets are
+ * sanitized at generation time, so a placeholder in a URL attribute ({@code href}, {@code src},
+ * {@code action}, {@code background} and the like, in any letter case) must follow a literal prefix
+ * that fixes the URL scheme or path (for example {@code https://example.com/track/{{orderId}}} or
+ * {@code /orders/{{orderId}}}); values supplied at runtime are only escaped, never sanitized, so
+ * {@link #generate(String)} rejects a placeholder that could supply the scheme itself.
+ *
+ * <h2>Usage</h2>
+ *
+ * <pre>{@code
+ * String javaSource = TemplateClassGenerator.builder()
+ *     .packageName("com.example.mail")
+ *     .className("WelcomeEmail")
+ *     .build()
+ *     .generate(mjml);
+ * // ... later, using the generated class:
+ * String html = WelcomeEmail.render("Ada", "https://example.com/confirm");
+ * }</pre>
+ */
+public final class TemplateClassGenerator {
+
+  /** Matches {@code {{{raw}}}} (group 1) or {@code {{escaped}}} (group 2) placeholders. */
+  private static final Pattern PLACEHOLDER =
+      Pattern.compile(
+          "\\{\\{\\{\\s*([A-Za-z_][A-Za-z0-9_]*)\\s*}}}|\\{\\{\\s*([A-Za-z_][A-Za-z0-9_]*)\\s*}}");
+
+  /**
+   * Maximum characters per string constant. Keeps each literal well below the 65535-byte class file
+   * limit even when every character needs three bytes in modified UTF-8.
+   */
+  private static final int MAX_CONSTANT_CHARS = 16_000;
+
+  private static final Pattern GENERATED_CONSTANT = Pattern.compile("S\\d+_\\d+");
+
+  /**
+   * Matches the start of a URL attribute value up to the end of the region, capturing the value so
+   * far (group 1 double-quoted, group 2 single-quoted, group 3 unquoted). Attribute names are
+   * matched case-insensitively, as HTML does.
+   */
+  private static final Pattern URL_ATTRIBUTE_START =
+      Pattern.compile(
+          "(?i)[\\s\"'/](?:href|src|srcset|background|action|formaction|poster|cite|xlink:href"
+              + "|longdesc|usemap|data|codebase|classid|archive|manifest|profile|icon|lowsrc"
+              + "|dynsrc)\\s*=\\s*(?:\"([^\"]*)|'([^']*)|([^\\s\"'=<>`]*))$");
+
+  /** Matches a numeric or named character reference, with the semicolon optional. */
+  private static final Pattern CHARACTER_REFERENCE =
+      Pattern.compile("&(?:#[xX]([0-9a-fA-F]+)|#([0-9]+)|([A-Za-z][A-Za-z0-9]*));?");
+
+  /** Named character references that decode to characters which fix a URL's scheme or path. */
+  private static final Map<String, String> URL_DELIMITER_REFERENCES =
+      Map.of("colon", ":", "sol", "/", "quest", "?", "num", "#");
+
+  /** Local variable names of the generated methods that parameters must not shadow. */
+  private static final Set<String> RESERVED_LOCALS = Set.of("sb");
+
+  private static final Set<String> JAVA_KEYWORDS =
+      Set.of(
+          "abstract",
+          "assert",
+          "boolean",
+          "break",
+          "byte",
+          "case",
+          "catch",
+          "char",
+          "class",
+          "const",
+          "continue",
+          "default",
+          "do",
+          "double",
+          "else",
+          "enum",
+          "extends",
+          "false",
+          "final",
+          "finally",
+          "float",
+          "for",
+          "goto",
+          "if",
+          "implements",
+          "import",
+          "instanceof",
+          "int",
+          "interface",
+          "long",
+          "native",
+          "new",
+          "null",
+          "package",
+          "private",
+          "protected",
+          "public",
+          "return",
+          "short",
+          "static",
+          "strictfp",
+          "super",
+          "switch",
+          "synchronized",
+          "this",
+          "throw",
+          "throws",
+          "transient",
+          "true",
+          "try",
+          "void",
+          "volatile",
+          "while",
+          "_");
+
+  private final String packageName;
+  private final String className;
+  private final MjmlConfiguration configuration;
+
+  private TemplateClassGenerator(Builder builder) {
+    this.packageName = builder.packageName;
+    this.className = builder.className;
+    this.configuration = builder.configuration;
+  }
+
+  /**
+   * Creates a new {@link Builder}.
+   *
+   * @return a new builder instance
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Renders the template and generates the Java source of the emitter class.
+   *
+   * @param mjmlSource the MJML template, optionally containing placeholders
+   * @return the Java source code of the generated class
+   * @throws dev.jcputney.mjml.MjmlException if the template cannot be rendered
+   * @throws MjmlValidationException if a placeholder could supply the scheme of a URL attribute
+   */
+  public String generate(String mjmlSource) {
+    // Check the source as well, since the renderer may replace an unsafe-looking link with "#"
+    Matcher source = PLACEHOLDER.matcher(mjmlSource);
+    while (source.find()) {
+      checkNotUrlScheme(
+          mjmlSource, source.start(), source.group(1) != null ? source.group(1) : source.group(2));
+    }
+    String html = new RenderPipeline(configuration).render(mjmlSource).html();
+
+    // Split the rendered HTML into constant segments and placeholder slots
+    List<String> segments = new ArrayList<>();
+    List<Slot> slots = new ArrayList<>();
+    Map<String, String> parameters = new LinkedHashMap<>();
+    Matcher m = PLACEHOLDER.matcher(html);
+    int last = 0;
+    while (m.find()) {
+      boolean raw = m.group(1) != null;
+      String name = raw ? m.group(1) : m.group(2);
+      checkNotUrlScheme(html, m.start(), name);
+      String parameter = parameters.get(name);
+      if (parameter == null) {
+        parameter = toIdentifier(name);
+        while (parameters.containsValue(parameter)) {
+          parameter += "_";
+        }
+        parameters.put(name, parameter);
+      }
+      segments.add(html.substring(last, m.start()));
+      slots.add(new Slot(parameter, raw));
+      last = m.end();
+    }
+    segments.add(html.substring(last));
+
+    return emit(segments, slots, List.copyOf(parameters.values()));
+  }
+
+  /**
+   * Rejects a placeholder in a URL attribute when the literal text before it does not yet fix the
+   * URL's scheme, so a runtime value such as {@code javascript:alert(1)} cannot become a live link.
+   * The literal prefix is decoded first, so whitespace or character references before the
+   * placeholder do not hide it.
+   */
+  private static void checkNotUrlScheme(String markup, int placeholderStart, String name) {
+    int tagStart = markup.lastIndexOf('<', placeholderStart);
+    if (tagStart < 0 || markup.lastIndexOf('>', placeholderStart) > tagStart) {
+      return;
+    }
+    Matcher url = URL_ATTRIBUTE_START.matcher(markup).region(tagStart, placeholderStart);
+    if (!url.find()) {
+      return;
+    }
+    String prefix =
+        url.group(1) != null ? url.group(1) : url.group(2) != null ? url.group(2) : url.group(3);
+    String decoded = decodeCharacterReferences(prefix);
+    for (int i = 0; i < decoded.length(); i++) {
+      char c = decoded.charAt(i);
+      if (c == ':' || c == '/' || c == '?' || c == '#') {
+        return;
+      }
+    }
+    throw new MjmlValidationException(
+        "Placeholder '"
+            + name
+            + "' starts a URL attribute; give it a literal prefix such as https://example.com/"
+            + " so its value cannot supply the URL scheme");
+  }
+
+  /**
+   * Decodes numeric character references and the named references of URL delimiters. Other named
+   * references are left as they are, which never makes a prefix look safer than it is.
+   */
+  private static String decodeCharacterReferences(String value) {
+    if (value.indexOf('&') < 0) {
+      return value;
+    }
+    Matcher m = CHARACTER_REFERENCE.matcher(value);
+    StringBuilder sb = new StringBuilder(value.length());
+    int last = 0;
+    while (m.find()) {
+      sb.append(value, last, m.start());
+      String replacement = m.group();
+      try {
+        if (m.group(1) != null) {
+          replacement = Character.toString(Integer.parseInt(m.group(1), 16));
+        } else if (m.group(2) != null) {
+          replacement = Character.toString(Integer.parseInt(m.group(2)));
+        } else {
+          replacement = URL_DELIMITER_REFERENCES.getOrDefault(m.group(3), replacement);
+        }
+      } catch (IllegalArgumentException e) {
+        // Out-of-range code points decode to U+FFFD, which fixes nothing
+        replacement = "\uFFFD";
+      }
+      sb.append(replacement);
+      last = m.end();
+    }
+    return sb.append(value, last, value.length()).toString();
+  }
+
+  private String emit(List<String> segments, List<Slot> slots, List<String> parameters) {
+    StringBuilder out = new StringBuilder(estimateSize(segments));
+    if (!packageName.isEmpty()) {
+      out.append("package ").append(packageName).append(";\n\n");
+    }
+    out.append("/**\n")
+        .append(
+            " * Emits the pre-rendered HTML of an MJML template. Generated by mjml-java; do not")
+        .append(" edit.\n")
+        .append(" */\n")
+        .append("public final class ")
+        .append(className)
+        .append(" {\n\n");
+
+    int constantLength = 0;
+    List<List<String>> constantNames = new ArrayList<>();
+    for (int i = 0; i < segments.size(); i++) {
+      String segment = segments.get(i);
+      constantLength += segment.length();
+      List<String> names = new ArrayList<>();
+      for (int start = 0, part = 0; start < segment.length(); start += MAX_CONSTANT_CHARS, part++) {
+        String name = "S" + i + "_" + part;
+        String chunk =
+            segment.substring(start, Math.min(segment.length(), start + MAX_CONSTANT_CHARS));
+        out.append("  private static final String ").append(name).append(" =\n      ");
+        appendLiteral(out, chunk);
+        out.append(";\n");
+        names.add(name);
+      }
+      constantNames.add(names);
+    }
+    out.append("\n  /** Total length of the constant parts of the output. */\n")
+        .append("  public static final int CONSTANT_LENGTH = ")
+        .append(constantLength)
+        .append(";\n\n");
+
+    out.append("  private ").append(className).append("() {}\n\n");
+
+    String params = parameterList(parameters);
+    String args = String.join(", ", parameters);
+
+    // render(...) -> String
+    out.append("  /**\n   * Renders the template.\n   *\n");
+    appendParamDocs(out, parameters);
+    out.append("   * @return the rendered HTML\n   */\n")
+        .append("  public static String render(")
+        .append(params)
+        .append(") {\n")
+        .append("    StringBuilder sb = new StringBuilder(CONSTANT_LENGTH + ")
+        .append(parameters.isEmpty() ? "0" : String.valueOf(slots.size() * 16))
+        .append(");\n")
+        .append("    renderTo(sb")
+        .append(parameters.isEmpty() ? "" : ", " + args)
+        .append(");\n")
+        .append("    return sb.toString();\n")
+        .append("  }\n\n");
+
+    // renderTo(StringBuilder, ...)
+    out.append("  /**\n   * Appends the rendered template to the given builder.\n   *\n")
+        .append("   * @param sb the builder to append to\n");
+    appendParamDocs(out, parameters);
+    out.append("   */\n")
+        .append("  public static void renderTo(StringBuilder sb")
+        .append(parameters.isEmpty() ? "" : ", " + params)
+        .append(") {\n");
+    for (int i = 0; i < segments.size(); i++) {
+      for (String name : constantNames.get(i)) {
+        out.append("    sb.append(").append(name).append(");\n");
+      }
+      if (i < slots.size()) {
+        Slot slot = slots.get(i);
+        if (slot.raw()) {
+          out.append("    sb.append(").append(slot.parameter()).append(");\n");
+        } else {
+          out.append("    appendEscaped(sb, ").append(slot.parameter()).append(");\n");
+        }
+      }
+    }
+    out.append("  }\n");
+
+    if (slots.stream().anyMatch(slot -> !slot.raw())) {
+      out.append(
+          """
+
+            private static void appendEscaped(StringBuilder sb, String value) {
+              if (value == null) {
+                return;
+              }
+              int start = 0;
+              for (int i = 0; i < value.length(); i++) {
+                String replacement;
+                switch (value.charAt(i)) {
+                  case '&' -> replacement = "&amp;";
+                  case '"' -> replacement = "&quot;";
+                  case '\\'' -> replacement = "&#39;";
+                  case '<' -> replacement = "&lt;";
+                  case '>' -> replacement = "&gt;";
+                  default -> {
+                    continue;
+                  }
+                }
+                sb.append(value, start, i).append(replacement);
+                start = i + 1;
+              }
+              sb.append(value, start, value.length());
+            }
+          """);
+    }
+    out.append("}\n");
+    return out.toString();
+  }
+
+  private static String parameterList(List<String> parameters) {
+    StringBuilder sb = new StringBuilder();
+    for (String parameter : parameters) {
+      if (!sb.isEmpty()) {
+        sb.append(", ");
+      }
+      sb.append("String ").append(parameter);
+    }
+    return sb.toString();
+  }
+
+  private static void appendParamDocs(StringBuilder out, List<String> parameters) {
+    for (String parameter : parameters) {
+      out.append("   * @param ").append(parameter).append(" value for the {@code ");
+      out.append(parameter).append("} placeholder\n");
+    }
+  }
+
+  private static int estimateSize(List<String> segments) {
+    int size = 4096;
+    for (String segment : segments) {
+      size += segment.length() + segment.length() / 8;
+    }
+    return size;
+  }
+
+  private static String toIdentifier(String name) {
+    // Avoid keywords and names that would shadow the generated constants
+    boolean reserved =
+        JAVA_KEYWORDS.contains(name)
+            || RESERVED_LOCALS.contains(name)
+            || "CONSTANT_LENGTH".equals(name)
+            || GENERATED_CONSTANT.matcher(name).matches();
+    return reserved ? name + "_" : name;
+  }
+
+  private static void appendLiteral(StringBuilder out, String value) {
+    out.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"' -> out.append("\\\"");
+        case '\\' -> out.append("\\\\");
+        case '\n' -> out.append("\\n");
+        case '\r' -> out.append("\\r");
+        case '\t' -> out.append("\\t");
+        default -> {
+          if (c < 0x20 || c > 0x7E) {
+            out.append(String.format("\\u%04x", (int) c));
+          } else {
+            out.append(c);
+          }
+        }
+      }
+    }
+    out.append('"');
+  }
+
+  private record Slot(String parameter, boolean raw) {}
+
+  /**
+   * Builder for {@link TemplateClassGenerator}. Use {@link TemplateClassGenerator#builder()} to
+   * obtain an instance.
+   */
+  public static final class Builder {
+
+    private static final Pattern JAVA_NAME = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+
+    private String packageName = "";
+    private String className;
+    private MjmlConfiguration configuration = MjmlConfiguration.defaults();
+
+    private Builder() {}
+
+    /**
+     * Sets the package of the generated class. Defaults to the unnamed package.
+     *
+     * @param packageName the package name (e.g. {@code "com.example.mail"})
+     * @return this builder
+     */
+    public Builder packageName(String packageName) {
+      this.packageName = packageName;
+      return this;
+    }
+
+    /**
+     * Sets the simple name of the generated class.
+     *
+     * @param className the class name (e.g. {@code "WelcomeEmail"})
+     * @return this builder
+     */
+    public Builder className(String className) {
+      this.className = className;
+      return this;
+    }
+
+    /**
+     * Sets the configuration used to render the template at generation time.
+     *
+     * @param configuration the rendering configuration
+     * @return this builder
+     */
+    public Builder configuration(MjmlConfiguration configuration) {
+      this.configuration = configuration;
+      return this;
+    }
+
+    /**
+     * Builds the generator.
+     *
+     * @return the configured generator
+     * @throws NullPointerException if the class name, package name or configuration is {@code null}
+     * @throws IllegalArgumentException if the class or package name is not a valid Java name
+     */
+    public TemplateClassGenerator build() {
+      Objects.requireNonNull(className, "className must not be null");
+      Objects.requireNonNull(packageName, "packageName must not be null");
+      Objects.requireNonNull(configuration, "configuration must not be null");
+      if (!JAVA_NAME.matcher(className).matches() || JAVA_KEYWORDS.contains(className)) {
+        throw new IllegalArgumentException("Invalid class name: " + className);
+      }
+      if (!packageName.isEmpty()) {
+        for (String part : packageName.split("\\.", -1)) {
+          if (!JAVA_NAME.matcher(part).matches() || JAVA_KEYWORDS.contains(part)) {
+            throw new IllegalArgumentException("Invalid package name: " + packageName);
+          }
+        }
+      }
+      return new TemplateClassGenerator(this);
+    }
+  }
+}
@@ -1,9 +1,13 @@
 package dev.jcputney.mjml.component;
 
 import dev.jcputney.mjml.ContentSanitizer;
+import dev.jcputney.mjml.context.AttributeResolver;
 import dev.jcputney.mjml.context.GlobalContext;
+import dev.jcputney.mjml.context.RenderArena;
 import dev.jcputney.mjml.context.RenderContext;
 import dev.jcputney.mjml.parser.MjmlNode;
+import dev.jcputney.mjml.render.DefaultFontRegistry;
+import dev.jcputney.mjml.util.CharScanner;
 import dev.jcputney.mjml.util.CssBoxModel;
 import dev.jcputney.mjml.util.CssUnitParser;
 import dev.jcputney.mjml.util.HtmlEscaper;
@@ -32,20 +36,34 @@ public abstract non-sealed class BodyComponent extends BaseComponent {
     super(node, globalContext, renderContext);
   }
 
+  /**
+   * Registers the default web fonts used by this component's resolved {@code font-family}, so the
+   * head can link them. Called for every body component as it is created during rendering, which
+   * makes font discovery a by-product of the render pass rather than a separate tree walk.
+   */
+  public final void registerUsedFonts() {
+    String fontFamily =
+        AttributeResolver.resolve(node, "font-family", globalContext, getDefaultAttributes());
+    if (fontFamily != null
+        && !fontFamily.isEmpty()
+        && globalContext.styles().markFontFamilyUsed(fontFamily)) {
+      DefaultFontRegistry.registerUsedFonts(fontFamily, globalContext);
+    }
+  }
+
   private static String stripControlChars(String value) {
-    StringBuilder sb = null;
-    for (int i = 0; i < value.length(); i++) {
-      char c = value.charAt(i);
-      if (c <= 0x1F || c == 0x7F) {
-        if (sb == null) {
-          sb = new StringBuilder(value.length());
-          sb.append(value, 0, i);
-        }
-      } else if (sb != null) {
-        sb.append(c);
-      }
+    int control = CharScanner.indexOfControl(value, 0);
+    if (control < 0) {
+      return value;
+    }
+    StringBuilder sb = new StringBuilder(value.length());
+    int copied = 0;
+    while (control >= 0) {
+      sb.append(value, copied, control);
+      copied = control + 1;
+      control = CharScanner.indexOfControl(value, copied);
     }
-    return sb != null ? sb.toString() : value;
+    return sb.append(value, copied, value.length()).toString();
   }
 
   /**
@@ -131,13 +149,14 @@ public abstract non-sealed class BodyComponent extends BaseComponent {
     if (styles == null || styles.isEmpty()) {
       return "";
     }
-    StringBuilder sb = new StringBuilder();
-    for (Map.Entry<String, String> entry : styles.entrySet()) {
-      if (entry.getValue() != null && !entry.getValue().isEmpty()) {
-        sb.append(entry.getKey()).append(':').append(entry.getValue()).append(';');
-      }
-    }
-    return sb.toString();
+    StringBuilder sb = acquireBuilder();
+    styles.forEach(
+        (name, value) -> {
+          if (value != null && !value.isEmpty()) {
+            sb.append(name).append(':').append(value).append(';');
+          }
+        });
+    return releaseBuilder(sb);
   }
 
   /**
@@ -149,7 +168,7 @@ public abstract non-sealed class BodyComponent extends BaseComponent {
    */
   protected String buildAttributes(Map<String, String> attrs) {
     boolean sanitize = globalContext.getConfiguration().isSanitizeOutput();
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
     for (Map.Entry<String, String> entry : attrs.entrySet()) {
       if (entry.getValue() != null) {
         String value =
@@ -157,7 +176,7 @@ public abstract non-sealed class BodyComponent extends BaseComponent {
         sb.append(' ').append(entry.getKey()).append("=\"").append(value).append('"');
       }
     }
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   /**
@@ -237,7 +256,7 @@ public abstract non-sealed class BodyComponent extends BaseComponent {
    * @return the concatenated HTML output of all child body components
    */
   protected String renderChildren(ComponentRegistry registry) {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
     var children = node.getChildren();
     for (int i = 0; i < children.size(); i++) {
       MjmlNode child = children.get(i);
@@ -250,7 +269,37 @@ public abstract non-sealed class BodyComponent extends BaseComponent {
         sb.append(bodyComponent.render());
       }
     }
-    return sb.toString();
+    return releaseBuilder(sb);
+  }
+
+  /**
+   * Borrows an empty builder from the render's {@link RenderArena}. Hand it back with {@link
+   * #releaseBuilder(StringBuilder)} once its content is complete.
+   *
+   * @return an empty builder
+   */
+  protected StringBuilder acquireBuilder() {
+    return renderContext.getArena().acquireBuilder();
+  }
+
+  /**
+   * Hands a builder from {@link #acquireBuilder()} back to the render's arena.
+   *
+   * @param sb the builder, which must not be used afterwards
+   * @return the content of the builder
+   */
+  protected String releaseBuilder(StringBuilder sb) {
+    return renderContext.getArena().releaseBuilder(sb);
+  }
+
+  /**
+   * Creates an empty insertion-ordered map for building a style. The map belongs to the caller and
+   * may be kept beyond the current render.
+   *
+   * @return a new, empty LinkedHashMap
+   */
+  protected Map<String, String> styleMap() {
+    return new LinkedHashMap<>();
   }
 
   /**
@@ -260,8 +309,33 @@ public abstract non-sealed class BodyComponent extends BaseComponent {
    * @return a LinkedHashMap containing the non-empty key/value pairs
    */
   protected Map<String, String> orderedMap(String... pairs) {
-    int capacity = (pairs.length / 2) + 1;
-    Map<String, String> map = new LinkedHashMap<>(capacity);
+    return putPairs(new LinkedHashMap<>((pairs.length / 2) + 1), pairs);
+  }
+
+  /**
+   * Borrows an empty insertion-ordered style map from the render's {@link RenderArena}, reused
+   * across renders instead of allocated. The arena reclaims and clears it when the render ends, so
+   * the map must not be kept, or referenced from anything kept, beyond the current render; use
+   * {@link #styleMap()} for a map that outlives it.
+   *
+   * @return an empty style map owned by the current render
+   */
+  protected Map<String, String> scratchStyleMap() {
+    return renderContext.getArena().styleMap();
+  }
+
+  /**
+   * Like {@link #orderedMap(String...)}, but the map is borrowed as by {@link #scratchStyleMap()}
+   * and is only valid until the current render ends.
+   *
+   * @param pairs alternating key/value pairs (e.g. "color", "red", "margin", "0")
+   * @return an insertion-ordered map containing the non-empty key/value pairs
+   */
+  protected Map<String, String> scratchOrderedMap(String... pairs) {
+    return putPairs(scratchStyleMap(), pairs);
+  }
+
+  private static Map<String, String> putPairs(Map<String, String> map, String... pairs) {
     for (int i = 0; i < pairs.length - 1; i += 2) {
       if (pairs[i + 1] != null && !pairs[i + 1].isEmpty()) {
         map.put(pairs[i], pairs[i + 1]);
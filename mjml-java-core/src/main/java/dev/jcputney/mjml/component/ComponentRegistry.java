@@ -43,7 +43,7 @@ public class ComponentRegistry {
 
   /**
    * Creates a component instance for the given node. Returns null if no factory is registered for
-   * the tag.
+   * the tag. Body components register the default fonts they use as they are created.
    *
    * @param node the parsed MJML node to create a component for
    * @param globalContext the document-wide context gathered during head processing
@@ -57,6 +57,10 @@ public class ComponentRegistry {
       LOG.warning(() -> "Unknown MJML tag: " + node.getTagName());
       return null;
     }
-    return factory.create(node, globalContext, renderContext);
+    BaseComponent component = factory.create(node, globalContext, renderContext);
+    if (component instanceof BodyComponent bodyComponent) {
+      bodyComponent.registerUsedFonts();
+    }
+    return component;
   }
 }
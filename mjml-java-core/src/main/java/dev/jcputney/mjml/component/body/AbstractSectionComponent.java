@@ -10,7 +10,6 @@ import dev.jcputney.mjml.util.BackgroundPositionHelper;
 import dev.jcputney.mjml.util.CssBoxModel;
 import dev.jcputney.mjml.util.CssUnitParser;
 import dev.jcputney.mjml.util.MsoHelper;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -142,7 +141,7 @@ public abstract class AbstractSectionComponent extends BodyComponent {
    * @return the inline CSS style string for the inner table
    */
   protected String buildInnerTableStyle() {
-    Map<String, String> styles = new LinkedHashMap<>();
+    Map<String, String> styles = scratchStyleMap();
     String bgColor = getAttribute("background-color");
     if (bgColor != null && !bgColor.isEmpty()) {
       styles.put("background", bgColor);
@@ -164,7 +163,7 @@ public abstract class AbstractSectionComponent extends BodyComponent {
    * @return the inline CSS style string for the inner td element
    */
   protected String buildInnerTdStyle() {
-    Map<String, String> styles = new LinkedHashMap<>();
+    Map<String, String> styles = scratchStyleMap();
     addInnerTdBorderStyles(styles);
     addIfPresent(styles, "border-radius");
     styles.put("direction", getAttribute("direction", "ltr"));
@@ -219,7 +218,7 @@ public abstract class AbstractSectionComponent extends BodyComponent {
    * @return the rendered HTML scaffold string
    */
   protected String renderNormalScaffold(String vmlRect, String innerContent, String outerDivClass) {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
     int containerWidth = globalContext.metadata().getContainerWidth();
     String bgColor = getAttribute("background-color");
     boolean hasBg = bgColor != null && !bgColor.isEmpty();
@@ -227,14 +226,13 @@ public abstract class AbstractSectionComponent extends BodyComponent {
     String bgUrl = getAttribute("background-url", "");
 
     // MSO wrapper table
-    sb.append("    ")
-        .append(MsoHelper.conditionalStart())
-        .append(
-            MsoHelper.msoTableOpening(
-                containerWidth,
-                escapeAttr(getCssClass()),
-                hasBg ? escapeAttr(bgColor) : null,
-                MsoHelper.MSO_TD_STYLE));
+    sb.append("    ").append(MsoHelper.conditionalStart());
+    MsoHelper.appendMsoTableOpening(
+        sb,
+        containerWidth,
+        escapeAttr(getCssClass()),
+        hasBg ? escapeAttr(bgColor) : null,
+        MsoHelper.MSO_TD_STYLE);
 
     if (hasBgUrl) {
       sb.append(vmlRect);
@@ -285,7 +283,7 @@ public abstract class AbstractSectionComponent extends BodyComponent {
       sb.append("    ").append(MsoHelper.msoConditionalTableClosing()).append("\n");
     }
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   /**
@@ -295,7 +293,7 @@ public abstract class AbstractSectionComponent extends BodyComponent {
    * @return the inline CSS style string for the outer div
    */
   protected String buildOuterDivStyle() {
-    Map<String, String> styles = new LinkedHashMap<>();
+    Map<String, String> styles = scratchStyleMap();
     String bgColor = getAttribute("background-color");
     if (bgColor != null && !bgColor.isEmpty()) {
       styles.put("background", bgColor);
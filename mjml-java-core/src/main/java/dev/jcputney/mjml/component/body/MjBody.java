@@ -59,7 +59,7 @@ public class MjBody extends BodyComponent {
       globalContext.metadata().setBodyBackgroundColor(bgColor);
     }
 
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
 
     // Wrapper div with ARIA attributes
     String lang = globalContext.getConfiguration().getLanguage();
@@ -96,7 +96,7 @@ public class MjBody extends BodyComponent {
     sb.append(">\n");
 
     // Render children with the body's container width
-    RenderContext bodyContext = new RenderContext(containerWidth);
+    RenderContext bodyContext = new RenderContext(containerWidth, renderContext.getArena());
     var children = node.getChildren();
     for (int i = 0; i < children.size(); i++) {
       MjmlNode child = children.get(i);
@@ -118,6 +118,6 @@ public class MjBody extends BodyComponent {
 
     sb.append("  </div>\n");
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 }
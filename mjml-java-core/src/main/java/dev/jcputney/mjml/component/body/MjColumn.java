@@ -7,7 +7,6 @@ import dev.jcputney.mjml.context.GlobalContext;
 import dev.jcputney.mjml.context.RenderContext;
 import dev.jcputney.mjml.parser.MjmlNode;
 import dev.jcputney.mjml.util.CssBoxModel;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -74,7 +73,7 @@ public class MjColumn extends BodyComponent {
 
   @Override
   public String render() {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
     double columnWidth = renderContext.getContainerWidth();
 
     // Get the column width specification from the parent section
@@ -142,7 +141,7 @@ public class MjColumn extends BodyComponent {
     // Add responsive media query for this column
     registerMediaQuery(responsiveClass, widthSpec);
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   /**
@@ -211,7 +210,7 @@ public class MjColumn extends BodyComponent {
   }
 
   private String buildOuterStyle() {
-    Map<String, String> styles = new LinkedHashMap<>();
+    Map<String, String> styles = scratchStyleMap();
     styles.put("font-size", "0px");
     styles.put("text-align", "left");
     styles.put("direction", getAttribute("direction", "ltr"));
@@ -236,7 +235,7 @@ public class MjColumn extends BodyComponent {
    * vertical-align.
    */
   private String buildGutterTdStyle() {
-    Map<String, String> styles = new LinkedHashMap<>();
+    Map<String, String> styles = scratchStyleMap();
     addIfPresent(styles, "background-color");
     // Border on gutter td
     addBorderStyles(styles, "border", "border-bottom", "border-left", "border-right", "border-top");
@@ -260,7 +259,7 @@ public class MjColumn extends BodyComponent {
    * inner-border-*, border-radius.
    */
   private String buildInnerTableStyle() {
-    Map<String, String> styles = new LinkedHashMap<>();
+    Map<String, String> styles = scratchStyleMap();
     addIfPresent(styles, "background-color", "inner-background-color");
     // Inner border properties
     addBorderStyles(
@@ -283,7 +282,7 @@ public class MjColumn extends BodyComponent {
    * border-radius, vertical-align.
    */
   private String buildNoGutterTableStyle() {
-    Map<String, String> styles = new LinkedHashMap<>();
+    Map<String, String> styles = scratchStyleMap();
     addIfPresent(styles, "background-color");
     addBorderStyles(styles, "border", "border-bottom", "border-left", "border-right", "border-top");
     addIfPresent(styles, "border-radius");
@@ -295,7 +294,7 @@ public class MjColumn extends BodyComponent {
   }
 
   private String buildTdStyle(BodyComponent childComponent) {
-    Map<String, String> styles = new LinkedHashMap<>();
+    Map<String, String> styles = scratchStyleMap();
 
     // container-background-color goes first (as "background")
     String containerBg = childComponent.getAttribute("container-background-color", "");
@@ -8,7 +8,6 @@ import dev.jcputney.mjml.context.RenderContext;
 import dev.jcputney.mjml.parser.MjmlNode;
 import dev.jcputney.mjml.util.ColumnWidthCalculator;
 import dev.jcputney.mjml.util.CssUnitParser;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -57,7 +56,7 @@ public class MjGroup extends BodyComponent {
 
   @Override
   public String render() {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
     double groupWidth = renderContext.getContainerWidth();
     String direction = getAttribute("direction", "ltr");
 
@@ -116,11 +115,11 @@ public class MjGroup extends BodyComponent {
 
     sb.append("              </div>\n");
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   private String buildOuterStyle(String direction) {
-    Map<String, String> styles = new LinkedHashMap<>();
+    Map<String, String> styles = scratchStyleMap();
     styles.put("font-size", "0");
     styles.put("line-height", "0");
     styles.put("text-align", "left");
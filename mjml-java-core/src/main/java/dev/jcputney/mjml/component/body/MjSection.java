@@ -98,7 +98,7 @@ public class MjSection extends AbstractSectionComponent {
    * -> columns.
    */
   private String renderInsideWrapper() {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
     int wrapperInnerWidth = (int) renderContext.getContainerWidth();
 
     // Simple div with max-width (no background — wrapper provides it)
@@ -124,7 +124,7 @@ public class MjSection extends AbstractSectionComponent {
     sb.append("                </table>\n");
     sb.append("              </div>\n");
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   /**
@@ -132,7 +132,7 @@ public class MjSection extends AbstractSectionComponent {
    * rect, line-height wrapper, and background CSS.
    */
   private String renderFullWidth() {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
     int containerWidth = globalContext.metadata().getContainerWidth();
     String bgColor = getAttribute("background-color");
     boolean hasBg = bgColor != null && !bgColor.isEmpty();
@@ -167,12 +167,12 @@ public class MjSection extends AbstractSectionComponent {
     if (hasBgUrl) {
       sb.append(buildVmlRect("mso-width-percent:1000;", bgUrl, bgColor));
     }
-    sb.append(
-            MsoHelper.msoTableOpening(
-                containerWidth,
-                escapeAttr(getCssClass()),
-                hasBg ? escapeAttr(bgColor) : null,
-                MsoHelper.MSO_TD_STYLE))
+    MsoHelper.appendMsoTableOpening(
+            sb,
+            containerWidth,
+            escapeAttr(getCssClass()),
+            hasBg ? escapeAttr(bgColor) : null,
+            MsoHelper.MSO_TD_STYLE)
         .append(MsoHelper.conditionalEnd())
         .append("\n");
 
@@ -223,7 +223,7 @@ public class MjSection extends AbstractSectionComponent {
     sb.append("      </tbody>\n");
     sb.append("    </table>\n");
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   private String buildVmlRect(String widthStyle, String bgUrl, String bgColor) {
@@ -237,14 +237,14 @@ public class MjSection extends AbstractSectionComponent {
   }
 
   private String renderColumnChildren() {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
     List<MjmlNode> columns = getColumnChildren();
 
     if (columns.isEmpty()) {
       // Even with no columns, MJML emits an empty MSO table
       sb.append(
           "              <!--[if mso | IE]><table role=\"presentation\" border=\"0\" cellpadding=\"0\" cellspacing=\"0\"><tr></tr></table><![endif]-->\n");
-      return sb.toString();
+      return releaseBuilder(sb);
     }
 
     // Calculate column widths (pixel and percentage)
@@ -290,7 +290,7 @@ public class MjSection extends AbstractSectionComponent {
       }
     }
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   private List<MjmlNode> getColumnChildren() {
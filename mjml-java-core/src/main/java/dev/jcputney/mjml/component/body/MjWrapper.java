@@ -83,13 +83,13 @@ public class MjWrapper extends AbstractSectionComponent {
         hasBackgroundUrl()
             ? buildVmlRect(globalContext.metadata().getContainerWidth() + "px", bgUrl, bgColor)
             : "";
-    StringBuilder innerContent = new StringBuilder();
+    StringBuilder innerContent = acquireBuilder();
     renderWrappedChildren(innerContent);
-    return renderNormalScaffold(vmlRect, innerContent.toString(), "");
+    return renderNormalScaffold(vmlRect, releaseBuilder(innerContent), "");
   }
 
   private String renderFullWidth() {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
     int containerWidth = globalContext.metadata().getContainerWidth();
     String bgColor = getAttribute("background-color");
     boolean hasBg = bgColor != null && !bgColor.isEmpty();
@@ -110,14 +110,13 @@ public class MjWrapper extends AbstractSectionComponent {
     sb.append("          <td>\n");
 
     // MSO inner table for width constraint
-    sb.append("            ")
-        .append(MsoHelper.conditionalStart())
-        .append(
-            MsoHelper.msoTableOpening(
-                containerWidth,
-                escapeAttr(getCssClass()),
-                hasBg ? escapeAttr(bgColor) : null,
-                MsoHelper.MSO_TD_STYLE))
+    sb.append("            ").append(MsoHelper.conditionalStart());
+    MsoHelper.appendMsoTableOpening(
+            sb,
+            containerWidth,
+            escapeAttr(getCssClass()),
+            hasBg ? escapeAttr(bgColor) : null,
+            MsoHelper.MSO_TD_STYLE)
         .append(MsoHelper.conditionalEnd())
         .append("\n");
 
@@ -151,7 +150,7 @@ public class MjWrapper extends AbstractSectionComponent {
     sb.append("      </tbody>\n");
     sb.append("    </table>\n");
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   /**
@@ -7,7 +7,6 @@ import dev.jcputney.mjml.context.GlobalContext;
 import dev.jcputney.mjml.context.RenderContext;
 import dev.jcputney.mjml.parser.MjmlNode;
 import dev.jcputney.mjml.util.CssUnitParser;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -81,7 +80,7 @@ public class MjButton extends BodyComponent {
     String verticalAlign = getAttribute("vertical-align", "middle");
     // Build TD style: border, border-radius, cursor:auto, font-style (if italic),
     // mso-padding-alt, background
-    Map<String, String> tdStyles = new LinkedHashMap<>();
+    Map<String, String> tdStyles = scratchStyleMap();
     tdStyles.put("border", getAttribute("border", "none"));
     addBorderStyles(tdStyles, "border-bottom", "border-left", "border-right", "border-top");
     tdStyles.put("border-radius", borderRadius);
@@ -93,7 +92,7 @@ public class MjButton extends BodyComponent {
     String innerTableStyle = buildStyle(tdStyles);
 
     // Build anchor style
-    Map<String, String> anchorStyles = new LinkedHashMap<>();
+    Map<String, String> anchorStyles = scratchStyleMap();
     anchorStyles.put("display", "inline-block");
 
     // If width is set as a pixel value, calculate inner width (width - horizontal inner-padding)
@@ -124,14 +123,14 @@ public class MjButton extends BodyComponent {
     String anchorStyle = buildStyle(anchorStyles);
 
     // Outer table style
-    Map<String, String> outerTableStyles = new LinkedHashMap<>();
+    Map<String, String> outerTableStyles = scratchStyleMap();
     outerTableStyles.put("border-collapse", "separate");
     if (!widthAttr.isEmpty()) {
       outerTableStyles.put("width", widthAttr);
     }
     outerTableStyles.put("line-height", "100%");
 
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
 
     sb.append(
         "                        <table border=\"0\" cellpadding=\"0\" cellspacing=\"0\" role=\"presentation\"");
@@ -166,7 +165,7 @@ public class MjButton extends BodyComponent {
     sb.append("                          </tbody>\n");
     sb.append("                        </table>");
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   private double calculateHorizontalPadding(String padding) {
@@ -79,14 +79,14 @@ public class MjDivider extends BodyComponent {
 
     String dividerStyle =
         buildStyle(
-            orderedMap(
+            scratchOrderedMap(
                 "border-top", borderTop,
                 "font-size", "1px",
                 "margin", margin,
                 "width", width));
 
     // Standard divider <p> FIRST
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
     sb.append("                        <p style=\"").append(dividerStyle).append("\">\n");
     sb.append("                        </p>\n");
 
@@ -97,7 +97,7 @@ public class MjDivider extends BodyComponent {
         .append(" style=\"")
         .append(
             buildStyle(
-                orderedMap(
+                scratchOrderedMap(
                     "border-top",
                     borderTop,
                     "font-size",
@@ -113,6 +113,6 @@ public class MjDivider extends BodyComponent {
         .append(" ><tr><td style=\"height:0;line-height:0;\"> &nbsp;\n")
         .append("</td></tr></table><![endif]-->");
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 }
@@ -4,7 +4,6 @@ import dev.jcputney.mjml.component.BodyComponent;
 import dev.jcputney.mjml.context.GlobalContext;
 import dev.jcputney.mjml.context.RenderContext;
 import dev.jcputney.mjml.parser.MjmlNode;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -71,7 +70,7 @@ public class MjImage extends BodyComponent {
 
     // Image style: border, border-radius (if set), display, outline, text-decoration,
     // height, width, font-size
-    Map<String, String> imgStyleMap = new LinkedHashMap<>();
+    Map<String, String> imgStyleMap = scratchStyleMap();
     imgStyleMap.put("border", getAttribute("border", "0"));
     addIfPresent(imgStyleMap, "border-radius");
     imgStyleMap.put("display", "block");
@@ -120,13 +119,13 @@ public class MjImage extends BodyComponent {
 
     boolean fluidOnMobile = "true".equals(getAttribute("fluid-on-mobile", ""));
 
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
     sb.append(
         "                        <table border=\"0\" cellpadding=\"0\" cellspacing=\"0\" role=\"presentation\"");
     sb.append(" style=\"")
         .append(
             buildStyle(
-                orderedMap(
+                scratchOrderedMap(
                     "border-collapse", "collapse",
                     "border-spacing", "0px")))
         .append("\"");
@@ -164,7 +163,7 @@ public class MjImage extends BodyComponent {
     sb.append("                          </tbody>\n");
     sb.append("                        </table>");
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   /**
@@ -45,7 +45,7 @@ public class MjSpacer extends BodyComponent {
 
     String style =
         buildStyle(
-            orderedMap(
+            scratchOrderedMap(
                 "height", height,
                 "line-height", height));
 
@@ -54,7 +54,7 @@ public class MjTable extends BodyComponent {
   public String render() {
     String tableStyle =
         buildStyle(
-            orderedMap(
+            scratchOrderedMap(
                 "color", getAttribute("color", "#000000"),
                 "font-family", getAttribute("font-family"),
                 "font-size", getAttribute("font-size", "13px"),
@@ -4,11 +4,7 @@ import dev.jcputney.mjml.component.BodyComponent;
 import dev.jcputney.mjml.context.GlobalContext;
 import dev.jcputney.mjml.context.RenderContext;
 import dev.jcputney.mjml.parser.MjmlNode;
-import dev.jcputney.mjml.util.CssUnitParser;
-import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Set;
-import java.util.regex.Pattern;
 
 /**
  * The text component (&lt;mj-text&gt;). Renders a div containing HTML text content with
@@ -36,16 +32,10 @@ public class MjText extends BodyComponent {
           Map.entry("text-decoration", ""),
           Map.entry("text-transform", ""));
 
-  private static final Set<String> BLOCK_ELEMENTS =
-      Set.of(
-          "ul", "ol", "p", "div", "h1", "h2", "h3", "h4", "h5", "h6", "blockquote", "table", "pre");
-
-  private static final Pattern BLOCK_ELEMENT_PATTERN =
-      Pattern.compile(
-          "<(" + String.join("|", BLOCK_ELEMENTS) + ")[\\s>/]", Pattern.CASE_INSENSITIVE);
-
-  /** Matches whitespace sequences containing at least one newline. */
-  private static final Pattern NEWLINE_WHITESPACE = Pattern.compile("\\s*\\n\\s*");
+  /** Block-level elements whose presence keeps newlines between them in the output. */
+  private static final String[] BLOCK_ELEMENTS = {
+    "ul", "ol", "p", "div", "h1", "h2", "h3", "h4", "h5", "h6", "blockquote", "table", "pre"
+  };
 
   /**
    * Creates a new MjText component.
@@ -60,94 +50,137 @@ public class MjText extends BodyComponent {
 
   /**
    * Collapses whitespace in text runs (outside of HTML tags) but preserves newlines between
-   * block-level element boundaries.
+   * block-level element boundaries. Tags are copied as they are, except that whitespace containing
+   * a newline inside a tag (attributes split across lines) becomes a single space, and a space left
+   * before the closing {@code >} of such a tag is removed.
    */
   private static String collapseInlineWhitespace(String html) {
-    StringBuilder sb = new StringBuilder();
+    int length = html.length();
+    StringBuilder sb = new StringBuilder(length);
     int i = 0;
-    boolean afterBlockBoundary = false;
-
-    while (i < html.length()) {
+    while (i < length) {
       if (html.charAt(i) == '<') {
-        // Inside a tag — copy verbatim until >
         int end = html.indexOf('>', i);
         if (end < 0) {
-          sb.append(html.substring(i));
+          sb.append(html, i, length);
           break;
         }
-        String tag = html.substring(i, end + 1);
-        // Normalize multi-line tag whitespace (e.g., attributes split across lines)
-        tag = normalizeTagWhitespace(tag);
-        String lower = tag.toLowerCase();
-        String tagName =
-            lower.startsWith("</")
-                ? extractTagName(lower.substring(2))
-                : extractTagName(lower.substring(1));
-        boolean isBlock = isBlockElement(tagName);
-
-        sb.append(tag);
-        afterBlockBoundary = isBlock;
+        appendTag(sb, html, i, end + 1);
         i = end + 1;
       } else {
-        // In a text run — find the next tag or end
         int next = html.indexOf('<', i);
         if (next < 0) {
-          next = html.length();
-        }
-        String textRun = html.substring(i, next);
-        String collapsed = CssUnitParser.WHITESPACE.matcher(textRun).replaceAll(" ");
-        if (collapsed.trim().isEmpty() && textRun.contains("\n")) {
-          // Whitespace-only text run containing newlines — preserve one newline
-          // (matches MJML/cheerio behavior of preserving original whitespace structure)
-          sb.append("\n");
-        } else {
-          sb.append(collapsed);
-        }
-        // Don't reset afterBlockBoundary for whitespace-only runs
-        if (!collapsed.trim().isEmpty()) {
-          afterBlockBoundary = false;
+          next = length;
         }
+        appendTextRun(sb, html, i, next);
         i = next;
       }
     }
     return sb.toString();
   }
 
-  /**
-   * Normalizes whitespace inside an HTML tag that spans multiple lines. Collapses
-   * newline-containing whitespace to a single space and removes trailing space before {@code >}.
-   */
-  private static String normalizeTagWhitespace(String tag) {
-    if (!tag.contains("\n")) {
-      return tag;
+  /** Appends the tag {@code html[start, end)}, joining lines of a tag split across lines. */
+  private static void appendTag(StringBuilder sb, String html, int start, int end) {
+    int newline = html.indexOf('\n', start);
+    if (newline < 0 || newline >= end) {
+      sb.append(html, start, end);
+      return;
+    }
+    int tagStart = sb.length();
+    int i = start;
+    while (i < end) {
+      char c = html.charAt(i);
+      if (!isWhitespace(c)) {
+        sb.append(c);
+        i++;
+        continue;
+      }
+      int runStart = i;
+      boolean hasNewline = false;
+      while (i < end && isWhitespace(html.charAt(i))) {
+        hasNewline |= html.charAt(i) == '\n';
+        i++;
+      }
+      if (hasNewline) {
+        sb.append(' ');
+      } else {
+        sb.append(html, runStart, i);
+      }
     }
-    String normalized = NEWLINE_WHITESPACE.matcher(tag).replaceAll(" ");
     // Remove space before closing > at end of tag (but not before />)
-    if (normalized.endsWith(" >")) {
-      normalized = normalized.substring(0, normalized.length() - 2) + ">";
+    int last = sb.length() - 1;
+    if (last - 1 >= tagStart && sb.charAt(last - 1) == ' ' && sb.charAt(last) == '>') {
+      sb.deleteCharAt(last - 1);
     }
-    return normalized;
   }
 
-  private static String extractTagName(String s) {
-    // Extract tag name from after < or </
-    StringBuilder name = new StringBuilder();
-    for (int i = 0; i < s.length(); i++) {
-      char c = s.charAt(i);
-      if (c == ' ' || c == '>' || c == '/' || c == '\t' || c == '\n') {
-        break;
+  /**
+   * Appends the text run {@code html[start, end)} with each whitespace sequence collapsed to one
+   * space. A run of nothing but whitespace that spans lines becomes a single newline instead,
+   * matching MJML/cheerio, which preserves the original whitespace structure.
+   */
+  private static void appendTextRun(StringBuilder sb, String html, int start, int end) {
+    int runStart = sb.length();
+    boolean blank = true;
+    boolean hasNewline = false;
+    boolean inWhitespace = false;
+    for (int i = start; i < end; i++) {
+      char c = html.charAt(i);
+      if (isWhitespace(c)) {
+        hasNewline |= c == '\n';
+        if (!inWhitespace) {
+          sb.append(' ');
+          inWhitespace = true;
+        }
+      } else {
+        blank &= c <= ' ';
+        sb.append(c);
+        inWhitespace = false;
       }
-      name.append(c);
     }
-    return name.toString();
+    if (blank && hasNewline) {
+      sb.setLength(runStart);
+      sb.append('\n');
+    }
   }
 
+  /** Whether {@code html} has an opening or closing tag of a block-level element. */
   private static boolean containsBlockElements(String html) {
-    return BLOCK_ELEMENT_PATTERN.matcher(html).find();
+    for (int i = html.indexOf('<'); i >= 0; i = html.indexOf('<', i + 1)) {
+      for (String name : BLOCK_ELEMENTS) {
+        int nameEnd = i + 1 + name.length();
+        if (nameEnd < html.length()
+            && regionEqualsIgnoreCase(html, i + 1, name)
+            && (isWhitespace(html.charAt(nameEnd))
+                || html.charAt(nameEnd) == '>'
+                || html.charAt(nameEnd) == '/')) {
+          return true;
+        }
+      }
+    }
+    return false;
   }
 
-  private static boolean isBlockElement(String tag) {
-    return BLOCK_ELEMENTS.contains(tag) || "li".equals(tag) || "br".equals(tag);
+  /** Compares {@code html} at {@code start} with a lowercase ASCII name, ignoring ASCII case. */
+  private static boolean regionEqualsIgnoreCase(String html, int start, String name) {
+    if (start + name.length() > html.length()) {
+      return false;
+    }
+    for (int i = 0; i < name.length(); i++) {
+      char c = html.charAt(start + i);
+      if (c >= 'A' && c <= 'Z') {
+        c = (char) (c + ('a' - 'A'));
+      }
+      if (c != name.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Whether {@code c} is whitespace as matched by {@code \\s}. */
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
   }
 
   @Override
@@ -162,7 +195,7 @@ public class MjText extends BodyComponent {
 
   @Override
   public String render() {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
 
     sb.append("                        <div style=\"").append(buildTextStyle()).append("\">");
     String content = sanitizeContent(getContent());
@@ -174,11 +207,11 @@ public class MjText extends BodyComponent {
       sb.append("</div>");
     }
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   private String buildTextStyle() {
-    Map<String, String> styles = new LinkedHashMap<>();
+    Map<String, String> styles = scratchStyleMap();
     styles.put("font-family", getAttribute("font-family"));
     styles.put("font-size", getAttribute("font-size"));
     styles.put("font-style", getAttribute("font-style", ""));
@@ -210,7 +243,9 @@ public class MjText extends BodyComponent {
 
     // If content contains no HTML tags at all, collapse all whitespace
     if (!trimmed.contains("<")) {
-      return CssUnitParser.WHITESPACE.matcher(content).replaceAll(" ").trim();
+      StringBuilder sb = new StringBuilder(trimmed.length());
+      appendTextRun(sb, trimmed, 0, trimmed.length());
+      return sb.toString();
     }
 
     // Has block elements: collapse whitespace within text runs but preserve
@@ -133,7 +133,7 @@ public class MjAccordion extends BodyComponent {
     // Inject accordion CSS into global styles (only once, even with multiple accordions)
     globalContext.styles().addStyleOnce("mj-accordion", ACCORDION_CSS);
 
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
 
     String border = getAttribute("border", "2px solid black");
     String fontFamily = getAttribute("font-family", "Ubuntu, Helvetica, Arial, sans-serif");
@@ -142,7 +142,7 @@ public class MjAccordion extends BodyComponent {
     sb.append(" style=\"");
     sb.append(
         buildStyle(
-            orderedMap(
+            scratchOrderedMap(
                 "width", "100%",
                 "border-collapse", "collapse",
                 "border", border,
@@ -157,6 +157,6 @@ public class MjAccordion extends BodyComponent {
     sb.append("</tbody>\n");
     sb.append("</table>\n");
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 }
@@ -63,7 +63,7 @@ public class MjAccordionElement extends BodyComponent {
 
   @Override
   public String render() {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
 
     String fontFamily = resolveAttr("font-family", "Ubuntu, Helvetica, Arial, sans-serif");
 
@@ -74,7 +74,7 @@ public class MjAccordionElement extends BodyComponent {
     // Label with class
     sb.append("<label class=\"mj-accordion-element\"");
     sb.append(" style=\"");
-    sb.append(buildStyle(orderedMap("font-size", "13px", "font-family", fontFamily)));
+    sb.append(buildStyle(scratchOrderedMap("font-size", "13px", "font-family", fontFamily)));
     sb.append("\">\n");
 
     // Hidden checkbox wrapped in MSO conditional
@@ -102,7 +102,7 @@ public class MjAccordionElement extends BodyComponent {
     sb.append("</td>\n");
     sb.append("</tr>\n");
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   /**
@@ -51,7 +51,7 @@ public class MjAccordionText extends BodyComponent {
 
   @Override
   public String render() {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
 
     String backgroundColor = getAttribute("background-color", "");
     String color = getAttribute("color", "#000000");
@@ -69,7 +69,7 @@ public class MjAccordionText extends BodyComponent {
             CssUnitParser.WHITESPACE.matcher(node.getInnerHtml().trim()).replaceAll(" "));
 
     sb.append("<table cellspacing=\"0\" cellpadding=\"0\" style=\"");
-    sb.append(buildStyle(orderedMap("width", "100%", "border-bottom", border)));
+    sb.append(buildStyle(scratchOrderedMap("width", "100%", "border-bottom", border)));
     sb.append("\">\n");
     sb.append("<tbody>\n");
     sb.append("<tr>\n");
@@ -78,7 +78,7 @@ public class MjAccordionText extends BodyComponent {
     sb.append("<td style=\"");
     sb.append(
         buildStyle(
-            orderedMap(
+            scratchOrderedMap(
                 "background", backgroundColor,
                 "font-size", fontSize,
                 "font-family", fontFamily,
@@ -93,7 +93,7 @@ public class MjAccordionText extends BodyComponent {
     sb.append("</tbody>\n");
     sb.append("</table>\n");
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   private String resolveAncestorAttr(String name, String fallback) {
@@ -45,7 +45,7 @@ public class MjAccordionTitle extends BodyComponent {
 
   @Override
   public String render() {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
 
     String backgroundColor = getAttribute("background-color", "");
     String color = getAttribute("color", "");
@@ -74,7 +74,7 @@ public class MjAccordionTitle extends BodyComponent {
             CssUnitParser.WHITESPACE.matcher(node.getInnerHtml().trim()).replaceAll(" "));
 
     sb.append("<table cellspacing=\"0\" cellpadding=\"0\" style=\"");
-    sb.append(buildStyle(orderedMap("width", "100%", "border-bottom", border)));
+    sb.append(buildStyle(scratchOrderedMap("width", "100%", "border-bottom", border)));
     sb.append("\">\n");
     sb.append("<tbody>\n");
     sb.append("<tr>\n");
@@ -97,7 +97,7 @@ public class MjAccordionTitle extends BodyComponent {
     sb.append("<td style=\"");
     sb.append(
         buildStyle(
-            orderedMap(
+            scratchOrderedMap(
                 "width", "100%",
                 "background-color", backgroundColor,
                 "color", color,
@@ -126,7 +126,7 @@ public class MjAccordionTitle extends BodyComponent {
     sb.append("</tbody>\n");
     sb.append("</table>\n");
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   private void renderIcon(
@@ -145,7 +145,7 @@ public class MjAccordionTitle extends BodyComponent {
     sb.append("<td class=\"mj-accordion-ico\" style=\"");
     sb.append(
         buildStyle(
-            orderedMap(
+            scratchOrderedMap(
                 "padding", "16px",
                 "background", backgroundColor,
                 "vertical-align", align)));
@@ -158,7 +158,7 @@ public class MjAccordionTitle extends BodyComponent {
     sb.append(" style=\"");
     sb.append(
         buildStyle(
-            orderedMap(
+            scratchOrderedMap(
                 "display", "none",
                 "width", width,
                 "height", height)));
@@ -171,7 +171,7 @@ public class MjAccordionTitle extends BodyComponent {
     sb.append(" style=\"");
     sb.append(
         buildStyle(
-            orderedMap(
+            scratchOrderedMap(
                 "display", "none",
                 "width", width,
                 "height", height)));
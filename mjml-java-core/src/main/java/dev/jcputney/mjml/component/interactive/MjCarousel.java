@@ -102,7 +102,7 @@ public class MjCarousel extends BodyComponent {
             buildCarouselCss(
                 carouselId, count, iconWidthNum, tbHoverBorderColor, tbSelectedBorderColor));
 
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
 
     // --- Start non-MSO conditional ---
     sb.append("<!--[if !mso]><!-->\n");
@@ -139,7 +139,7 @@ public class MjCarousel extends BodyComponent {
 
     renderMsoFallback(sb, images, borderRadius, containerWidth);
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   /** Renders the hidden radio inputs that track carousel state. */
@@ -336,7 +336,7 @@ public class MjCarousel extends BodyComponent {
       String iconWidthNum,
       String tbHoverBorderColor,
       String tbSelectedBorderColor) {
-    StringBuilder css = new StringBuilder();
+    StringBuilder css = acquireBuilder();
 
     appendBaseCss(css, carouselId, iconWidthNum);
     appendRadioVisibilityCss(css, carouselId, count);
@@ -344,7 +344,7 @@ public class MjCarousel extends BodyComponent {
     appendThumbnailCss(css, carouselId, count, tbHoverBorderColor, tbSelectedBorderColor);
     appendFallbackCss(css, carouselId, count);
 
-    return css.toString();
+    return releaseBuilder(css);
   }
 
   /** Appends base carousel styles: user-select, icon cell width, radio/nav defaults. */
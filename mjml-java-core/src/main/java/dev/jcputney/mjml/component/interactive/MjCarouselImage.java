@@ -74,7 +74,7 @@ public class MjCarouselImage extends BodyComponent {
     String href = sanitizeHref(getAttribute("href", ""));
     String target = getAttribute("target", "_blank");
 
-    StringBuilder img = new StringBuilder();
+    StringBuilder img = acquireBuilder();
     img.append("<img");
     if (!title.isEmpty()) {
       img.append(" title=\"").append(escapeAttr(title)).append("\"");
@@ -104,7 +104,7 @@ public class MjCarouselImage extends BodyComponent {
       return sb;
     }
 
-    return img.toString();
+    return releaseBuilder(img);
   }
 
   @Override
@@ -8,7 +8,6 @@ import dev.jcputney.mjml.parser.MjmlNode;
 import dev.jcputney.mjml.util.CssEscaper;
 import dev.jcputney.mjml.util.CssUnitParser;
 import dev.jcputney.mjml.util.MsoHelper;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -149,7 +148,7 @@ public class MjHero extends BodyComponent {
    * @param spacerPaddingPct if non-null, adds spacer tds with this padding-bottom %
    */
   private String renderHero(String vImageHeight, int innerHeight, String spacerPaddingPct) {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
 
     String backgroundColor = getAttribute("background-color", "#ffffff");
     String backgroundUrl = getAttribute("background-url", "");
@@ -223,7 +222,7 @@ public class MjHero extends BodyComponent {
     // Close MSO outer table
     sb.append("    ").append(MsoHelper.msoConditionalTableClosing()).append("\n");
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   /** Appends the VML v:image element for Outlook, if a background URL is set. */
@@ -263,7 +262,7 @@ public class MjHero extends BodyComponent {
       sb.append(" background=\"").append(escapeAttr(backgroundUrl)).append("\"");
     }
     sb.append(" style=\"");
-    Map<String, String> tdStyles = new LinkedHashMap<>();
+    Map<String, String> tdStyles = scratchStyleMap();
     tdStyles.put(
         "background", buildBackgroundValue(backgroundUrl, backgroundColor, backgroundPosition));
     if (!backgroundUrl.isEmpty()) {
@@ -305,7 +304,7 @@ public class MjHero extends BodyComponent {
 
   /** Renders each child component inside its own table row with padding. */
   private String renderChildrenAsRows() {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
 
     for (MjmlNode child : node.getChildren()) {
       if (child.getTagName().startsWith("#")) {
@@ -345,7 +344,7 @@ public class MjHero extends BodyComponent {
       sb.append("                          </tr>\n");
     }
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   private String buildBackgroundValue(String url, String color, String position) {
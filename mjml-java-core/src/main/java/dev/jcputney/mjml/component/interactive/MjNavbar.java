@@ -97,7 +97,7 @@ public class MjNavbar extends BodyComponent {
       }
     }
 
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
     String uniqueId = renderContext.nextUniqueId("navbar");
 
     if (hasHamburger) {
@@ -142,7 +142,7 @@ public class MjNavbar extends BodyComponent {
     sb.append("<!--[if mso | IE]></td></tr></table><![endif]-->\n");
     sb.append("</div>\n");
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   private void renderHamburgerTrigger(StringBuilder sb, String uniqueId) {
@@ -160,7 +160,7 @@ public class MjNavbar extends BodyComponent {
     sb.append("<div class=\"mj-menu-trigger\" style=\"");
     sb.append(
         buildStyle(
-            orderedMap(
+            scratchOrderedMap(
                 "display", "none",
                 "max-height", "0px",
                 "max-width", "0px",
@@ -172,7 +172,7 @@ public class MjNavbar extends BodyComponent {
     sb.append("<label for=\"").append(uniqueId).append("\" class=\"mj-menu-label\" style=\"");
     sb.append(
         buildStyle(
-            orderedMap(
+            scratchOrderedMap(
                 "display",
                 "block",
                 "cursor",
@@ -4,7 +4,6 @@ import dev.jcputney.mjml.component.BodyComponent;
 import dev.jcputney.mjml.context.GlobalContext;
 import dev.jcputney.mjml.context.RenderContext;
 import dev.jcputney.mjml.parser.MjmlNode;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -65,7 +64,7 @@ public class MjNavbarLink extends BodyComponent {
     String href = sanitizeHref(rawHref);
     String padding = getAttribute("padding", "15px 10px");
 
-    Map<String, String> anchorStyles = new LinkedHashMap<>();
+    Map<String, String> anchorStyles = scratchStyleMap();
     anchorStyles.put("display", "inline-block");
     anchorStyles.put("color", getAttribute("color", "#000000"));
     anchorStyles.put(
@@ -79,7 +78,7 @@ public class MjNavbarLink extends BodyComponent {
     anchorStyles.put("text-transform", getAttribute("text-transform", "uppercase"));
     anchorStyles.put("padding", padding);
 
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
     sb.append("<a class=\"mj-link\" href=\"").append(escapeHref(href)).append("\"");
     String rel = getAttribute("rel", "");
     if (!rel.isEmpty()) {
@@ -95,7 +94,7 @@ public class MjNavbarLink extends BodyComponent {
     sb.append(" ").append(sanitizeContent(node.getInnerHtml().trim())).append(" ");
     sb.append("</a>");
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   /**
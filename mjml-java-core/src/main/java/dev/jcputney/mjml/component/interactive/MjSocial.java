@@ -79,7 +79,7 @@ public class MjSocial extends BodyComponent {
       return "";
     }
 
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
 
     if ("horizontal".equals(mode)) {
       renderHorizontal(sb, elements, align);
@@ -87,7 +87,7 @@ public class MjSocial extends BodyComponent {
       renderVertical(sb, elements, align);
     }
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   private void renderHorizontal(StringBuilder sb, List<MjmlNode> elements, String align) {
@@ -7,7 +7,6 @@ import dev.jcputney.mjml.parser.MjmlNode;
 import dev.jcputney.mjml.util.CssUnitParser;
 import dev.jcputney.mjml.util.SocialNetworkRegistry;
 import dev.jcputney.mjml.util.SocialNetworkRegistry.NetworkInfo;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -103,7 +102,7 @@ public class MjSocialElement extends BodyComponent {
    * @return the rendered HTML string for this social element in horizontal layout
    */
   public String renderHorizontal(MjSocial parent) {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
     String align = getInheritedAttribute(parent, "align", "left");
 
     sb.append("<table align=\"")
@@ -119,7 +118,7 @@ public class MjSocialElement extends BodyComponent {
     sb.append("</tbody>\n");
     sb.append("</table>\n");
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   /**
@@ -129,13 +128,13 @@ public class MjSocialElement extends BodyComponent {
    * @return the rendered HTML string for this social element in vertical layout
    */
   public String renderVertical(MjSocial parent) {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = acquireBuilder();
 
     sb.append("<tr>\n");
     appendIconAndTextCells(sb, parent);
     sb.append("</tr>\n");
 
-    return sb.toString();
+    return releaseBuilder(sb);
   }
 
   private void appendIconAndTextCells(StringBuilder sb, MjSocial parent) {
@@ -189,7 +188,7 @@ public class MjSocialElement extends BodyComponent {
         }
       }
     }
-    Map<String, String> tdStyles = new LinkedHashMap<>();
+    Map<String, String> tdStyles = scratchStyleMap();
     tdStyles.put("padding", normalizePadding(outerPadding));
     addIfPresent(tdStyles, "padding-top");
     addIfPresent(tdStyles, "padding-right");
@@ -261,7 +260,7 @@ public class MjSocialElement extends BodyComponent {
           .append(textPadding)
           .append(";text-align:left;\">\n");
 
-      Map<String, String> textStyles = new LinkedHashMap<>();
+      Map<String, String> textStyles = scratchStyleMap();
       textStyles.put("color", color);
       textStyles.put("font-size", fontSize);
       textStyles.put("font-family", fontFamily);
@@ -94,4 +94,16 @@ public class AttributeContext {
   public Map<String, Map<String, String>> getHtmlAttributes() {
     return Collections.unmodifiableMap(htmlAttributes);
   }
+
+  /**
+   * Adds the default, class, and HTML attributes of another context to this one, merging them into
+   * any already set for the same tag, class, or selector.
+   *
+   * @param other the context to copy from, which is only read
+   */
+  public void copyFrom(AttributeContext other) {
+    other.defaultAttributes.forEach(this::setDefaultAttributes);
+    other.classAttributes.forEach(this::setClassAttributes);
+    other.htmlAttributes.forEach(this::setHtmlAttributes);
+  }
 }
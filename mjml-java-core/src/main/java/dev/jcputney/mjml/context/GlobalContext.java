@@ -79,4 +79,16 @@ public class GlobalContext {
   public MjmlConfiguration getConfiguration() {
     return configuration;
   }
+
+  /**
+   * Adds the state another context has gathered to this one, sub-context by sub-context. The
+   * renderer uses this to replay the result of processing a head it has seen before.
+   *
+   * @param other the context to copy from, which is only read
+   */
+  public void copyFrom(GlobalContext other) {
+    metadata.copyFrom(other.metadata);
+    styleContext.copyFrom(other.styleContext);
+    attributeContext.copyFrom(other.attributeContext);
+  }
 }
@@ -177,4 +177,20 @@ public class MetadataContext {
   public List<String> getFileStartContent() {
     return Collections.unmodifiableList(fileStartContent);
   }
+
+  /**
+   * Adds the head comments and file-start content of another context to this one and takes its
+   * title, preview text, breakpoint, container width, and body background color.
+   *
+   * @param other the context to copy from, which is only read
+   */
+  public void copyFrom(MetadataContext other) {
+    headComments.addAll(other.headComments);
+    fileStartContent.addAll(other.fileStartContent);
+    title = other.title;
+    previewText = other.previewText;
+    breakpoint = other.breakpoint;
+    containerWidth = other.containerWidth;
+    bodyBackgroundColor = other.bodyBackgroundColor;
+  }
 }
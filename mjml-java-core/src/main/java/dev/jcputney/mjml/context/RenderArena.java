@@ -0,0 +1,324 @@
+package dev.jcputney.mjml.context;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.BiConsumer;
+
+/**
+ * Scratch space for one body render: string builders and style maps that components borrow while
+ * they build their HTML and that are kept for the next render instead of being thrown away. Every
+ * {@link RenderContext} derived from the same root shares one arena; a render runs on one thread,
+ * so an arena is never used by two threads at once.
+ *
+ * <p>Builders are borrowed with {@link #acquireBuilder()} and handed back with {@link
+ * #releaseBuilder(StringBuilder)}, which also returns their content. They keep the capacity they
+ * grew to, so a builder that holds a whole section is not regrown from 16 characters on every
+ * render; builders that grew past {@value #MAX_RETAINED_CAPACITY} characters are dropped rather
+ * than retained, and an arena retains at most {@value #MAX_RETAINED_TOTAL_CAPACITY} characters of
+ * builder capacity in all. A builder that is never handed back, for example because rendering
+ * failed, is simply garbage collected.
+ *
+ * <p>Style maps from {@link #styleMap()} keep insertion order in flat arrays and are all reclaimed
+ * and cleared when the arena is {@linkplain #close() closed} at the end of the render, so they must
+ * not be kept beyond it.
+ *
+ * <p>Closed arenas go back to a small process-wide pool that {@link #acquire()} takes them from.
+ *
+ * <h2>Usage</h2>
+ *
+ * <pre>{@code
+ * try (RenderArena arena = RenderArena.acquire()) {
+ *   return new MjBody(body, globalContext, new RenderContext(width, arena), registry).render();
+ * }
+ * }</pre>
+ */
+public final class RenderArena implements AutoCloseable {
+
+  /** The largest builder capacity, in characters, kept for reuse. */
+  static final int MAX_RETAINED_CAPACITY = 1 << 20;
+
+  /** The largest total capacity, in characters, of the builders one arena keeps for reuse. */
+  static final int MAX_RETAINED_TOTAL_CAPACITY = 1 << 21;
+
+  private static final int INITIAL_CAPACITY = 256;
+  private static final int MAX_RETAINED_BUILDERS = 32;
+  private static final int MAX_RETAINED_MAPS = 512;
+  private static final ArrayBlockingQueue<RenderArena> POOL =
+      new ArrayBlockingQueue<>(Math.max(4, Runtime.getRuntime().availableProcessors()));
+
+  private final boolean pooled;
+  private final ArrayList<StringBuilder> builders = new ArrayList<>();
+  private final ArrayList<StyleMap> maps = new ArrayList<>();
+  private int retainedCapacity;
+  private int mapsInUse;
+  private boolean open;
+
+  private RenderArena(boolean pooled) {
+    this.pooled = pooled;
+  }
+
+  /**
+   * Takes an arena from the pool, or creates one if the pool is empty.
+   *
+   * @return an arena for one render, to be closed when the render ends
+   */
+  public static RenderArena acquire() {
+    RenderArena arena = POOL.poll();
+    if (arena == null) {
+      arena = new RenderArena(true);
+    }
+    arena.open = true;
+    return arena;
+  }
+
+  /**
+   * Creates an arena that is not pooled. It recycles builders like any other arena but hands out a
+   * new style map each time, since nothing closes it to reclaim them.
+   *
+   * @return a new arena
+   */
+  static RenderArena unpooled() {
+    return new RenderArena(false);
+  }
+
+  /** Creates an arena that reclaims style maps but is never returned to the pool, for tests. */
+  static RenderArena detached() {
+    return new RenderArena(true);
+  }
+
+  /**
+   * Borrows an empty builder.
+   *
+   * @return an empty builder, possibly with capacity left from an earlier use
+   */
+  public StringBuilder acquireBuilder() {
+    int last = builders.size() - 1;
+    if (last < 0) {
+      return new StringBuilder(INITIAL_CAPACITY);
+    }
+    StringBuilder sb = builders.remove(last);
+    retainedCapacity -= sb.capacity();
+    return sb;
+  }
+
+  /**
+   * Hands back a builder borrowed from this arena and returns its content. The builder must not be
+   * used afterwards.
+   *
+   * @param sb the builder
+   * @return the content of the builder
+   */
+  public String releaseBuilder(StringBuilder sb) {
+    String content = sb.toString();
+    int capacity = sb.capacity();
+    if (capacity <= MAX_RETAINED_CAPACITY
+        && retainedCapacity + capacity <= MAX_RETAINED_TOTAL_CAPACITY
+        && builders.size() < MAX_RETAINED_BUILDERS) {
+      sb.setLength(0);
+      builders.add(sb);
+      retainedCapacity += capacity;
+    }
+    return content;
+  }
+
+  /**
+   * Returns an empty map that keeps insertion order, for building a style. The map is reclaimed and
+   * cleared when the arena is closed.
+   *
+   * @return an empty, mutable, insertion-ordered map that accepts null values
+   */
+  public Map<String, String> styleMap() {
+    if (!pooled) {
+      return new StyleMap();
+    }
+    if (mapsInUse < maps.size()) {
+      return maps.get(mapsInUse++);
+    }
+    StyleMap map = new StyleMap();
+    if (maps.size() < MAX_RETAINED_MAPS) {
+      maps.add(map);
+      mapsInUse++;
+    }
+    return map;
+  }
+
+  /**
+   * Reclaims every style map handed out and returns a pooled arena to the pool. Closing an arena
+   * again has no effect.
+   */
+  @Override
+  public void close() {
+    reset();
+    if (pooled && open) {
+      open = false;
+      POOL.offer(this);
+    }
+  }
+
+  /**
+   * Reclaims every style map handed out, without returning the arena to the pool. The maps are
+   * cleared, so a pooled arena does not keep the strings of the last render reachable.
+   */
+  void reset() {
+    for (int i = 0; i < mapsInUse; i++) {
+      maps.get(i).clear();
+    }
+    mapsInUse = 0;
+  }
+
+  /** Returns the number of builders waiting to be borrowed again. */
+  int retainedBuilders() {
+    return builders.size();
+  }
+
+  /** Returns the total capacity of the builders waiting to be borrowed again. */
+  int retainedCapacity() {
+    return retainedCapacity;
+  }
+
+  /**
+   * An insertion-ordered map over parallel key and value arrays. Replacing a value keeps the key's
+   * position, as in a {@link java.util.LinkedHashMap}; style maps hold a handful of properties, so
+   * a linear search beats hashing.
+   */
+  private static final class StyleMap extends AbstractMap<String, String> {
+
+    private static final String[] EMPTY = {};
+
+    private String[] keys = EMPTY;
+    private String[] values = EMPTY;
+    private int size;
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < size; i++) {
+        if (keys[i].equals(key)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+      int index = indexOf(key);
+      return index >= 0 ? values[index] : null;
+    }
+
+    @Override
+    public String put(String key, String value) {
+      int index = indexOf(key);
+      if (index >= 0) {
+        String previous = values[index];
+        values[index] = value;
+        return previous;
+      }
+      if (size == keys.length) {
+        int capacity = Math.max(8, size * 2);
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+      }
+      keys[size] = key;
+      values[size++] = value;
+      return null;
+    }
+
+    @Override
+    public String remove(Object key) {
+      int index = indexOf(key);
+      if (index < 0) {
+        return null;
+      }
+      String previous = values[index];
+      removeAt(index);
+      return previous;
+    }
+
+    private void removeAt(int index) {
+      int tail = size - index - 1;
+      System.arraycopy(keys, index + 1, keys, index, tail);
+      System.arraycopy(values, index + 1, values, index, tail);
+      size--;
+      keys[size] = null;
+      values[size] = null;
+    }
+
+    @Override
+    public void clear() {
+      Arrays.fill(keys, 0, size, null);
+      Arrays.fill(values, 0, size, null);
+      size = 0;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super String> action) {
+      for (int i = 0; i < size; i++) {
+        action.accept(keys[i], values[i]);
+      }
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public int size() {
+          return size;
+        }
+
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+          return new Iterator<>() {
+            private int next;
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+              return next < size;
+            }
+
+            @Override
+            public Entry<String, String> next() {
+              if (next >= size) {
+                throw new NoSuchElementException();
+              }
+              last = next++;
+              return new SimpleEntry<>(keys[last], values[last]) {
+                @Override
+                public String setValue(String value) {
+                  values[indexOf(getKey())] = value;
+                  return super.setValue(value);
+                }
+              };
+            }
+
+            @Override
+            public void remove() {
+              if (last < 0) {
+                throw new IllegalStateException();
+              }
+              removeAt(last);
+              next = last;
+              last = -1;
+            }
+          };
+        }
+      };
+    }
+  }
+}
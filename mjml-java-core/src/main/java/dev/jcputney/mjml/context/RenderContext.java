@@ -1,10 +1,14 @@
 package dev.jcputney.mjml.context;
 
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Per-component render context that carries the current container width as the rendering pipeline
  * descends the component tree. Width narrows: body(600) -> section -> column -> content component.
+ *
+ * <p>Contexts are immutable. The {@code with*} methods return this context when nothing changes,
+ * and every context derived from the same root shares its ID counter and {@link RenderArena}.
  */
 public class RenderContext {
 
@@ -16,6 +20,7 @@ public class RenderContext {
   private final boolean insideWrapper;
   private final boolean insideGroup;
   private final AtomicInteger idCounter;
+  private final RenderArena arena;
 
   /**
    * Creates a new root render context with the given container width. The context starts with
@@ -25,7 +30,18 @@ public class RenderContext {
    * @param containerWidth the initial container width in pixels (e.g. 600)
    */
   public RenderContext(double containerWidth) {
-    this(containerWidth, null, 0, true, true, false, false, new AtomicInteger(0));
+    this(containerWidth, RenderArena.unpooled());
+  }
+
+  /**
+   * Creates a new root render context with the given container width whose components borrow
+   * scratch builders and style maps from the given arena.
+   *
+   * @param containerWidth the initial container width in pixels (e.g. 600)
+   * @param arena the arena for this render
+   */
+  public RenderContext(double containerWidth, RenderArena arena) {
+    this(containerWidth, null, 0, true, true, false, false, new AtomicInteger(0), arena);
   }
 
   private RenderContext(
@@ -36,7 +52,8 @@ public class RenderContext {
       boolean last,
       boolean insideWrapper,
       boolean insideGroup,
-      AtomicInteger idCounter) {
+      AtomicInteger idCounter,
+      RenderArena arena) {
     this.containerWidth = containerWidth;
     this.columnWidthSpec = columnWidthSpec;
     this.index = index;
@@ -45,6 +62,7 @@ public class RenderContext {
     this.insideWrapper = insideWrapper;
     this.insideGroup = insideGroup;
     this.idCounter = idCounter;
+    this.arena = arena;
   }
 
   /**
@@ -112,6 +130,15 @@ public class RenderContext {
     return insideGroup;
   }
 
+  /**
+   * Returns the arena that components rendering under this context borrow scratch space from.
+   *
+   * @return the render arena
+   */
+  public RenderArena getArena() {
+    return arena;
+  }
+
   /**
    * Returns a deterministic unique ID with the given prefix. The counter is shared across all child
    * contexts derived from the same root.
@@ -127,11 +154,14 @@ public class RenderContext {
    * Creates a child context with a narrower container width.
    *
    * @param width the new container width in pixels
-   * @return a new render context with the updated width
+   * @return a render context with the updated width
    */
   public RenderContext withWidth(double width) {
+    if (width == containerWidth) {
+      return this;
+    }
     return new RenderContext(
-        width, columnWidthSpec, index, first, last, insideWrapper, insideGroup, idCounter);
+        width, columnWidthSpec, index, first, last, insideWrapper, insideGroup, idCounter, arena);
   }
 
   /**
@@ -139,11 +169,14 @@ public class RenderContext {
    *
    * @param width the new container width in pixels
    * @param columnWidthSpec the column width specification string (e.g. "33.33" or "150px")
-   * @return a new render context with the updated width and column width spec
+   * @return a render context with the updated width and column width spec
    */
   public RenderContext withColumnWidth(double width, String columnWidthSpec) {
+    if (width == containerWidth && Objects.equals(columnWidthSpec, this.columnWidthSpec)) {
+      return this;
+    }
     return new RenderContext(
-        width, columnWidthSpec, index, first, last, insideWrapper, insideGroup, idCounter);
+        width, columnWidthSpec, index, first, last, insideWrapper, insideGroup, idCounter, arena);
   }
 
   /**
@@ -152,32 +185,65 @@ public class RenderContext {
    * @param index the zero-based index of the column among its siblings
    * @param first whether this is the first sibling
    * @param last whether this is the last sibling
-   * @return a new render context with the updated position info
+   * @return a render context with the updated position info
    */
   public RenderContext withPosition(int index, boolean first, boolean last) {
+    if (index == this.index && first == this.first && last == this.last) {
+      return this;
+    }
     return new RenderContext(
-        containerWidth, columnWidthSpec, index, first, last, insideWrapper, insideGroup, idCounter);
+        containerWidth,
+        columnWidthSpec,
+        index,
+        first,
+        last,
+        insideWrapper,
+        insideGroup,
+        idCounter,
+        arena);
   }
 
   /**
    * Creates a child context indicating the component is inside a wrapper.
    *
    * @param insideWrapper whether the component is inside an {@code mj-wrapper}
-   * @return a new render context with the updated wrapper flag
+   * @return a render context with the updated wrapper flag
    */
   public RenderContext withInsideWrapper(boolean insideWrapper) {
+    if (insideWrapper == this.insideWrapper) {
+      return this;
+    }
     return new RenderContext(
-        containerWidth, columnWidthSpec, index, first, last, insideWrapper, insideGroup, idCounter);
+        containerWidth,
+        columnWidthSpec,
+        index,
+        first,
+        last,
+        insideWrapper,
+        insideGroup,
+        idCounter,
+        arena);
   }
 
   /**
    * Creates a child context indicating the component is inside a group.
    *
    * @param insideGroup whether the component is inside an {@code mj-group}
-   * @return a new render context with the updated group flag
+   * @return a render context with the updated group flag
    */
   public RenderContext withInsideGroup(boolean insideGroup) {
+    if (insideGroup == this.insideGroup) {
+      return this;
+    }
     return new RenderContext(
-        containerWidth, columnWidthSpec, index, first, last, insideWrapper, insideGroup, idCounter);
+        containerWidth,
+        columnWidthSpec,
+        index,
+        first,
+        last,
+        insideWrapper,
+        insideGroup,
+        idCounter,
+        arena);
   }
 }
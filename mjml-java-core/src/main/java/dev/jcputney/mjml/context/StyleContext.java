@@ -28,6 +28,7 @@ public class StyleContext {
   private final List<String> inlineStyles = new ArrayList<>();
   private final LinkedHashSet<MediaQuery> mediaQueries = new LinkedHashSet<>();
   private final Set<String> registeredStyleKeys = new HashSet<>();
+  private final Set<String> usedFontFamilies = new HashSet<>();
   private boolean fluidOnMobileUsed = false;
 
   // Cached unmodifiable views (lazily initialized, invalidated on mutation)
@@ -52,6 +53,17 @@ public class StyleContext {
     unmodifiableFonts = null;
   }
 
+  /**
+   * Records a resolved {@code font-family} value seen while rendering the body, so that each
+   * distinct value is checked against the known fonts only once per render.
+   *
+   * @param fontFamily the resolved CSS font-family value
+   * @return {@code true} if the value had not been recorded before
+   */
+  public boolean markFontFamilyUsed(String fontFamily) {
+    return usedFontFamilies.add(fontFamily);
+  }
+
   /**
    * Returns an unmodifiable set of all registered font definitions.
    *
@@ -227,6 +239,30 @@ public class StyleContext {
     this.fluidOnMobileUsed = fluidOnMobileUsed;
   }
 
+  /**
+   * Adds everything another style context has gathered to this one: its fonts, overrides, styles,
+   * media queries, and registered keys, after any already present here.
+   *
+   * @param other the context to copy from, which is only read
+   */
+  public void copyFrom(StyleContext other) {
+    fonts.addAll(other.fonts);
+    fontUrlOverrides.putAll(other.fontUrlOverrides);
+    styles.addAll(other.styles);
+    componentStyles.addAll(other.componentStyles);
+    inlineStyles.addAll(other.inlineStyles);
+    mediaQueries.addAll(other.mediaQueries);
+    registeredStyleKeys.addAll(other.registeredStyleKeys);
+    usedFontFamilies.addAll(other.usedFontFamilies);
+    fluidOnMobileUsed |= other.fluidOnMobileUsed;
+    unmodifiableFonts = null;
+    unmodifiableFontUrlOverrides = null;
+    unmodifiableStyles = null;
+    unmodifiableComponentStyles = null;
+    unmodifiableInlineStyles = null;
+    unmodifiableMediaQueries = null;
+  }
+
   /**
    * Font definition record.
    *
@@ -0,0 +1,657 @@
+package dev.jcputney.mjml.css;
+
+import dev.jcputney.mjml.css.CssSelector.AttributeSelector;
+import dev.jcputney.mjml.css.CssSelector.ClassSelector;
+import dev.jcputney.mjml.css.CssSelector.Combinator;
+import dev.jcputney.mjml.css.CssSelector.ComplexSelector;
+import dev.jcputney.mjml.css.CssSelector.CompoundSelector;
+import dev.jcputney.mjml.css.CssSelector.IdSelector;
+import dev.jcputney.mjml.css.CssSelector.SelectorList;
+import dev.jcputney.mjml.css.CssSelector.SimpleSelector;
+import dev.jcputney.mjml.css.CssSelector.TypeSelector;
+import dev.jcputney.mjml.css.CssSelector.UniversalSelector;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link CssSelector} compiled into a tree of specialized matchers, for selectors that are tested
+ * against many elements.
+ *
+ * <p>Compiling does all per-selector work once: tag names and attribute names are lowercased,
+ * attribute operators are resolved to a dedicated matcher each, compounds become flat arrays, and
+ * combinators become right-to-left chains that carry the precomputed Bloom filter keys used to
+ * reject descendant and sibling selectors without walking the tree. Matching then dispatches on a
+ * small, fixed set of final classes instead of re-inspecting the selector records. Results are the
+ * same as {@link CssSelectorMatcher#matches(CssSelector, HtmlElement)}; pseudo-classes and
+ * pseudo-elements never match. Instances are immutable and thread-safe.
+ *
+ * <h2>Usage</h2>
+ *
+ * <pre>{@code
+ * CompiledSelector selector = CompiledSelector.compile(CssSelectorParser.parse(".btn a"));
+ * for (HtmlElement element : root.allDescendants()) {
+ *   if (selector.matches(element)) {
+ *     // ...
+ *   }
+ * }
+ * }</pre>
+ */
+public final class CompiledSelector {
+
+  private static final int[] NO_KEYS = new int[0];
+
+  private final CssSelector selector;
+  private final Node root;
+  private final String indexKey;
+  private final boolean contextFree;
+
+  private CompiledSelector(CssSelector selector, Node root, String indexKey) {
+    this.selector = selector;
+    this.root = root;
+    this.indexKey = indexKey;
+    this.contextFree = isContextFree(selector);
+  }
+
+  /**
+   * Compiles a parsed selector.
+   *
+   * @param selector the selector to compile, may be {@code null}
+   * @return the compiled selector; a {@code null} selector compiles to one that never matches
+   */
+  public static CompiledSelector compile(CssSelector selector) {
+    if (selector == null) {
+      return new CompiledSelector(null, Never.INSTANCE, null);
+    }
+    return new CompiledSelector(selector, node(selector), indexKey(selector));
+  }
+
+  /**
+   * Returns the selector this was compiled from.
+   *
+   * @return the source selector, or {@code null}
+   */
+  public CssSelector selector() {
+    return selector;
+  }
+
+  /**
+   * Tests whether this selector has no combinators, so whether it matches an element depends only
+   * on the element's own tag name and attributes. Such a selector can be matched against a tag on
+   * its own, without parsing the document around it.
+   *
+   * @return {@code true} if matching needs no parents or siblings
+   */
+  public boolean isContextFree() {
+    return contextFree;
+  }
+
+  /**
+   * Tests whether this selector matches the given element.
+   *
+   * @param element the HTML element to test against
+   * @return {@code true} if the selector matches the element
+   */
+  public boolean matches(HtmlElement element) {
+    return element != null && root.matches(element, Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Tests whether this selector matches the given element as if the document consisted only of the
+   * elements whose opening tag starts within {@code [start, end)} of the parsed HTML. This matches
+   * against a fragment embedded in a larger parsed document: parents, ancestors, and siblings
+   * outside the range never take part in a match.
+   *
+   * @param element the HTML element to test against
+   * @param start the first offset of the fragment
+   * @param end the offset just past the fragment
+   * @return {@code true} if the element is within the range and the selector matches it there
+   */
+  public boolean matchesWithin(HtmlElement element, int start, int end) {
+    return element != null && inScope(element, start, end) && root.matches(element, start, end);
+  }
+
+  /**
+   * Returns the descendants of {@code root} within {@code [start, end)} that this selector matches,
+   * in document order, as {@link #matchesWithin} decides. Selectors whose key selector (the
+   * rightmost compound) names an id, class, or tag are only tested against the elements carrying
+   * it, found through an index that the tree builds on first use.
+   *
+   * @param root the root of a parsed tree
+   * @param start the first offset of the fragment
+   * @param end the offset just past the fragment
+   * @return the matching elements
+   */
+  public List<HtmlElement> selectWithin(HtmlElement root, int start, int end) {
+    List<HtmlElement> candidates =
+        indexKey != null ? root.descendantsWithKey(indexKey) : root.allDescendants();
+    List<HtmlElement> result = new ArrayList<>();
+    for (HtmlElement element : candidates) {
+      if (matchesWithin(element, start, end)) {
+        result.add(element);
+      }
+    }
+    return result;
+  }
+
+  // --- Compilation ---
+
+  /** Tests whether a parsed selector contains no combinators. */
+  static boolean isContextFree(CssSelector selector) {
+    if (selector instanceof SelectorList list) {
+      for (CssSelector alternative : list.selectors()) {
+        if (!isContextFree(alternative)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return !(selector instanceof ComplexSelector);
+  }
+
+  private static Node node(CssSelector selector) {
+    if (selector instanceof SelectorList list) {
+      Node[] alternatives = new Node[list.selectors().size()];
+      for (int i = 0; i < alternatives.length; i++) {
+        alternatives[i] = node(list.selectors().get(i));
+      }
+      return new AnyOf(alternatives);
+    } else if (selector instanceof ComplexSelector complex) {
+      Node left = node(complex.left());
+      Node right = node(complex.right());
+      return switch (complex.combinator()) {
+        case DESCENDANT -> new Descendant(left, right, ancestorKeys(complex.left()));
+        case CHILD -> new Child(left, right);
+        case ADJACENT_SIBLING -> new AdjacentSibling(left, right);
+        case GENERAL_SIBLING ->
+            new GeneralSibling(left, right, keysOf(rightmostCompound(complex.left())));
+      };
+    } else if (selector instanceof CompoundSelector compound) {
+      List<SimpleSelector> parts = compound.parts();
+      if (parts.size() == 1) {
+        return simple(parts.get(0));
+      }
+      Node[] nodes = new Node[parts.size()];
+      for (int i = 0; i < nodes.length; i++) {
+        nodes[i] = simple(parts.get(i));
+      }
+      return new AllOf(nodes);
+    } else if (selector instanceof SimpleSelector simple) {
+      return simple(simple);
+    }
+    return Never.INSTANCE;
+  }
+
+  private static Node simple(SimpleSelector selector) {
+    if (selector instanceof UniversalSelector) {
+      return Always.INSTANCE;
+    } else if (selector instanceof TypeSelector type) {
+      return new Tag(type.tagName().toLowerCase());
+    } else if (selector instanceof ClassSelector cls) {
+      return new ClassName(cls.className());
+    } else if (selector instanceof IdSelector id) {
+      return new Id(id.id());
+    } else if (selector instanceof AttributeSelector attr) {
+      return attribute(attr);
+    }
+    // Pseudo-classes and pseudo-elements can't be inlined
+    return Never.INSTANCE;
+  }
+
+  private static Node attribute(AttributeSelector attr) {
+    String name = attr.attribute().toLowerCase();
+    String op = attr.operator();
+    String expected = attr.value();
+    if (op == null) {
+      return new AttributeExists(name);
+    }
+    return switch (op) {
+      case "=" -> new AttributeEquals(name, expected);
+      case "~=" ->
+          expected.isEmpty() || hasWhitespace(expected)
+              ? Never.INSTANCE
+              : new AttributeWord(name, expected);
+      case "|=" -> new AttributeDashPrefix(name, expected);
+      case "^=" -> new AttributePrefix(name, expected);
+      case "$=" -> new AttributeSuffix(name, expected);
+      case "*=" -> new AttributeContains(name, expected);
+      default -> Never.INSTANCE;
+    };
+  }
+
+  /**
+   * Collects the Bloom filter keys that some ancestor chain must contain for {@code left} to match
+   * an ancestor. Besides the rightmost compound of {@code left}, every compound reached from it
+   * through descendant or child combinators must also be an ancestor, so their keys are included.
+   */
+  private static int[] ancestorKeys(CssSelector left) {
+    List<Integer> keys = new ArrayList<>();
+    CssSelector current = left;
+    while (current instanceof ComplexSelector complex) {
+      addKeys(complex.right(), keys);
+      if (complex.combinator() != Combinator.DESCENDANT
+          && complex.combinator() != Combinator.CHILD) {
+        return toArray(keys);
+      }
+      current = complex.left();
+    }
+    addKeys(current, keys);
+    return toArray(keys);
+  }
+
+  /**
+   * Returns the {@link HtmlElement#descendantsWithKey} key of the most selective id, class, or tag
+   * required by the rightmost compound, or {@code null} if there is none (or for selector lists).
+   */
+  private static String indexKey(CssSelector selector) {
+    CssSelector key = rightmostCompound(selector);
+    List<? extends CssSelector> parts =
+        key instanceof CompoundSelector compound ? compound.parts() : List.of(key);
+    String className = null;
+    String tagName = null;
+    for (CssSelector part : parts) {
+      if (part instanceof IdSelector id) {
+        return "#" + id.id();
+      } else if (part instanceof ClassSelector cls && className == null) {
+        className = "." + cls.className();
+      } else if (part instanceof TypeSelector type) {
+        tagName = type.tagName().toLowerCase();
+      }
+    }
+    return className != null ? className : tagName;
+  }
+
+  private static boolean inScope(HtmlElement element, int from, int to) {
+    return element.getTagStart() >= from && element.getTagStart() < to;
+  }
+
+  private static CssSelector rightmostCompound(CssSelector selector) {
+    while (selector instanceof ComplexSelector complex) {
+      selector = complex.right();
+    }
+    return selector;
+  }
+
+  private static int[] keysOf(CssSelector selector) {
+    List<Integer> keys = new ArrayList<>();
+    addKeys(selector, keys);
+    return toArray(keys);
+  }
+
+  /**
+   * Adds the key of every tag, class, and id required by a compound or simple selector. Selector
+   * lists and other selectors contribute nothing, which conservatively accepts them.
+   */
+  private static void addKeys(CssSelector selector, List<Integer> keys) {
+    if (selector instanceof CompoundSelector compound) {
+      for (SimpleSelector part : compound.parts()) {
+        addKeys(part, keys);
+      }
+    } else if (selector instanceof TypeSelector type) {
+      keys.add(ElementBloomFilter.tagKey(type.tagName().toLowerCase()));
+    } else if (selector instanceof ClassSelector cls) {
+      keys.add(ElementBloomFilter.classKey(cls.className()));
+    } else if (selector instanceof IdSelector id) {
+      keys.add(ElementBloomFilter.idKey(id.id()));
+    }
+  }
+
+  private static int[] toArray(List<Integer> keys) {
+    if (keys.isEmpty()) {
+      return NO_KEYS;
+    }
+    int[] result = new int[keys.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = keys.get(i);
+    }
+    return result;
+  }
+
+  private static boolean hasWhitespace(String s) {
+    for (int i = 0; i < s.length(); i++) {
+      if (isWhitespace(s.charAt(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Matches the characters of the regex {@code \s}, which separates attribute words. */
+  static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+  }
+
+  private static boolean mightContainAll(long[] filter, int[] keys) {
+    for (int key : keys) {
+      if (!ElementBloomFilter.mightContain(filter, key)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // --- Matchers ---
+
+  /**
+   * A matcher for one part of a selector. Elements whose opening tag does not start within {@code
+   * [from, to)} are treated as absent when walking to parents, ancestors, and siblings.
+   */
+  private abstract static class Node {
+    abstract boolean matches(HtmlElement element, int from, int to);
+  }
+
+  private static final class Always extends Node {
+    static final Always INSTANCE = new Always();
+
+    @Override
+    boolean matches(HtmlElement element, int from, int to) {
+      return true;
+    }
+  }
+
+  private static final class Never extends Node {
+    static final Never INSTANCE = new Never();
+
+    @Override
+    boolean matches(HtmlElement element, int from, int to) {
+      return false;
+    }
+  }
+
+  private static final class Tag extends Node {
+    private final String tagName;
+
+    Tag(String tagName) {
+      this.tagName = tagName;
+    }
+
+    @Override
+    boolean matches(HtmlElement element, int from, int to) {
+      // Element tag names are lowercased on construction
+      return tagName.equals(element.getTagName());
+    }
+  }
+
+  private static final class ClassName extends Node {
+    private final String className;
+
+    ClassName(String className) {
+      this.className = className;
+    }
+
+    @Override
+    boolean matches(HtmlElement element, int from, int to) {
+      return element.getClassNames().contains(className);
+    }
+  }
+
+  private static final class Id extends Node {
+    private final String id;
+
+    Id(String id) {
+      this.id = id;
+    }
+
+    @Override
+    boolean matches(HtmlElement element, int from, int to) {
+      return id.equals(element.getId());
+    }
+  }
+
+  private static final class AttributeExists extends Node {
+    private final String name;
+
+    AttributeExists(String name) {
+      this.name = name;
+    }
+
+    @Override
+    boolean matches(HtmlElement element, int from, int to) {
+      return element.attributeValue(name) != null;
+    }
+  }
+
+  private static final class AttributeEquals extends Node {
+    private final String name;
+    private final String expected;
+
+    AttributeEquals(String name, String expected) {
+      this.name = name;
+      this.expected = expected;
+    }
+
+    @Override
+    boolean matches(HtmlElement element, int from, int to) {
+      return expected.equals(element.attributeValue(name));
+    }
+  }
+
+  /** {@code [attr~=word]}: scans whitespace-separated words in place instead of splitting. */
+  private static final class AttributeWord extends Node {
+    private final String name;
+    private final String expected;
+
+    AttributeWord(String name, String expected) {
+      this.name = name;
+      this.expected = expected;
+    }
+
+    @Override
+    boolean matches(HtmlElement element, int from, int to) {
+      String value = element.attributeValue(name);
+      if (value == null) {
+        return false;
+      }
+      int length = expected.length();
+      int searchFrom = 0;
+      while (true) {
+        int at = value.indexOf(expected, searchFrom);
+        if (at < 0) {
+          return false;
+        }
+        int end = at + length;
+        if ((at == 0 || isWhitespace(value.charAt(at - 1)))
+            && (end == value.length() || isWhitespace(value.charAt(end)))) {
+          return true;
+        }
+        searchFrom = at + 1;
+      }
+    }
+  }
+
+  private static final class AttributeDashPrefix extends Node {
+    private final String name;
+    private final String expected;
+    private final String prefix;
+
+    AttributeDashPrefix(String name, String expected) {
+      this.name = name;
+      this.expected = expected;
+      this.prefix = expected + "-";
+    }
+
+    @Override
+    boolean matches(HtmlElement element, int from, int to) {
+      String value = element.attributeValue(name);
+      return value != null && (value.equals(expected) || value.startsWith(prefix));
+    }
+  }
+
+  private static final class AttributePrefix extends Node {
+    private final String name;
+    private final String expected;
+
+    AttributePrefix(String name, String expected) {
+      this.name = name;
+      this.expected = expected;
+    }
+
+    @Override
+    boolean matches(HtmlElement element, int from, int to) {
+      String value = element.attributeValue(name);
+      return value != null && value.startsWith(expected);
+    }
+  }
+
+  private static final class AttributeSuffix extends Node {
+    private final String name;
+    private final String expected;
+
+    AttributeSuffix(String name, String expected) {
+      this.name = name;
+      this.expected = expected;
+    }
+
+    @Override
+    boolean matches(HtmlElement element, int from, int to) {
+      String value = element.attributeValue(name);
+      return value != null && value.endsWith(expected);
+    }
+  }
+
+  private static final class AttributeContains extends Node {
+    private final String name;
+    private final String expected;
+
+    AttributeContains(String name, String expected) {
+      this.name = name;
+      this.expected = expected;
+    }
+
+    @Override
+    boolean matches(HtmlElement element, int from, int to) {
+      String value = element.attributeValue(name);
+      return value != null && value.contains(expected);
+    }
+  }
+
+  private static final class AllOf extends Node {
+    private final Node[] parts;
+
+    AllOf(Node[] parts) {
+      this.parts = parts;
+    }
+
+    @Override
+    boolean matches(HtmlElement element, int from, int to) {
+      for (Node part : parts) {
+        if (!part.matches(element, from, to)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static final class AnyOf extends Node {
+    private final Node[] alternatives;
+
+    AnyOf(Node[] alternatives) {
+      this.alternatives = alternatives;
+    }
+
+    @Override
+    boolean matches(HtmlElement element, int from, int to) {
+      for (Node alternative : alternatives) {
+        if (alternative.matches(element, from, to)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static final class Descendant extends Node {
+    private final Node left;
+    private final Node right;
+    private final int[] ancestorKeys;
+
+    Descendant(Node left, Node right, int[] ancestorKeys) {
+      this.left = left;
+      this.right = right;
+      this.ancestorKeys = ancestorKeys;
+    }
+
+    @Override
+    boolean matches(HtmlElement element, int from, int to) {
+      if (!right.matches(element, from, to)
+          || !mightContainAll(element.ancestorFilter(), ancestorKeys)) {
+        return false;
+      }
+      for (HtmlElement ancestor = element.getParent();
+          ancestor != null && inScope(ancestor, from, to);
+          ancestor = ancestor.getParent()) {
+        if (left.matches(ancestor, from, to)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static final class Child extends Node {
+    private final Node left;
+    private final Node right;
+
+    Child(Node left, Node right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    boolean matches(HtmlElement element, int from, int to) {
+      if (!right.matches(element, from, to)) {
+        return false;
+      }
+      HtmlElement parent = element.getParent();
+      return parent != null && inScope(parent, from, to) && left.matches(parent, from, to);
+    }
+  }
+
+  private static final class AdjacentSibling extends Node {
+    private final Node left;
+    private final Node right;
+
+    AdjacentSibling(Node left, Node right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    boolean matches(HtmlElement element, int from, int to) {
+      if (!right.matches(element, from, to)) {
+        return false;
+      }
+      HtmlElement previous = element.previousSibling();
+      return previous != null && inScope(previous, from, to) && left.matches(previous, from, to);
+    }
+  }
+
+  private static final class GeneralSibling extends Node {
+    private final Node left;
+    private final Node right;
+    private final int[] siblingKeys;
+
+    GeneralSibling(Node left, Node right, int[] siblingKeys) {
+      this.left = left;
+      this.right = right;
+      this.siblingKeys = siblingKeys;
+    }
+
+    @Override
+    boolean matches(HtmlElement element, int from, int to) {
+      if (!right.matches(element, from, to)
+          || element.getParent() == null
+          || !mightContainAll(element.precedingSiblingFilter(), siblingKeys)) {
+        return false;
+      }
+      for (HtmlElement sibling = element.previousSibling();
+          sibling != null && inScope(sibling, from, to);
+          sibling = sibling.previousSibling()) {
+        if (left.matches(sibling, from, to)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
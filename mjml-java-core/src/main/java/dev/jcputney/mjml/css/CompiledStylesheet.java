@@ -0,0 +1,336 @@
+package dev.jcputney.mjml.css;
+
+import dev.jcputney.mjml.css.CssSelector.ClassSelector;
+import dev.jcputney.mjml.css.CssSelector.ComplexSelector;
+import dev.jcputney.mjml.css.CssSelector.CompoundSelector;
+import dev.jcputney.mjml.css.CssSelector.IdSelector;
+import dev.jcputney.mjml.css.CssSelector.SelectorList;
+import dev.jcputney.mjml.css.CssSelector.SimpleSelector;
+import dev.jcputney.mjml.css.CssSelector.TypeSelector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A stylesheet parsed and indexed for inlining, reusable across any number of documents.
+ *
+ * <p>Compiling parses the CSS, parses every selector and computes its specificity, separates
+ * inlineable rules from rules that must stay in a {@code <style>} block (pseudo-classes,
+ * pseudo-elements, and at-rules such as {@code @media}), and buckets the inlineable rules by key
+ * selector. Instances are immutable and thread-safe.
+ *
+ * <h2>Usage</h2>
+ *
+ * <pre>{@code
+ * CompiledStylesheet brand = CompiledStylesheet.compile(brandCss);
+ * for (String html : documents) {
+ *   String inlined = CssInliner.inlineAdditionalOnly(html, brand);
+ * }
+ * }</pre>
+ */
+public final class CompiledStylesheet {
+
+  private final String source;
+  private final List<CssRule> preservedRules;
+  private final List<String> preservedAtRules;
+  private final int inlineableRuleCount;
+  private final RuleIndex index;
+  private final boolean contextFree;
+
+  private CompiledStylesheet(
+      String source,
+      List<CssRule> preservedRules,
+      List<String> preservedAtRules,
+      List<ParsedRule> inlineableRules) {
+    this.source = source;
+    this.preservedRules = List.copyOf(preservedRules);
+    this.preservedAtRules = List.copyOf(preservedAtRules);
+    this.inlineableRuleCount = inlineableRules.size();
+    this.index = new RuleIndex(inlineableRules);
+    this.contextFree =
+        inlineableRules.stream().allMatch(rule -> CompiledSelector.isContextFree(rule.selector()));
+  }
+
+  /**
+   * Parses and indexes a stylesheet.
+   *
+   * @param css the CSS text ({@code null} is treated as empty)
+   * @return the compiled stylesheet
+   */
+  public static CompiledStylesheet compile(String css) {
+    String text = css != null ? css : "";
+    CssParser.ParseResult parseResult = CssParser.parse(text);
+
+    List<ParsedRule> inlineableRules = new ArrayList<>();
+    List<CssRule> pseudoRules = new ArrayList<>();
+    for (CssRule rule : parseResult.rules()) {
+      CssSelector selector = CssSelectorParser.parse(rule.selectorText());
+      if (CssSelectorMatcher.hasPseudo(selector)) {
+        pseudoRules.add(rule);
+      } else if (selector != null) {
+        inlineableRules.add(new ParsedRule(selector, rule));
+      }
+    }
+    return new CompiledStylesheet(
+        text, pseudoRules, parseResult.preservedAtRules(), inlineableRules);
+  }
+
+  /**
+   * Returns the CSS text this stylesheet was compiled from.
+   *
+   * @return the source CSS
+   */
+  public String source() {
+    return source;
+  }
+
+  /**
+   * Returns the number of rules that can be inlined into style attributes.
+   *
+   * @return the inlineable rule count
+   */
+  public int inlineableRuleCount() {
+    return inlineableRuleCount;
+  }
+
+  /**
+   * Tests whether every inlineable rule has a selector without combinators, so the styles of an
+   * element depend only on its own tag. Such a stylesheet can be inlined tag by tag as a document
+   * streams past, without building an element tree.
+   *
+   * @return {@code true} if no inlineable rule needs an element's parents or siblings
+   * @see CompiledSelector#isContextFree()
+   */
+  public boolean isContextFree() {
+    return contextFree;
+  }
+
+  /**
+   * Returns the rules that cannot be inlined because their selectors use pseudo-classes or
+   * pseudo-elements, in source order.
+   *
+   * @return an unmodifiable list of rules to keep in a {@code <style>} block
+   */
+  public List<CssRule> preservedRules() {
+    return preservedRules;
+  }
+
+  /**
+   * Returns the at-rules ({@code @media}, {@code @font-face}, ...) that are kept verbatim.
+   *
+   * @return an unmodifiable list of at-rule texts
+   */
+  public List<String> preservedAtRules() {
+    return preservedAtRules;
+  }
+
+  /**
+   * Creates a matcher over this stylesheet's rule index. Matchers are cheap and not thread-safe.
+   *
+   * @return a new matcher
+   */
+  Matcher matcher() {
+    return new Matcher(index);
+  }
+
+  /**
+   * An inlineable rule with its parsed selector.
+   *
+   * @param selector the parsed selector
+   * @param rule the rule
+   */
+  private record ParsedRule(CssSelector selector, CssRule rule) {}
+
+  /**
+   * One alternative of an inlineable rule, as stored in a {@link RuleIndex} bucket. A rule with a
+   * selector list contributes one entry per alternative; all of them share the rule's specificity
+   * and source order, as the whole rule applies when any alternative matches.
+   */
+  record IndexedRule(
+      CompiledSelector selector,
+      CssSpecificity specificity,
+      int order,
+      List<CssDeclaration> declarations) {}
+
+  /**
+   * Browser-style rule hash: inlineable rules bucketed by the id, class, or tag name of their key
+   * selector (the rightmost compound), falling back to a universal bucket. Every bucket is sorted
+   * by specificity and then source order, so the rules that can match an element are produced in
+   * cascade order by merging a handful of sorted buckets.
+   */
+  private static final class RuleIndex {
+
+    private static final IndexedRule[] EMPTY = new IndexedRule[0];
+
+    private final Map<String, IndexedRule[]> byId;
+    private final Map<String, IndexedRule[]> byClassName;
+    private final Map<String, IndexedRule[]> byTagName;
+    private final IndexedRule[] universal;
+
+    RuleIndex(List<ParsedRule> rules) {
+      Map<String, List<IndexedRule>> ids = new HashMap<>();
+      Map<String, List<IndexedRule>> classes = new HashMap<>();
+      Map<String, List<IndexedRule>> tags = new HashMap<>();
+      List<IndexedRule> rest = new ArrayList<>();
+
+      for (int order = 0; order < rules.size(); order++) {
+        ParsedRule parsed = rules.get(order);
+        CssSpecificity specificity = parsed.selector().specificity();
+        List<CssDeclaration> declarations = parsed.rule().declarations();
+        List<CssSelector> alternatives =
+            parsed.selector() instanceof SelectorList list
+                ? list.selectors()
+                : List.of(parsed.selector());
+        for (CssSelector alternative : alternatives) {
+          IndexedRule entry =
+              new IndexedRule(
+                  CompiledSelector.compile(alternative), specificity, order, declarations);
+          CssSelector key = rightmost(alternative);
+          String id = null;
+          String className = null;
+          String tagName = null;
+          if (key instanceof CompoundSelector compound) {
+            for (SimpleSelector part : compound.parts()) {
+              if (part instanceof IdSelector idSel) {
+                id = idSel.id();
+              } else if (part instanceof ClassSelector cls && className == null) {
+                className = cls.className();
+              } else if (part instanceof TypeSelector type) {
+                tagName = type.tagName().toLowerCase();
+              }
+            }
+          } else if (key instanceof IdSelector idSel) {
+            id = idSel.id();
+          } else if (key instanceof ClassSelector cls) {
+            className = cls.className();
+          } else if (key instanceof TypeSelector type) {
+            tagName = type.tagName().toLowerCase();
+          }
+
+          // File under the most selective key available (ID > class > tag)
+          if (id != null) {
+            ids.computeIfAbsent(id, k -> new ArrayList<>()).add(entry);
+          } else if (className != null) {
+            classes.computeIfAbsent(className, k -> new ArrayList<>()).add(entry);
+          } else if (tagName != null) {
+            tags.computeIfAbsent(tagName, k -> new ArrayList<>()).add(entry);
+          } else {
+            rest.add(entry);
+          }
+        }
+      }
+
+      this.byId = toSortedBuckets(ids);
+      this.byClassName = toSortedBuckets(classes);
+      this.byTagName = toSortedBuckets(tags);
+      this.universal = sorted(rest);
+    }
+
+    private static CssSelector rightmost(CssSelector selector) {
+      while (selector instanceof ComplexSelector complex) {
+        selector = complex.right();
+      }
+      return selector;
+    }
+
+    private static Map<String, IndexedRule[]> toSortedBuckets(Map<String, List<IndexedRule>> map) {
+      Map<String, IndexedRule[]> result = new HashMap<>(map.size() * 2);
+      for (Map.Entry<String, List<IndexedRule>> entry : map.entrySet()) {
+        result.put(entry.getKey(), sorted(entry.getValue()));
+      }
+      return result;
+    }
+
+    private static IndexedRule[] sorted(List<IndexedRule> rules) {
+      if (rules.isEmpty()) {
+        return EMPTY;
+      }
+      IndexedRule[] array = rules.toArray(new IndexedRule[0]);
+      Arrays.sort(array, RuleIndex::compare);
+      return array;
+    }
+
+    /** Orders rules by specificity, then by source order. */
+    private static int compare(IndexedRule a, IndexedRule b) {
+      int cmp = a.specificity().compareTo(b.specificity());
+      return cmp != 0 ? cmp : Integer.compare(a.order(), b.order());
+    }
+  }
+
+  /**
+   * Matches elements against a {@link CompiledStylesheet}. Holds per-call scratch space, so each
+   * thread uses its own instance.
+   */
+  static final class Matcher {
+
+    private final RuleIndex index;
+    private final List<IndexedRule[]> buckets = new ArrayList<>();
+    private int[] positions = new int[8];
+
+    private Matcher(RuleIndex index) {
+      this.index = index;
+    }
+
+    /**
+     * Replaces the contents of {@code out} with the rules matching the element, in cascade order. A
+     * rule matched through several selector-list alternatives is reported once.
+     */
+    void collectMatches(HtmlElement element, List<IndexedRule> out) {
+      out.clear();
+      buckets.clear();
+      String id = element.getId();
+      if (id != null && !id.isEmpty()) {
+        addBucket(index.byId.get(id));
+      }
+      if (!index.byClassName.isEmpty()) {
+        for (String cls : element.getClassNames()) {
+          addBucket(index.byClassName.get(cls));
+        }
+      }
+      addBucket(index.byTagName.get(element.getTagName()));
+      addBucket(index.universal);
+
+      int count = buckets.size();
+      if (count == 0) {
+        return;
+      }
+      if (positions.length < count) {
+        positions = new int[Math.max(count, positions.length * 2)];
+      }
+      Arrays.fill(positions, 0, count, 0);
+
+      // k-way merge; k is small (id + classes + tag + universal), so a linear scan for the minimum
+      // beats a heap
+      int last = -1;
+      while (true) {
+        int best = -1;
+        IndexedRule bestRule = null;
+        for (int b = 0; b < count; b++) {
+          IndexedRule[] bucket = buckets.get(b);
+          int pos = positions[b];
+          if (pos < bucket.length
+              && (bestRule == null || RuleIndex.compare(bucket[pos], bestRule) < 0)) {
+            best = b;
+            bestRule = bucket[pos];
+          }
+        }
+        if (best < 0) {
+          return;
+        }
+        positions[best]++;
+        if (bestRule.order() != last && bestRule.selector().matches(element)) {
+          out.add(bestRule);
+          last = bestRule.order();
+        }
+      }
+    }
+
+    private void addBucket(IndexedRule[] bucket) {
+      if (bucket != null && bucket.length > 0) {
+        buckets.add(bucket);
+      }
+    }
+  }
+}
@@ -16,43 +16,76 @@ public record CssDeclaration(String property, String value, boolean important) {
    * @return the parsed declaration, or null if the string is not a valid declaration
    */
   public static CssDeclaration parse(String text) {
-    if (text == null || text.isBlank()) {
+    if (text == null) {
       return null;
     }
+    return parse(text, 0, text.length());
+  }
 
-    int colonIndex = text.indexOf(':');
-    if (colonIndex < 0) {
+  /**
+   * Parses the declaration in {@code text[start, end)} without copying it first. The property name
+   * is shared with other declarations of the same known property.
+   *
+   * @param text the text containing the declaration
+   * @param start the first character of the declaration
+   * @param end the position just past the declaration
+   * @return the parsed declaration, or null if the range is not a valid declaration
+   */
+  static CssDeclaration parse(String text, int start, int end) {
+    int colonIndex = text.indexOf(':', start);
+    if (colonIndex < 0 || colonIndex >= end) {
       return null;
     }
 
-    String prop = text.substring(0, colonIndex).trim().toLowerCase();
-    if (prop.isEmpty()) {
+    int propStart = trimStart(text, start, colonIndex);
+    int propEnd = trimEnd(text, propStart, colonIndex);
+    if (propStart == propEnd) {
       return null;
     }
 
-    String val = text.substring(colonIndex + 1).trim();
+    int valStart = trimStart(text, colonIndex + 1, end);
+    int valEnd = trimEnd(text, valStart, end);
     boolean isImportant = false;
 
-    if (val.toLowerCase().endsWith("!important")) {
+    if (valEnd - valStart >= 10 && text.regionMatches(true, valEnd - 10, "!important", 0, 10)) {
       isImportant = true;
-      val = val.substring(0, val.length() - 10).trim();
+      valEnd = trimEnd(text, valStart, valEnd - 10);
     } else {
       // Handle space before !important: "red ! important"
-      int bangIndex = val.lastIndexOf('!');
-      if (bangIndex >= 0) {
-        String afterBang = val.substring(bangIndex + 1).trim();
-        if ("important".equalsIgnoreCase(afterBang)) {
+      int bangIndex = text.lastIndexOf('!', valEnd - 1);
+      if (bangIndex >= valStart) {
+        int afterBang = trimStart(text, bangIndex + 1, valEnd);
+        if (valEnd - afterBang == 9 && text.regionMatches(true, afterBang, "important", 0, 9)) {
           isImportant = true;
-          val = val.substring(0, bangIndex).trim();
+          valEnd = trimEnd(text, valStart, bangIndex);
         }
       }
     }
 
-    if (val.isEmpty()) {
+    if (valStart == valEnd) {
       return null;
     }
 
-    return new CssDeclaration(prop, val, isImportant);
+    return new CssDeclaration(
+        KnownNames.CSS_PROPERTIES.name(text, propStart, propEnd),
+        text.substring(valStart, valEnd),
+        isImportant);
+  }
+
+  /** Skips the characters {@link String#trim()} removes from the start of a range. */
+  private static int trimStart(String text, int start, int end) {
+    while (start < end && text.charAt(start) <= ' ') {
+      start++;
+    }
+    return start;
+  }
+
+  /** Skips the characters {@link String#trim()} removes from the end of a range. */
+  private static int trimEnd(String text, int start, int end) {
+    while (end > start && text.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    return end;
   }
 
   @Override
@@ -1,21 +1,11 @@
 package dev.jcputney.mjml.css;
 
-import dev.jcputney.mjml.css.CssSelector.ClassSelector;
-import dev.jcputney.mjml.css.CssSelector.ComplexSelector;
-import dev.jcputney.mjml.css.CssSelector.CompoundSelector;
-import dev.jcputney.mjml.css.CssSelector.IdSelector;
-import dev.jcputney.mjml.css.CssSelector.SelectorList;
-import dev.jcputney.mjml.css.CssSelector.SimpleSelector;
-import dev.jcputney.mjml.css.CssSelector.TypeSelector;
-import dev.jcputney.mjml.css.CssSelector.UniversalSelector;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 /**
@@ -54,7 +44,7 @@ public final class CssInliner {
    * @return the HTML with CSS inlined
    */
   public static String inline(String html) {
-    return inline(html, null);
+    return inline(html, (String) null);
   }
 
   /**
@@ -68,13 +58,41 @@ public final class CssInliner {
     if (html == null || html.isEmpty()) {
       return html;
     }
+    HtmlDocumentParser.StyleExtractionResult extracted = HtmlDocumentParser.extractStyles(html);
+    String css = combine(extracted.css(), additionalCss);
+    if (css.isEmpty()) {
+      return html; // No CSS to inline
+    }
+    return inlineExtracted(extracted.html(), CompiledStylesheet.compile(css));
+  }
 
-    // 1. Extract <style> blocks from HTML
+  /**
+   * Inlines CSS from {@code <style>} blocks and a precompiled stylesheet into element style
+   * attributes. When the document has no {@code <style>} blocks, the compiled stylesheet is used as
+   * is; otherwise the extracted CSS is compiled together with the stylesheet's source so that
+   * source order is preserved.
+   *
+   * @param html the HTML string
+   * @param additional the precompiled stylesheet to inline (may be null)
+   * @return the HTML with CSS inlined
+   */
+  public static String inline(String html, CompiledStylesheet additional) {
+    if (html == null || html.isEmpty()) {
+      return html;
+    }
     HtmlDocumentParser.StyleExtractionResult extracted = HtmlDocumentParser.extractStyles(html);
-    String cleanHtml = extracted.html();
     String extractedCss = extracted.css();
+    if (extractedCss == null || extractedCss.isBlank()) {
+      if (additional == null || additional.source().isBlank()) {
+        return html; // No CSS to inline
+      }
+      return inlineExtracted(extracted.html(), additional);
+    }
+    String css = combine(extractedCss, additional != null ? additional.source() : null);
+    return inlineExtracted(extracted.html(), CompiledStylesheet.compile(css));
+  }
 
-    // Combine extracted CSS with additional CSS
+  private static String combine(String extractedCss, String additionalCss) {
     StringBuilder allCss = new StringBuilder();
     if (extractedCss != null && !extractedCss.isBlank()) {
       allCss.append(extractedCss).append("\n");
@@ -82,54 +100,31 @@ public final class CssInliner {
     if (additionalCss != null && !additionalCss.isBlank()) {
       allCss.append(additionalCss);
     }
+    return allCss.toString();
+  }
 
-    if (allCss.isEmpty()) {
-      return html; // No CSS to inline
-    }
-
-    // 2. Parse CSS into rules and preserved at-rules
-    CssParser.ParseResult parseResult = CssParser.parse(allCss.toString());
-    List<CssRule> rules = parseResult.rules();
-    List<String> preservedAtRules = parseResult.preservedAtRules();
-
-    // 3. Parse HTML into element tree
+  private static String inlineExtracted(String cleanHtml, CompiledStylesheet stylesheet) {
     HtmlElement root = HtmlDocumentParser.parse(cleanHtml);
-    LOG.fine(() -> "CSS inliner: " + rules.size() + " rules parsed from style blocks");
-
-    // 4. Parse selectors once and separate inlineable rules from pseudo rules
-    List<ParsedRule> inlineableRules = new ArrayList<>();
-    List<CssRule> pseudoRules = new ArrayList<>();
-
-    for (CssRule rule : rules) {
-      CssSelector selector = CssSelectorParser.parse(rule.selectorText());
-      if (CssSelectorMatcher.hasPseudo(selector)) {
-        pseudoRules.add(rule);
-      } else if (selector != null) {
-        inlineableRules.add(new ParsedRule(selector, rule));
-      }
-    }
-
     LOG.fine(
         () ->
             "CSS inliner: "
-                + inlineableRules.size()
+                + stylesheet.inlineableRuleCount()
                 + " inlineable, "
-                + pseudoRules.size()
+                + stylesheet.preservedRules().size()
                 + " pseudo rules");
 
-    // 5. Match and apply styles to all elements
-    List<HtmlElement> allElements = root.allDescendants();
-    matchAndApplyStyles(inlineableRules, allElements);
+    // Match and apply styles to all elements
+    matchAndApplyStyles(stylesheet, root.allDescendants());
 
-    // 6. Rebuild HTML with modified style attributes
-    String result = rebuildHtml(cleanHtml, allElements);
+    // Rebuild HTML with modified style attributes
+    String result = HtmlRewriter.rewrite(cleanHtml, root);
 
-    // 7. Re-insert preserved rules as <style> block
+    // Re-insert preserved rules as <style> block
     StringBuilder preservedCss = new StringBuilder();
-    for (CssRule rule : pseudoRules) {
+    for (CssRule rule : stylesheet.preservedRules()) {
       preservedCss.append(rule).append("\n");
     }
-    for (String atRule : preservedAtRules) {
+    for (String atRule : stylesheet.preservedAtRules()) {
       preservedCss.append(atRule).append("\n");
     }
 
@@ -154,15 +149,26 @@ public final class CssInliner {
     if (html == null || html.isEmpty() || css == null || css.isBlank()) {
       return html;
     }
+    return inlineAdditionalOnly(html, CompiledStylesheet.compile(css));
+  }
 
-    // 1. Parse CSS into rules (no extraction from HTML)
-    CssParser.ParseResult parseResult = CssParser.parse(css);
-    List<CssRule> rules = parseResult.rules();
-
-    // 2. Parse HTML into element tree (with existing <style> blocks intact)
-    HtmlElement root = HtmlDocumentParser.parse(html);
-
-    return inlineAdditionalOnlyWithElements(html, root, rules);
+  /**
+   * Inlines only the rules of a precompiled stylesheet into HTML elements' style attributes,
+   * without extracting or removing any existing {@code <style>} blocks from the HTML. Rules that
+   * cannot be inlined are ignored.
+   *
+   * @param html the HTML string
+   * @param stylesheet the compiled stylesheet to inline
+   * @return the HTML with the stylesheet inlined into matching elements
+   */
+  public static String inlineAdditionalOnly(String html, CompiledStylesheet stylesheet) {
+    if (html == null
+        || html.isEmpty()
+        || stylesheet == null
+        || stylesheet.inlineableRuleCount() == 0) {
+      return html;
+    }
+    return inlineAdditionalOnly(html, HtmlDocumentParser.parse(html), stylesheet);
   }
 
   /**
@@ -178,178 +184,174 @@ public final class CssInliner {
     if (html == null || html.isEmpty() || css == null || css.isBlank()) {
       return html;
     }
-
-    CssParser.ParseResult parseResult = CssParser.parse(css);
-    return inlineAdditionalOnlyWithElements(html, root, parseResult.rules());
+    return inlineAdditionalOnly(html, root, CompiledStylesheet.compile(css));
   }
 
-  private static String inlineAdditionalOnlyWithElements(
-      String html, HtmlElement root, List<CssRule> rules) {
-    // Parse selectors once and filter to inlineable rules
-    List<ParsedRule> inlineableRules = new ArrayList<>();
-    for (CssRule rule : rules) {
-      CssSelector selector = CssSelectorParser.parse(rule.selectorText());
-      if (selector != null && !CssSelectorMatcher.hasPseudo(selector)) {
-        inlineableRules.add(new ParsedRule(selector, rule));
-      }
-    }
-
-    if (inlineableRules.isEmpty()) {
+  /**
+   * Inlines only the rules of a precompiled stylesheet into HTML elements' style attributes using a
+   * pre-parsed element tree.
+   *
+   * @param html the original HTML string (for position-based modification)
+   * @param root the pre-parsed element tree
+   * @param stylesheet the compiled stylesheet to inline
+   * @return the HTML with the stylesheet inlined into matching elements
+   */
+  public static String inlineAdditionalOnly(
+      String html, HtmlElement root, CompiledStylesheet stylesheet) {
+    if (html == null
+        || html.isEmpty()
+        || stylesheet == null
+        || stylesheet.inlineableRuleCount() == 0) {
       return html;
     }
 
-    // Match and apply styles, tracking modified elements
-    List<HtmlElement> allElements = root.allDescendants();
-    List<HtmlElement> modifiedElements = matchAndApplyStyles(inlineableRules, allElements);
-
-    if (modifiedElements.isEmpty()) {
+    if (!inlineInto(root, stylesheet)) {
       return html;
     }
 
     // Rebuild HTML with only modified style attributes (existing <style> blocks remain intact)
-    return rebuildHtml(html, modifiedElements);
+    return HtmlRewriter.rewrite(html, root);
   }
 
   /**
-   * Matches CSS rules against HTML elements and merges matched styles into each element's inline
-   * style attribute. Uses element indexes by tag name and class name to pre-filter candidates,
-   * reducing O(n*m) to O(n + m*k) where k is the average candidate set size.
+   * Inlines the rules of a precompiled stylesheet into the style of every matching element of a
+   * parsed tree, without producing HTML. This lets several passes change one parsed tree before
+   * {@link HtmlRewriter#rewrite(String, HtmlElement)} writes all of their changes back at once.
    *
-   * @return the list of elements whose styles were actually modified
+   * @param root the parsed element tree
+   * @param stylesheet the compiled stylesheet to inline
+   * @return {@code true} if the style of any element changed
    */
-  private static List<HtmlElement> matchAndApplyStyles(
-      List<ParsedRule> inlineableRules, List<HtmlElement> elements) {
-    // Build element indexes for fast candidate filtering
-    ElementIndex index = new ElementIndex(elements);
-
-    // For each element, collect applicable rules
-    // We iterate per-element to maintain correct specificity ordering
-    Map<HtmlElement, List<AppliedStyle>> elementStyles = new HashMap<>();
-
-    for (int ruleIndex = 0; ruleIndex < inlineableRules.size(); ruleIndex++) {
-      ParsedRule parsed = inlineableRules.get(ruleIndex);
-      List<HtmlElement> candidates = index.getCandidates(parsed.selector());
-
-      for (HtmlElement candidate : candidates) {
-        if (CssSelectorMatcher.matches(parsed.selector(), candidate)) {
-          elementStyles
-              .computeIfAbsent(candidate, k -> new ArrayList<>())
-              .add(
-                  new AppliedStyle(
-                      parsed.selector().specificity(), ruleIndex, parsed.rule().declarations()));
-        }
-      }
+  public static boolean inlineInto(HtmlElement root, CompiledStylesheet stylesheet) {
+    if (root == null || stylesheet == null || stylesheet.inlineableRuleCount() == 0) {
+      return false;
     }
+    return !matchAndApplyStyles(stylesheet, root.allDescendants()).isEmpty();
+  }
 
-    List<HtmlElement> modified = new ArrayList<>();
-    for (HtmlElement element : elements) {
-      List<AppliedStyle> applicableStyles = elementStyles.get(element);
-      if (applicableStyles == null || applicableStyles.isEmpty()) {
-        continue;
+  /**
+   * Returns a filter that inlines the rules of a precompiled stylesheet into each start tag as it
+   * streams through an {@link HtmlFilterChain}. This has the same effect as {@link
+   * #inlineInto(HtmlElement, CompiledStylesheet)} followed by a rewrite, but runs within the
+   * chain's single pass over the document.
+   *
+   * <p>When the stylesheet is {@linkplain CompiledStylesheet#isContextFree() context-free}, the
+   * filter does not need the element tree: each start tag is matched on its own, and the result is
+   * reused for every identical tag of the document. Otherwise it works on the elements the chain
+   * builds. Either way, it uses the elements when another filter of the chain has them built.
+   *
+   * @param stylesheet the compiled stylesheet to inline
+   * @return a filter for a single document
+   */
+  public static HtmlFilter filter(CompiledStylesheet stylesheet) {
+    CompiledStylesheet.Matcher matcher = stylesheet.matcher();
+    List<CompiledStylesheet.IndexedRule> applicableStyles = new ArrayList<>();
+    Map<String, String> rewrittenTags = new HashMap<>();
+    return new HtmlFilter() {
+      @Override
+      public void filter(HtmlToken token, Consumer<HtmlToken> next) {
+        HtmlElement element = token.element();
+        if (element != null) {
+          applyMatches(element);
+        } else if (token.type() == HtmlToken.Type.START_TAG) {
+          String tag = token.text();
+          String rewritten = rewrittenTags.computeIfAbsent(tag, this::rewriteTag);
+          if (!rewritten.equals(tag)) {
+            token.setText(rewritten);
+          }
+        }
+        next.accept(token);
       }
 
-      // Sort by specificity, then by source order
-      applicableStyles.sort(
-          (a, b) -> {
-            int cmp = a.specificity().compareTo(b.specificity());
-            if (cmp != 0) {
-              return cmp;
-            }
-            return Integer.compare(a.order(), b.order());
-          });
-
-      // Parse existing inline style and merge with specificity tracking
-      List<CssDeclaration> existingStyle = StyleAttribute.parse(element.getStyle());
-      Map<String, CssDeclaration> mergedMap = new LinkedHashMap<>();
-      Map<String, CssSpecificity> specMap = new LinkedHashMap<>();
-
-      // Inline styles have virtual specificity higher than any selector
-      CssSpecificity inlineSpec = new CssSpecificity(1000, 0, 0);
-      for (CssDeclaration decl : existingStyle) {
-        mergedMap.put(decl.property(), decl);
-        specMap.put(decl.property(), inlineSpec);
+      @Override
+      public boolean usesElements() {
+        return !stylesheet.isContextFree();
       }
 
-      // Merge each applicable stylesheet rule, respecting specificity
-      for (AppliedStyle applied : applicableStyles) {
-        CssSpecificity ruleSpec = applied.specificity();
-        for (CssDeclaration newDecl : applied.declarations()) {
-          CssDeclaration existing = mergedMap.get(newDecl.property());
-          if (existing == null) {
-            mergedMap.put(newDecl.property(), newDecl);
-            specMap.put(newDecl.property(), ruleSpec);
-          } else if (newDecl.important() && !existing.important()) {
-            mergedMap.put(newDecl.property(), newDecl);
-            specMap.put(newDecl.property(), ruleSpec);
-          } else if (!existing.important() || newDecl.important()) {
-            CssSpecificity existSpec =
-                specMap.getOrDefault(newDecl.property(), CssSpecificity.ZERO);
-            if (ruleSpec.compareTo(existSpec) >= 0) {
-              mergedMap.put(newDecl.property(), newDecl);
-              specMap.put(newDecl.property(), ruleSpec);
-            }
-          }
+      private void applyMatches(HtmlElement element) {
+        matcher.collectMatches(element, applicableStyles);
+        if (!applicableStyles.isEmpty()) {
+          applyStyles(element, applicableStyles);
         }
       }
 
-      element.setStyle(StyleAttribute.serialize(new ArrayList<>(mergedMap.values())));
-      modified.add(element);
-    }
-
-    return modified;
+      private String rewriteTag(String tag) {
+        HtmlElement root = HtmlDocumentParser.parse(tag);
+        if (root.getChildren().isEmpty()) {
+          return tag;
+        }
+        applyMatches(root.getChildren().get(0));
+        return HtmlRewriter.rewrite(tag, root);
+      }
+    };
   }
 
   /**
-   * Rebuilds the HTML string with updated style attributes. Uses position tracking from the parser
-   * to make in-place modifications.
+   * Matches CSS rules against HTML elements and merges matched styles into each element's inline
+   * style attribute. The stylesheet's rules are bucketed by the id, class, or tag of their key
+   * (rightmost) selector into lists pre-sorted by specificity and source order. Each element is
+   * visited once: the buckets for its id, classes, and tag plus the universal bucket are merged in
+   * linear time, so matched rules come out already in cascade order without a per-element sort.
+   *
+   * @return the list of elements whose styles were actually modified
    */
-  private static String rebuildHtml(String html, List<HtmlElement> elements) {
-    // Collect all style changes, sorted by position (descending to avoid offset shifts)
-    TreeMap<Integer, StyleChange> changes = new TreeMap<>();
+  private static List<HtmlElement> matchAndApplyStyles(
+      CompiledStylesheet stylesheet, List<HtmlElement> elements) {
+    CompiledStylesheet.Matcher matcher = stylesheet.matcher();
 
+    List<HtmlElement> modified = new ArrayList<>();
+    List<CompiledStylesheet.IndexedRule> applicableStyles = new ArrayList<>();
     for (HtmlElement element : elements) {
-      String newStyle = element.getStyle();
-      if (newStyle == null || newStyle.isEmpty()) {
+      matcher.collectMatches(element, applicableStyles);
+      if (applicableStyles.isEmpty()) {
         continue;
       }
-
-      if (element.getStyleAttrStart() >= 0 && element.getStyleAttrEnd() >= 0) {
-        // Element had an existing style attribute - replace its value
-        changes.put(
-            element.getStyleAttrStart(),
-            new StyleChange(element.getStyleAttrStart(), element.getStyleAttrEnd(), newStyle));
-      } else if (element.hasPositionInfo()) {
-        // Element has no style attribute - insert one
-        // Insert before the closing > of the opening tag
-        int insertPos = element.getTagEnd() - 1;
-        // Check if it's a self-closing tag
-        if (insertPos > 0 && html.charAt(insertPos - 1) == '/') {
-          insertPos = insertPos - 1;
-          // Skip whitespace before /
-          while (insertPos > element.getTagStart() && html.charAt(insertPos - 1) == ' ') {
-            insertPos--;
-          }
-        }
-        changes.put(
-            insertPos, new StyleChange(insertPos, insertPos, " style=\"" + newStyle + "\""));
-      }
+      applyStyles(element, applicableStyles);
+      modified.add(element);
     }
 
-    if (changes.isEmpty()) {
-      return html;
+    return modified;
+  }
+
+  /** Merges the matched rules, in cascade order, into an element's inline style. */
+  private static void applyStyles(
+      HtmlElement element, List<CompiledStylesheet.IndexedRule> applicableStyles) {
+    // Parse existing inline style and merge with specificity tracking
+    List<CssDeclaration> existingStyle = StyleAttribute.parse(element.getStyle());
+    Map<String, CssDeclaration> mergedMap = new LinkedHashMap<>();
+    Map<String, CssSpecificity> specMap = new LinkedHashMap<>();
+
+    // Inline styles have virtual specificity higher than any selector
+    CssSpecificity inlineSpec = new CssSpecificity(1000, 0, 0);
+    for (CssDeclaration decl : existingStyle) {
+      mergedMap.put(decl.property(), decl);
+      specMap.put(decl.property(), inlineSpec);
     }
 
-    // Single forward pass: copy original segments between changes, append replacements
-    StringBuilder sb = new StringBuilder(html.length() + changes.size() * 64);
-    int lastEnd = 0;
-    for (StyleChange change : changes.values()) {
-      sb.append(html, lastEnd, change.start());
-      sb.append(change.replacement());
-      lastEnd = change.end();
+    // Merge each applicable stylesheet rule, respecting specificity
+    for (CompiledStylesheet.IndexedRule applied : applicableStyles) {
+      CssSpecificity ruleSpec = applied.specificity();
+      for (CssDeclaration newDecl : applied.declarations()) {
+        CssDeclaration existing = mergedMap.get(newDecl.property());
+        if (existing == null) {
+          mergedMap.put(newDecl.property(), newDecl);
+          specMap.put(newDecl.property(), ruleSpec);
+        } else if (newDecl.important() && !existing.important()) {
+          mergedMap.put(newDecl.property(), newDecl);
+          specMap.put(newDecl.property(), ruleSpec);
+        } else if (!existing.important() || newDecl.important()) {
+          CssSpecificity existSpec = specMap.getOrDefault(newDecl.property(), CssSpecificity.ZERO);
+          if (ruleSpec.compareTo(existSpec) >= 0) {
+            mergedMap.put(newDecl.property(), newDecl);
+            specMap.put(newDecl.property(), ruleSpec);
+          }
+        }
+      }
     }
-    sb.append(html, lastEnd, html.length());
 
-    return sb.toString();
+    StringBuilder style = new StringBuilder(mergedMap.size() * 24);
+    StyleAttribute.serialize(mergedMap.values(), style);
+    element.setStyle(style.toString());
   }
 
   /** Inserts a &lt;style&gt; block into the &lt;head&gt; of the HTML document. */
@@ -376,107 +378,4 @@ public final class CssInliner {
     // Last resort: prepend
     return styleBlock + html;
   }
-
-  private record ParsedRule(CssSelector selector, CssRule rule) {}
-
-  private record AppliedStyle(
-      CssSpecificity specificity, int order, List<CssDeclaration> declarations) {}
-
-  /** Index of HTML elements by tag name and class name for fast candidate pre-filtering. */
-  private static final class ElementIndex {
-
-    private final Map<String, List<HtmlElement>> byTagName = new HashMap<>();
-    private final Map<String, List<HtmlElement>> byClassName = new HashMap<>();
-    private final Map<String, List<HtmlElement>> byId = new HashMap<>();
-    private final List<HtmlElement> allElements;
-
-    ElementIndex(List<HtmlElement> elements) {
-      this.allElements = elements;
-      for (HtmlElement element : elements) {
-        byTagName.computeIfAbsent(element.getTagName(), k -> new ArrayList<>()).add(element);
-        for (String cls : element.getClassNames()) {
-          byClassName.computeIfAbsent(cls, k -> new ArrayList<>()).add(element);
-        }
-        String id = element.getId();
-        if (id != null && !id.isEmpty()) {
-          byId.computeIfAbsent(id, k -> new ArrayList<>()).add(element);
-        }
-      }
-    }
-
-    /**
-     * Extracts the rightmost (key) selector from a complex selector chain. For "div > p.foo", this
-     * returns "p.foo" since that's what the element must match directly.
-     */
-    private static CssSelector getRightmostSelector(CssSelector selector) {
-      if (selector instanceof ComplexSelector complex) {
-        return getRightmostSelector(complex.right());
-      }
-      return selector;
-    }
-
-    /**
-     * Returns a pre-filtered list of candidate elements that could possibly match the given
-     * selector. Falls back to all elements for selectors that can't be pre-filtered.
-     */
-    List<HtmlElement> getCandidates(CssSelector selector) {
-      // Extract the rightmost/key selector from complex selectors
-      CssSelector key = getRightmostSelector(selector);
-      if (key == null) {
-        return allElements;
-      }
-
-      // For selector lists, union candidates from each selector
-      if (key instanceof SelectorList list) {
-        Set<HtmlElement> union = new HashSet<>();
-        for (CssSelector s : list.selectors()) {
-          union.addAll(getCandidates(s));
-        }
-        return new ArrayList<>(union);
-      }
-
-      // Extract filtering info from compound or simple selectors
-      String tagName = null;
-      String className = null;
-      String id = null;
-
-      if (key instanceof CompoundSelector compound) {
-        for (SimpleSelector part : compound.parts()) {
-          if (part instanceof TypeSelector type) {
-            tagName = type.tagName().toLowerCase();
-          } else if (part instanceof ClassSelector cls) {
-            className = cls.className();
-          } else if (part instanceof IdSelector idSel) {
-            id = idSel.id();
-          }
-        }
-      } else if (key instanceof TypeSelector type) {
-        tagName = type.tagName().toLowerCase();
-      } else if (key instanceof ClassSelector cls) {
-        className = cls.className();
-      } else if (key instanceof IdSelector idSel) {
-        id = idSel.id();
-      } else if (key instanceof UniversalSelector) {
-        return allElements;
-      }
-
-      // Use the most specific index available (ID > class > tag)
-      if (id != null) {
-        List<HtmlElement> result = byId.get(id);
-        return result != null ? result : List.of();
-      }
-      if (className != null) {
-        List<HtmlElement> result = byClassName.get(className);
-        return result != null ? result : List.of();
-      }
-      if (tagName != null) {
-        List<HtmlElement> result = byTagName.get(tagName);
-        return result != null ? result : List.of();
-      }
-
-      return allElements;
-    }
-  }
-
-  private record StyleChange(int start, int end, String replacement) {}
 }
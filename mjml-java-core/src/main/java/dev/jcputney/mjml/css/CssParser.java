@@ -14,6 +14,11 @@ import java.util.List;
  *   <li>@-rules (@media, @font-face, @keyframes) which are preserved but not parsed as rules
  * </ul>
  *
+ * <p>The parser reads the text in place: comments are skipped as it scans, selectors and
+ * declaration values are copied out of the original text once each, and common property names are
+ * shared rather than copied. Only text that contains a comment is copied a second time to remove
+ * it.
+ *
  * <p>At-rules that should not be inlined are collected separately so they can be placed back into
  * {@code <style>} blocks in the output.
  */
@@ -35,25 +40,22 @@ public final class CssParser {
       return new ParseResult(rules, preserved);
     }
 
-    // Strip comments
-    String stripped = stripComments(css);
-
     int pos = 0;
-    int len = stripped.length();
+    int len = css.length();
 
     while (pos < len) {
-      // Skip whitespace
-      pos = skipWhitespace(stripped, pos);
+      // Skip whitespace and comments
+      pos = skipWhitespace(css, pos);
       if (pos >= len) {
         break;
       }
 
-      if (stripped.charAt(pos) == '@') {
+      if (css.charAt(pos) == '@') {
         // @-rule
-        pos = parseAtRule(stripped, pos, rules, preserved);
+        pos = parseAtRule(css, pos, preserved);
       } else {
         // Regular rule
-        pos = parseRule(stripped, pos, rules);
+        pos = parseRule(css, pos, rules);
       }
     }
 
@@ -70,31 +72,11 @@ public final class CssParser {
     return parse(css).rules();
   }
 
-  /** Strips CSS comments (/* ... *{@literal /}). */
-  private static String stripComments(String css) {
-    StringBuilder sb = new StringBuilder(css.length());
-    int i = 0;
-    while (i < css.length()) {
-      if (i + 1 < css.length() && css.charAt(i) == '/' && css.charAt(i + 1) == '*') {
-        // Find end of comment
-        int end = css.indexOf("*/", i + 2);
-        if (end < 0) {
-          break; // Unterminated comment
-        }
-        i = end + 2;
-      } else {
-        sb.append(css.charAt(i));
-        i++;
-      }
-    }
-    return sb.toString();
-  }
-
   /**
    * Parses an @-rule starting at pos. Handles both block (@media {}) and statement (@import ..;)
    * at-rules.
    */
-  private static int parseAtRule(String css, int pos, List<CssRule> rules, List<String> preserved) {
+  private static int parseAtRule(String css, int pos, List<String> preserved) {
     int len = css.length();
 
     // Find the at-rule name
@@ -103,7 +85,8 @@ public final class CssParser {
     while (nameEnd < len
         && !Character.isWhitespace(css.charAt(nameEnd))
         && css.charAt(nameEnd) != '{'
-        && css.charAt(nameEnd) != ';') {
+        && css.charAt(nameEnd) != ';'
+        && !css.startsWith("/*", nameEnd)) {
       nameEnd++;
     }
     String name = css.substring(nameStart, nameEnd).toLowerCase();
@@ -114,7 +97,7 @@ public final class CssParser {
         || name.startsWith("-webkit-keyframes")
         || name.startsWith("-moz-keyframes")) {
       // Block at-rule - find matching closing brace
-      int braceStart = css.indexOf('{', nameEnd);
+      int braceStart = indexOf(css, '{', nameEnd);
       if (braceStart < 0) {
         return len; // Malformed
       }
@@ -124,12 +107,11 @@ public final class CssParser {
         return len; // Malformed
       }
 
-      String atRule = css.substring(pos, braceEnd + 1).trim();
-      preserved.add(atRule);
+      preserved.add(text(css, pos, braceEnd + 1));
       return braceEnd + 1;
     } else {
       // Statement at-rule (e.g. @import, @charset) - find semicolon
-      int semi = css.indexOf(';', pos);
+      int semi = indexOf(css, ';', pos);
       if (semi < 0) {
         return len;
       }
@@ -143,12 +125,12 @@ public final class CssParser {
     int len = css.length();
 
     // Find the opening brace
-    int braceStart = css.indexOf('{', pos);
+    int braceStart = indexOf(css, '{', pos);
     if (braceStart < 0) {
       return len; // Malformed
     }
 
-    String selector = css.substring(pos, braceStart).trim();
+    String selector = text(css, pos, braceStart);
     if (selector.isEmpty()) {
       return braceStart + 1;
     }
@@ -159,8 +141,13 @@ public final class CssParser {
       return len;
     }
 
-    String body = css.substring(braceStart + 1, braceEnd).trim();
-    List<CssDeclaration> declarations = parseDeclarations(body);
+    List<CssDeclaration> declarations = new ArrayList<>();
+    if (commentAt(css, braceStart + 1, braceEnd) < 0) {
+      parseDeclarations(css, braceStart + 1, braceEnd, declarations);
+    } else {
+      String body = text(css, braceStart + 1, braceEnd);
+      parseDeclarations(body, 0, body.length(), declarations);
+    }
 
     if (!declarations.isEmpty()) {
       rules.add(new CssRule(selector, declarations));
@@ -175,15 +162,23 @@ public final class CssParser {
     if (body == null || body.isBlank()) {
       return declarations;
     }
+    parseDeclarations(body, 0, body.length(), declarations);
+    return declarations;
+  }
 
-    // Split on semicolons, handling url() and quoted strings
-    int start = 0;
+  /**
+   * Parses the semicolon-separated declarations in {@code text[start, end)} into {@code out},
+   * reading each one in place. Semicolons inside {@code url()} and quoted strings do not separate
+   * declarations.
+   */
+  static void parseDeclarations(String text, int start, int end, List<CssDeclaration> out) {
+    int partStart = start;
     int depth = 0;
     boolean inSingle = false;
     boolean inDouble = false;
 
-    for (int i = 0; i < body.length(); i++) {
-      char c = body.charAt(i);
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
       if (c == '\'' && !inDouble) {
         inSingle = !inSingle;
       } else if (c == '"' && !inSingle) {
@@ -193,26 +188,25 @@ public final class CssParser {
       } else if (c == ')' && !inSingle && !inDouble) {
         depth = Math.max(0, depth - 1);
       } else if (c == ';' && depth == 0 && !inSingle && !inDouble) {
-        String part = body.substring(start, i).trim();
-        CssDeclaration decl = CssDeclaration.parse(part);
+        CssDeclaration decl = CssDeclaration.parse(text, partStart, i);
         if (decl != null) {
-          declarations.add(decl);
+          out.add(decl);
         }
-        start = i + 1;
+        partStart = i + 1;
       }
     }
 
     // Last declaration (no trailing semicolon)
-    String last = body.substring(start).trim();
-    CssDeclaration decl = CssDeclaration.parse(last);
+    CssDeclaration decl = CssDeclaration.parse(text, partStart, end);
     if (decl != null) {
-      declarations.add(decl);
+      out.add(decl);
     }
-
-    return declarations;
   }
 
-  /** Finds the matching closing brace for an opening brace at pos. Handles nested braces. */
+  /**
+   * Finds the matching closing brace for an opening brace at pos. Handles nested braces and skips
+   * comments.
+   */
   private static int findMatchingBrace(String css, int openPos) {
     int depth = 1;
     boolean inSingle = false;
@@ -220,7 +214,9 @@ public final class CssParser {
 
     for (int i = openPos + 1; i < css.length(); i++) {
       char c = css.charAt(i);
-      if (c == '\'' && !inDouble) {
+      if (c == '/' && css.startsWith("/*", i)) {
+        i = skipComment(css, i) - 1;
+      } else if (c == '\'' && !inDouble) {
         inSingle = !inSingle;
       } else if (c == '"' && !inSingle) {
         inDouble = !inDouble;
@@ -238,13 +234,75 @@ public final class CssParser {
     return -1;
   }
 
+  /** Returns the position of the first {@code target} at or after pos outside comments, or -1. */
+  private static int indexOf(String css, char target, int pos) {
+    int len = css.length();
+    for (int i = pos; i < len; i++) {
+      char c = css.charAt(i);
+      if (c == target) {
+        return i;
+      }
+      if (c == '/' && css.startsWith("/*", i)) {
+        i = skipComment(css, i) - 1;
+      }
+    }
+    return -1;
+  }
+
+  /** Skips whitespace and comments. */
   private static int skipWhitespace(String css, int pos) {
-    while (pos < css.length() && Character.isWhitespace(css.charAt(pos))) {
-      pos++;
+    int len = css.length();
+    while (pos < len) {
+      if (Character.isWhitespace(css.charAt(pos))) {
+        pos++;
+      } else if (css.startsWith("/*", pos)) {
+        pos = skipComment(css, pos);
+      } else {
+        break;
+      }
     }
     return pos;
   }
 
+  /**
+   * Returns the position just past the comment starting at pos. An unterminated comment runs to the
+   * end of the text.
+   */
+  private static int skipComment(String css, int pos) {
+    int end = css.indexOf("*/", pos + 2);
+    return end < 0 ? css.length() : end + 2;
+  }
+
+  /** Returns the position of the first comment in {@code css[start, end)}, or -1 if none. */
+  private static int commentAt(String css, int start, int end) {
+    for (int i = start; i < end - 1; i++) {
+      if (css.charAt(i) == '/' && css.charAt(i + 1) == '*') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns {@code css[start, end)} trimmed and with comments removed. Only text that contains a
+   * comment is copied more than once.
+   */
+  private static String text(String css, int start, int end) {
+    int comment = commentAt(css, start, end);
+    if (comment < 0) {
+      return css.substring(start, end).trim();
+    }
+    StringBuilder sb = new StringBuilder(end - start);
+    int pos = start;
+    while (comment >= 0) {
+      sb.append(css, pos, comment);
+      pos = Math.min(skipComment(css, comment), end);
+      comment = commentAt(css, pos, end);
+    }
+    sb.append(css, pos, end);
+    return sb.toString().trim();
+  }
+
   /**
    * Result of parsing CSS: regular rules to inline and preserved at-rules.
    *
@@ -53,6 +53,11 @@ public sealed interface CssSelector {
    */
   record SelectorList(List<CssSelector> selectors) implements CssSelector {
 
+    /** Copies the selectors into an immutable list. */
+    public SelectorList {
+      selectors = List.copyOf(selectors);
+    }
+
     @Override
     public CssSpecificity specificity() {
       // A selector list's specificity is the max of its individual selectors
@@ -120,6 +125,11 @@ public sealed interface CssSelector {
    */
   record CompoundSelector(List<SimpleSelector> parts) implements CssSelector {
 
+    /** Copies the parts into an immutable list. */
+    public CompoundSelector {
+      parts = List.copyOf(parts);
+    }
+
     @Override
     public CssSpecificity specificity() {
       CssSpecificity result = CssSpecificity.ZERO;
@@ -1,18 +1,11 @@
 package dev.jcputney.mjml.css;
 
-import dev.jcputney.mjml.css.CssSelector.AttributeSelector;
-import dev.jcputney.mjml.css.CssSelector.ClassSelector;
 import dev.jcputney.mjml.css.CssSelector.ComplexSelector;
 import dev.jcputney.mjml.css.CssSelector.CompoundSelector;
-import dev.jcputney.mjml.css.CssSelector.IdSelector;
 import dev.jcputney.mjml.css.CssSelector.PseudoClassSelector;
 import dev.jcputney.mjml.css.CssSelector.PseudoElementSelector;
 import dev.jcputney.mjml.css.CssSelector.SelectorList;
 import dev.jcputney.mjml.css.CssSelector.SimpleSelector;
-import dev.jcputney.mjml.css.CssSelector.TypeSelector;
-import dev.jcputney.mjml.css.CssSelector.UniversalSelector;
-import dev.jcputney.mjml.util.CssUnitParser;
-import java.util.Set;
 
 /**
  * Matches CSS selectors against {@link HtmlElement} nodes.
@@ -27,6 +20,9 @@ public final class CssSelectorMatcher {
   /**
    * Tests whether the given selector matches the given element.
    *
+   * <p>This compiles the selector on every call; callers testing one selector against many elements
+   * should {@linkplain CompiledSelector#compile(CssSelector) compile} it once instead.
+   *
    * @param selector the CSS selector to test
    * @param element the HTML element to test against
    * @return {@code true} if the selector matches the element
@@ -35,17 +31,7 @@ public final class CssSelectorMatcher {
     if (selector == null || element == null) {
       return false;
     }
-
-    if (selector instanceof SelectorList list) {
-      return matchesSelectorList(list, element);
-    } else if (selector instanceof ComplexSelector complex) {
-      return matchesComplexSelector(complex, element);
-    } else if (selector instanceof CompoundSelector compound) {
-      return matchesCompoundSelector(compound, element);
-    } else if (selector instanceof SimpleSelector simple) {
-      return matchesSimpleSelector(simple, element);
-    }
-    return false;
+    return CompiledSelector.compile(selector).matches(element);
   }
 
   /**
@@ -76,121 +62,4 @@ public final class CssSelectorMatcher {
       return true;
     } else return selector instanceof PseudoElementSelector;
   }
-
-  // --- Matching logic ---
-
-  private static boolean matchesSelectorList(SelectorList list, HtmlElement element) {
-    for (CssSelector s : list.selectors()) {
-      if (matches(s, element)) {
-        return true;
-      }
-    }
-    return false;
-  }
-
-  private static boolean matchesComplexSelector(ComplexSelector complex, HtmlElement element) {
-    if (!matches(complex.right(), element)) {
-      return false;
-    }
-
-    return switch (complex.combinator()) {
-      case DESCENDANT -> matchesDescendant(complex.left(), element);
-      case CHILD -> matchesChild(complex.left(), element);
-      case ADJACENT_SIBLING -> matchesAdjacentSibling(complex.left(), element);
-      case GENERAL_SIBLING -> matchesGeneralSibling(complex.left(), element);
-    };
-  }
-
-  private static boolean matchesDescendant(CssSelector left, HtmlElement element) {
-    HtmlElement ancestor = element.getParent();
-    while (ancestor != null) {
-      if (matches(left, ancestor)) {
-        return true;
-      }
-      ancestor = ancestor.getParent();
-    }
-    return false;
-  }
-
-  private static boolean matchesChild(CssSelector left, HtmlElement element) {
-    HtmlElement parent = element.getParent();
-    return parent != null && matches(left, parent);
-  }
-
-  private static boolean matchesAdjacentSibling(CssSelector left, HtmlElement element) {
-    HtmlElement prev = element.previousSibling();
-    return prev != null && matches(left, prev);
-  }
-
-  private static boolean matchesGeneralSibling(CssSelector left, HtmlElement element) {
-    if (element.getParent() == null) {
-      return false;
-    }
-    int myIndex = element.indexInParent();
-    for (int i = 0; i < myIndex; i++) {
-      if (matches(left, element.getParent().getChildren().get(i))) {
-        return true;
-      }
-    }
-    return false;
-  }
-
-  private static boolean matchesCompoundSelector(CompoundSelector compound, HtmlElement element) {
-    for (SimpleSelector part : compound.parts()) {
-      if (!matchesSimpleSelector(part, element)) {
-        return false;
-      }
-    }
-    return true;
-  }
-
-  private static boolean matchesSimpleSelector(SimpleSelector selector, HtmlElement element) {
-    if (selector instanceof UniversalSelector) {
-      return true;
-    } else if (selector instanceof TypeSelector type) {
-      return element.getTagName().equalsIgnoreCase(type.tagName());
-    } else if (selector instanceof ClassSelector cls) {
-      return element.getClassNames().contains(cls.className());
-    } else if (selector instanceof IdSelector id) {
-      return id.id().equals(element.getId());
-    } else if (selector instanceof AttributeSelector attr) {
-      return matchesAttribute(attr, element);
-    } else if (selector instanceof PseudoClassSelector) {
-      return false; // Can't inline pseudo-classes
-    } else if (selector instanceof PseudoElementSelector) {
-      return false; // Can't inline pseudo-elements
-    }
-    return false;
-  }
-
-  private static boolean matchesAttribute(AttributeSelector attr, HtmlElement element) {
-    String value = element.getAttribute(attr.attribute());
-
-    if (attr.operator() == null) {
-      return value != null;
-    }
-
-    if (value == null) {
-      return false;
-    }
-
-    String expected = attr.value();
-    String op = attr.operator();
-
-    if ("=".equals(op)) {
-      return value.equals(expected);
-    } else if ("~=".equals(op)) {
-      Set<String> words = Set.of(CssUnitParser.WHITESPACE.split(value));
-      return words.contains(expected);
-    } else if ("|=".equals(op)) {
-      return value.equals(expected) || value.startsWith(expected + "-");
-    } else if ("^=".equals(op)) {
-      return value.startsWith(expected);
-    } else if ("$=".equals(op)) {
-      return value.endsWith(expected);
-    } else if ("*=".equals(op)) {
-      return value.contains(expected);
-    }
-    return false;
-  }
 }
@@ -1,5 +1,6 @@
 package dev.jcputney.mjml.css;
 
+import dev.jcputney.mjml.CacheStats;
 import dev.jcputney.mjml.css.CssSelector.AttributeSelector;
 import dev.jcputney.mjml.css.CssSelector.ClassSelector;
 import dev.jcputney.mjml.css.CssSelector.Combinator;
@@ -12,6 +13,8 @@ import dev.jcputney.mjml.css.CssSelector.SelectorList;
 import dev.jcputney.mjml.css.CssSelector.SimpleSelector;
 import dev.jcputney.mjml.css.CssSelector.TypeSelector;
 import dev.jcputney.mjml.css.CssSelector.UniversalSelector;
+import dev.jcputney.mjml.util.BoundedCache;
+import dev.jcputney.mjml.util.CacheRegistry;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -30,6 +33,16 @@ import java.util.List;
  */
 public final class CssSelectorParser {
 
+  /**
+   * Parsed selectors keyed by their text, shared by every render in the process. The same selectors
+   * recur across templates through {@code mj-html-attributes}, {@code mj-style}, and shared theme
+   * CSS; parsed selectors are immutable, so one instance serves all threads.
+   */
+  private static final int CACHE_MAX_SIZE = 4096;
+
+  private static final BoundedCache<String, CssSelector> CACHE =
+      CacheRegistry.register("css.selectors", CACHE_MAX_SIZE);
+
   private final String input;
   private int pos;
 
@@ -39,7 +52,8 @@ public final class CssSelectorParser {
   }
 
   /**
-   * Parses a selector string into a CssSelector tree.
+   * Parses a selector string into a CssSelector tree. Results are cached process-wide by selector
+   * text, so parsing a selector seen before returns the same immutable instance.
    *
    * @param selectorText the CSS selector text
    * @return the parsed selector, or null if parsing fails
@@ -48,6 +62,19 @@ public final class CssSelectorParser {
     if (selectorText == null || selectorText.isBlank()) {
       return null;
     }
+    return CACHE.get(selectorText, CssSelectorParser::parseUncached);
+  }
+
+  /**
+   * Returns the hit and miss counts and size of the process-wide parsed selector cache.
+   *
+   * @return the cache statistics
+   */
+  public static CacheStats cacheStats() {
+    return CACHE.stats();
+  }
+
+  private static CssSelector parseUncached(String selectorText) {
     try {
       CssSelectorParser parser = new CssSelectorParser(selectorText.trim());
       return parser.parseSelectorList();
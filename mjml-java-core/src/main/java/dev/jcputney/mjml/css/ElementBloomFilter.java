@@ -0,0 +1,118 @@
+package dev.jcputney.mjml.css;
+
+/**
+ * Fixed-size Bloom filter over element tag names, class names, and ids, used to reject descendant
+ * and sibling selectors without walking the tree.
+ *
+ * <p>Each {@link HtmlElement} lazily derives two filters from its neighbours: one holding the keys
+ * of all its ancestors and one holding the keys of all its preceding siblings. Before a combinator
+ * walks the tree looking for an element matching the left-hand compound selector, the matcher
+ * checks that every tag, class, and id the compound requires may be present in the relevant filter.
+ * A negative answer is definite; a positive one falls back to the walk. This is the same technique
+ * browser engines use for selector matching, except that the tree here is fixed after parsing, so
+ * plain (non-counting) filters suffice.
+ */
+final class ElementBloomFilter {
+
+  /** Filter size in bits. 256 bits keeps false positives low for typical email nesting depths. */
+  static final int BITS = 256;
+
+  private static final int WORDS = BITS / 64;
+  private static final int MASK = BITS - 1;
+
+  private static final int TAG_SALT = 0x9E3779B9;
+  private static final int CLASS_SALT = 0x85EBCA6B;
+  private static final int ID_SALT = 0xC2B2AE35;
+
+  private ElementBloomFilter() {}
+
+  /**
+   * Creates an empty filter.
+   *
+   * @return a new filter with no bits set
+   */
+  static long[] create() {
+    return new long[WORDS];
+  }
+
+  /**
+   * Creates a filter containing everything in {@code base} plus the keys of {@code element}.
+   *
+   * @param base the filter to copy
+   * @param element the element whose tag, classes, and id are added
+   * @return a new filter
+   */
+  static long[] with(long[] base, HtmlElement element) {
+    long[] filter = base.clone();
+    add(filter, tagKey(element.getTagName()));
+    for (String cls : element.getClassNames()) {
+      add(filter, classKey(cls));
+    }
+    String id = element.getId();
+    if (id != null && !id.isEmpty()) {
+      add(filter, idKey(id));
+    }
+    return filter;
+  }
+
+  /**
+   * Returns the key of a lowercase tag name.
+   *
+   * @param tagName the tag name
+   * @return the key
+   */
+  static int tagKey(String tagName) {
+    return mix(tagName.hashCode() ^ TAG_SALT);
+  }
+
+  /**
+   * Returns the key of a class name.
+   *
+   * @param className the class name
+   * @return the key
+   */
+  static int classKey(String className) {
+    return mix(className.hashCode() ^ CLASS_SALT);
+  }
+
+  /**
+   * Returns the key of an id.
+   *
+   * @param id the id
+   * @return the key
+   */
+  static int idKey(String id) {
+    return mix(id.hashCode() ^ ID_SALT);
+  }
+
+  /**
+   * Tests whether a key may have been added to the filter.
+   *
+   * @param filter the filter
+   * @param key a key from {@link #tagKey}, {@link #classKey}, or {@link #idKey}
+   * @return {@code false} if the key was definitely never added
+   */
+  static boolean mightContain(long[] filter, int key) {
+    int first = key & MASK;
+    int second = (key >>> 16) & MASK;
+    return (filter[first >>> 6] & (1L << first)) != 0
+        && (filter[second >>> 6] & (1L << second)) != 0;
+  }
+
+  private static void add(long[] filter, int key) {
+    int first = key & MASK;
+    int second = (key >>> 16) & MASK;
+    filter[first >>> 6] |= 1L << first;
+    filter[second >>> 6] |= 1L << second;
+  }
+
+  /** MurmurHash3 32-bit finalizer, spreading String hash codes over both halves of the key. */
+  private static int mix(int h) {
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    h *= 0xC2B2AE35;
+    h ^= h >>> 16;
+    return h;
+  }
+}
@@ -1,10 +1,13 @@
 package dev.jcputney.mjml.css;
 
+import dev.jcputney.mjml.css.HtmlToken.Type;
+import dev.jcputney.mjml.util.CharScanner;
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Deque;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Lightweight HTML tokenizer that builds an {@link HtmlElement} tree from HTML text.
@@ -32,6 +35,9 @@ public final class HtmlDocumentParser {
   /** Raw text elements whose content should not be parsed as HTML. */
   private static final Set<String> RAW_TEXT_ELEMENTS = Set.of("style", "script");
 
+  /** The characters that end an opening tag or start a quoted value inside it. */
+  private static final long TAG_END_OR_QUOTE = CharScanner.mask('>', '"', '\'');
+
   private HtmlDocumentParser() {}
 
   /**
@@ -48,7 +54,23 @@ public final class HtmlDocumentParser {
 
     Deque<HtmlElement> stack = new ArrayDeque<>();
     stack.push(root);
+    tokenize(html, 0, stack, null);
+    return root;
+  }
 
+  /**
+   * Splits HTML into tokens and, when {@code stack} is given, builds the element tree at the same
+   * time. Every character of {@code html} belongs to exactly one token, so writing the tokens back
+   * reproduces the input.
+   *
+   * @param html the HTML to tokenize
+   * @param offset the document offset of {@code html}, added to recorded element positions
+   * @param stack the open elements, with the document root at the bottom; {@code null} to skip
+   *     building elements
+   * @param sink receives the tokens in document order; may be {@code null}
+   */
+  static void tokenize(
+      String html, int offset, Deque<HtmlElement> stack, Consumer<HtmlToken> sink) {
     int pos = 0;
     int len = html.length();
 
@@ -57,6 +79,7 @@ public final class HtmlDocumentParser {
       if (tagStart < 0) {
         break;
       }
+      emit(sink, Type.TEXT, html, pos, tagStart, offset, null);
       pos = tagStart;
 
       int newPos = skipSpecialTag(html, pos, len);
@@ -64,19 +87,44 @@ public final class HtmlDocumentParser {
         break;
       }
       if (newPos > pos) {
+        Type type = html.startsWith("<!--", pos) ? Type.COMMENT : Type.OTHER;
+        emit(sink, type, html, pos, newPos, offset, null);
         pos = newPos;
         continue;
       }
 
       if (pos + 1 < len && html.charAt(pos + 1) == '/') {
-        pos = handleClosingTag(html, pos, stack);
+        newPos = handleClosingTag(html, pos, stack);
+        if (newPos < 0) {
+          break;
+        }
+        emit(sink, Type.END_TAG, html, pos, newPos, offset, null);
+        pos = newPos;
         continue;
       }
 
-      pos = handleOpeningTag(html, pos, stack);
+      newPos = handleOpeningTag(html, pos, offset, stack, sink);
+      if (newPos < 0) {
+        break;
+      }
+      pos = newPos;
     }
 
-    return root;
+    // Trailing text, or an unterminated tag or comment, which is kept verbatim
+    emit(sink, Type.TEXT, html, pos, len, offset, null);
+  }
+
+  private static void emit(
+      Consumer<HtmlToken> sink,
+      Type type,
+      String html,
+      int start,
+      int end,
+      int offset,
+      HtmlElement element) {
+    if (sink != null && end > start) {
+      sink.accept(new HtmlToken(type, html, start, end, offset, element));
+    }
   }
 
   /**
@@ -113,89 +161,112 @@ public final class HtmlDocumentParser {
   }
 
   /**
-   * Handles a closing tag at the given position. Returns the new parse position, or -1 if the tag
-   * is unterminated.
+   * Handles a closing tag at the given position. Returns the position after the tag, or -1 if the
+   * tag is unterminated.
    */
   private static int handleClosingTag(String html, int pos, Deque<HtmlElement> stack) {
     int closeEnd = html.indexOf('>', pos);
     if (closeEnd < 0) {
-      return html.length();
+      return -1;
+    }
+    if (stack != null) {
+      int nameStart = pos + 2;
+      int nameEnd = closeEnd;
+      while (nameStart < nameEnd && Character.isWhitespace(html.charAt(nameStart))) {
+        nameStart++;
+      }
+      while (nameEnd > nameStart && Character.isWhitespace(html.charAt(nameEnd - 1))) {
+        nameEnd--;
+      }
+      popUntilTag(stack, KnownNames.HTML.name(html, nameStart, nameEnd));
     }
-    String tagName = html.substring(pos + 2, closeEnd).trim().toLowerCase();
-    popUntilTag(stack, tagName);
     return closeEnd + 1;
   }
 
   /**
-   * Handles an opening tag at the given position. Creates the element, adds it to the tree, and
-   * optionally skips raw text content. Returns the new parse position.
+   * Handles an opening tag at the given position: emits it, creates the element and adds it to the
+   * tree when building one, and skips raw text content. Returns the new parse position, or -1 if
+   * the tag is unterminated.
    */
-  private static int handleOpeningTag(String html, int pos, Deque<HtmlElement> stack) {
+  private static int handleOpeningTag(
+      String html, int pos, int offset, Deque<HtmlElement> stack, Consumer<HtmlToken> sink) {
     int tagEnd = findTagEnd(html, pos);
     if (tagEnd < 0) {
-      return html.length();
+      return -1;
     }
 
-    String tagContent = html.substring(pos + 1, tagEnd);
-    boolean selfClosing = tagContent.endsWith("/");
+    int contentEnd = tagEnd;
+    boolean selfClosing = tagEnd > pos + 1 && html.charAt(tagEnd - 1) == '/';
     if (selfClosing) {
-      tagContent = tagContent.substring(0, tagContent.length() - 1);
+      contentEnd--;
     }
-
-    int firstSpace = indexOfWhitespace(tagContent);
-    String tagName;
-    String attrString;
-    if (firstSpace < 0) {
-      tagName = tagContent.trim().toLowerCase();
-      attrString = "";
-    } else {
-      tagName = tagContent.substring(0, firstSpace).trim().toLowerCase();
-      // Don't trim — parseAttributes skips leading whitespace internally,
-      // and trimming shifts positions, breaking style attribute range tracking
-      attrString = tagContent.substring(firstSpace);
+    int nameEnd = pos + 1;
+    while (nameEnd < contentEnd && !Character.isWhitespace(html.charAt(nameEnd))) {
+      nameEnd++;
     }
 
-    if (tagName.isEmpty() || tagName.startsWith("!")) {
+    if (nameEnd == pos + 1 || html.charAt(pos + 1) == '!') {
+      emit(sink, Type.OTHER, html, pos, tagEnd + 1, offset, null);
       return tagEnd + 1;
     }
 
-    int[] styleRange = new int[] {-1, -1};
-    Map<String, String> attrs =
-        parseAttributes(
-            attrString, pos + 1 + (firstSpace >= 0 ? firstSpace : tagContent.length()), styleRange);
-
-    HtmlElement element = new HtmlElement(tagName, attrs);
-    element.setTagStart(pos);
-    element.setTagEnd(tagEnd + 1);
-    if (styleRange[0] >= 0) {
-      element.setStyleAttrStart(styleRange[0]);
-      element.setStyleAttrEnd(styleRange[1]);
-    }
+    String rawTextTag = rawTextTagName(html, pos + 1, nameEnd);
+    HtmlElement element = null;
+    if (stack != null) {
+      String tagName = KnownNames.HTML.name(html, pos + 1, nameEnd);
+      element = parseAttributes(tagName, html, nameEnd, contentEnd, offset);
+      element.setTagStart(offset + pos);
+      element.setTagEnd(offset + tagEnd + 1);
 
-    stack.peek().addChild(element);
+      stack.peek().addChild(element);
 
-    if (!selfClosing && !VOID_ELEMENTS.contains(tagName)) {
-      stack.push(element);
+      if (!selfClosing && !VOID_ELEMENTS.contains(tagName)) {
+        stack.push(element);
+      }
     }
+    emit(sink, Type.START_TAG, html, pos, tagEnd + 1, offset, element);
 
     int newPos = tagEnd + 1;
 
-    if (!selfClosing && RAW_TEXT_ELEMENTS.contains(tagName)) {
-      newPos = skipRawTextContent(html, tagName, newPos, stack);
+    if (!selfClosing && rawTextTag != null) {
+      newPos = skipRawTextContent(html, rawTextTag, newPos, offset, stack, sink);
     }
 
     return newPos;
   }
 
-  /** Skips the content of a raw text element (style, script) and pops it from the stack. */
+  /** Returns {@code "style"} or {@code "script"} if the tag name is one of them, else null. */
+  private static String rawTextTagName(String html, int nameStart, int nameEnd) {
+    for (String tag : RAW_TEXT_ELEMENTS) {
+      if (nameEnd - nameStart == tag.length()
+          && html.regionMatches(true, nameStart, tag, 0, tag.length())) {
+        return tag;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Skips the content of a raw text element (style, script), emitting it as text followed by the
+   * closing tag, and pops the element from the stack.
+   */
   private static int skipRawTextContent(
-      String html, String tagName, int pos, Deque<HtmlElement> stack) {
+      String html,
+      String tagName,
+      int pos,
+      int offset,
+      Deque<HtmlElement> stack,
+      Consumer<HtmlToken> sink) {
     String closeTag = "</" + tagName;
-    int closeStart = indexOfIgnoreCase(html, closeTag, pos);
+    int closeStart = CharScanner.indexOfIgnoreCase(html, closeTag, pos);
     if (closeStart >= 0) {
       int closeEnd = html.indexOf('>', closeStart);
       if (closeEnd >= 0) {
-        popUntilTag(stack, tagName);
+        if (stack != null) {
+          popUntilTag(stack, tagName);
+        }
+        emit(sink, Type.TEXT, html, pos, closeStart, offset, null);
+        emit(sink, Type.END_TAG, html, closeStart, closeEnd + 1, offset, null);
         return closeEnd + 1;
       }
     }
@@ -216,7 +287,7 @@ public final class HtmlDocumentParser {
     int pos = 0;
     while (pos < html.length()) {
       // Find <style
-      int styleStart = indexOfIgnoreCase(html, "<style", pos);
+      int styleStart = CharScanner.indexOfIgnoreCase(html, "<style", pos);
       if (styleStart < 0) {
         cleanHtml.append(html, pos, html.length());
         break;
@@ -233,7 +304,7 @@ public final class HtmlDocumentParser {
       }
 
       // Find </style>
-      int closeStart = indexOfIgnoreCase(html, "</style", tagEnd + 1);
+      int closeStart = CharScanner.indexOfIgnoreCase(html, "</style", tagEnd + 1);
       if (closeStart < 0) {
         cleanHtml.append(html, styleStart, html.length());
         break;
@@ -258,17 +329,19 @@ public final class HtmlDocumentParser {
   }
 
   private static int findTagEnd(String html, int tagStart) {
-    boolean inSingle = false;
-    boolean inDouble = false;
-    for (int i = tagStart + 1; i < html.length(); i++) {
+    int len = html.length();
+    int i = CharScanner.indexOfAny(html, tagStart + 1, len, TAG_END_OR_QUOTE);
+    while (i >= 0) {
       char c = html.charAt(i);
-      if (c == '\'' && !inDouble) {
-        inSingle = !inSingle;
-      } else if (c == '"' && !inSingle) {
-        inDouble = !inDouble;
-      } else if (c == '>' && !inSingle && !inDouble) {
+      if (c == '>') {
         return i;
       }
+      // Skip the quoted value, in which > does not end the tag
+      int closingQuote = html.indexOf(c, i + 1);
+      if (closingQuote < 0) {
+        return -1;
+      }
+      i = CharScanner.indexOfAny(html, closingQuote + 1, len, TAG_END_OR_QUOTE);
     }
     return -1;
   }
@@ -287,124 +360,102 @@ public final class HtmlDocumentParser {
     }
   }
 
-  private static Map<String, String> parseAttributes(
-      String attrString, int baseOffset, int[] styleRange) {
-    Map<String, String> attrs = new LinkedHashMap<>();
-    if (attrString == null || attrString.isBlank()) {
-      return attrs;
-    }
-
-    int[] posHolder = {0};
-    int len = attrString.length();
-
-    while (posHolder[0] < len) {
-      skipWhitespace(attrString, posHolder, len);
-      if (posHolder[0] >= len) {
+  /**
+   * Parses the attributes in {@code html[from, to)} into a new element. Names are looked up in
+   * {@link KnownNames#HTML}; values are recorded as ranges of {@code html} and only copied when
+   * read. A repeated attribute keeps its first position and its last value.
+   */
+  private static HtmlElement parseAttributes(
+      String tagName, String html, int from, int to, int offset) {
+    String[] names = null;
+    int[] bounds = null;
+    int count = 0;
+    int styleStart = -1;
+    int styleEnd = -1;
+
+    int pos = from;
+    while (pos < to) {
+      while (pos < to && Character.isWhitespace(html.charAt(pos))) {
+        pos++;
+      }
+      if (pos >= to) {
         break;
       }
 
       // Parse attribute name
-      int nameStart = posHolder[0];
-      while (posHolder[0] < len
-          && attrString.charAt(posHolder[0]) != '='
-          && !Character.isWhitespace(attrString.charAt(posHolder[0]))
-          && attrString.charAt(posHolder[0]) != '/') {
-        posHolder[0]++;
+      int nameStart = pos;
+      while (pos < to
+          && html.charAt(pos) != '='
+          && !Character.isWhitespace(html.charAt(pos))
+          && html.charAt(pos) != '/') {
+        pos++;
       }
-
-      if (posHolder[0] == nameStart) {
-        posHolder[0]++;
+      if (pos == nameStart) {
+        pos++;
         continue;
       }
+      String name = KnownNames.HTML.name(html, nameStart, pos);
 
-      String name = attrString.substring(nameStart, posHolder[0]).toLowerCase();
-
-      skipWhitespace(attrString, posHolder, len);
-
-      if (posHolder[0] >= len || attrString.charAt(posHolder[0]) != '=') {
-        attrs.put(name, "");
-        continue;
+      while (pos < to && Character.isWhitespace(html.charAt(pos))) {
+        pos++;
       }
-      posHolder[0]++; // consume '='
-
-      skipWhitespace(attrString, posHolder, len);
-
-      if (posHolder[0] >= len) {
-        attrs.put(name, "");
-        continue;
+      int valueStart = pos;
+      int valueEnd = pos;
+      if (pos < to && html.charAt(pos) == '=') {
+        pos++; // consume '='
+        while (pos < to && Character.isWhitespace(html.charAt(pos))) {
+          pos++;
+        }
+        char quote = pos < to ? html.charAt(pos) : 0;
+        if (quote == '"' || quote == '\'') {
+          valueStart = ++pos;
+          while (pos < to && html.charAt(pos) != quote) {
+            pos++;
+          }
+          valueEnd = pos;
+          if (pos < to) {
+            pos++; // consume closing quote
+          }
+          if ("style".equals(name)) {
+            styleStart = offset + valueStart;
+            styleEnd = offset + valueEnd;
+          }
+        } else {
+          // Unquoted attribute value
+          valueStart = pos;
+          while (pos < to && !Character.isWhitespace(html.charAt(pos)) && html.charAt(pos) != '>') {
+            pos++;
+          }
+          valueEnd = pos;
+        }
+      } else {
+        valueStart = valueEnd = nameStart;
       }
 
-      String value =
-          parseAttrValue(attrString, posHolder, len, baseOffset, "style".equals(name), styleRange);
-      attrs.put(name, value);
-    }
-
-    return attrs;
-  }
-
-  private static void skipWhitespace(String s, int[] posHolder, int len) {
-    while (posHolder[0] < len && Character.isWhitespace(s.charAt(posHolder[0]))) {
-      posHolder[0]++;
-    }
-  }
-
-  private static String parseAttrValue(
-      String attrString,
-      int[] posHolder,
-      int len,
-      int baseOffset,
-      boolean isStyle,
-      int[] styleRange) {
-    char quote = attrString.charAt(posHolder[0]);
-    if (quote == '"' || quote == '\'') {
-      posHolder[0]++; // consume opening quote
-      int valueStart = posHolder[0];
-      int absValueStart = baseOffset + posHolder[0];
-
-      while (posHolder[0] < len && attrString.charAt(posHolder[0]) != quote) {
-        posHolder[0]++;
+      int index = 0;
+      while (index < count && !names[index].equals(name)) {
+        index++;
       }
-      String value = attrString.substring(valueStart, posHolder[0]);
-
-      if (isStyle) {
-        styleRange[0] = absValueStart;
-        styleRange[1] = baseOffset + posHolder[0];
-      }
-
-      if (posHolder[0] < len) {
-        posHolder[0]++; // consume closing quote
+      if (index == count) {
+        if (names == null) {
+          names = new String[4];
+          bounds = new int[8];
+        } else if (count == names.length) {
+          names = Arrays.copyOf(names, count * 2);
+          bounds = Arrays.copyOf(bounds, count * 4);
+        }
+        names[count++] = name;
       }
-      return value;
-    }
-
-    // Unquoted attribute value
-    int valueStart = posHolder[0];
-    while (posHolder[0] < len
-        && !Character.isWhitespace(attrString.charAt(posHolder[0]))
-        && attrString.charAt(posHolder[0]) != '>') {
-      posHolder[0]++;
+      bounds[2 * index] = valueStart;
+      bounds[2 * index + 1] = valueEnd;
     }
-    return attrString.substring(valueStart, posHolder[0]);
-  }
 
-  private static int indexOfWhitespace(String s) {
-    for (int i = 0; i < s.length(); i++) {
-      if (Character.isWhitespace(s.charAt(i))) {
-        return i;
-      }
+    HtmlElement element = new HtmlElement(tagName, html, names, bounds, count);
+    if (styleStart >= 0) {
+      element.setStyleAttrStart(styleStart);
+      element.setStyleAttrEnd(styleEnd);
     }
-    return -1;
-  }
-
-  private static int indexOfIgnoreCase(String haystack, String needle, int fromIndex) {
-    int needleLen = needle.length();
-    int limit = haystack.length() - needleLen;
-    for (int i = fromIndex; i <= limit; i++) {
-      if (haystack.regionMatches(true, i, needle, 0, needleLen)) {
-        return i;
-      }
-    }
-    return -1;
+    return element;
   }
 
   /**
@@ -1,9 +1,11 @@
 package dev.jcputney.mjml.css;
 
-import dev.jcputney.mjml.util.CssUnitParser;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -12,20 +14,48 @@ import java.util.Set;
  * Lightweight HTML element representation for CSS selector matching and style inlining. This is NOT
  * a full DOM - it's a minimal model that supports the operations needed by the CSS inliner: tag
  * name, attributes, parent/child/sibling navigation.
+ *
+ * <p>Elements created by {@link HtmlDocumentParser} are compact: tag and attribute names common in
+ * email HTML are shared instances, attributes are kept in parallel arrays rather than a map, and
+ * attribute values are cut from the parsed HTML only when first read, so the long {@code style}
+ * values of elements that no rule matches are never copied. Leaf elements allocate no child list.
  */
 public final class HtmlElement {
 
+  private static final long[] EMPTY_FILTER = ElementBloomFilter.create();
+
+  private static final String[] NO_NAMES = new String[0];
+
   private final String tagName;
-  private final Map<String, String> attributes;
-  private final List<HtmlElement> children;
+  // Attributes in source order, as parallel arrays of lowercase names and values
+  private String[] attrNames;
+  private String[] attrValues;
+  private int attrCount;
+  // Source of values not read yet, and their [start, end) ranges in it; a start of -1 marks a value
+  // that has been read (or set) into attrValues
+  private final String source;
+  private int[] valueBounds;
+  private List<HtmlElement> children;
   private HtmlElement parent;
 
   // Cached class names set (computed lazily)
   private Set<String> cachedClassNames;
   // Cached index in parent's children list (set during addChild)
   private int cachedIndex = -1;
-  // Cached list of all descendants (computed lazily, tree is immutable after parse)
+  // Previous sibling (set during addChild)
+  private HtmlElement previous;
+  // Bloom filter of this element's and its ancestors' keys, shared by all children (lazy)
+  private long[] filterForChildren;
+  // Bloom filter of the keys of all preceding siblings (lazy)
+  private long[] precedingSiblingFilter;
+  // Cached list of all descendants (computed lazily, the tree's shape is fixed after parse)
   private List<HtmlElement> cachedDescendants;
+  // Descendants keyed by "#id", ".class", and tag name (computed lazily)
+  private Map<String, List<HtmlElement>> descendantsByKey;
+  // Names of attributes set through setAttribute, in the order they were first set
+  private Set<String> addedAttributes;
+  // Whether setStyle changed the style since parsing
+  private boolean styleChanged;
 
   // Position in the original HTML string for in-place style modification
   private int tagStart = -1; // position of '<'
@@ -41,11 +71,37 @@ public final class HtmlElement {
    */
   public HtmlElement(String tagName, Map<String, String> attributes) {
     this.tagName = tagName.toLowerCase();
-    this.attributes = new LinkedHashMap<>(attributes);
-    this.children = new ArrayList<>();
+    this.source = null;
+    this.attrNames = new String[attributes.size()];
+    this.attrValues = new String[attributes.size()];
+    for (Map.Entry<String, String> attr : attributes.entrySet()) {
+      put(attr.getKey().toLowerCase(), attr.getValue());
+    }
+  }
+
+  /**
+   * Creates a parsed element whose attribute values are read lazily from the parsed HTML.
+   *
+   * @param tagName the lowercase tag name
+   * @param source the HTML the element was parsed from
+   * @param names the lowercase attribute names, without duplicates; {@code null} if there are none
+   * @param valueBounds the start and end in {@code source} of each attribute's value, twice as long
+   *     as {@code names}
+   * @param count the number of attributes
+   */
+  HtmlElement(String tagName, String source, String[] names, int[] valueBounds, int count) {
+    this.tagName = tagName;
+    this.source = source;
+    this.attrNames = names != null ? names : NO_NAMES;
+    this.attrValues = names != null ? new String[names.length] : NO_NAMES;
+    this.valueBounds = valueBounds;
+    this.attrCount = count;
   }
 
   private static void collectDescendants(HtmlElement element, List<HtmlElement> result) {
+    if (element.children == null) {
+      return;
+    }
     for (HtmlElement child : element.children) {
       result.add(child);
       collectDescendants(child, result);
@@ -68,25 +124,77 @@ public final class HtmlElement {
    * @return the attribute value, or {@code null} if the attribute is not set
    */
   public String getAttribute(String name) {
-    return attributes.get(name.toLowerCase());
+    for (int i = 0; i < attrCount; i++) {
+      if (attrNames[i].equalsIgnoreCase(name)) {
+        return value(i);
+      }
+    }
+    return null;
+  }
+
+  /** Returns the value of an attribute whose name is already lowercase. */
+  String attributeValue(String lowerCaseName) {
+    int index = indexOf(lowerCaseName);
+    return index >= 0 ? value(index) : null;
   }
 
   /**
-   * Returns an unmodifiable view of all attributes on this element.
+   * Returns an unmodifiable snapshot of all attributes on this element, in source order.
    *
    * @return an unmodifiable map of attribute names to values
    */
   public Map<String, String> getAttributes() {
+    Map<String, String> attributes = new LinkedHashMap<>();
+    for (int i = 0; i < attrCount; i++) {
+      attributes.put(attrNames[i], value(i));
+    }
     return Collections.unmodifiableMap(attributes);
   }
 
+  private int indexOf(String lowerCaseName) {
+    for (int i = 0; i < attrCount; i++) {
+      if (attrNames[i].equals(lowerCaseName)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private String value(int index) {
+    if (valueBounds != null && valueBounds[2 * index] >= 0) {
+      attrValues[index] = source.substring(valueBounds[2 * index], valueBounds[2 * index + 1]);
+      valueBounds[2 * index] = -1;
+    }
+    return attrValues[index];
+  }
+
+  private void put(String lowerCaseName, String value) {
+    int index = indexOf(lowerCaseName);
+    if (index < 0) {
+      if (attrCount == attrNames.length) {
+        int capacity = Math.max(4, attrCount * 2);
+        attrNames = Arrays.copyOf(attrNames, capacity);
+        attrValues = Arrays.copyOf(attrValues, capacity);
+        if (valueBounds != null) {
+          valueBounds = Arrays.copyOf(valueBounds, capacity * 2);
+        }
+      }
+      index = attrCount++;
+      attrNames[index] = lowerCaseName;
+    }
+    attrValues[index] = value;
+    if (valueBounds != null) {
+      valueBounds[2 * index] = -1;
+    }
+  }
+
   /**
    * Returns the value of the {@code id} attribute, or {@code null} if not set.
    *
    * @return the element ID, or {@code null}
    */
   public String getId() {
-    return attributes.get("id");
+    return attributeValue("id");
   }
 
   /**
@@ -99,12 +207,7 @@ public final class HtmlElement {
     if (cachedClassNames != null) {
       return cachedClassNames;
     }
-    String cls = attributes.get("class");
-    if (cls == null || cls.isBlank()) {
-      cachedClassNames = Set.of();
-    } else {
-      cachedClassNames = Set.of(CssUnitParser.WHITESPACE.split(cls.trim()));
-    }
+    cachedClassNames = splitClassNames(attributeValue("class"));
     return cachedClassNames;
   }
 
@@ -114,7 +217,7 @@ public final class HtmlElement {
    * @return the inline style string, or {@code null}
    */
   public String getStyle() {
-    return attributes.get("style");
+    return attributeValue("style");
   }
 
   /**
@@ -123,7 +226,49 @@ public final class HtmlElement {
    * @param style the new style string
    */
   public void setStyle(String style) {
-    attributes.put("style", style);
+    put("style", style);
+    styleChanged = true;
+  }
+
+  /**
+   * Sets an attribute on this element. The attribute is recorded as added, so {@link HtmlRewriter}
+   * writes it after the element's original attributes; the value is written verbatim and must
+   * already be escaped. Changing the {@code class} or {@code id} discards the tree's cached
+   * selector-matching state.
+   *
+   * @param name the attribute name (case-insensitive)
+   * @param value the escaped attribute value
+   */
+  public void setAttribute(String name, String value) {
+    String key = name.toLowerCase();
+    put(key, value);
+    if (addedAttributes == null) {
+      addedAttributes = new LinkedHashSet<>();
+    }
+    addedAttributes.add(key);
+    if ("class".equals(key) || "id".equals(key)) {
+      cachedClassNames = null;
+      discardMatchingState();
+    }
+  }
+
+  /** Returns the names of attributes set through {@link #setAttribute}, in the order first set. */
+  Set<String> addedAttributes() {
+    return addedAttributes != null ? addedAttributes : Set.of();
+  }
+
+  /** Whether {@link #setStyle} was called since parsing. */
+  boolean isStyleChanged() {
+    return styleChanged;
+  }
+
+  /**
+   * Whether this element has changes that {@link HtmlRewriter} writes back.
+   *
+   * @return {@code true} if the style was changed or attributes were added
+   */
+  public boolean isModified() {
+    return styleChanged || addedAttributes != null;
   }
 
   /**
@@ -138,10 +283,10 @@ public final class HtmlElement {
   /**
    * Returns the list of child elements.
    *
-   * @return the mutable list of children
+   * @return the children in document order; an empty, unmodifiable list if there are none
    */
   public List<HtmlElement> getChildren() {
-    return children;
+    return children != null ? children : List.of();
   }
 
   /**
@@ -150,8 +295,12 @@ public final class HtmlElement {
    * @param child the child element to add
    */
   public void addChild(HtmlElement child) {
+    if (children == null) {
+      children = new ArrayList<>(4);
+    }
     child.parent = this;
     child.cachedIndex = children.size();
+    child.previous = children.isEmpty() ? null : children.get(children.size() - 1);
     children.add(child);
   }
 
@@ -176,6 +325,9 @@ public final class HtmlElement {
     if (parent == null) {
       return null;
     }
+    if (previous != null || cachedIndex == 0) {
+      return previous;
+    }
     int idx = indexInParent();
     if (idx <= 0) {
       return null;
@@ -183,6 +335,108 @@ public final class HtmlElement {
     return parent.children.get(idx - 1);
   }
 
+  /**
+   * Returns a Bloom filter of the tag names, class names, and ids of all ancestors of this element.
+   * Computed on first use and shared between siblings; discarded when a class or id is set.
+   *
+   * @return the ancestor filter (must not be modified)
+   */
+  long[] ancestorFilter() {
+    if (parent == null) {
+      return EMPTY_FILTER;
+    }
+    if (parent.filterForChildren == null) {
+      // Find the nearest ancestor with a filter, then fill in top-down
+      List<HtmlElement> path = new ArrayList<>();
+      HtmlElement current = parent;
+      while (current != null && current.filterForChildren == null) {
+        path.add(current);
+        current = current.parent;
+      }
+      long[] filter = current != null ? current.filterForChildren : EMPTY_FILTER;
+      for (int i = path.size() - 1; i >= 0; i--) {
+        HtmlElement element = path.get(i);
+        filter = ElementBloomFilter.with(filter, element);
+        element.filterForChildren = filter;
+      }
+    }
+    return parent.filterForChildren;
+  }
+
+  /**
+   * Returns a Bloom filter of the tag names, class names, and ids of all preceding siblings of this
+   * element. Computed on first use; discarded when a class or id is set.
+   *
+   * @return the preceding-sibling filter (must not be modified)
+   */
+  long[] precedingSiblingFilter() {
+    if (precedingSiblingFilter == null) {
+      List<HtmlElement> path = new ArrayList<>();
+      HtmlElement current = this;
+      while (current != null && current.precedingSiblingFilter == null) {
+        path.add(current);
+        current = current.previous;
+      }
+      long[] filter = current != null ? current.precedingSiblingFilter : EMPTY_FILTER;
+      for (int i = path.size() - 1; i >= 0; i--) {
+        HtmlElement element = path.get(i);
+        if (element.previous != null) {
+          filter = ElementBloomFilter.with(filter, element.previous);
+        }
+        element.precedingSiblingFilter = filter;
+      }
+    }
+    return precedingSiblingFilter;
+  }
+
+  /**
+   * Returns this element's descendants that have the given id, class, or tag, in document order.
+   * Keys are {@code "#"} followed by an id, {@code "."} followed by a class name, or a lowercase
+   * tag name. The index is built on first use.
+   */
+  List<HtmlElement> descendantsWithKey(String key) {
+    if (descendantsByKey == null) {
+      Map<String, List<HtmlElement>> index = new HashMap<>();
+      for (HtmlElement element : allDescendants()) {
+        index.computeIfAbsent(element.tagName, k -> new ArrayList<>()).add(element);
+        String id = element.getId();
+        if (id != null) {
+          index.computeIfAbsent("#" + id, k -> new ArrayList<>()).add(element);
+        }
+        for (String className : element.getClassNames()) {
+          index.computeIfAbsent("." + className, k -> new ArrayList<>()).add(element);
+        }
+      }
+      descendantsByKey = index;
+    }
+    return descendantsByKey.getOrDefault(key, List.of());
+  }
+
+  /**
+   * Discards the cached matching state that includes this element's keys: the key indexes of its
+   * ancestors, the ancestor filters below it, and the preceding-sibling filters after it. Only the
+   * affected part of the tree is visited, so this is safe while the tree is still being built.
+   */
+  private void discardMatchingState() {
+    for (HtmlElement current = this; current != null; current = current.parent) {
+      current.descendantsByKey = null;
+    }
+    discardAncestorFilters(this);
+    if (parent != null) {
+      List<HtmlElement> siblings = parent.children;
+      for (int i = indexInParent() + 1; i < siblings.size(); i++) {
+        siblings.get(i).precedingSiblingFilter = null;
+      }
+    }
+  }
+
+  private static void discardAncestorFilters(HtmlElement element) {
+    element.filterForChildren = null;
+    for (HtmlElement child : element.getChildren()) {
+      discardAncestorFilters(child);
+    }
+  }
+
   /**
    * Checks if this element is a descendant of the given ancestor.
    *
@@ -202,7 +456,7 @@ public final class HtmlElement {
 
   /**
    * Returns all descendant elements in document order (depth-first). The result is cached since the
-   * tree is immutable after parsing.
+   * tree's shape does not change after parsing.
    *
    * @return a list of all descendant elements in depth-first order
    */
@@ -305,11 +559,47 @@ public final class HtmlElement {
     return tagStart >= 0 && tagEnd >= 0;
   }
 
+  /** Splits a {@code class} value on whitespace into a set of class names. */
+  private static Set<String> splitClassNames(String value) {
+    if (value == null) {
+      return Set.of();
+    }
+    List<String> names = null;
+    String single = null;
+    int len = value.length();
+    int i = 0;
+    while (i < len) {
+      while (i < len && CompiledSelector.isWhitespace(value.charAt(i))) {
+        i++;
+      }
+      int start = i;
+      while (i < len && !CompiledSelector.isWhitespace(value.charAt(i))) {
+        i++;
+      }
+      if (i > start) {
+        String name = start == 0 && i == len ? value : value.substring(start, i);
+        if (single == null) {
+          single = name;
+        } else {
+          if (names == null) {
+            names = new ArrayList<>();
+            names.add(single);
+          }
+          names.add(name);
+        }
+      }
+    }
+    if (names != null) {
+      return Set.copyOf(names);
+    }
+    return single != null ? Set.of(single) : Set.of();
+  }
+
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder("<").append(tagName);
-    for (Map.Entry<String, String> attr : attributes.entrySet()) {
-      sb.append(" ").append(attr.getKey()).append("=\"").append(attr.getValue()).append("\"");
+    for (int i = 0; i < attrCount; i++) {
+      sb.append(" ").append(attrNames[i]).append("=\"").append(value(i)).append("\"");
     }
     sb.append(">");
     return sb.toString();
@@ -0,0 +1,58 @@
+package dev.jcputney.mjml.css;
+
+import java.util.function.Consumer;
+
+/**
+ * A stage of an {@link HtmlFilterChain}. Each filter receives the document's tokens in order and
+ * passes them on to the next stage, changed or not; it may also hold tokens back, drop them, or
+ * insert new ones. All filters of a chain run within the chain's single pass over the document.
+ *
+ * <p>A filter instance processes one document at a time and may keep state between tokens.
+ *
+ * <h2>Usage</h2>
+ *
+ * <pre>{@code
+ * HtmlFilter trackLinks =
+ *     new HtmlFilter() {
+ *       public void filter(HtmlToken token, Consumer<HtmlToken> next) {
+ *         HtmlElement element = token.element();
+ *         if (element != null && "a".equals(element.getTagName())) {
+ *           element.setAttribute("data-tracked", "true");
+ *         }
+ *         next.accept(token);
+ *       }
+ *
+ *       public boolean usesElements() {
+ *         return true;
+ *       }
+ *     };
+ * }</pre>
+ */
+@FunctionalInterface
+public interface HtmlFilter {
+
+  /**
+   * Processes one token.
+   *
+   * @param token the token
+   * @param next the next stage; call it with every token that should be written
+   */
+  void filter(HtmlToken token, Consumer<HtmlToken> next);
+
+  /**
+   * Called after the last token, to pass on any tokens the filter is still holding back.
+   *
+   * @param next the next stage
+   */
+  default void finish(Consumer<HtmlToken> next) {}
+
+  /**
+   * Whether this filter reads the {@linkplain HtmlToken#element() elements} of start tags. The
+   * chain only parses attributes and builds the element tree when some filter needs it.
+   *
+   * @return {@code true} if start tags must carry their elements
+   */
+  default boolean usesElements() {
+    return false;
+  }
+}
@@ -0,0 +1,110 @@
+package dev.jcputney.mjml.css;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Rewrites HTML by streaming its tokens through a sequence of {@link HtmlFilter}s in a single pass.
+ * The document is tokenized once; each token flows through every filter in order and is then
+ * written to the output, so any number of rewrites costs one scan of the document and one output
+ * buffer.
+ *
+ * <p>Comments, including MSO conditional comments, are single tokens: a filter sees a conditional
+ * block as a whole and markup inside it never opens or closes elements. When some filter
+ * {@linkplain HtmlFilter#usesElements() uses elements}, start tags carry an {@link HtmlElement}
+ * attached to a tree that is built as the document is read, so selectors can match against its
+ * ancestors and preceding siblings.
+ *
+ * <h2>Usage</h2>
+ *
+ * <pre>{@code
+ * String result =
+ *     HtmlFilterChain.of(List.of(CssInliner.filter(stylesheet), trackLinks)).apply(html);
+ * }</pre>
+ */
+public final class HtmlFilterChain {
+
+  private final List<HtmlFilter> filters;
+  private final boolean usesElements;
+
+  private HtmlFilterChain(List<HtmlFilter> filters) {
+    this.filters = filters;
+    this.usesElements = filters.stream().anyMatch(HtmlFilter::usesElements);
+  }
+
+  /**
+   * Creates a chain of the given filters, which see each token in list order.
+   *
+   * @param filters the filters
+   * @return a new chain
+   */
+  public static HtmlFilterChain of(List<? extends HtmlFilter> filters) {
+    return new HtmlFilterChain(List.copyOf(filters));
+  }
+
+  /**
+   * Streams a document through the chain.
+   *
+   * @param html the document
+   * @return the rewritten document
+   */
+  public String apply(String html) {
+    return apply(new String[] {html});
+  }
+
+  /**
+   * Streams a document given as consecutive parts through the chain, without concatenating them
+   * first. Tokens do not span parts, so each part must begin and end between tags; element
+   * positions are offsets into the whole document.
+   *
+   * @param parts the parts of the document, in order
+   * @return the rewritten document
+   */
+  public String apply(String... parts) {
+    int length = 0;
+    for (String part : parts) {
+      length += part.length();
+    }
+    StringBuilder out = new StringBuilder(length + length / 8);
+    if (filters.isEmpty()) {
+      for (String part : parts) {
+        out.append(part);
+      }
+      return out.toString();
+    }
+
+    List<Consumer<HtmlToken>> stages = stages(out);
+    Deque<HtmlElement> stack = null;
+    if (usesElements) {
+      stack = new ArrayDeque<>();
+      stack.push(new HtmlElement("#document", Map.of()));
+    }
+    int offset = 0;
+    for (String part : parts) {
+      HtmlDocumentParser.tokenize(part, offset, stack, stages.get(0));
+      offset += part.length();
+    }
+    for (int i = 0; i < filters.size(); i++) {
+      filters.get(i).finish(stages.get(i + 1));
+    }
+    return out.toString();
+  }
+
+  /** Returns the entry point of each filter followed by the output sink. */
+  private List<Consumer<HtmlToken>> stages(StringBuilder out) {
+    List<Consumer<HtmlToken>> stages = new ArrayList<>(filters.size() + 1);
+    Consumer<HtmlToken> next = token -> token.writeTo(out);
+    stages.add(next);
+    for (int i = filters.size() - 1; i >= 0; i--) {
+      HtmlFilter filter = filters.get(i);
+      Consumer<HtmlToken> downstream = next;
+      next = token -> filter.filter(token, downstream);
+      stages.add(0, next);
+    }
+    return stages;
+  }
+}
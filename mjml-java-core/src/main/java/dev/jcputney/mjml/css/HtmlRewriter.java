@@ -0,0 +1,103 @@
+package dev.jcputney.mjml.css;
+
+import java.util.Set;
+
+/**
+ * Writes the changes made to a parsed {@link HtmlElement} tree back into the HTML it was parsed
+ * from. Changed style values replace the original {@code style} attribute value in place; added
+ * attributes, and a {@code style} attribute for elements that had none, are inserted before the end
+ * of the opening tag. Everything else is copied verbatim.
+ *
+ * <p>Elements are visited in document order, so every change lies after the previous one and the
+ * output is built in a single forward pass, however many passes changed the tree.
+ *
+ * <h2>Usage</h2>
+ *
+ * <pre>{@code
+ * HtmlElement root = HtmlDocumentParser.parse(html);
+ * CssInliner.inlineInto(root, stylesheet);
+ * String result = HtmlRewriter.rewrite(html, root);
+ * }</pre>
+ */
+public final class HtmlRewriter {
+
+  private HtmlRewriter() {}
+
+  /**
+   * Rebuilds the HTML with the changes made to the tree parsed from it.
+   *
+   * @param html the HTML the tree was parsed from
+   * @param root the parsed tree
+   * @return the HTML with all changes applied, or {@code html} itself if nothing changed
+   */
+  public static String rewrite(String html, HtmlElement root) {
+    StringBuilder sb = null;
+    int copied = 0;
+    for (HtmlElement element : root.allDescendants()) {
+      if (!element.isModified()) {
+        continue;
+      }
+      if (sb == null) {
+        sb = new StringBuilder(html.length() + 1024);
+      }
+      copied = appendChanges(sb, html, 0, copied, element);
+    }
+    if (sb == null) {
+      return html;
+    }
+    return sb.append(html, copied, html.length()).toString();
+  }
+
+  /**
+   * Appends {@code source} from {@code copied} up to the last change of a modified element's
+   * opening tag, with the changes applied.
+   *
+   * @param out the output
+   * @param source the HTML containing the element's opening tag
+   * @param offset the document offset of {@code source}, subtracted from the element's positions
+   * @param copied the position in {@code source} up to which it has been written already
+   * @param element the modified element
+   * @return the position in {@code source} up to which it has now been written
+   */
+  static int appendChanges(
+      StringBuilder out, String source, int offset, int copied, HtmlElement element) {
+    Set<String> added = element.addedAttributes();
+    String style = element.getStyle();
+    boolean writeStyle =
+        element.isStyleChanged() && style != null && !style.isEmpty() && !added.contains("style");
+    boolean replaceStyle =
+        writeStyle && element.getStyleAttrStart() >= 0 && element.getStyleAttrEnd() >= 0;
+    boolean insertStyle = writeStyle && !replaceStyle;
+
+    if (replaceStyle) {
+      out.append(source, copied, element.getStyleAttrStart() - offset).append(style);
+      copied = element.getStyleAttrEnd() - offset;
+    }
+
+    if ((!added.isEmpty() || insertStyle) && element.hasPositionInfo()) {
+      int insertPos = insertPosition(source, offset, element);
+      out.append(source, copied, insertPos);
+      for (String name : added) {
+        out.append(' ').append(name).append("=\"").append(element.attributeValue(name)).append('"');
+      }
+      if (insertStyle) {
+        out.append(" style=\"").append(style).append('"');
+      }
+      copied = insertPos;
+    }
+    return copied;
+  }
+
+  /** Returns the position before the {@code >} (or {@code />}) that ends an opening tag. */
+  private static int insertPosition(String html, int offset, HtmlElement element) {
+    int insertPos = element.getTagEnd() - offset - 1;
+    // Self-closing tag: insert before the slash and any whitespace preceding it
+    if (insertPos > 0 && html.charAt(insertPos - 1) == '/') {
+      insertPos = insertPos - 1;
+      while (insertPos > element.getTagStart() - offset && html.charAt(insertPos - 1) == ' ') {
+        insertPos--;
+      }
+    }
+    return insertPos;
+  }
+}
@@ -0,0 +1,179 @@
+package dev.jcputney.mjml.css;
+
+/**
+ * One token of an HTML document streamed through an {@link HtmlFilterChain}: a run of text, a
+ * comment (including MSO conditional comments, which are kept whole), a start tag, an end tag, or
+ * other markup such as a DOCTYPE.
+ *
+ * <p>A token refers to its range of the source instead of copying it. Unless a filter replaces its
+ * text, a token is written back exactly as it appeared in the source; a start tag whose {@linkplain
+ * #element() element} was changed is written with those changes applied, as {@link HtmlRewriter}
+ * does.
+ */
+public final class HtmlToken {
+
+  /** The kind of markup a token covers. */
+  public enum Type {
+    /** Character data between tags, including the content of {@code style} and {@code script}. */
+    TEXT,
+    /** A comment, from {@code <!--} to {@code -->}. */
+    COMMENT,
+    /** An opening (or self-closing) tag. */
+    START_TAG,
+    /** A closing tag. */
+    END_TAG,
+    /** Any other markup: DOCTYPE, CDATA sections, and processing instructions. */
+    OTHER
+  }
+
+  private final Type type;
+  private final String source;
+  private final int start;
+  private final int end;
+  private final int offset;
+  private final HtmlElement element;
+  private String replacement;
+
+  HtmlToken(Type type, String source, int start, int end, int offset, HtmlElement element) {
+    this.type = type;
+    this.source = source;
+    this.start = start;
+    this.end = end;
+    this.offset = offset;
+    this.element = element;
+  }
+
+  /**
+   * Creates a text token, for filters that insert content into the stream.
+   *
+   * @param text the text, written verbatim
+   * @return a new token
+   */
+  public static HtmlToken text(String text) {
+    return new HtmlToken(Type.TEXT, text, 0, text.length(), 0, null);
+  }
+
+  /**
+   * Returns the kind of markup this token covers.
+   *
+   * @return the token type
+   */
+  public Type type() {
+    return type;
+  }
+
+  /**
+   * Returns the offset of this token in the document streamed through the chain.
+   *
+   * @return the position of the token's first character, or 0 for inserted tokens
+   */
+  public int position() {
+    return offset + start;
+  }
+
+  /**
+   * Returns the element opened by a start tag. The element is attached to the document tree: its
+   * ancestors and preceding siblings are complete, while later elements have not been read yet.
+   * Changing its style or attributes changes how the tag is written.
+   *
+   * @return the element, or {@code null} for other token types and when no filter in the chain
+   *     {@linkplain HtmlFilter#usesElements() uses elements}
+   */
+  public HtmlElement element() {
+    return element;
+  }
+
+  /**
+   * Returns this token as it will be written.
+   *
+   * @return the token's current text
+   */
+  public String text() {
+    if (replacement != null) {
+      return replacement;
+    }
+    if (element != null && element.isModified()) {
+      StringBuilder sb = new StringBuilder(end - start + 64);
+      writeTo(sb);
+      return sb.toString();
+    }
+    return source.substring(start, end);
+  }
+
+  /**
+   * Replaces the text this token is written as. For a start tag, the replacement is written instead
+   * of the tag and any changes to its element.
+   *
+   * @param text the replacement, written verbatim
+   */
+  public void setText(String text) {
+    this.replacement = text;
+  }
+
+  /**
+   * Tests whether the token's current text starts with the given prefix, without copying it.
+   *
+   * @param prefix the prefix to test
+   * @return {@code true} if the token starts with {@code prefix}
+   */
+  public boolean startsWith(String prefix) {
+    if (replacement != null) {
+      return replacement.startsWith(prefix);
+    }
+    return end - start >= prefix.length() && source.startsWith(prefix, start);
+  }
+
+  /**
+   * Tests whether the token's current text equals the given string, without copying it.
+   *
+   * @param text the text to compare with
+   * @return {@code true} if the token is exactly {@code text}
+   */
+  public boolean textEquals(String text) {
+    if (replacement != null || (element != null && element.isModified())) {
+      return text().equals(text);
+    }
+    return end - start == text.length() && source.startsWith(text, start);
+  }
+
+  /**
+   * Tests whether the token is non-empty text made only of whitespace.
+   *
+   * @return {@code true} for whitespace-only text tokens
+   */
+  public boolean isWhitespace() {
+    if (type != Type.TEXT) {
+      return false;
+    }
+    String text = replacement != null ? replacement : source;
+    int from = replacement != null ? 0 : start;
+    int to = replacement != null ? replacement.length() : end;
+    if (from == to) {
+      return false;
+    }
+    for (int i = from; i < to; i++) {
+      char c = text.charAt(i);
+      if (c != ' ' && c != '\t' && c != '\n' && c != 0x0B && c != '\f' && c != '\r') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Appends this token as it will be written. */
+  void writeTo(StringBuilder out) {
+    if (replacement != null) {
+      out.append(replacement);
+    } else if (element != null && element.isModified()) {
+      int copied = HtmlRewriter.appendChanges(out, source, offset, start, element);
+      out.append(source, copied, end);
+    } else {
+      out.append(source, start, end);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return type + "[" + text() + "]";
+  }
+}
@@ -0,0 +1,87 @@
+package dev.jcputney.mjml.css;
+
+/**
+ * A fixed table of lowercase names that parsers share instead of copying and lowercasing the same
+ * name out of the source every time it appears, so repeated names resolve to one instance.
+ *
+ * <h2>Usage</h2>
+ *
+ * <pre>{@code
+ * KnownNames names = new KnownNames("div span table td");
+ * String tag = names.name(html, start, end); // "td" for "TD"
+ * }</pre>
+ */
+final class KnownNames {
+
+  /** Tag and attribute names that make up nearly all of the HTML the renderer produces. */
+  static final KnownNames HTML =
+      new KnownNames(
+          "a b body br center div em font h1 h2 h3 h4 h5 h6 head hr html i img input label li link"
+              + " meta noscript ol p s script span strong style sub sup table tbody td tfoot th"
+              + " thead title tr u ul v:fill v:image v:rect v:roundrect v:textbox"
+              + " align alt background bgcolor border cellpadding cellspacing checked class"
+              + " colspan content dir for height href http-equiv id lang name rel role rowspan"
+              + " sizes src srcset target type valign value width xmlns");
+
+  /** CSS properties used by the renderer's own styles and common in {@code mj-style} blocks. */
+  static final KnownNames CSS_PROPERTIES =
+      new KnownNames(
+          "background background-color background-image background-position background-repeat"
+              + " background-size border border-bottom border-collapse border-left border-radius"
+              + " border-right border-spacing border-top border-width border-style border-color"
+              + " box-sizing color direction display float font font-family font-size font-style"
+              + " font-weight height letter-spacing line-height margin margin-bottom margin-left"
+              + " margin-right margin-top max-height max-width min-height min-width mso-hide"
+              + " mso-line-height-rule mso-padding-alt mso-table-lspace mso-table-rspace"
+              + " -ms-interpolation-mode -ms-text-size-adjust opacity outline overflow padding"
+              + " padding-bottom padding-left padding-right padding-top table-layout text-align"
+              + " text-decoration text-transform vertical-align visibility white-space width"
+              + " word-break word-spacing -webkit-text-size-adjust");
+
+  private final String[][] byLength;
+
+  /**
+   * Creates a table of names.
+   *
+   * @param names the lowercase names, separated by single spaces
+   */
+  KnownNames(String names) {
+    String[] all = names.split(" ");
+    int maxLength = 0;
+    for (String name : all) {
+      maxLength = Math.max(maxLength, name.length());
+    }
+    int[] counts = new int[maxLength + 1];
+    for (String name : all) {
+      counts[name.length()]++;
+    }
+    byLength = new String[maxLength + 1][];
+    for (int length = 0; length <= maxLength; length++) {
+      byLength[length] = new String[counts[length]];
+    }
+    for (String name : all) {
+      byLength[name.length()][--counts[name.length()]] = name;
+    }
+  }
+
+  /**
+   * Returns the lowercase name for {@code source[start, end)}, compared case-insensitively, sharing
+   * the instance of a known name.
+   *
+   * @param source the text containing the name
+   * @param start the first character of the name
+   * @param end the position just past the name
+   * @return the lowercase name
+   */
+  String name(String source, int start, int end) {
+    int length = end - start;
+    if (length < byLength.length) {
+      for (String candidate : byLength[length]) {
+        if (source.regionMatches(true, start, candidate, 0, length)) {
+          return candidate;
+        }
+      }
+    }
+    return source.substring(start, end).toLowerCase();
+  }
+}
@@ -1,5 +1,8 @@
 package dev.jcputney.mjml.css;
 
+import dev.jcputney.mjml.CacheStats;
+import dev.jcputney.mjml.util.BoundedCache;
+import dev.jcputney.mjml.util.CacheRegistry;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -12,28 +15,53 @@ import java.util.Map;
  */
 public final class StyleAttribute {
 
+  /**
+   * Parsed inline styles keyed by their text, shared by every render in the process. Rendered
+   * components repeat the same style values across elements and templates; parsed declarations are
+   * immutable, so one list serves all threads. Longer styles are parsed without being cached, to
+   * bound the memory the keys can hold.
+   */
+  private static final int CACHE_MAX_SIZE = 4096;
+
+  private static final int CACHE_MAX_STYLE_LENGTH = 1024;
+
+  private static final BoundedCache<String, List<CssDeclaration>> CACHE =
+      CacheRegistry.register("css.styles", CACHE_MAX_SIZE);
+
   private StyleAttribute() {}
 
   /**
-   * Parses an inline style string into a list of declarations. Example: "color: red; font-size:
-   * 14px" -> [CssDeclaration("color","red",false), ...]
+   * Parses an inline style string into an immutable list of declarations. Example: "color: red;
+   * font-size: 14px" -> [CssDeclaration("color","red",false), ...]. Results are cached process-wide
+   * by style text.
    *
    * @param style the inline CSS style string to parse, or {@code null}
-   * @return a list of parsed {@link CssDeclaration} instances (empty if input is null or blank)
+   * @return an immutable list of parsed {@link CssDeclaration} instances (empty if input is null or
+   *     blank)
    */
   public static List<CssDeclaration> parse(String style) {
-    List<CssDeclaration> result = new ArrayList<>();
     if (style == null || style.isBlank()) {
-      return result;
+      return List.of();
     }
-
-    for (String part : splitDeclarations(style)) {
-      CssDeclaration decl = CssDeclaration.parse(part);
-      if (decl != null) {
-        result.add(decl);
-      }
+    if (style.length() > CACHE_MAX_STYLE_LENGTH) {
+      return parseUncached(style);
     }
-    return result;
+    return CACHE.get(style, StyleAttribute::parseUncached);
+  }
+
+  /**
+   * Returns the hit and miss counts and size of the process-wide parsed style cache.
+   *
+   * @return the cache statistics
+   */
+  public static CacheStats cacheStats() {
+    return CACHE.stats();
+  }
+
+  private static List<CssDeclaration> parseUncached(String style) {
+    List<CssDeclaration> result = new ArrayList<>();
+    CssParser.parseDeclarations(style, 0, style.length(), result);
+    return List.copyOf(result);
   }
 
   /**
@@ -47,19 +75,30 @@ public final class StyleAttribute {
       return "";
     }
 
-    StringBuilder sb = new StringBuilder();
-    for (int i = 0; i < declarations.size(); i++) {
-      if (i > 0) {
-        sb.append(" ");
+    StringBuilder sb = new StringBuilder(declarations.size() * 24);
+    serialize(declarations, sb);
+    return sb.toString();
+  }
+
+  /**
+   * Serializes declarations as an inline style string directly into a buffer.
+   *
+   * @param declarations the CSS declarations to serialize
+   * @param out the buffer to append the inline style string to
+   */
+  public static void serialize(Iterable<CssDeclaration> declarations, StringBuilder out) {
+    boolean first = true;
+    for (CssDeclaration d : declarations) {
+      if (!first) {
+        out.append(' ');
       }
-      CssDeclaration d = declarations.get(i);
-      sb.append(d.property()).append(": ").append(d.value());
+      first = false;
+      out.append(d.property()).append(": ").append(d.value());
       if (d.important()) {
-        sb.append(" !important");
+        out.append(" !important");
       }
-      sb.append(";");
+      out.append(';');
     }
-    return sb.toString();
   }
 
   /**
@@ -103,43 +142,4 @@ public final class StyleAttribute {
 
     return new ArrayList<>(merged.values());
   }
-
-  /**
-   * Splits a style string on semicolons, being careful not to split within url() or quoted strings.
-   */
-  private static List<String> splitDeclarations(String style) {
-    List<String> parts = new ArrayList<>();
-    int depth = 0; // parentheses depth
-    boolean inSingle = false;
-    boolean inDouble = false;
-    int start = 0;
-
-    for (int i = 0; i < style.length(); i++) {
-      char c = style.charAt(i);
-
-      if (c == '\'' && !inDouble) {
-        inSingle = !inSingle;
-      } else if (c == '"' && !inSingle) {
-        inDouble = !inDouble;
-      } else if (c == '(' && !inSingle && !inDouble) {
-        depth++;
-      } else if (c == ')' && !inSingle && !inDouble) {
-        depth = Math.max(0, depth - 1);
-      } else if (c == ';' && depth == 0 && !inSingle && !inDouble) {
-        String part = style.substring(start, i).trim();
-        if (!part.isEmpty()) {
-          parts.add(part);
-        }
-        start = i + 1;
-      }
-    }
-
-    // Last part (no trailing semicolon)
-    String last = style.substring(start).trim();
-    if (!last.isEmpty()) {
-      parts.add(last);
-    }
-
-    return parts;
-  }
 }
@@ -3,6 +3,7 @@ module dev.jcputney.mjml {
   requires java.logging;
 
   exports dev.jcputney.mjml;
+  exports dev.jcputney.mjml.codegen;
   exports dev.jcputney.mjml.component;
   exports dev.jcputney.mjml.context;
   exports dev.jcputney.mjml.css;
@@ -0,0 +1,273 @@
+package dev.jcputney.mjml.parser;
+
+import dev.jcputney.mjml.MjmlConfiguration;
+import dev.jcputney.mjml.MjmlParseException;
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary serialization of an include-expanded {@link MjmlDocument}, used to persist and share
+ * compiled templates so that they do not have to be parsed again.
+ *
+ * <p>The format is a fixed header followed by a payload:
+ *
+ * <ul>
+ *   <li>magic {@code "MJMC"} (4 bytes)
+ *   <li>format version (2 bytes)
+ *   <li>payload length (4 bytes)
+ *   <li>CRC-32 of the payload (4 bytes)
+ *   <li>payload: a string table of every distinct tag name, attribute name, attribute value, and
+ *       text content, followed by the node tree in pre-order. Each node is written as its tag,
+ *       attribute pairs, and text as string table indices, followed by its child count.
+ * </ul>
+ *
+ * <p>All integers inside the payload are unsigned variable-length (LEB128) values. Decoding
+ * verifies the magic, version, length, and checksum and rejects anything that does not match with
+ * an {@link MjmlParseException}.
+ */
+public final class CompiledTemplateCodec {
+
+  /** Current binary format version. Bumped whenever the encoding changes. */
+  public static final int FORMAT_VERSION = 1;
+
+  private static final byte[] MAGIC = {'M', 'J', 'M', 'C'};
+  private static final int HEADER_SIZE = MAGIC.length + 2 + 4 + 4;
+  private static final int DEFAULT_MAX_DEPTH = 100;
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private CompiledTemplateCodec() {}
+
+  /**
+   * Computes the store key for an MJML source compiled under a configuration. The key is a
+   * lowercase hex SHA-256 digest over the format version, the configuration's size and depth
+   * limits, whether it has an include resolver, its {@linkplain
+   * MjmlConfiguration#getCompiledTemplateVersion() compiled template version}, and the UTF-8
+   * source. It is stable across JVMs and changes whenever the binary format does, so a template
+   * compiled under looser limits, from other partials, or with its {@code mj-include} elements left
+   * unexpanded for lack of a resolver is not loaded.
+   *
+   * @param mjmlSource the raw MJML markup
+   * @param configuration the configuration the template is compiled with
+   * @return a 64-character hex key
+   */
+  public static String key(String mjmlSource, MjmlConfiguration configuration) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+    byte[] version = configuration.getCompiledTemplateVersion().getBytes(StandardCharsets.UTF_8);
+    ByteBuffer settings = ByteBuffer.allocate(1 + 4 * 4 + 1);
+    settings.put((byte) FORMAT_VERSION);
+    settings.putInt(configuration.getMaxInputSize());
+    settings.putInt(configuration.getMaxNestingDepth());
+    settings.putInt(configuration.getMaxIncludeDepth());
+    settings.put((byte) (configuration.getIncludeResolver() != null ? 1 : 0));
+    settings.putInt(version.length);
+    digest.update(settings.array());
+    digest.update(version);
+    digest.update(mjmlSource.getBytes(StandardCharsets.UTF_8));
+    byte[] hash = digest.digest();
+    char[] out = new char[hash.length * 2];
+    for (int i = 0; i < hash.length; i++) {
+      out[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+      out[i * 2 + 1] = HEX[hash[i] & 0xF];
+    }
+    return new String(out);
+  }
+
+  /**
+   * Encodes a document into the binary compiled-template format.
+   *
+   * @param document the document to encode
+   * @return the encoded bytes
+   */
+  public static byte[] encode(MjmlDocument document) {
+    Map<String, Integer> indices = new HashMap<>();
+    List<String> strings = new ArrayList<>();
+    collectStrings(document.root(), indices, strings);
+
+    ByteArrayOutputStream payload = new ByteArrayOutputStream(1024);
+    writeVarInt(payload, strings.size());
+    for (String s : strings) {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(payload, bytes.length);
+      payload.write(bytes, 0, bytes.length);
+    }
+    writeNode(payload, document.root(), indices);
+
+    byte[] body = payload.toByteArray();
+    CRC32 crc = new CRC32();
+    crc.update(body);
+
+    ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + body.length);
+    out.put(MAGIC);
+    out.putShort((short) FORMAT_VERSION);
+    out.putInt(body.length);
+    out.putInt((int) crc.getValue());
+    out.put(body);
+    return out.array();
+  }
+
+  /**
+   * Decodes a compiled template using the default maximum nesting depth.
+   *
+   * @param data the encoded bytes
+   * @return a new, independent document
+   * @throws MjmlParseException if the data is truncated, corrupt, or of another format version
+   */
+  public static MjmlDocument decode(byte[] data) {
+    return decode(data, DEFAULT_MAX_DEPTH);
+  }
+
+  /**
+   * Decodes a compiled template, rejecting trees nested deeper than {@code maxNestingDepth}.
+   *
+   * @param data the encoded bytes
+   * @param maxNestingDepth maximum allowed element nesting depth
+   * @return a new, independent document
+   * @throws MjmlParseException if the data is truncated, corrupt, or of another format version
+   */
+  public static MjmlDocument decode(byte[] data, int maxNestingDepth) {
+    if (data == null || data.length < HEADER_SIZE) {
+      throw new MjmlParseException("Invalid compiled template: truncated header");
+    }
+    ByteBuffer in = ByteBuffer.wrap(data);
+    for (byte b : MAGIC) {
+      if (in.get() != b) {
+        throw new MjmlParseException("Invalid compiled template: bad magic");
+      }
+    }
+    int version = in.getShort() & 0xFFFF;
+    if (version != FORMAT_VERSION) {
+      throw new MjmlParseException(
+          "Unsupported compiled template version "
+              + version
+              + " (expected "
+              + FORMAT_VERSION
+              + ")");
+    }
+    int length = in.getInt();
+    int checksum = in.getInt();
+    if (length != in.remaining()) {
+      throw new MjmlParseException("Invalid compiled template: length mismatch");
+    }
+    CRC32 crc = new CRC32();
+    crc.update(data, HEADER_SIZE, length);
+    if ((int) crc.getValue() != checksum) {
+      throw new MjmlParseException("Invalid compiled template: checksum mismatch");
+    }
+
+    try {
+      int count = readVarInt(in);
+      if (count > in.remaining()) {
+        throw new MjmlParseException("Invalid compiled template: bad string table");
+      }
+      String[] strings = new String[count];
+      for (int i = 0; i < count; i++) {
+        int len = readVarInt(in);
+        if (len > in.remaining()) {
+          throw new MjmlParseException("Invalid compiled template: bad string table");
+        }
+        strings[i] = new String(data, in.position(), len, StandardCharsets.UTF_8);
+        in.position(in.position() + len);
+      }
+      MjmlNode root = readNode(in, strings, 0, maxNestingDepth);
+      if (in.hasRemaining()) {
+        throw new MjmlParseException("Invalid compiled template: trailing data");
+      }
+      return new MjmlDocument(root);
+    } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+      throw new MjmlParseException("Invalid compiled template: truncated payload", e);
+    }
+  }
+
+  private static void collectStrings(
+      MjmlNode node, Map<String, Integer> indices, List<String> strings) {
+    intern(node.getTagName(), indices, strings);
+    for (Map.Entry<String, String> attr : node.getAttributes().entrySet()) {
+      intern(attr.getKey(), indices, strings);
+      intern(attr.getValue(), indices, strings);
+    }
+    intern(node.getTextContent(), indices, strings);
+    for (MjmlNode child : node.getChildren()) {
+      collectStrings(child, indices, strings);
+    }
+  }
+
+  private static void intern(String s, Map<String, Integer> indices, List<String> strings) {
+    if (!indices.containsKey(s)) {
+      indices.put(s, strings.size());
+      strings.add(s);
+    }
+  }
+
+  private static void writeNode(
+      ByteArrayOutputStream out, MjmlNode node, Map<String, Integer> indices) {
+    writeVarInt(out, indices.get(node.getTagName()));
+    Map<String, String> attributes = node.getAttributes();
+    writeVarInt(out, attributes.size());
+    for (Map.Entry<String, String> attr : attributes.entrySet()) {
+      writeVarInt(out, indices.get(attr.getKey()));
+      writeVarInt(out, indices.get(attr.getValue()));
+    }
+    writeVarInt(out, indices.get(node.getTextContent()));
+    List<MjmlNode> children = node.getChildren();
+    writeVarInt(out, children.size());
+    for (MjmlNode child : children) {
+      writeNode(out, child, indices);
+    }
+  }
+
+  private static MjmlNode readNode(ByteBuffer in, String[] strings, int depth, int maxDepth) {
+    if (depth > maxDepth) {
+      throw new MjmlParseException(
+          "Compiled template exceeds maximum nesting depth of " + maxDepth);
+    }
+    MjmlNode node = new MjmlNode(strings[readVarInt(in)]);
+    int attrCount = readVarInt(in);
+    for (int i = 0; i < attrCount; i++) {
+      String name = strings[readVarInt(in)];
+      node.setAttribute(name, strings[readVarInt(in)]);
+    }
+    node.setTextContent(strings[readVarInt(in)]);
+    int childCount = readVarInt(in);
+    for (int i = 0; i < childCount; i++) {
+      node.addChild(readNode(in, strings, depth + 1, maxDepth));
+    }
+    return node;
+  }
+
+  private static void writeVarInt(ByteArrayOutputStream out, int value) {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+
+  private static int readVarInt(ByteBuffer in) {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      byte b = in.get();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        if (value < 0) {
+          break;
+        }
+        return value;
+      }
+    }
+    throw new MjmlParseException("Invalid compiled template: malformed integer");
+  }
+}
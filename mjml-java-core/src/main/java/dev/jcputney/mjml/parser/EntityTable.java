@@ -164,23 +164,36 @@ public final class EntityTable {
    * @return the string with HTML named entities replaced by numeric character references
    */
   public static String replaceEntities(String input) {
-    if (input == null || !input.contains("&")) {
+    if (input == null || input.indexOf('&') < 0) {
       return input;
     }
     StringBuilder sb = new StringBuilder(input.length());
-    int pos = 0;
-    int len = input.length();
-    while (pos < len) {
+    appendReplacingEntities(sb, input, 0, input.length());
+    return sb.toString();
+  }
+
+  /**
+   * Appends {@code input[start, end)} with HTML named entities replaced, as {@link
+   * #replaceEntities(String)} does, without copying the range out first.
+   *
+   * @param sb the output
+   * @param input the text
+   * @param start the start of the range
+   * @param end the end of the range
+   */
+  static void appendReplacingEntities(StringBuilder sb, String input, int start, int end) {
+    int pos = start;
+    while (pos < end) {
       int ampIdx = input.indexOf('&', pos);
-      if (ampIdx < 0) {
-        sb.append(input, pos, len);
+      if (ampIdx < 0 || ampIdx >= end) {
+        sb.append(input, pos, end);
         break;
       }
       // Copy text before &
       sb.append(input, pos, ampIdx);
       // Look for ; within a reasonable range (max entity name ~10 chars)
       int semiIdx = input.indexOf(';', ampIdx + 1);
-      if (semiIdx < 0 || semiIdx - ampIdx > 12) {
+      if (semiIdx < 0 || semiIdx >= end || semiIdx - ampIdx > 12) {
         // Not a valid entity reference, copy the & and move on
         sb.append('&');
         pos = ampIdx + 1;
@@ -197,6 +210,5 @@ public final class EntityTable {
         pos = ampIdx + 1;
       }
     }
-    return sb.toString();
   }
 }
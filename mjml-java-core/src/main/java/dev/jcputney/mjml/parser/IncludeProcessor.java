@@ -5,8 +5,10 @@ import dev.jcputney.mjml.MjmlIncludeException;
 import dev.jcputney.mjml.MjmlValidationException;
 import dev.jcputney.mjml.ResolverContext;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
 
@@ -26,6 +28,15 @@ import java.util.logging.Logger;
  * </ul>
  *
  * <p>Cycle detection prevents infinite recursion from circular includes.
+ *
+ * <p>Within a single {@link #process(MjmlDocument)} or {@link #expand(MjmlDocument)} call, each
+ * distinct (path, type, including path, depth) combination, which determines the {@link
+ * ResolverContext} the resolver sees, is resolved and parsed only once. The parsed fragment is
+ * frozen and cached for the session, and each occurrence gets its own mutable copy of it, so
+ * templates that repeat a partial many times do not pay for repeated resolver calls or parsing.
+ * Included nodes are always copies whose {@link MjmlNode#getParent() parent} is the node that held
+ * the {@code mj-include}, so components that read attributes from their ancestors, such as {@code
+ * mj-accordion} and {@code mj-navbar}, see the same tree as if the content were inlined.
  */
 public final class IncludeProcessor {
 
@@ -90,33 +101,88 @@ public final class IncludeProcessor {
 
   /**
    * Processes all mj-include elements in the document tree, recursively resolving included content
-   * and replacing mj-include nodes with the resolved content.
+   * and replacing mj-include nodes with the resolved content. The document stays fully mutable:
+   * included content is inserted as mutable copies, never as shared frozen nodes.
    *
    * @param document the parsed MJML document to process
+   * @throws IllegalStateException if the document is frozen; use {@link #expand(MjmlDocument)}
    */
   public void process(MjmlDocument document) {
-    processNode(document.root(), new ArrayList<>(), new HashSet<>(), 0);
+    if (document.isFrozen()) {
+      throw new IllegalStateException("MjmlDocument is frozen; use expand() to expand a copy");
+    }
+    expand(document);
   }
 
-  private void processNode(
-      MjmlNode node, List<String> includeChain, Set<String> visitedPaths, int depth) {
-    if (node == null) {
-      return;
-    }
+  /**
+   * Expands all mj-include elements in the document. A mutable document is expanded in place and
+   * returned. A frozen document is left unchanged: the result copies the nodes on the path from the
+   * root to each include and shares every other subtree with it; the included content itself is
+   * always copied, as in {@link #process(MjmlDocument)}.
+   *
+   * @param document the parsed MJML document to expand
+   * @return the expanded document
+   */
+  public MjmlDocument expand(MjmlDocument document) {
+    MjmlNode root = document.root();
+    MjmlNode expanded = expandNode(root, new ArrayList<>(), new HashSet<>(), new HashMap<>(), 0);
+    return expanded == root ? document : new MjmlDocument(expanded);
+  }
 
-    // Process children in a copy since we may modify the list
-    List<MjmlNode> children = new ArrayList<>(node.getChildren());
-    for (MjmlNode child : children) {
+  /**
+   * Expands the includes below a node. Returns the node itself when nothing below it changed or
+   * when it is mutable and was changed in place; otherwise returns a thawed copy with the new
+   * children.
+   */
+  private MjmlNode expandNode(
+      MjmlNode node,
+      List<String> includeChain,
+      Set<String> visitedPaths,
+      Map<IncludeKey, ResolvedInclude> resolved,
+      int depth) {
+    List<MjmlNode> children = node.getChildren();
+    List<MjmlNode> expanded = null;
+    for (int i = 0; i < children.size(); i++) {
+      MjmlNode child = children.get(i);
+      List<MjmlNode> replacement = null;
       if ("mj-include".equals(child.getTagName())) {
-        resolveInclude(child, includeChain, visitedPaths, depth);
+        replacement = resolveInclude(child, node, includeChain, visitedPaths, resolved, depth);
       } else {
-        processNode(child, includeChain, visitedPaths, depth);
+        MjmlNode expandedChild = expandNode(child, includeChain, visitedPaths, resolved, depth);
+        if (expandedChild != child) {
+          replacement = List.of(expandedChild);
+        }
+      }
+      if (replacement != null && expanded == null) {
+        expanded = new ArrayList<>(children.subList(0, i));
       }
+      if (expanded != null) {
+        if (replacement != null) {
+          expanded.addAll(replacement);
+        } else {
+          expanded.add(child);
+        }
+      }
+    }
+    if (expanded == null) {
+      return node;
     }
+    MjmlNode result = node.thaw();
+    result.setChildren(expanded);
+    return result;
   }
 
-  private void resolveInclude(
-      MjmlNode includeNode, List<String> includeChain, Set<String> visitedPaths, int depth) {
+  /**
+   * Resolves an include and returns the nodes that replace it, or {@code null} to leave it in
+   * place.
+   */
+  private List<MjmlNode> resolveInclude(
+      MjmlNode includeNode,
+      MjmlNode parent,
+      List<String> includeChain,
+      Set<String> visitedPaths,
+      Map<IncludeKey, ResolvedInclude> resolved,
+      int depth) {
     if (depth >= maxIncludeDepth) {
       throw new MjmlIncludeException(
           "Maximum include depth exceeded (" + maxIncludeDepth + "). Possible circular include.");
@@ -135,16 +201,41 @@ public final class IncludeProcessor {
     String type = includeNode.getAttribute("type", "mjml");
     LOG.fine(() -> "Resolving mj-include path=" + path + " type=" + type + " depth=" + depth);
 
-    // Build resolver context from the current include chain
-    ResolverContext context;
-    if (depth == 0) {
-      context = ResolverContext.root(type);
-    } else {
-      String includingPath =
-          includeChain.isEmpty() ? null : includeChain.get(includeChain.size() - 1);
-      context = new ResolverContext(includingPath, type, depth);
+    String includingPath =
+        depth == 0 || includeChain.isEmpty() ? null : includeChain.get(includeChain.size() - 1);
+    IncludeKey key = new IncludeKey(path, type, includingPath, depth);
+    ResolvedInclude include = resolved.get(key);
+    if (include == null) {
+      include = resolve(path, type, includingPath, depth);
+      resolved.put(key, include);
     }
 
+    visitedPaths.add(path);
+    includeChain.add(path);
+    try {
+      return switch (type.toLowerCase()) {
+        case "mjml" -> resolveAsMjml(parent, include, includeChain, visitedPaths, resolved, depth);
+        case "html" -> resolveAsHtml(include.content());
+        case "css" -> resolveAsCss(includeNode, include.content());
+        case "css-inline" -> resolveAsCssInline(include.content());
+        default -> throw new MjmlIncludeException("Unknown mj-include type: " + type);
+      };
+    } finally {
+      visitedPaths.remove(path);
+      includeChain.remove(includeChain.size() - 1);
+    }
+  }
+
+  /**
+   * Calls the resolver for an include and, for MJML includes, parses the content. The result is
+   * cached for the rest of the processing session; its parsed tree is frozen and shared by every
+   * occurrence.
+   */
+  private ResolvedInclude resolve(String path, String type, String includingPath, int depth) {
+    // Build resolver context from the current include chain
+    ResolverContext context =
+        depth == 0 ? ResolverContext.root(type) : new ResolverContext(includingPath, type, depth);
+
     String content = resolver.resolve(path, context);
     if (content == null) {
       throw new MjmlIncludeException("Include resolver returned null for path: " + path);
@@ -160,77 +251,77 @@ public final class IncludeProcessor {
               + " characters)");
     }
 
-    visitedPaths.add(path);
-    includeChain.add(path);
-    try {
-      switch (type.toLowerCase()) {
-        case "mjml" -> resolveAsMjml(includeNode, content, includeChain, visitedPaths, depth);
-        case "html" -> resolveAsHtml(includeNode, content);
-        case "css" -> resolveAsCss(includeNode, content);
-        case "css-inline" -> resolveAsCssInline(includeNode, content);
-        default -> throw new MjmlIncludeException("Unknown mj-include type: " + type);
-      }
-    } finally {
-      visitedPaths.remove(path);
-      includeChain.remove(includeChain.size() - 1);
+    if (!"mjml".equalsIgnoreCase(type)) {
+      return new ResolvedInclude(content, null, false);
+    }
+
+    // Parse the included MJML fragment
+    // The fragment may be a full <mjml> document or just MJML elements
+    String wrapped = content.trim();
+    if (wrapped.startsWith("<mjml")) {
+      return new ResolvedInclude(
+          content, MjmlParser.parse(wrapped, maxNestingDepth).freeze(), true);
     }
+    // Fragment - wrap in a temporary root for parsing
+    String tempWrapped = "<mjml><mj-body>" + wrapped + "</mj-body></mjml>";
+    return new ResolvedInclude(
+        content, MjmlParser.parse(tempWrapped, maxNestingDepth).freeze(), false);
   }
 
-  private void resolveAsMjml(
-      MjmlNode includeNode,
-      String mjmlContent,
+  private List<MjmlNode> resolveAsMjml(
+      MjmlNode parent,
+      ResolvedInclude include,
       List<String> includeChain,
       Set<String> visitedPaths,
+      Map<IncludeKey, ResolvedInclude> resolved,
       int depth) {
-    // Parse the included MJML fragment
-    // The fragment may be a full <mjml> document or just MJML elements
-    String wrapped = mjmlContent.trim();
-    MjmlNode parsedRoot;
+    // The parsed fragment is frozen, so expanding it copies only what changes
+    MjmlDocument included = include.parsed();
 
-    if (wrapped.startsWith("<mjml")) {
-      // Full MJML document - use its body/head children
-      MjmlDocument includedDoc = MjmlParser.parse(wrapped, maxNestingDepth);
-      parsedRoot = includedDoc.root();
-
-      // Recursively process includes in the included document
-      processNode(parsedRoot, includeChain, visitedPaths, depth + 1);
-
-      // The include should be replaced by the children of the relevant section
-      // If we're in mj-head, use head children; if in mj-body, use body children
-      MjmlNode parent = includeNode.getParent();
-      String parentTag = parent != null ? parent.getTagName() : "";
-
-      List<MjmlNode> replacements = new ArrayList<>();
-      if ("mj-head".equals(parentTag) && includedDoc.getHead() != null) {
-        replacements.addAll(includedDoc.getHead().getChildren());
-      } else if (includedDoc.getBody() != null) {
-        replacements.addAll(includedDoc.getBody().getChildren());
-      }
+    if (include.fullDocument()) {
+      // Full MJML document - recursively process includes in it, then use its head or body
+      // children depending on where the include sits
+      MjmlDocument expanded =
+          new MjmlDocument(
+              expandNode(included.root(), includeChain, visitedPaths, resolved, depth + 1));
+      MjmlNode section =
+          "mj-head".equals(parent.getTagName()) && expanded.getHead() != null
+              ? expanded.getHead()
+              : expanded.getBody();
+      return section != null ? attachable(section.getChildren()) : List.of();
+    }
 
-      includeNode.replaceWith(replacements);
-    } else {
-      // Fragment - wrap in a temporary root for parsing
-      String tempWrapped = "<mjml><mj-body>" + wrapped + "</mj-body></mjml>";
-      MjmlDocument includedDoc = MjmlParser.parse(tempWrapped, maxNestingDepth);
-      MjmlNode body = includedDoc.getBody();
+    MjmlNode body = included.getBody();
+    if (body == null) {
+      return null;
+    }
+    MjmlNode expandedBody = expandNode(body, includeChain, visitedPaths, resolved, depth + 1);
+    return attachable(expandedBody.getChildren());
+  }
 
-      if (body != null) {
-        processNode(body, includeChain, visitedPaths, depth + 1);
-        includeNode.replaceWith(new ArrayList<>(body.getChildren()));
-      }
+  /**
+   * Returns mutable deep copies of a fragment's top-level nodes. Sharing the frozen fragment's
+   * descendants would leave them pointing at the fragment's temporary wrapper rather than the
+   * including node, and ancestor lookups such as mj-accordion's inherited attributes walk parents.
+   */
+  private static List<MjmlNode> attachable(List<MjmlNode> nodes) {
+    List<MjmlNode> result = new ArrayList<>(nodes.size());
+    for (MjmlNode node : nodes) {
+      result.add(node.deepCopy());
     }
+    return result;
   }
 
-  private void resolveAsHtml(MjmlNode includeNode, String htmlContent) {
+  private List<MjmlNode> resolveAsHtml(String htmlContent) {
     // Create an mj-raw node with the HTML content
     MjmlNode rawNode = new MjmlNode("mj-raw");
     MjmlNode textNode = new MjmlNode("#cdata-section");
     textNode.setTextContent(htmlContent);
     rawNode.addChild(textNode);
-    includeNode.replaceWith(List.of(rawNode));
+    return List.of(rawNode);
   }
 
-  private void resolveAsCss(MjmlNode includeNode, String cssContent) {
+  private List<MjmlNode> resolveAsCss(MjmlNode includeNode, String cssContent) {
     // Create an mj-style node with the CSS content
     MjmlNode styleNode = new MjmlNode("mj-style");
 
@@ -243,10 +334,10 @@ public final class IncludeProcessor {
     MjmlNode textNode = new MjmlNode("#cdata-section");
     textNode.setTextContent(cssContent);
     styleNode.addChild(textNode);
-    includeNode.replaceWith(List.of(styleNode));
+    return List.of(styleNode);
   }
 
-  private void resolveAsCssInline(MjmlNode includeNode, String cssContent) {
+  private List<MjmlNode> resolveAsCssInline(String cssContent) {
     // Shorthand for type="css" css-inline="inline"
     MjmlNode styleNode = new MjmlNode("mj-style");
     styleNode.setAttribute("inline", "inline");
@@ -254,6 +345,22 @@ public final class IncludeProcessor {
     MjmlNode textNode = new MjmlNode("#cdata-section");
     textNode.setTextContent(cssContent);
     styleNode.addChild(textNode);
-    includeNode.replaceWith(List.of(styleNode));
+    return List.of(styleNode);
   }
+
+  /**
+   * Identifies an include occurrence for per-session deduplication: everything the resolver is
+   * given, so an include is only shared between occurrences that would be resolved identically.
+   */
+  private record IncludeKey(String path, String type, String includingPath, int depth) {}
+
+  /**
+   * Resolved content for an include, plus its parsed tree for MJML includes.
+   *
+   * @param content the raw content returned by the resolver
+   * @param parsed the parsed document for MJML includes, or {@code null} for other types
+   * @param fullDocument whether the MJML content was a full {@code <mjml>} document rather than a
+   *     fragment wrapped in a temporary body
+   */
+  private record ResolvedInclude(String content, MjmlDocument parsed, boolean fullDocument) {}
 }
@@ -5,6 +5,11 @@ package dev.jcputney.mjml.parser;
  * elements such as the head and body nodes. This class encapsulates the MJML document's logical
  * model, allowing for the retrieval of specific parts of its structure.
  *
+ * <p>A {@linkplain #freeze() frozen} document is deeply immutable and can be cached and rendered by
+ * many threads at once without defensive copies. {@link IncludeProcessor#expand(MjmlDocument)}
+ * expands the includes of a frozen document into a new document that copies only the paths to the
+ * includes and shares the rest of the tree.
+ *
  * @param root the root {@code <mjml>} node of the document
  */
 public record MjmlDocument(MjmlNode root) {
@@ -26,6 +31,26 @@ public record MjmlDocument(MjmlNode root) {
     return root;
   }
 
+  /**
+   * Freezes the whole tree, making it safe to share between threads once published.
+   *
+   * @return this document
+   * @see MjmlNode#freeze()
+   */
+  public MjmlDocument freeze() {
+    root.freeze();
+    return this;
+  }
+
+  /**
+   * Returns whether this document has been frozen.
+   *
+   * @return {@code true} if the tree is immutable
+   */
+  public boolean isFrozen() {
+    return root.isFrozen();
+  }
+
   /**
    * Returns the mj-head node, or {@code null} if not present.
    *
@@ -1,25 +1,45 @@
 package dev.jcputney.mjml.parser;
 
 import dev.jcputney.mjml.util.HtmlEscaper;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * Lightweight mutable tree node representing an MJML element. Each node has a tag name, attributes,
  * text content, and children.
+ *
+ * <p>Large templates produce hundreds of thousands of nodes, most of them text, CDATA, and comment
+ * leaves, so storage is allocated only when used: attributes are kept as a flat array of
+ * alternating names and values, and the child list is created with the first child. A leaf holds
+ * nothing beyond its tag name, text, and parent.
+ *
+ * <p>{@link #freeze()} makes a subtree immutable so it can be cached and read by many threads at
+ * once, as long as it is published safely (for example through a concurrent map). Changes to a
+ * frozen tree are made on copies: {@link #thaw()} copies a single node and shares its children, so
+ * editing a node deep in the tree copies only the path to it. Frozen nodes shared by such copies
+ * keep the parent they were frozen with, so this suits edits that leave the attributes of the
+ * copied ancestors unchanged; a subtree moved under a different parent must be copied with it.
  */
 public class MjmlNode {
 
+  private static final String[] NO_ATTRIBUTES = {};
+
   private final String tagName;
-  private final Map<String, String> attributes;
-  private final List<MjmlNode> children;
+  private String[] attributes = NO_ATTRIBUTES;
+  private int attributeCount;
+  private ArrayList<MjmlNode> children;
   private List<MjmlNode> unmodifiableChildren;
-  private Map<String, String> unmodifiableAttributes;
   private String textContent;
   private MjmlNode parent;
+  private boolean frozen;
 
   /**
    * Creates a new MJML node with the given tag name and empty attributes, children, and text.
@@ -28,8 +48,6 @@ public class MjmlNode {
    */
   public MjmlNode(String tagName) {
     this.tagName = tagName;
-    this.attributes = new LinkedHashMap<>();
-    this.children = new ArrayList<>();
     this.textContent = "";
   }
 
@@ -49,7 +67,8 @@ public class MjmlNode {
    * @return the attribute value, or {@code null} if the attribute is not set
    */
   public String getAttribute(String name) {
-    return attributes.get(name);
+    int index = attributeIndex(name);
+    return index >= 0 ? attributes[index + 1] : null;
   }
 
   /**
@@ -60,7 +79,8 @@ public class MjmlNode {
    * @return the attribute value, or {@code defaultValue} if the attribute is not set
    */
   public String getAttribute(String name, String defaultValue) {
-    return attributes.getOrDefault(name, defaultValue);
+    int index = attributeIndex(name);
+    return index >= 0 ? attributes[index + 1] : defaultValue;
   }
 
   /**
@@ -68,46 +88,131 @@ public class MjmlNode {
    *
    * @param name the attribute name
    * @param value the attribute value
+   * @throws IllegalStateException if this node is frozen
    */
   public void setAttribute(String name, String value) {
-    attributes.put(name, value);
-    unmodifiableAttributes = null; // invalidate cache
+    checkNotFrozen("set attribute " + name);
+    int index = attributeIndex(name);
+    if (index >= 0) {
+      attributes[index + 1] = value;
+      return;
+    }
+    int length = 2 * attributeCount;
+    if (length == attributes.length) {
+      attributes = Arrays.copyOf(attributes, Math.max(4, 2 * length));
+    }
+    attributes[length] = name;
+    attributes[length + 1] = value;
+    attributeCount++;
   }
 
   /**
-   * Returns an unmodifiable view of all attributes on this node.
+   * Returns an unmodifiable view of all attributes on this node, in the order they were first set.
    *
    * @return an unmodifiable map of attribute names to values
    */
   public Map<String, String> getAttributes() {
-    if (unmodifiableAttributes == null) {
-      unmodifiableAttributes = Collections.unmodifiableMap(attributes);
-    }
-    return unmodifiableAttributes;
+    return new AttributeView();
   }
 
   /**
-   * Returns an unmodifiable view of this node's children. The returned list is cached and
-   * invalidated when children are added or replaced.
+   * Returns an unmodifiable view of this node's children. The returned list is cached and reflects
+   * children added or replaced later.
    *
    * @return an unmodifiable list of child nodes
    */
   public List<MjmlNode> getChildren() {
-    if (unmodifiableChildren == null) {
-      unmodifiableChildren = Collections.unmodifiableList(children);
+    if (children == null) {
+      return Collections.emptyList();
+    }
+    List<MjmlNode> view = unmodifiableChildren;
+    if (view == null) {
+      view = Collections.unmodifiableList(children);
+      unmodifiableChildren = view;
     }
-    return unmodifiableChildren;
+    return view;
   }
 
   /**
    * Adds a child node to this node and sets the child's parent reference.
    *
-   * @param child the child node to add
+   * @param child the child node to add; a frozen child keeps its parent
+   * @throws IllegalStateException if this node is frozen
    */
   public void addChild(MjmlNode child) {
-    child.parent = this;
+    checkNotFrozen("add child " + child.tagName);
+    adopt(child);
+    if (children == null) {
+      children = new ArrayList<>(4);
+    }
     children.add(child);
-    unmodifiableChildren = null; // invalidate cache
+  }
+
+  /**
+   * Replaces all children of this node.
+   *
+   * @param newChildren the new children, in order
+   * @throws IllegalStateException if this node is frozen
+   */
+  void setChildren(List<MjmlNode> newChildren) {
+    checkNotFrozen("replace children");
+    // Refill the existing list so the cached view keeps reflecting it
+    if (children == null) {
+      children = new ArrayList<>(newChildren.size());
+    } else {
+      children.clear();
+    }
+    children.addAll(newChildren);
+    for (MjmlNode child : children) {
+      adopt(child);
+    }
+  }
+
+  /**
+   * Makes this node and all of its descendants immutable. Any later attempt to change them throws
+   * {@link IllegalStateException}; use {@link #thaw()} to get a copy that can be changed. Freezing
+   * a frozen node does nothing.
+   */
+  public void freeze() {
+    if (frozen) {
+      return;
+    }
+    frozen = true;
+    if (children != null) {
+      children.trimToSize();
+      for (MjmlNode child : children) {
+        child.freeze();
+      }
+    }
+  }
+
+  /**
+   * Returns whether this node has been frozen.
+   *
+   * @return {@code true} if this node and its descendants are immutable
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * Returns a node that can be changed in place of this one. A mutable node returns itself; a
+   * frozen node returns a detached mutable copy with the same tag name, attributes, and text, whose
+   * children are this node's frozen children, shared rather than copied.
+   *
+   * @return this node if it is mutable, otherwise a shallow mutable copy
+   */
+  public MjmlNode thaw() {
+    if (!frozen) {
+      return this;
+    }
+    MjmlNode copy = new MjmlNode(tagName);
+    copy.copyAttributesFrom(this);
+    copy.textContent = textContent;
+    if (children != null) {
+      copy.children = new ArrayList<>(children);
+    }
+    return copy;
   }
 
   /**
@@ -115,23 +220,43 @@ public class MjmlNode {
    * resolution to replace mj-include with resolved content.
    *
    * @param replacements the list of nodes to insert in place of this node
+   * @throws IllegalStateException if the parent is frozen
    */
   public void replaceWith(List<MjmlNode> replacements) {
     if (parent == null) {
       return;
     }
+    parent.checkNotFrozen("replace child " + tagName);
     int index = parent.children.indexOf(this);
     if (index >= 0) {
       parent.children.remove(index);
       for (int i = 0; i < replacements.size(); i++) {
         MjmlNode replacement = replacements.get(i);
-        replacement.parent = parent;
+        parent.adopt(replacement);
         parent.children.add(index + i, replacement);
       }
-      parent.unmodifiableChildren = null; // invalidate cache
     }
   }
 
+  /**
+   * Returns a detached deep copy of this node and its descendants. The copy has no parent; its
+   * attributes, text content, and children are independent of the original.
+   *
+   * @return a deep copy of this subtree
+   */
+  MjmlNode deepCopy() {
+    MjmlNode copy = new MjmlNode(tagName);
+    copy.copyAttributesFrom(this);
+    copy.textContent = textContent;
+    if (children != null) {
+      copy.children = new ArrayList<>(children.size());
+      for (MjmlNode child : children) {
+        copy.addChild(child.deepCopy());
+      }
+    }
+    return copy;
+  }
+
   /**
    * Returns the parent node, or {@code null} if this is a root node.
    *
@@ -154,8 +279,10 @@ public class MjmlNode {
    * Sets the text content of this node. A {@code null} value is treated as empty string.
    *
    * @param textContent the text content to set
+   * @throws IllegalStateException if this node is frozen
    */
   public void setTextContent(String textContent) {
+    checkNotFrozen("set text content");
     this.textContent = textContent != null ? textContent : "";
   }
 
@@ -167,9 +294,12 @@ public class MjmlNode {
    */
   public List<MjmlNode> getChildrenByTag(String tag) {
     List<MjmlNode> result = new ArrayList<>();
-    for (MjmlNode child : children) {
-      if (child.tagName.equals(tag)) {
-        result.add(child);
+    if (children != null) {
+      for (int i = 0, n = children.size(); i < n; i++) {
+        MjmlNode child = children.get(i);
+        if (child.tagName.equals(tag)) {
+          result.add(child);
+        }
       }
     }
     return result;
@@ -182,9 +312,12 @@ public class MjmlNode {
    * @return the first matching child node, or {@code null}
    */
   public MjmlNode getFirstChildByTag(String tag) {
-    for (MjmlNode child : children) {
-      if (child.tagName.equals(tag)) {
-        return child;
+    if (children != null) {
+      for (int i = 0, n = children.size(); i < n; i++) {
+        MjmlNode child = children.get(i);
+        if (child.tagName.equals(tag)) {
+          return child;
+        }
       }
     }
     return null;
@@ -197,7 +330,7 @@ public class MjmlNode {
    * @return the inner HTML string
    */
   public String getInnerHtml() {
-    if (!children.isEmpty()) {
+    if (children != null && !children.isEmpty()) {
       StringBuilder sb = new StringBuilder();
       for (MjmlNode child : children) {
         sb.append(child.getOuterHtml());
@@ -220,14 +353,14 @@ public class MjmlNode {
       sb.append(textContent);
     } else {
       sb.append('<').append(tagName);
-      for (Map.Entry<String, String> attr : attributes.entrySet()) {
+      for (int i = 0; i < 2 * attributeCount; i += 2) {
         sb.append(' ')
-            .append(attr.getKey())
+            .append(attributes[i])
             .append("=\"")
-            .append(HtmlEscaper.escapeAttributeValue(attr.getValue()))
+            .append(HtmlEscaper.escapeAttributeValue(attributes[i + 1]))
             .append('"');
       }
-      if (children.isEmpty() && textContent.isEmpty()) {
+      if ((children == null || children.isEmpty()) && textContent.isEmpty()) {
         sb.append(" />");
       } else {
         sb.append('>');
@@ -240,6 +373,87 @@ public class MjmlNode {
 
   @Override
   public String toString() {
-    return "MjmlNode{" + tagName + ", children=" + children.size() + "}";
+    return "MjmlNode{" + tagName + ", children=" + getChildren().size() + "}";
+  }
+
+  private void copyAttributesFrom(MjmlNode other) {
+    if (other.attributeCount > 0) {
+      attributes = Arrays.copyOf(other.attributes, 2 * other.attributeCount);
+      attributeCount = other.attributeCount;
+    }
+  }
+
+  /** Makes this node the parent of a mutable child; frozen children keep their parent. */
+  private void adopt(MjmlNode child) {
+    if (!child.frozen) {
+      child.parent = this;
+    }
+  }
+
+  private void checkNotFrozen(String change) {
+    if (frozen) {
+      throw new IllegalStateException("MjmlNode is frozen; cannot " + change + " on " + tagName);
+    }
+  }
+
+  private int attributeIndex(String name) {
+    for (int i = 0; i < 2 * attributeCount; i += 2) {
+      if (attributes[i].equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** A read-only map over the attribute array, reflecting later changes. */
+  private final class AttributeView extends AbstractMap<String, String> {
+
+    @Override
+    public int size() {
+      return attributeCount;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof String name && attributeIndex(name) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+      return key instanceof String name ? getAttribute(name) : null;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public int size() {
+          return attributeCount;
+        }
+
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+          return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+              return next < 2 * attributeCount;
+            }
+
+            @Override
+            public Entry<String, String> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              Entry<String, String> entry =
+                  new SimpleImmutableEntry<>(attributes[next], attributes[next + 1]);
+              next += 2;
+              return entry;
+            }
+          };
+        }
+      };
+    }
   }
 }
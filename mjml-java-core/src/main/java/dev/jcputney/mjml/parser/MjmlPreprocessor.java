@@ -78,22 +78,25 @@ public final class MjmlPreprocessor {
    * sections (to preserve original entities in content).
    */
   private static String replaceEntitiesOutsideCdata(String input) {
-    StringBuilder sb = new StringBuilder();
+    if (input.indexOf('&') < 0) {
+      return input;
+    }
+    StringBuilder sb = new StringBuilder(input.length());
     int pos = 0;
     while (pos < input.length()) {
       int cdataStart = input.indexOf("<![CDATA[", pos);
       if (cdataStart < 0) {
         // No more CDATA — replace entities in the remaining text
-        sb.append(EntityTable.replaceEntities(input.substring(pos)));
+        EntityTable.appendReplacingEntities(sb, input, pos, input.length());
         break;
       }
       // Replace entities in the text before the CDATA section
-      sb.append(EntityTable.replaceEntities(input.substring(pos, cdataStart)));
+      EntityTable.appendReplacingEntities(sb, input, pos, cdataStart);
       // Find end of CDATA
       int cdataEnd = input.indexOf("]]>", cdataStart);
       if (cdataEnd < 0) {
         // Unterminated CDATA — keep rest as-is
-        sb.append(input.substring(cdataStart));
+        sb.append(input, cdataStart, input.length());
         break;
       }
       cdataEnd += 3; // Include ]]>
@@ -1,20 +1,26 @@
 package dev.jcputney.mjml.render;
 
 import dev.jcputney.mjml.context.GlobalContext;
+import dev.jcputney.mjml.css.CompiledSelector;
 import dev.jcputney.mjml.css.CssSelector;
-import dev.jcputney.mjml.css.CssSelectorMatcher;
 import dev.jcputney.mjml.css.CssSelectorParser;
 import dev.jcputney.mjml.css.HtmlDocumentParser;
 import dev.jcputney.mjml.css.HtmlElement;
+import dev.jcputney.mjml.css.HtmlFilter;
+import dev.jcputney.mjml.css.HtmlRewriter;
+import dev.jcputney.mjml.css.HtmlToken;
 import dev.jcputney.mjml.util.HtmlEscaper;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 /**
  * Applies {@code mj-html-attributes} to rendered HTML by matching CSS selectors against elements
- * and inserting the specified attributes.
+ * and adding the specified attributes after each element's existing attributes. This runs as a
+ * filter over the streamed document, as each tag is written.
  */
 final class HtmlAttributeApplier {
 
@@ -22,89 +28,100 @@ final class HtmlAttributeApplier {
 
   private HtmlAttributeApplier() {}
 
-  /** Applies mj-html-attributes from the global context to the rendered HTML. */
-  static String apply(String html, GlobalContext ctx) {
-    Map<String, Map<String, String>> htmlAttrs = ctx.attributes().getHtmlAttributes();
-    if (htmlAttrs.isEmpty()) {
-      return html;
-    }
-
-    HtmlElement root = HtmlDocumentParser.parse(html);
-    return applyToElements(html, root, ctx);
-  }
-
   /**
-   * Applies mj-html-attributes from the global context to the rendered HTML, using a pre-parsed
-   * element tree to avoid re-parsing.
+   * Returns a filter that applies mj-html-attributes from the global context to start tags as they
+   * stream through an {@link dev.jcputney.mjml.css.HtmlFilterChain}. Only elements whose opening
+   * tag starts within {@code [start, end)} are considered, and selectors see that range as if it
+   * had been parsed on its own. Selectors are matched as each start tag is read, so they see a
+   * {@code class} or {@code id} set on an ancestor or preceding sibling.
+   *
+   * <p>When no selector has a combinator, the filter does not need the element tree: each start tag
+   * is matched on its own, and the result is reused for every identical tag of the range.
    *
-   * @param html the original HTML string (for position-based modification)
-   * @param root the pre-parsed element tree
    * @param ctx the global context containing html attributes
-   * @return the HTML with attributes applied
+   * @param start the offset of the first character of the range
+   * @param end the offset just past the range
+   * @return a filter for a single document
    */
-  static String applyToElements(String html, HtmlElement root, GlobalContext ctx) {
+  static HtmlFilter filter(GlobalContext ctx, int start, int end) {
     Map<String, Map<String, String>> htmlAttrs = ctx.attributes().getHtmlAttributes();
-    if (htmlAttrs.isEmpty()) {
-      return html;
-    }
-
-    List<HtmlElement> allElements = root.allDescendants();
-
-    // Track attribute insertions by position (descending to avoid offset shifts)
-    TreeMap<Integer, String> insertions = new TreeMap<>();
-
+    List<CompiledSelector> selectors = new ArrayList<>(htmlAttrs.size());
+    List<Map<String, String>> attributes = new ArrayList<>(htmlAttrs.size());
+    boolean contextFree = true;
     for (Map.Entry<String, Map<String, String>> entry : htmlAttrs.entrySet()) {
-      String selectorText = entry.getKey();
-      Map<String, String> attrs = entry.getValue();
+      CssSelector parsed = CssSelectorParser.parse(entry.getKey());
+      if (parsed != null) {
+        CompiledSelector selector = CompiledSelector.compile(parsed);
+        selectors.add(selector);
+        attributes.add(entry.getValue());
+        contextFree &= selector.isContextFree();
+      }
+    }
+    boolean usesElements = !contextFree;
+    Map<String, String> rewrittenTags = new HashMap<>();
+    return new HtmlFilter() {
+      @Override
+      public void filter(HtmlToken token, Consumer<HtmlToken> next) {
+        HtmlElement element = token.element();
+        if (element != null) {
+          if (element.getTagStart() >= start && element.getTagStart() < end) {
+            apply(element, start, end);
+          }
+        } else if (token.type() == HtmlToken.Type.START_TAG
+            && token.position() >= start
+            && token.position() < end) {
+          String tag = token.text();
+          String rewritten = rewrittenTags.computeIfAbsent(tag, this::rewriteTag);
+          if (!rewritten.equals(tag)) {
+            token.setText(rewritten);
+          }
+        }
+        next.accept(token);
+      }
 
-      CssSelector selector = CssSelectorParser.parse(selectorText);
-      if (selector == null) {
-        continue;
+      @Override
+      public boolean usesElements() {
+        return usesElements;
       }
 
-      for (HtmlElement element : allElements) {
-        if (CssSelectorMatcher.matches(selector, element)) {
-          if (element.hasPositionInfo()) {
-            // Insert attributes before the closing > of the opening tag
-            int insertPos = element.getTagEnd() - 1;
-            // Check for self-closing tag
-            if (insertPos > 0 && html.charAt(insertPos - 1) == '/') {
-              insertPos = insertPos - 1;
-              while (insertPos > element.getTagStart() && html.charAt(insertPos - 1) == ' ') {
-                insertPos--;
-              }
-            }
-            StringBuilder attrStr = new StringBuilder();
-            for (Map.Entry<String, String> attr : attrs.entrySet()) {
-              // Validate attribute name (alphanumeric + hyphens only)
-              String attrName = attr.getKey();
-              if (!VALID_ATTR_NAME.matcher(attrName).matches()) {
-                continue;
-              }
-              attrStr
-                  .append(' ')
-                  .append(attrName)
-                  .append("=\"")
-                  .append(HtmlEscaper.escapeAttributeValue(attr.getValue()))
-                  .append('"');
+      private void apply(HtmlElement element, int from, int to) {
+        // Match every selector before setting attributes, so none sees another's changes
+        List<Map<String, String>> matched = null;
+        for (int i = 0; i < selectors.size(); i++) {
+          if (selectors.get(i).matchesWithin(element, from, to)) {
+            if (matched == null) {
+              matched = new ArrayList<>();
             }
-            // Merge with existing insertion at same position
-            String existing = insertions.getOrDefault(insertPos, "");
-            insertions.put(insertPos, existing + attrStr);
+            matched.add(attributes.get(i));
+          }
+        }
+        if (matched != null) {
+          for (Map<String, String> attrs : matched) {
+            setAttributes(element, attrs);
           }
         }
       }
-    }
 
-    if (insertions.isEmpty()) {
-      return html;
-    }
+      private String rewriteTag(String tag) {
+        HtmlElement root = HtmlDocumentParser.parse(tag);
+        if (root.getChildren().isEmpty()) {
+          return tag;
+        }
+        apply(root.getChildren().get(0), Integer.MIN_VALUE, Integer.MAX_VALUE);
+        return HtmlRewriter.rewrite(tag, root);
+      }
+    };
+  }
 
-    // Apply insertions in reverse order
-    StringBuilder sb = new StringBuilder(html);
-    for (Map.Entry<Integer, String> ins : insertions.descendingMap().entrySet()) {
-      sb.insert(ins.getKey(), ins.getValue());
+  /** Sets the attributes with valid names on an element. */
+  private static void setAttributes(HtmlElement element, Map<String, String> attrs) {
+    for (Map.Entry<String, String> attr : attrs.entrySet()) {
+      // Validate attribute name (alphanumeric + hyphens only)
+      String attrName = attr.getKey();
+      if (!VALID_ATTR_NAME.matcher(attrName).matches()) {
+        continue;
+      }
+      element.setAttribute(attrName, HtmlEscaper.escapeAttributeValue(attr.getValue()));
     }
-    return sb.toString();
   }
 }
@@ -3,8 +3,11 @@ package dev.jcputney.mjml.render;
 import dev.jcputney.mjml.context.GlobalContext;
 import dev.jcputney.mjml.context.StyleContext.FontDef;
 import dev.jcputney.mjml.context.StyleContext.MediaQuery;
+import dev.jcputney.mjml.util.BoundedCache;
+import dev.jcputney.mjml.util.CacheRegistry;
 import dev.jcputney.mjml.util.CssEscaper;
 import dev.jcputney.mjml.util.HtmlEscaper;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -13,12 +16,132 @@ import java.util.Set;
  */
 public final class HtmlSkeleton {
 
-  /** Initial capacity for the HTML output StringBuilder. */
-  private static final int INITIAL_BUFFER_CAPACITY = 32768;
+  /** Room in the document start for everything other than the static head and style blocks. */
+  private static final int VARIABLE_CONTENT_CAPACITY = 4096;
 
   /** MSO PixelsPerInch setting for Outlook rendering. */
   private static final int MSO_PIXELS_PER_INCH = 96;
 
+  /** The doctype and html tag up to the language. */
+  private static final String HTML_OPEN = "<!doctype html>\n<html lang=\"";
+
+  /** The rest of the html tag after the direction, up to the title text. */
+  private static final String HTML_TAG_END =
+      "\" xmlns=\"http://www.w3.org/1999/xhtml\" xmlns:v=\"urn:schemas-microsoft-com:vml\""
+          + " xmlns:o=\"urn:schemas-microsoft-com:office:office\">\n\n<head>\n  <title>";
+
+  /** CSS reset styles for email clients. */
+  private static final String BASE_STYLES =
+      """
+          #outlook a {
+            padding: 0;
+          }
+
+          body {
+            margin: 0;
+            padding: 0;
+            -webkit-text-size-adjust: 100%;
+            -ms-text-size-adjust: 100%;
+          }
+
+          table,
+          td {
+            border-collapse: collapse;
+            mso-table-lspace: 0pt;
+            mso-table-rspace: 0pt;
+          }
+
+          img {
+            border: 0;
+            height: auto;
+            line-height: 100%;
+            outline: none;
+            text-decoration: none;
+            -ms-interpolation-mode: bicubic;
+          }
+
+          p {
+            display: block;
+            margin: 13px 0;
+          }
+
+      """;
+
+  /**
+   * Everything in the head from the end of the title to the font imports: meta tags, the CSS
+   * resets, and the Outlook settings, which are the same in every document.
+   */
+  private static final String STATIC_HEAD =
+      "</title>\n"
+          + "  <!--[if !mso]><!-->\n"
+          + "  <meta http-equiv=\"X-UA-Compatible\" content=\"IE=edge\">\n"
+          + "  <!--<![endif]-->\n"
+          + "  <meta http-equiv=\"Content-Type\" content=\"text/html; charset=UTF-8\">\n"
+          + "  <meta name=\"viewport\" content=\"width=device-width, initial-scale=1\">\n"
+          // CSS reset styles (BEFORE MSO noscript)
+          + "  <style type=\"text/css\">\n"
+          + BASE_STYLES
+          + "  </style>\n"
+          // MSO office settings
+          + "  <!--[if mso]>\n"
+          + "    <noscript>\n"
+          + "    <xml>\n"
+          + "    <o:OfficeDocumentSettings>\n"
+          + "      <o:AllowPNG/>\n"
+          + "      <o:PixelsPerInch>"
+          + MSO_PIXELS_PER_INCH
+          + "</o:PixelsPerInch>\n"
+          + "    </o:OfficeDocumentSettings>\n"
+          + "    </xml>\n"
+          + "    </noscript>\n"
+          + "    <![endif]-->\n"
+          // MSO lte 11 conditional
+          + "  <!--[if lte mso 11]>\n"
+          + "    <style type=\"text/css\">\n"
+          + "      .mj-outlook-group-fix { width:100% !important; }\n"
+          + "    </style>\n"
+          + "    <![endif]-->\n";
+
+  /** Fluid-on-mobile styles up to the breakpoint. */
+  private static final String FLUID_ON_MOBILE_START = "    @media only screen and (max-width:";
+
+  /** Fluid-on-mobile styles after the breakpoint. */
+  private static final String FLUID_ON_MOBILE_END =
+      "px) {\n"
+          + "      table.mj-full-width-mobile {\n"
+          + "        width: 100% !important;\n"
+          + "      }\n"
+          + "\n"
+          + "      td.mj-full-width-mobile {\n"
+          + "        width: auto !important;\n"
+          + "      }\n"
+          + "    }\n"
+          + "\n";
+
+  /** The end of the head and the body tag up to its background color. */
+  private static final String BODY_OPEN = "</head>\n\n<body style=\"word-spacing:normal;";
+
+  /** The hidden element holding the preview text, up to the text. */
+  private static final String PREVIEW_OPEN =
+      "  <div style=\"display:none;font-size:1px;color:#ffffff;line-height:1px;max-height:0px;"
+          + "max-width:0px;opacity:0;overflow:hidden;\">";
+
+  /** Everything that follows the body content, so it can be located in the assembled document. */
+  static final String DOCUMENT_END = "</body>\n\n</html>\n";
+
+  /**
+   * Cache of document starts keyed by the cached processed head they were built from and what the
+   * body added to the context. Templates rendered again with the same head, fonts, media queries,
+   * and component styles reuse the serialized head, including the reformatted CSS of every style
+   * block, instead of building it again. The processed head is compared by identity, so the key
+   * never reads the head's styles, and the title and preview text are inserted on every render, so
+   * per-recipient values do not miss.
+   */
+  private static final int DOCUMENT_START_CACHE_MAX_SIZE = 64;
+
+  private static final BoundedCache<DocumentStartKey, DocumentStart> DOCUMENT_START_CACHE =
+      CacheRegistry.register("render.document-starts", DOCUMENT_START_CACHE_MAX_SIZE);
+
   private HtmlSkeleton() {}
 
   /**
@@ -29,7 +152,40 @@ public final class HtmlSkeleton {
    * @return the complete HTML document string
    */
   public static String assemble(String bodyContent, GlobalContext ctx) {
-    StringBuilder sb = new StringBuilder(INITIAL_BUFFER_CAPACITY);
+    return documentStart(ctx) + bodyContent + DOCUMENT_END;
+  }
+
+  /**
+   * Builds everything that precedes the body content: the head and the opening body tag, with the
+   * preview text. The assembled document is this, the body content, then {@link #DOCUMENT_END}.
+   *
+   * @param ctx the global context providing configuration, styles, and metadata
+   * @return the start of the HTML document
+   */
+  static String documentStart(GlobalContext ctx) {
+    return documentStart(ctx, null);
+  }
+
+  /**
+   * Builds the start of the HTML document, reusing the serialized head of an earlier render with
+   * the same processed head.
+   *
+   * @param ctx the global context providing configuration, styles, and metadata
+   * @param head the cached context the head was processed into and copied from, or {@code null} if
+   *     the head was processed for this render only
+   * @return the start of the HTML document
+   */
+  static String documentStart(GlobalContext ctx, GlobalContext head) {
+    DocumentStart start =
+        head == null
+            ? buildDocumentStart(ctx)
+            : DOCUMENT_START_CACHE.get(
+                DocumentStartKey.of(ctx, head), key -> buildDocumentStart(ctx));
+    return start.complete(ctx.metadata().getTitle(), ctx.metadata().getPreviewText());
+  }
+
+  private static DocumentStart buildDocumentStart(GlobalContext ctx) {
+    StringBuilder sb = new StringBuilder(VARIABLE_CONTENT_CAPACITY);
 
     String lang = ctx.getConfiguration().getLanguage();
     if (lang == null || lang.isEmpty()) {
@@ -43,52 +199,12 @@ public final class HtmlSkeleton {
 
     String dir = ctx.getConfiguration().getDirection().value();
 
-    // DOCTYPE + html tag
-    sb.append("<!doctype html>\n");
-    sb.append("<html lang=\"")
-        .append(escapeHtml(lang))
-        .append("\" dir=\"")
-        .append(dir)
-        .append("\"");
-    sb.append(" xmlns=\"http://www.w3.org/1999/xhtml\"");
-    sb.append(" xmlns:v=\"urn:schemas-microsoft-com:vml\"");
-    sb.append(" xmlns:o=\"urn:schemas-microsoft-com:office:office\">\n");
-    sb.append("\n");
-
-    // Head
-    sb.append("<head>\n");
-    sb.append("  <title>").append(escapeHtml(ctx.metadata().getTitle())).append("</title>\n");
-
-    // Meta tags
-    sb.append("  <!--[if !mso]><!-->\n");
-    sb.append("  <meta http-equiv=\"X-UA-Compatible\" content=\"IE=edge\">\n");
-    sb.append("  <!--<![endif]-->\n");
-    sb.append("  <meta http-equiv=\"Content-Type\" content=\"text/html; charset=UTF-8\">\n");
-    sb.append("  <meta name=\"viewport\" content=\"width=device-width, initial-scale=1\">\n");
-
-    // CSS reset styles (BEFORE MSO noscript)
-    sb.append("  <style type=\"text/css\">\n");
-    appendBaseStyles(sb);
-    sb.append("  </style>\n");
-
-    // MSO office settings
-    sb.append("  <!--[if mso]>\n");
-    sb.append("    <noscript>\n");
-    sb.append("    <xml>\n");
-    sb.append("    <o:OfficeDocumentSettings>\n");
-    sb.append("      <o:AllowPNG/>\n");
-    sb.append("      <o:PixelsPerInch>").append(MSO_PIXELS_PER_INCH).append("</o:PixelsPerInch>\n");
-    sb.append("    </o:OfficeDocumentSettings>\n");
-    sb.append("    </xml>\n");
-    sb.append("    </noscript>\n");
-    sb.append("    <![endif]-->\n");
-
-    // MSO lte 11 conditional
-    sb.append("  <!--[if lte mso 11]>\n");
-    sb.append("    <style type=\"text/css\">\n");
-    sb.append("      .mj-outlook-group-fix { width:100% !important; }\n");
-    sb.append("    </style>\n");
-    sb.append("    <![endif]-->\n");
+    // DOCTYPE, html tag, and the head up to the font imports
+    sb.append(HTML_OPEN).append(escapeHtml(lang)).append("\" dir=\"").append(dir);
+    sb.append(HTML_TAG_END);
+    String beforeTitle = sb.toString();
+    sb = new StringBuilder(estimatedLength(ctx));
+    sb.append(STATIC_HEAD);
 
     // Font imports
     appendFonts(sb, ctx);
@@ -104,18 +220,7 @@ public final class HtmlSkeleton {
       sb.append("  <style type=\"text/css\">\n");
       if (hasFluid) {
         int fluidBreakpoint = ctx.metadata().getBreakpointPx() - 1;
-        sb.append("    @media only screen and (max-width:")
-            .append(fluidBreakpoint)
-            .append("px) {\n");
-        sb.append("      table.mj-full-width-mobile {\n");
-        sb.append("        width: 100% !important;\n");
-        sb.append("      }\n");
-        sb.append("\n");
-        sb.append("      td.mj-full-width-mobile {\n");
-        sb.append("        width: auto !important;\n");
-        sb.append("      }\n");
-        sb.append("    }\n");
-        sb.append("\n");
+        sb.append(FLUID_ON_MOBILE_START).append(fluidBreakpoint).append(FLUID_ON_MOBILE_END);
       }
       for (String css : ctx.styles().getComponentStyles()) {
         sb.append(reformatCss(css));
@@ -137,11 +242,8 @@ public final class HtmlSkeleton {
       sb.append("  <!-- ").append(safeComment).append(" -->\n");
     }
 
-    sb.append("</head>\n");
-    sb.append("\n");
-
     // Body
-    sb.append("<body style=\"word-spacing:normal;");
+    sb.append(BODY_OPEN);
     String bodyBgColor = ctx.metadata().getBodyBackgroundColor();
     if (bodyBgColor != null && !bodyBgColor.isEmpty()) {
       sb.append("background-color:")
@@ -150,22 +252,22 @@ public final class HtmlSkeleton {
     }
     sb.append("\">\n");
 
-    // Preview text
-    if (!ctx.metadata().getPreviewText().isEmpty()) {
-      sb.append(
-          "  <div style=\"display:none;font-size:1px;color:#ffffff;line-height:1px;max-height:0px;max-width:0px;opacity:0;overflow:hidden;\">");
-      sb.append(escapeHtml(ctx.metadata().getPreviewText()));
-      sb.append("</div>\n");
-    }
-
-    // Body content
-    sb.append(bodyContent);
-
-    sb.append("</body>\n");
-    sb.append("\n");
-    sb.append("</html>\n");
+    return new DocumentStart(beforeTitle, sb.toString());
+  }
 
-    return sb.toString();
+  /**
+   * Estimates the length of the document start from the fragments it is assembled from, so the
+   * buffer is allocated once. Reformatted style blocks gain indentation on every line.
+   */
+  private static int estimatedLength(GlobalContext ctx) {
+    int length = STATIC_HEAD.length() + VARIABLE_CONTENT_CAPACITY;
+    for (String css : ctx.styles().getStyles()) {
+      length += css.length() + css.length() / 2;
+    }
+    for (String css : ctx.styles().getComponentStyles()) {
+      length += css.length() + css.length() / 2;
+    }
+    return length;
   }
 
   private static void appendFonts(StringBuilder sb, GlobalContext ctx) {
@@ -192,44 +294,6 @@ public final class HtmlSkeleton {
     sb.append("  <!--<![endif]-->\n");
   }
 
-  private static void appendBaseStyles(StringBuilder sb) {
-    sb.append(
-        """
-            #outlook a {
-              padding: 0;
-            }
-
-            body {
-              margin: 0;
-              padding: 0;
-              -webkit-text-size-adjust: 100%;
-              -ms-text-size-adjust: 100%;
-            }
-
-            table,
-            td {
-              border-collapse: collapse;
-              mso-table-lspace: 0pt;
-              mso-table-rspace: 0pt;
-            }
-
-            img {
-              border: 0;
-              height: auto;
-              line-height: 100%;
-              outline: none;
-              text-decoration: none;
-              -ms-interpolation-mode: bicubic;
-            }
-
-            p {
-              display: block;
-              margin: 13px 0;
-            }
-
-        """);
-  }
-
   private static void appendMediaQueries(StringBuilder sb, GlobalContext ctx) {
     Set<MediaQuery> queries = ctx.styles().getMediaQueries();
     if (queries.isEmpty()) {
@@ -365,4 +429,80 @@ public final class HtmlSkeleton {
     }
     return HtmlEscaper.escapeAttributeValue(text);
   }
+
+  /**
+   * A document start without its title and preview text, which are inserted on every render.
+   *
+   * @param beforeTitle everything before the title text
+   * @param afterTitle everything after the title text, up to and including the opening body tag
+   */
+  private record DocumentStart(String beforeTitle, String afterTitle) {
+
+    String complete(String title, String previewText) {
+      String escapedTitle = escapeHtml(title);
+      String escapedPreview = previewText.isEmpty() ? "" : escapeHtml(previewText);
+      StringBuilder sb =
+          new StringBuilder(
+              beforeTitle.length()
+                  + escapedTitle.length()
+                  + afterTitle.length()
+                  + PREVIEW_OPEN.length()
+                  + escapedPreview.length()
+                  + 7);
+      sb.append(beforeTitle).append(escapedTitle).append(afterTitle);
+      if (!previewText.isEmpty()) {
+        sb.append(PREVIEW_OPEN).append(escapedPreview).append("</div>\n");
+      }
+      return sb.toString();
+    }
+  }
+
+  /**
+   * Everything {@link #documentStart} reads from the context besides the title and preview text.
+   * The processed head stands for everything the head contributed, including the configuration it
+   * was processed with; the rest is what the body added, compared by value.
+   *
+   * @param head the cached processed head, compared by identity
+   * @param fileStartContent content placed before the doctype
+   * @param fonts the fonts to import, in order
+   * @param mediaQueries the column media queries, in order
+   * @param fluidOnMobile whether fluid-on-mobile styles are needed
+   * @param breakpoint the responsive breakpoint
+   * @param componentStyles the styles registered by components
+   * @param bodyStyles the styles added after the head's
+   * @param bodyHeadComments the head comments added after the head's
+   * @param bodyBackgroundColor the body background color
+   */
+  private record DocumentStartKey(
+      GlobalContext head,
+      List<String> fileStartContent,
+      List<FontDef> fonts,
+      List<MediaQuery> mediaQueries,
+      boolean fluidOnMobile,
+      String breakpoint,
+      List<String> componentStyles,
+      List<String> bodyStyles,
+      List<String> bodyHeadComments,
+      String bodyBackgroundColor) {
+
+    static DocumentStartKey of(GlobalContext ctx, GlobalContext head) {
+      return new DocumentStartKey(
+          head,
+          List.copyOf(ctx.metadata().getFileStartContent()),
+          List.copyOf(ctx.styles().getFonts()),
+          List.copyOf(ctx.styles().getMediaQueries()),
+          ctx.styles().isFluidOnMobileUsed(),
+          ctx.metadata().getBreakpoint(),
+          List.copyOf(ctx.styles().getComponentStyles()),
+          addedAfter(ctx.styles().getStyles(), head.styles().getStyles()),
+          addedAfter(ctx.metadata().getHeadComments(), head.metadata().getHeadComments()),
+          ctx.metadata().getBodyBackgroundColor());
+    }
+
+    /** Returns the entries of a list that follow those copied from the processed head. */
+    private static List<String> addedAfter(List<String> values, List<String> headValues) {
+      int from = headValues.size();
+      return values.size() == from ? List.of() : List.copyOf(values.subList(from, values.size()));
+    }
+  }
 }
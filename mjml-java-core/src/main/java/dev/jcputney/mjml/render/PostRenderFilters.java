@@ -0,0 +1,144 @@
+package dev.jcputney.mjml.render;
+
+import dev.jcputney.mjml.css.HtmlFilter;
+import dev.jcputney.mjml.css.HtmlToken;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The built-in rewrites applied to the assembled document, as filters over one {@link
+ * dev.jcputney.mjml.css.HtmlFilterChain} pass.
+ */
+final class PostRenderFilters {
+
+  private static final String MSO_OPEN = "<!--[if mso | IE]>";
+  private static final String SECTION_CLOSE = "</td></tr></table>";
+  private static final String VML_SECTION_CLOSE = "</v:textbox></v:rect></td></tr></table>";
+  private static final String ENDIF = "<![endif]-->";
+  private static final String SECTION_OPEN = MSO_OPEN + "<table ";
+
+  private PostRenderFilters() {}
+
+  /**
+   * Returns a filter that merges adjacent MSO section transitions. When a section's closing
+   * conditional comment is followed, after whitespace, by the next section's opening conditional
+   * comment, the two become a single conditional block, as the official MJML renderer outputs.
+   */
+  static HtmlFilter msoTransitionMerge() {
+    return new HtmlFilter() {
+      // The closing comment waiting for its successor, followed by the whitespace after it
+      private final List<HtmlToken> pending = new ArrayList<>();
+      private String close;
+      private boolean sawWhitespace;
+
+      @Override
+      public void filter(HtmlToken token, Consumer<HtmlToken> next) {
+        if (close != null) {
+          if (token.isWhitespace()) {
+            pending.add(token);
+            sawWhitespace = true;
+            return;
+          }
+          if (sawWhitespace
+              && token.type() == HtmlToken.Type.COMMENT
+              && token.startsWith(SECTION_OPEN)) {
+            String opening = token.text();
+            token.setText(MSO_OPEN + close + opening.substring(MSO_OPEN.length()));
+            pending.clear();
+            close = null;
+          } else {
+            finish(next);
+          }
+        }
+        if (token.type() == HtmlToken.Type.COMMENT) {
+          close = sectionClose(token);
+          if (close != null) {
+            pending.add(token);
+            sawWhitespace = false;
+            return;
+          }
+        }
+        next.accept(token);
+      }
+
+      @Override
+      public void finish(Consumer<HtmlToken> next) {
+        for (HtmlToken token : pending) {
+          next.accept(token);
+        }
+        pending.clear();
+        close = null;
+      }
+    };
+  }
+
+  /** Returns the markup a section-closing conditional comment closes, or null for others. */
+  private static String sectionClose(HtmlToken comment) {
+    if (comment.textEquals(MSO_OPEN + SECTION_CLOSE + ENDIF)) {
+      return SECTION_CLOSE;
+    }
+    if (comment.textEquals(MSO_OPEN + VML_SECTION_CLOSE + ENDIF)) {
+      return VML_SECTION_CLOSE;
+    }
+    return null;
+  }
+
+  /**
+   * Returns a filter that serializes tags the way the official MJML toolchain does after inlining
+   * CSS. It inlines with juice, which writes every element back through cheerio: empty {@code
+   * style} and {@code alt} attributes lose their value ({@code style=""} becomes {@code style}) and
+   * self-closing tags lose their slash ({@code />} becomes {@code >}). Comments, including MSO
+   * conditionals with VML, and text are left untouched.
+   */
+  static HtmlFilter cheerioSerialization() {
+    return (token, next) -> {
+      HtmlToken.Type type = token.type();
+      if (type != HtmlToken.Type.TEXT && type != HtmlToken.Type.COMMENT) {
+        String tag = token.text();
+        if (tag.contains("=\"\"") || tag.contains("/>")) {
+          String serialized = serializeTag(tag);
+          if (!serialized.equals(tag)) {
+            token.setText(serialized);
+          }
+        }
+      }
+      next.accept(token);
+    };
+  }
+
+  /** Rewrites empty attributes and self-closing slashes outside quoted values of a tag. */
+  private static String serializeTag(String tag) {
+    StringBuilder sb = new StringBuilder(tag.length());
+    int len = tag.length();
+    char quoteChar = 0;
+    int i = 0;
+    while (i < len) {
+      char ch = tag.charAt(i);
+      if (quoteChar != 0) {
+        if (ch == quoteChar) {
+          quoteChar = 0;
+        }
+        sb.append(ch);
+        i++;
+      } else if (ch == '"' || ch == '\'') {
+        quoteChar = ch;
+        sb.append(ch);
+        i++;
+      } else if (tag.startsWith(" style=\"\"", i)) {
+        sb.append(" style");
+        i += 9;
+      } else if (tag.startsWith(" alt=\"\"", i)) {
+        sb.append(" alt");
+        i += 7;
+      } else if (tag.startsWith(" />", i)) {
+        sb.append('>');
+        i += 3;
+      } else {
+        sb.append(ch);
+        i++;
+      }
+    }
+    return sb.toString();
+  }
+}
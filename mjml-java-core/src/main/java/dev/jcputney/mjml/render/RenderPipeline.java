@@ -1,7 +1,9 @@
 package dev.jcputney.mjml.render;
 
+import dev.jcputney.mjml.CompiledTemplateStore;
 import dev.jcputney.mjml.MjmlConfiguration;
 import dev.jcputney.mjml.MjmlException;
+import dev.jcputney.mjml.MjmlParseException;
 import dev.jcputney.mjml.MjmlRenderException;
 import dev.jcputney.mjml.MjmlRenderResult;
 import dev.jcputney.mjml.MjmlValidationException;
@@ -41,17 +43,34 @@ import dev.jcputney.mjml.component.interactive.MjNavbarLink;
 import dev.jcputney.mjml.component.interactive.MjSocial;
 import dev.jcputney.mjml.component.interactive.MjSocialElement;
 import dev.jcputney.mjml.context.GlobalContext;
+import dev.jcputney.mjml.context.RenderArena;
 import dev.jcputney.mjml.context.RenderContext;
+import dev.jcputney.mjml.css.CompiledStylesheet;
 import dev.jcputney.mjml.css.CssInliner;
+import dev.jcputney.mjml.css.HtmlFilter;
+import dev.jcputney.mjml.css.HtmlFilterChain;
+import dev.jcputney.mjml.parser.CompiledTemplateCodec;
 import dev.jcputney.mjml.parser.IncludeProcessor;
 import dev.jcputney.mjml.parser.MjmlDocument;
 import dev.jcputney.mjml.parser.MjmlNode;
 import dev.jcputney.mjml.parser.MjmlParser;
+import dev.jcputney.mjml.util.BoundedCache;
+import dev.jcputney.mjml.util.CacheRegistry;
 import dev.jcputney.mjml.util.CssUnitParser;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 
 /**
  * Orchestrates the 7-phase rendering pipeline:
@@ -63,7 +82,8 @@ import java.util.regex.Pattern;
  *   <li>Process head (extract fonts, styles, attributes, etc.)
  *   <li>Resolve attributes (cascade applied during rendering)
  *   <li>Render body (top-down component rendering)
- *   <li>Assemble skeleton + CSS inlining
+ *   <li>Assemble skeleton, streaming the document through the output filters (MSO section merging,
+ *       mj-html-attributes, CSS inlining, and configured filters) in one pass
  * </ol>
  */
 public final class RenderPipeline {
@@ -81,19 +101,55 @@ public final class RenderPipeline {
 
   private static final ConcurrentHashMap<MjmlConfiguration, ComponentRegistry> REGISTRY_CACHE =
       new ConcurrentHashMap<>();
-  // Pre-compiled patterns for MSO transition merging. Use \s+ between the closing
-  // conditional and the opening conditional so that indentation changes don't break the merge.
-  private static final Pattern MSO_SECTION_MERGE =
-      Pattern.compile(
-          "<!--\\[if mso \\| IE]></td></tr></table><!\\[endif]-->\\s+"
-              + "<!--\\[if mso \\| IE]><table ");
-  private static final Pattern MSO_VML_MERGE =
-      Pattern.compile(
-          "<!--\\[if mso \\| IE]></v:textbox></v:rect></td></tr></table><!\\[endif]-->\\s+"
-              + "<!--\\[if mso \\| IE]><table ");
+
+  /**
+   * Cache of compiled inline stylesheets keyed by their CSS text (hashed and compared by content).
+   * Templates that share a brand stylesheet through {@code <mj-style inline="inline">} parse and
+   * index it once. Compiled stylesheets are immutable, so they are shared across threads.
+   */
+  private static final int STYLESHEET_CACHE_MAX_SIZE = 64;
+
+  private static final BoundedCache<String, CompiledStylesheet> STYLESHEET_CACHE =
+      CacheRegistry.register("render.stylesheets", STYLESHEET_CACHE_MAX_SIZE);
+
+  /**
+   * Cache of processed heads keyed by configuration and a digest of the {@code mj-head} subtree.
+   * Processing a head only writes to a fresh {@link GlobalContext}, so the context it produced is
+   * kept, never modified again, and copied into each render that has the same head. Heads are only
+   * cached when every component in them is a built-in head component. The title and preview text
+   * are left out of both the digest and the cached context, so heads that differ only in those
+   * share an entry.
+   */
+  private static final int HEAD_CACHE_MAX_SIZE = 64;
+
+  private static final BoundedCache<HeadKey, GlobalContext> HEAD_CACHE =
+      CacheRegistry.register("render.heads", HEAD_CACHE_MAX_SIZE);
+
+  private static final Set<String> CACHEABLE_HEAD_TAGS =
+      Set.of(
+          "mj-title",
+          "mj-preview",
+          "mj-font",
+          "mj-breakpoint",
+          "mj-style",
+          "mj-attributes",
+          "mj-html-attributes");
+
+  /** Head components processed on every render instead of cached, as they often vary per render. */
+  private static final Set<String> PER_RENDER_HEAD_TAGS = Set.of("mj-title", "mj-preview");
+
+  /** Digest of a document without a head. */
+  private static final String NO_HEAD_DIGEST = "";
+
+  /**
+   * Digests of frozen heads, which cannot change, so a head rendered again is not read again. Keys
+   * are weak, so a template dropped by the caller does not stay reachable from here.
+   */
+  private static final Map<MjmlNode, String> FROZEN_HEAD_DIGESTS =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
   private final MjmlConfiguration configuration;
   private final ComponentRegistry registry;
-  private final FontScanner fontScanner;
 
   /**
    * Creates a new render pipeline for the given configuration.
@@ -103,101 +159,6 @@ public final class RenderPipeline {
   public RenderPipeline(MjmlConfiguration configuration) {
     this.configuration = configuration;
     this.registry = getOrCreateRegistry(configuration);
-    this.fontScanner = new FontScanner(configuration, registry);
-  }
-
-  /**
-   * Merges adjacent MSO conditional section transitions in the rendered body HTML. When two
-   * sections are adjacent, this merges the close/open pattern into a single conditional block. Uses
-   * regex with {@code \s+} to tolerate whitespace variations.
-   */
-  private static String mergeMsoSectionTransitions(String html) {
-    html =
-        MSO_SECTION_MERGE.matcher(html).replaceAll("<!--[if mso | IE]></td></tr></table><table ");
-    html =
-        MSO_VML_MERGE
-            .matcher(html)
-            .replaceAll("<!--[if mso | IE]></v:textbox></v:rect></td></tr></table><table ");
-    return html;
-  }
-
-  private static String postProcessInlinedHtml(String html) {
-    StringBuilder sb = new StringBuilder(html.length());
-    int i = 0;
-    int len = html.length();
-    boolean inMsoComment = false;
-    boolean inTag = false;
-    char quoteChar = 0;
-    while (i < len) {
-      // Track MSO conditional comment boundaries to avoid modifying VML content
-      if (!inMsoComment && i + 4 <= len && html.startsWith("<!--", i)) {
-        inMsoComment = true;
-        sb.append("<!--");
-        i += 4;
-        continue;
-      }
-      if (inMsoComment && i + 3 <= len && html.startsWith("-->", i)) {
-        inMsoComment = false;
-        sb.append("-->");
-        i += 3;
-        continue;
-      }
-      if (inMsoComment) {
-        // Inside MSO conditional — copy verbatim (preserves VML self-closing tags)
-        sb.append(html.charAt(i));
-        i++;
-        continue;
-      }
-      char ch = html.charAt(i);
-      if (!inTag) {
-        if (ch == '<') {
-          inTag = true;
-        }
-        sb.append(ch);
-        i++;
-        continue;
-      }
-      if (quoteChar != 0) {
-        sb.append(ch);
-        if (ch == quoteChar) {
-          quoteChar = 0;
-        }
-        i++;
-        continue;
-      }
-      if (ch == '"' || ch == '\'') {
-        quoteChar = ch;
-        sb.append(ch);
-        i++;
-        continue;
-      }
-      if (ch == '>') {
-        inTag = false;
-        sb.append(ch);
-        i++;
-        continue;
-      }
-      // Only rewrite within tag syntax, never in text content.
-      if (i + 9 <= len && html.startsWith(" style=\"\"", i)) {
-        sb.append(" style");
-        i += 9;
-      } else if (i + 7 <= len && html.startsWith(" alt=\"\"", i)) {
-        // " alt=\"\"" -> " alt" (cheerio converts empty alt to boolean attribute)
-        sb.append(" alt");
-        i += 7;
-      } else if (i + 3 <= len
-          && html.charAt(i) == ' '
-          && html.charAt(i + 1) == '/'
-          && html.charAt(i + 2) == '>') {
-        // " />" -> ">"
-        sb.append('>');
-        i += 3;
-      } else {
-        sb.append(html.charAt(i));
-        i++;
-      }
-    }
-    return sb.toString();
   }
 
   private static void warnUnresolvedIncludes(MjmlNode node) {
@@ -225,6 +186,10 @@ public final class RenderPipeline {
     return result;
   }
 
+  private static CompiledStylesheet compiledStylesheet(String css) {
+    return STYLESHEET_CACHE.get(css, CompiledStylesheet::compile);
+  }
+
   private ComponentRegistry createAndFreezeRegistry(MjmlConfiguration config) {
     ComponentRegistry reg = createRegistry();
     reg.freeze();
@@ -247,65 +212,46 @@ public final class RenderPipeline {
 
     LOG.fine("Starting render pipeline");
 
-    // Phase 1 & 2: Preprocess and parse
-    MjmlDocument document = MjmlParser.parse(mjmlSource, configuration.getMaxNestingDepth());
-    LOG.fine("Parsed MJML document");
+    // Phases 1-3: Preprocess, parse and resolve includes (or load the compiled tree)
+    return renderDocument(compile(mjmlSource));
+  }
 
+  /**
+   * Renders a parsed document to a complete HTML document. The tree is only read, so one
+   * {@linkplain MjmlDocument#freeze() frozen} document can be cached and rendered by many threads
+   * at once. Includes still in the tree are expanded first; a frozen document is left unchanged and
+   * the expansion copies only the paths to them.
+   *
+   * @param document the parsed document
+   * @return the render result containing the HTML output, title, and preview text
+   */
+  public MjmlRenderResult render(MjmlDocument document) {
+    return renderDocument(expandIncludes(document));
+  }
+
+  private MjmlRenderResult renderDocument(MjmlDocument document) {
     // Create global context
     GlobalContext globalContext = new GlobalContext(configuration);
 
-    // Phase 3: Resolve includes
-    if (configuration.getIncludeResolver() != null) {
-      IncludeProcessor includeProcessor =
-          new IncludeProcessor(
-              configuration.getIncludeResolver(),
-              configuration.getMaxInputSize(),
-              configuration.getMaxIncludeDepth(),
-              configuration.getMaxNestingDepth());
-      includeProcessor.process(document);
-    }
-
     // Warn about unresolved mj-include nodes
     warnUnresolvedIncludes(document.root());
 
     try {
       // Phase 4: Process head
-      processHead(document, globalContext);
+      GlobalContext processedHead = processHead(document, globalContext);
 
-      // Phase 4b: Auto-register default fonts used by components
-      fontScanner.registerDefaultFonts(document, globalContext);
-
-      // Phase 5 & 6: Render body (attribute cascade happens during rendering)
+      // Phase 5 & 6: Render body (attribute cascade happens during rendering). Default fonts
+      // used by components are registered as they are created, before the head is assembled.
       String bodyHtml = renderBody(document, globalContext);
 
-      // Phase 6a: Merge adjacent MSO section transitions
-      bodyHtml = mergeMsoSectionTransitions(bodyHtml);
-
-      // Phase 6b: Apply mj-html-attributes to rendered body
-      if (!globalContext.attributes().getHtmlAttributes().isEmpty()) {
-        bodyHtml = HtmlAttributeApplier.apply(bodyHtml, globalContext);
-      }
-
-      // Phase 7: Assemble skeleton
-      String html = HtmlSkeleton.assemble(bodyHtml, globalContext);
-
-      // Phase 7b: CSS inlining (inline styles from mj-style inline="inline")
-      if (!globalContext.styles().getInlineStyles().isEmpty()) {
-        StringBuilder inlineCss = new StringBuilder();
-        for (String css : globalContext.styles().getInlineStyles()) {
-          inlineCss.append(css).append("\n");
-        }
-        html = CssInliner.inlineAdditionalOnly(html, inlineCss.toString());
-        // Post-processing to match official MJML v4 output exactly.
-        // The official MJML toolchain uses juice for CSS inlining, which rewrites
-        // all HTML elements through cheerio. This round-trip serialization introduces
-        // two side effects in the final output:
-        // 1. cheerio serializes empty style attributes without quotes: style="" -> style
-        // 2. cheerio serializes self-closing tags without the slash: /> -> >
-        // Our CSS inliner preserves the original markup, so we apply these
-        // transformations explicitly to match the expected golden output.
-        html = postProcessInlinedHtml(html);
-      }
+      // Phase 7: Assemble the skeleton around the body while rewriting it in one streaming pass:
+      // MSO section merging, mj-html-attributes, inline styles from mj-style inline="inline", and
+      // any configured filters all run over a single tokenization of the document.
+      String documentStart = HtmlSkeleton.documentStart(globalContext, processedHead);
+      String html =
+          HtmlFilterChain.of(
+                  outputFilters(globalContext, documentStart.length(), bodyHtml.length()))
+              .apply(documentStart, bodyHtml, HtmlSkeleton.DOCUMENT_END);
 
       return new MjmlRenderResult(
           html, globalContext.metadata().getTitle(), globalContext.metadata().getPreviewText());
@@ -316,15 +262,131 @@ public final class RenderPipeline {
     }
   }
 
-  private void processHead(MjmlDocument document, GlobalContext globalContext) {
+  /**
+   * Returns the filters for the assembled document, in the order they see each token. The body
+   * occupies {@code [bodyStart, bodyStart + bodyLength)} of the document.
+   */
+  private List<HtmlFilter> outputFilters(
+      GlobalContext globalContext, int bodyStart, int bodyLength) {
+    List<HtmlFilter> filters = new ArrayList<>();
+    filters.add(PostRenderFilters.msoTransitionMerge());
+    if (!globalContext.attributes().getHtmlAttributes().isEmpty()) {
+      // mj-html-attributes selectors see the rendered body as if it were parsed on its own
+      filters.add(HtmlAttributeApplier.filter(globalContext, bodyStart, bodyStart + bodyLength));
+    }
+    boolean inlineStyles = !globalContext.styles().getInlineStyles().isEmpty();
+    if (inlineStyles) {
+      StringBuilder inlineCss = new StringBuilder();
+      for (String css : globalContext.styles().getInlineStyles()) {
+        inlineCss.append(css).append("\n");
+      }
+      filters.add(CssInliner.filter(compiledStylesheet(inlineCss.toString())));
+    }
+    for (Supplier<? extends HtmlFilter> filter : configuration.getHtmlFilters()) {
+      filters.add(filter.get());
+    }
+    if (inlineStyles) {
+      // The official MJML toolchain uses juice for CSS inlining, which rewrites all HTML elements
+      // through cheerio. Our CSS inliner preserves the original markup, so cheerio's serialization
+      // is applied explicitly to match the expected golden output. It replaces each tag's text,
+      // so it runs last, after every filter that changes elements.
+      filters.add(PostRenderFilters.cheerioSerialization());
+    }
+    return filters;
+  }
+
+  /**
+   * Parses MJML source and expands its includes, producing the tree that the render phases consume.
+   * When a {@link CompiledTemplateStore} is configured, the tree is loaded from the store by the
+   * hash of the source and the settings that shape it (see {@link CompiledTemplateCodec#key(String,
+   * MjmlConfiguration)}) if present, and saved to it otherwise. Each call returns a new,
+   * independent tree.
+   *
+   * @param mjmlSource the raw MJML markup to compile
+   * @return the include-expanded document
+   */
+  public MjmlDocument compile(String mjmlSource) {
+    CompiledTemplateStore store = configuration.getCompiledTemplateStore();
+    if (store == null || mjmlSource == null) {
+      return parseAndResolveIncludes(mjmlSource);
+    }
+
+    String key = CompiledTemplateCodec.key(mjmlSource, configuration);
+    byte[] compiled = store.load(key);
+    if (compiled != null) {
+      try {
+        MjmlDocument document =
+            CompiledTemplateCodec.decode(compiled, configuration.getMaxNestingDepth());
+        LOG.fine(() -> "Loaded compiled template " + key);
+        return document;
+      } catch (MjmlParseException e) {
+        LOG.warning(() -> "Ignoring unreadable compiled template " + key + ": " + e.getMessage());
+      }
+    }
+
+    MjmlDocument document = parseAndResolveIncludes(mjmlSource);
+    store.store(key, CompiledTemplateCodec.encode(document));
+    return document;
+  }
+
+  private MjmlDocument parseAndResolveIncludes(String mjmlSource) {
+    // Phase 1 & 2: Preprocess and parse
+    MjmlDocument document = MjmlParser.parse(mjmlSource, configuration.getMaxNestingDepth());
+    LOG.fine("Parsed MJML document");
+
+    // Phase 3: Resolve includes
+    return expandIncludes(document);
+  }
+
+  private MjmlDocument expandIncludes(MjmlDocument document) {
+    if (configuration.getIncludeResolver() == null) {
+      return document;
+    }
+    IncludeProcessor includeProcessor =
+        new IncludeProcessor(
+            configuration.getIncludeResolver(),
+            configuration.getMaxInputSize(),
+            configuration.getMaxIncludeDepth(),
+            configuration.getMaxNestingDepth());
+    return includeProcessor.expand(document);
+  }
+
+  /**
+   * Processes the head into the render's context. Returns the cached context the head was copied
+   * from, which identifies the head to later caches, or {@code null} when the head is not cached.
+   */
+  private GlobalContext processHead(MjmlDocument document, GlobalContext globalContext) {
     MjmlNode head = document.getHead();
-    if (head == null) {
-      return;
+    if (head != null && !isCacheableHead(head)) {
+      processHeadChildren(head, globalContext, tag -> true);
+      return null;
+    }
+
+    GlobalContext processed =
+        HEAD_CACHE.get(
+            new HeadKey(configuration, head == null ? NO_HEAD_DIGEST : headDigest(head)),
+            key -> {
+              GlobalContext headContext = new GlobalContext(configuration);
+              if (head != null) {
+                processHeadChildren(head, headContext, tag -> !PER_RENDER_HEAD_TAGS.contains(tag));
+              }
+              return headContext;
+            });
+    globalContext.copyFrom(processed);
+    if (head != null) {
+      processHeadChildren(head, globalContext, PER_RENDER_HEAD_TAGS::contains);
     }
+    return processed;
+  }
 
+  private void processHeadChildren(
+      MjmlNode head, GlobalContext globalContext, Predicate<String> includeTag) {
     RenderContext dummyContext = new RenderContext(MjmlConfiguration.DEFAULT_CONTAINER_WIDTH);
 
     for (MjmlNode child : head.getChildren()) {
+      if (!includeTag.test(child.getTagName())) {
+        continue;
+      }
       if ("#comment".equals(child.getTagName())) {
         String comment = child.getTextContent();
         if (comment != null && !comment.isBlank()) {
@@ -342,6 +404,90 @@ public final class RenderPipeline {
     }
   }
 
+  /**
+   * Returns whether processing a head depends only on its subtree: every component in it is a
+   * built-in head component that the configuration does not replace.
+   */
+  private boolean isCacheableHead(MjmlNode head) {
+    for (MjmlNode child : head.getChildren()) {
+      String tagName = child.getTagName();
+      if (tagName.startsWith("#")) {
+        continue;
+      }
+      if (!CACHEABLE_HEAD_TAGS.contains(tagName)
+          || configuration.getCustomComponents().containsKey(tagName)
+          || configuration.getCustomContainerComponents().containsKey(tagName)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the SHA-256 digest of a head without its per-render components. Every tag name,
+   * attribute, and text content is hashed with its length, so two heads have the same digest only
+   * if they are identical. A frozen head is only digested the first time it is rendered.
+   */
+  private static String headDigest(MjmlNode head) {
+    if (head.isFrozen()) {
+      return FROZEN_HEAD_DIGESTS.computeIfAbsent(head, RenderPipeline::computeHeadDigest);
+    }
+    return computeHeadDigest(head);
+  }
+
+  private static String computeHeadDigest(MjmlNode head) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+    List<MjmlNode> children = new ArrayList<>();
+    for (MjmlNode child : head.getChildren()) {
+      if (!PER_RENDER_HEAD_TAGS.contains(child.getTagName())) {
+        children.add(child);
+      }
+    }
+    updateDigest(digest, head, children);
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static void updateDigest(MessageDigest digest, MjmlNode node, List<MjmlNode> children) {
+    updateField(digest, node.getTagName());
+    Map<String, String> attributes = node.getAttributes();
+    updateLength(digest, attributes.size());
+    for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+      updateField(digest, attribute.getKey());
+      updateField(digest, attribute.getValue());
+    }
+    updateField(digest, node.getTextContent());
+    updateLength(digest, children.size());
+    for (MjmlNode child : children) {
+      updateDigest(digest, child, child.getChildren());
+    }
+  }
+
+  private static void updateField(MessageDigest digest, String value) {
+    byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+    updateLength(digest, bytes.length);
+    digest.update(bytes);
+  }
+
+  private static void updateLength(MessageDigest digest, int length) {
+    digest.update((byte) (length >>> 24));
+    digest.update((byte) (length >>> 16));
+    digest.update((byte) (length >>> 8));
+    digest.update((byte) length);
+  }
+
+  /**
+   * Identifies a processed head: the configuration it was processed with and its digest.
+   *
+   * @param configuration the render configuration
+   * @param digest the digest of the {@code mj-head} subtree without its per-render components
+   */
+  private record HeadKey(MjmlConfiguration configuration, String digest) {}
+
   private String renderBody(MjmlDocument document, GlobalContext globalContext) {
     MjmlNode body = document.getBody();
     if (body == null) {
@@ -354,10 +500,13 @@ public final class RenderPipeline {
         CssUnitParser.parsePixels(widthAttr, MjmlConfiguration.DEFAULT_CONTAINER_WIDTH);
     globalContext.metadata().setContainerWidth(containerWidth);
 
-    RenderContext renderContext = new RenderContext(containerWidth);
-
-    MjBody mjBody = new MjBody(body, globalContext, renderContext, registry);
-    return mjBody.render();
+    // Components borrow their scratch builders and style maps from an arena reused across renders
+    try (RenderArena arena = RenderArena.acquire()) {
+      RenderContext renderContext = new RenderContext(containerWidth, arena);
+      MjBody mjBody = new MjBody(body, globalContext, renderContext, registry);
+      mjBody.registerUsedFonts();
+      return mjBody.render();
+    }
   }
 
   private ComponentRegistry createRegistry() {
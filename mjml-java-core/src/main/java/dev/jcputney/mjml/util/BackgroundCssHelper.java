@@ -11,6 +11,17 @@ import java.util.Map;
  */
 public final class BackgroundCssHelper {
 
+  /**
+   * Background shorthands keyed by the attribute values they are built from. Values with long URLs,
+   * such as data URIs, are built without being cached.
+   */
+  private static final int CACHE_MAX_SIZE = 256;
+
+  private static final int CACHE_MAX_URL_LENGTH = 2048;
+
+  private static final BoundedCache<BackgroundKey, String> CACHE =
+      CacheRegistry.register("layout.backgrounds", CACHE_MAX_SIZE);
+
   private BackgroundCssHelper() {}
 
   /**
@@ -26,12 +37,22 @@ public final class BackgroundCssHelper {
    */
   public static String buildBackgroundCss(
       String bgColor, String bgUrl, String bgPosition, String bgSize, String bgRepeat) {
+    BackgroundKey key = new BackgroundKey(bgColor, bgUrl, bgPosition, bgSize, bgRepeat);
+    if (bgUrl != null && bgUrl.length() > CACHE_MAX_URL_LENGTH) {
+      return computeBackgroundCss(key);
+    }
+    return CACHE.get(key, BackgroundCssHelper::computeBackgroundCss);
+  }
+
+  private static String computeBackgroundCss(BackgroundKey key) {
+    String bgColor = key.bgColor();
     StringBuilder bg = new StringBuilder();
     if (bgColor != null && !bgColor.isEmpty()) {
       bg.append(bgColor).append(" ");
     }
-    bg.append("url('").append(escapeCssUrl(bgUrl)).append("') ");
-    bg.append(bgPosition).append(" / ").append(bgSize).append(" ").append(bgRepeat);
+    bg.append("url('").append(escapeCssUrl(key.bgUrl())).append("') ");
+    bg.append(key.bgPosition()).append(" / ").append(key.bgSize()).append(" ");
+    bg.append(key.bgRepeat());
     return bg.toString();
   }
 
@@ -76,4 +97,8 @@ public final class BackgroundCssHelper {
     styles.put("width", "100%");
     return styles;
   }
+
+  /** The attribute values a background shorthand is built from. */
+  private record BackgroundKey(
+      String bgColor, String bgUrl, String bgPosition, String bgSize, String bgRepeat) {}
 }
@@ -3,6 +3,12 @@ package dev.jcputney.mjml.util;
 /** Normalizes CSS background-position values to "x y" format. Shared by MjSection and MjWrapper. */
 public final class BackgroundPositionHelper {
 
+  /** Normalized positions keyed by the attribute value, which recurs across sections. */
+  private static final int CACHE_MAX_SIZE = 256;
+
+  private static final BoundedCache<String, String> CACHE =
+      CacheRegistry.register("layout.background-positions", CACHE_MAX_SIZE);
+
   private BackgroundPositionHelper() {}
 
   /**
@@ -17,6 +23,10 @@ public final class BackgroundPositionHelper {
     if (pos == null || pos.isEmpty()) {
       return "center top";
     }
+    return CACHE.get(pos, BackgroundPositionHelper::computeNormalized);
+  }
+
+  private static String computeNormalized(String pos) {
     String[] parts = pos.trim().split("\\s+");
     if (parts.length == 1) {
       return parts[0] + " " + "center";
@@ -0,0 +1,93 @@
+package dev.jcputney.mjml.util;
+
+import dev.jcputney.mjml.CacheStats;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A process-wide, thread-safe cache of immutable values that holds at most a fixed number of
+ * entries, evicting an arbitrary one when full, and counts its hits and misses. Values are computed
+ * outside any lock, so two threads missing on the same key may both compute it; the first value
+ * stored wins. Null values are returned but not cached.
+ *
+ * <h2>Usage</h2>
+ *
+ * <pre>{@code
+ * private static final BoundedCache<String, CssSelector> CACHE = new BoundedCache<>(4096);
+ *
+ * CssSelector selector = CACHE.get(text, CssSelectorParser::parseUncached);
+ * }</pre>
+ *
+ * @param <K> the key type
+ * @param <V> the value type, which must be immutable
+ */
+public final class BoundedCache<K, V> {
+
+  private final ConcurrentHashMap<K, V> entries = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final int maxSize;
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param maxSize the number of entries to hold before evicting
+   */
+  public BoundedCache(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+    }
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Returns the cached value for a key, computing and caching it on a miss.
+   *
+   * @param key the key
+   * @param loader computes the value for a key that is not cached
+   * @return the value, or null if the loader returned null
+   */
+  public V get(K key, Function<? super K, ? extends V> loader) {
+    V value = entries.get(key);
+    if (value != null) {
+      hits.increment();
+      return value;
+    }
+    misses.increment();
+    value = loader.apply(key);
+    if (value == null) {
+      return null;
+    }
+    V existing = entries.putIfAbsent(key, value);
+    if (existing != null) {
+      return existing;
+    }
+    // Evict an arbitrary entry other than the new one if cache exceeds max size
+    if (entries.size() > maxSize) {
+      for (K candidate : entries.keySet()) {
+        if (!candidate.equals(key)) {
+          entries.remove(candidate);
+          break;
+        }
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Returns a snapshot of the cache's hit and miss counts and size.
+   *
+   * @return the statistics
+   */
+  public CacheStats stats() {
+    return new CacheStats(hits.sum(), misses.sum(), entries.size(), maxSize);
+  }
+
+  /** Removes all entries and resets the statistics. */
+  public void clear() {
+    entries.clear();
+    hits.reset();
+    misses.reset();
+  }
+}
@@ -0,0 +1,55 @@
+package dev.jcputney.mjml.util;
+
+import dev.jcputney.mjml.CacheStats;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Names the renderer's process-wide caches so their statistics can be reported together. Each cache
+ * registers itself when the class that owns it is initialized.
+ *
+ * <h2>Usage</h2>
+ *
+ * <pre>{@code
+ * private static final BoundedCache<String, double[]> CACHE =
+ *     CacheRegistry.register("layout.shorthands", 1024);
+ *
+ * Map<String, CacheStats> stats = CacheRegistry.stats();
+ * }</pre>
+ */
+public final class CacheRegistry {
+
+  private static final Map<String, BoundedCache<?, ?>> CACHES = new ConcurrentHashMap<>();
+
+  private CacheRegistry() {}
+
+  /**
+   * Creates a cache and registers it under a name.
+   *
+   * @param name the name its statistics are reported under
+   * @param maxSize the number of entries to hold before evicting
+   * @param <K> the key type
+   * @param <V> the value type, which must be immutable
+   * @return the new cache
+   * @throws IllegalStateException if a cache is already registered under the name
+   */
+  public static <K, V> BoundedCache<K, V> register(String name, int maxSize) {
+    BoundedCache<K, V> cache = new BoundedCache<>(maxSize);
+    if (CACHES.putIfAbsent(name, cache) != null) {
+      throw new IllegalStateException("A cache is already registered as " + name);
+    }
+    return cache;
+  }
+
+  /**
+   * Returns the statistics of every registered cache, sorted by name.
+   *
+   * @return the statistics by cache name
+   */
+  public static Map<String, CacheStats> stats() {
+    Map<String, CacheStats> stats = new TreeMap<>();
+    CACHES.forEach((name, cache) -> stats.put(name, cache.stats()));
+    return stats;
+  }
+}
@@ -0,0 +1,110 @@
+package dev.jcputney.mjml.util;
+
+/**
+ * Scanning kernels shared by the escaping and parsing hot loops. Markup-significant characters
+ * ({@code & " ' < >}, the control characters) all lie below 64, so a set of them fits in one {@code
+ * long} and each character is tested against the whole set with a single shift. Callers find the
+ * next special character and copy the clean run before it in bulk, instead of appending character
+ * by character; single targets go to {@link String#indexOf(int, int)}, which the JVM already
+ * vectorizes.
+ *
+ * <h2>Usage</h2>
+ *
+ * <pre>{@code
+ * private static final long SPECIALS = CharScanner.mask('&', '<', '>');
+ *
+ * int special = CharScanner.indexOfAny(value, 0, value.length(), SPECIALS);
+ * }</pre>
+ */
+public final class CharScanner {
+
+  private CharScanner() {}
+
+  /**
+   * Builds the set of characters to scan for.
+   *
+   * @param targets characters below 64
+   * @return a mask with one bit per target
+   * @throws IllegalArgumentException if a target is 64 or above
+   */
+  public static long mask(char... targets) {
+    long mask = 0;
+    for (char target : targets) {
+      if (target >= 64) {
+        throw new IllegalArgumentException("Scan targets must be below 64: " + (int) target);
+      }
+      mask |= 1L << target;
+    }
+    return mask;
+  }
+
+  /**
+   * Returns whether a character is in a set built by {@link #mask}.
+   *
+   * @param c the character
+   * @param mask the set
+   * @return whether {@code c} is in the set
+   */
+  public static boolean isAny(char c, long mask) {
+    return c < 64 && (mask >>> c & 1L) != 0;
+  }
+
+  /**
+   * Finds the first character of {@code s[from, to)} in a set built by {@link #mask}.
+   *
+   * @param s the text
+   * @param from the first index to examine
+   * @param to the index to stop before
+   * @param mask the set of characters to find
+   * @return the index of the first match, or -1 if there is none
+   */
+  public static int indexOfAny(String s, int from, int to, long mask) {
+    for (int i = from; i < to; i++) {
+      char c = s.charAt(i);
+      if (c < 64 && (mask >>> c & 1L) != 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Finds the first C0 control character ({@code U+0000} to {@code U+001F}) or DEL in {@code s}
+   * from {@code from}.
+   *
+   * @param s the text
+   * @param from the first index to examine
+   * @return the index of the first control character, or -1 if there is none
+   */
+  public static int indexOfControl(String s, int from) {
+    for (int i = from; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c <= 0x1F || c == 0x7F) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Finds {@code needle}, ignoring case, in {@code haystack} from {@code from}. The needle must
+   * start with a character that has no case, such as {@code <}; candidates are found with {@link
+   * String#indexOf(int, int)} and only they are compared.
+   *
+   * @param haystack the text to search
+   * @param needle the text to find, starting with a caseless character
+   * @param from the first index to examine
+   * @return the index of the first match, or -1 if there is none
+   */
+  public static int indexOfIgnoreCase(String haystack, String needle, int from) {
+    char first = needle.charAt(0);
+    int limit = haystack.length() - needle.length();
+    for (int i = haystack.indexOf(first, from); i >= 0 && i <= limit; ) {
+      if (haystack.regionMatches(true, i + 1, needle, 1, needle.length() - 1)) {
+        return i;
+      }
+      i = haystack.indexOf(first, i + 1);
+    }
+    return -1;
+  }
+}
@@ -9,6 +9,19 @@ import java.util.List;
  */
 public final class ColumnWidthCalculator {
 
+  /**
+   * Column widths keyed by the columns' width attributes and the container width. Templates repeat
+   * the same column layouts across sections and renders. Cached arrays are never handed out; each
+   * call returns a copy.
+   */
+  private static final int CACHE_MAX_SIZE = 1024;
+
+  private static final BoundedCache<PixelWidthsKey, double[]> PIXEL_WIDTHS_CACHE =
+      CacheRegistry.register("layout.column-widths", CACHE_MAX_SIZE);
+
+  private static final BoundedCache<List<String>, String[]> WIDTH_SPECS_CACHE =
+      CacheRegistry.register("layout.column-width-specs", CACHE_MAX_SIZE);
+
   private ColumnWidthCalculator() {}
 
   /**
@@ -24,14 +37,24 @@ public final class ColumnWidthCalculator {
    */
   public static double[] calculatePixelWidths(
       List<MjmlNode> columns, double containerWidth, boolean usePercentAuto) {
-    double[] widths = new double[columns.size()];
-    boolean[] isAuto = new boolean[columns.size()];
+    return PIXEL_WIDTHS_CACHE
+        .get(
+            new PixelWidthsKey(widthAttributes(columns), containerWidth, usePercentAuto),
+            ColumnWidthCalculator::computePixelWidths)
+        .clone();
+  }
+
+  private static double[] computePixelWidths(PixelWidthsKey key) {
+    List<String> widthAttrs = key.widthAttributes();
+    double containerWidth = key.containerWidth();
+    double[] widths = new double[widthAttrs.size()];
+    boolean[] isAuto = new boolean[widthAttrs.size()];
     double totalUsed = 0;
     int autoCount = 0;
 
-    for (int i = 0; i < columns.size(); i++) {
-      String widthAttr = columns.get(i).getAttribute("width");
-      if (widthAttr != null && !widthAttr.isEmpty()) {
+    for (int i = 0; i < widthAttrs.size(); i++) {
+      String widthAttr = widthAttrs.get(i);
+      if (!widthAttr.isEmpty()) {
         if (widthAttr.endsWith("%")) {
           widths[i] = containerWidth * CssUnitParser.parsePx(widthAttr.replace("%", ""), 0) / 100.0;
         } else {
@@ -46,8 +69,8 @@ public final class ColumnWidthCalculator {
 
     if (autoCount > 0) {
       double autoWidth;
-      if (usePercentAuto) {
-        double autoPct = 100.0 / columns.size();
+      if (key.usePercentAuto()) {
+        double autoPct = 100.0 / widthAttrs.size();
         autoWidth = autoPct * containerWidth / 100.0;
       } else {
         autoWidth = (containerWidth - totalUsed) / autoCount;
@@ -70,26 +93,31 @@ public final class ColumnWidthCalculator {
    * @return an array of width specification strings for each column
    */
   public static String[] calculateWidthSpecs(List<MjmlNode> columns) {
-    String[] specs = new String[columns.size()];
+    return WIDTH_SPECS_CACHE
+        .get(widthAttributes(columns), ColumnWidthCalculator::computeWidthSpecs)
+        .clone();
+  }
+
+  private static String[] computeWidthSpecs(List<String> widthAttrs) {
+    String[] specs = new String[widthAttrs.size()];
     int autoCount = 0;
-    for (MjmlNode col : columns) {
-      String widthAttr = col.getAttribute("width");
-      if (widthAttr == null || widthAttr.isEmpty()) {
+    for (String widthAttr : widthAttrs) {
+      if (widthAttr.isEmpty()) {
         autoCount++;
       }
     }
 
-    double autoPct = autoCount > 0 ? 100.0 / columns.size() : 0;
+    double autoPct = autoCount > 0 ? 100.0 / widthAttrs.size() : 0;
     String autoPctStr = null;
     if (autoCount > 0) {
       autoPctStr = CssUnitParser.formatPxWidth(autoPct);
     }
 
-    for (int i = 0; i < columns.size(); i++) {
-      String widthAttr = columns.get(i).getAttribute("width");
-      if (widthAttr != null && !widthAttr.isEmpty() && widthAttr.endsWith("%")) {
+    for (int i = 0; i < widthAttrs.size(); i++) {
+      String widthAttr = widthAttrs.get(i);
+      if (!widthAttr.isEmpty() && widthAttr.endsWith("%")) {
         specs[i] = widthAttr.replace("%", "").trim();
-      } else if (widthAttr != null && !widthAttr.isEmpty()) {
+      } else if (!widthAttr.isEmpty()) {
         specs[i] = widthAttr.trim();
       } else {
         specs[i] = autoPctStr;
@@ -97,4 +125,24 @@ public final class ColumnWidthCalculator {
     }
     return specs;
   }
+
+  /** Returns the columns' width attributes, with an empty string for columns without one. */
+  private static List<String> widthAttributes(List<MjmlNode> columns) {
+    String[] widths = new String[columns.size()];
+    for (int i = 0; i < widths.length; i++) {
+      String widthAttr = columns.get(i).getAttribute("width");
+      widths[i] = widthAttr == null ? "" : widthAttr;
+    }
+    return List.of(widths);
+  }
+
+  /**
+   * The inputs column pixel widths are computed from.
+   *
+   * @param widthAttributes the columns' width attributes
+   * @param containerWidth the available width in pixels
+   * @param usePercentAuto how auto columns share the width
+   */
+  private record PixelWidthsKey(
+      List<String> widthAttributes, double containerWidth, boolean usePercentAuto) {}
 }
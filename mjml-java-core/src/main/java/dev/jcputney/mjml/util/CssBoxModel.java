@@ -19,7 +19,17 @@ public record CssBoxModel(
     double borderRightWidth) {
 
   /**
-   * Creates a CssBoxModel from padding and border attribute strings.
+   * Box models keyed by the attribute strings they are computed from. Sections and columns repeat
+   * the same padding and border values across a template and across renders.
+   */
+  private static final int CACHE_MAX_SIZE = 1024;
+
+  private static final BoundedCache<AttributeKey, CssBoxModel> CACHE =
+      CacheRegistry.register("layout.box-models", CACHE_MAX_SIZE);
+
+  /**
+   * Creates a CssBoxModel from padding and border attribute strings. Results are cached
+   * process-wide by the attribute strings.
    *
    * @param padding the CSS padding shorthand string (e.g., "10px 20px")
    * @param border the CSS border shorthand string (e.g., "1px solid #000")
@@ -29,9 +39,15 @@ public record CssBoxModel(
    */
   public static CssBoxModel fromAttributes(
       String padding, String border, String borderLeft, String borderRight) {
-    double[] pad = CssUnitParser.parseShorthand(padding);
-    double blw = parseBorderWidth(borderLeft);
-    double brw = parseBorderWidth(borderRight);
+    return CACHE.get(
+        new AttributeKey(padding, border, borderLeft, borderRight), CssBoxModel::compute);
+  }
+
+  private static CssBoxModel compute(AttributeKey key) {
+    String border = key.border();
+    double[] pad = CssUnitParser.parseShorthand(key.padding());
+    double blw = parseBorderWidth(key.borderLeft());
+    double brw = parseBorderWidth(key.borderRight());
 
     // If individual borders weren't specified, try the shorthand border
     if (blw == 0 && brw == 0 && border != null && !border.isEmpty() && !"none".equals(border)) {
@@ -72,4 +88,8 @@ public record CssBoxModel(
   public double verticalSpacing() {
     return paddingTop + paddingBottom;
   }
+
+  /** The attribute strings a box model is computed from. */
+  private record AttributeKey(
+      String padding, String border, String borderLeft, String borderRight) {}
 }
@@ -12,13 +12,29 @@ public final class CssUnitParser {
   private static final Logger LOG = Logger.getLogger(CssUnitParser.class.getName());
 
   /**
-   * Pattern matching valid CSS numeric values: optional sign, digits with optional decimal,
-   * optional unit suffix (px, %, em, rem). Rejects garbage like "abc123xyz" or "12px34".
+   * Parsed shorthands keyed by value. Padding shorthands recur across sections, columns, and
+   * renders; longer values are parsed without being cached.
    */
-  private static final Pattern VALID_CSS_NUMBER =
-      Pattern.compile("^\\s*-?\\d+(?:\\.\\d+)?(?:px|%|em|rem)?\\s*$");
+  private static final int SHORTHAND_CACHE_MAX_SIZE = 1024;
 
-  private static final Pattern UNIT_SUFFIX = Pattern.compile("(?:px|%|em|rem)$");
+  private static final int SHORTHAND_CACHE_MAX_VALUE_LENGTH = 64;
+
+  private static final BoundedCache<String, double[]> SHORTHAND_CACHE =
+      CacheRegistry.register("layout.shorthands", SHORTHAND_CACHE_MAX_SIZE);
+
+  /**
+   * The most significant digits a plain decimal may have to be parsed directly. Up to this many
+   * digits the mantissa and the power of ten are exact doubles, so one division gives the same
+   * correctly rounded result as {@link Double#parseDouble}.
+   */
+  private static final int MAX_EXACT_DIGITS = 15;
+
+  private static final double[] POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+  };
+
+  /** The unit suffixes {@link #parseIntPx} accepts. */
+  private static final String[] INT_PX_UNITS = {"px", "%", "em", "rem"};
 
   private CssUnitParser() {}
 
@@ -34,17 +50,18 @@ public final class CssUnitParser {
     if (value == null || value.isEmpty()) {
       return 0;
     }
-    value = value.trim();
+    int start = trimStart(value, 0, value.length());
+    int end = trimEnd(value, start, value.length());
 
-    if (value.endsWith("%")) {
-      double pct = parseNumber(value.substring(0, value.length() - 1));
+    if (end > start && value.charAt(end - 1) == '%') {
+      double pct = parseNumber(value, start, end - 1);
       return containerWidth * pct / 100.0;
     }
-    if (value.endsWith("px")) {
-      return parseNumber(value.substring(0, value.length() - 2));
+    if (endsWithPx(value, start, end)) {
+      return parseNumber(value, start, end - 2);
     }
     // Try as unitless number
-    return parseNumber(value);
+    return parseNumber(value, start, end);
   }
 
   /**
@@ -59,21 +76,27 @@ public final class CssUnitParser {
     if (value == null || value.isEmpty()) {
       return defaultValue;
     }
-    value = value.trim();
-    if (value.endsWith("px")) {
-      value = value.substring(0, value.length() - 2);
+    return parsePx(value, 0, value.length(), defaultValue);
+  }
+
+  private static double parsePx(String value, int start, int end, double defaultValue) {
+    start = trimStart(value, start, end);
+    end = trimEnd(value, start, end);
+    if (endsWithPx(value, start, end)) {
+      end = trimEnd(value, start, end - 2);
     }
-    String parsed = value.trim();
     try {
-      return Double.parseDouble(parsed);
+      return parseDouble(value, start, end);
     } catch (NumberFormatException e) {
+      String parsed = value.substring(start, end);
       LOG.fine(() -> "Failed to parse pixel value: " + parsed + ", using default: " + defaultValue);
       return defaultValue;
     }
   }
 
   /**
-   * Parses a 1-4 value CSS shorthand into [top, right, bottom, left] pixel values.
+   * Parses a 1-4 value CSS shorthand into [top, right, bottom, left] pixel values. Results are
+   * cached process-wide by value; each call returns a new array.
    *
    * @param value the CSS shorthand string (e.g., "10px", "10px 20px", "10px 20px 30px 40px")
    * @return a four-element array of pixel values in [top, right, bottom, left] order
@@ -82,33 +105,52 @@ public final class CssUnitParser {
     if (value == null || value.isEmpty()) {
       return new double[] {0, 0, 0, 0};
     }
-    String[] parts = WHITESPACE.split(value.trim());
+    if (value.length() > SHORTHAND_CACHE_MAX_VALUE_LENGTH) {
+      return computeShorthand(value);
+    }
+    return SHORTHAND_CACHE.get(value, CssUnitParser::computeShorthand).clone();
+  }
+
+  private static double[] computeShorthand(String value) {
     double[] result = new double[4];
+    parseShorthand(value, result);
+    return result;
+  }
 
-    switch (parts.length) {
-      case 1 -> {
-        double v = parsePx(parts[0], 0);
-        result[0] = result[1] = result[2] = result[3] = v;
-      }
-      case 2 -> {
-        double v = parsePx(parts[0], 0);
-        double h = parsePx(parts[1], 0);
-        result[0] = result[2] = v;
-        result[1] = result[3] = h;
+  /**
+   * Parses a 1-4 value CSS shorthand into a caller's array as [top, right, bottom, left] pixel
+   * values, without allocating. Values beyond the fourth are ignored.
+   *
+   * @param value the CSS shorthand string (e.g., "10px", "10px 20px", "10px 20px 30px 40px")
+   * @param result an array of at least four elements that receives the pixel values
+   */
+  public static void parseShorthand(String value, double[] result) {
+    if (value == null) {
+      value = "";
+    }
+    int end = trimEnd(value, 0, value.length());
+    int i = trimStart(value, 0, end);
+    int count = 0;
+    do {
+      int tokenStart = i;
+      while (i < end && !isWhitespace(value.charAt(i))) {
+        i++;
       }
-      case 3 -> {
-        result[0] = parsePx(parts[0], 0);
-        result[1] = result[3] = parsePx(parts[1], 0);
-        result[2] = parsePx(parts[2], 0);
+      result[count++] = parsePx(value, tokenStart, i, 0);
+      while (i < end && isWhitespace(value.charAt(i))) {
+        i++;
       }
-      default -> {
-        result[0] = parsePx(parts[0], 0);
-        result[1] = parsePx(parts[1], 0);
-        result[2] = parsePx(parts[2], 0);
-        result[3] = parsePx(parts[3], 0);
+    } while (i < end && count < 4);
+
+    switch (count) {
+      case 1 -> result[1] = result[2] = result[3] = result[0];
+      case 2 -> {
+        result[2] = result[0];
+        result[3] = result[1];
       }
+      case 3 -> result[3] = result[1];
+      default -> {}
     }
-    return result;
   }
 
   /**
@@ -123,13 +165,21 @@ public final class CssUnitParser {
     if (value == null || value.isEmpty()) {
       return 0;
     }
-    if (!VALID_CSS_NUMBER.matcher(value).matches()) {
+    int start = 0;
+    int end = value.length();
+    while (start < end && isWhitespace(value.charAt(start))) {
+      start++;
+    }
+    while (end > start && isWhitespace(value.charAt(end - 1))) {
+      end--;
+    }
+    int numberEnd = plainNumberEnd(value, start, end);
+    if (numberEnd < 0 || (numberEnd < end && !isIntPxUnit(value, numberEnd, end))) {
       LOG.fine(() -> "Invalid CSS value for parseIntPx: " + value);
       return 0;
     }
-    String stripped = UNIT_SUFFIX.matcher(value.trim()).replaceAll("").trim();
     try {
-      return (int) Double.parseDouble(stripped);
+      return (int) parseDouble(value, start, numberEnd);
     } catch (NumberFormatException e) {
       return 0;
     }
@@ -180,6 +230,22 @@ public final class CssUnitParser {
     if (value == null || value.isEmpty()) {
       return defaultValue;
     }
+    int start = trimStart(value, 0, value.length());
+    int end = trimEnd(value, start, value.length());
+    if (endsWithPx(value, start, end)) {
+      end = trimEnd(value, start, end - 2);
+    }
+    if (end > start && end - start <= 9) {
+      int result = 0;
+      int i = start;
+      while (i < end && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+        result = result * 10 + (value.charAt(i++) - '0');
+      }
+      if (i == end) {
+        return result;
+      }
+    }
+    // Signs, non-ASCII digits, and "px" elsewhere in the value
     try {
       return Integer.parseInt(value.replace("px", "").trim());
     } catch (NumberFormatException e) {
@@ -187,11 +253,117 @@ public final class CssUnitParser {
     }
   }
 
-  private static double parseNumber(String s) {
+  private static double parseNumber(String value, int start, int end) {
     try {
-      return Double.parseDouble(s.trim());
+      return parseDouble(value, start, end);
     } catch (NumberFormatException e) {
       return 0;
     }
   }
+
+  /**
+   * Parses a number from {@code value[start, end)} exactly as {@link Double#parseDouble} would.
+   * Plain decimals such as {@code 10}, {@code -3} or {@code 12.5} are read in place; anything else
+   * (exponents, explicit plus signs, {@code NaN}, long values) is handed to {@code
+   * Double.parseDouble}.
+   *
+   * @throws NumberFormatException if the text is not a number
+   */
+  private static double parseDouble(String value, int start, int end) {
+    start = trimStart(value, start, end);
+    end = trimEnd(value, start, end);
+    int i = start;
+    boolean negative = i < end && value.charAt(i) == '-';
+    if (negative) {
+      i++;
+    }
+    long mantissa = 0;
+    int digits = 0;
+    int fractionDigits = -1;
+    for (; i < end; i++) {
+      char c = value.charAt(i);
+      if (c >= '0' && c <= '9') {
+        mantissa = mantissa * 10 + (c - '0');
+        digits++;
+        if (fractionDigits >= 0) {
+          fractionDigits++;
+        }
+      } else if (c == '.' && fractionDigits < 0) {
+        fractionDigits = 0;
+      } else {
+        break;
+      }
+    }
+    if (i < end || digits == 0 || digits > MAX_EXACT_DIGITS) {
+      return Double.parseDouble(value.substring(start, end));
+    }
+    double result = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+    return negative ? -result : result;
+  }
+
+  /**
+   * Returns the end of an optionally negative number with digits and an optional fraction at {@code
+   * start}, or -1 if there is none.
+   */
+  private static int plainNumberEnd(String value, int start, int end) {
+    int i = start;
+    if (i < end && value.charAt(i) == '-') {
+      i++;
+    }
+    int digitsStart = i;
+    while (i < end && isDigit(value.charAt(i))) {
+      i++;
+    }
+    if (i == digitsStart) {
+      return -1;
+    }
+    if (i < end && value.charAt(i) == '.') {
+      int fractionStart = ++i;
+      while (i < end && isDigit(value.charAt(i))) {
+        i++;
+      }
+      if (i == fractionStart) {
+        return -1;
+      }
+    }
+    return i;
+  }
+
+  private static boolean isIntPxUnit(String value, int start, int end) {
+    for (String unit : INT_PX_UNITS) {
+      if (end - start == unit.length() && value.startsWith(unit, start)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean endsWithPx(String value, int start, int end) {
+    return end - start >= 2 && value.charAt(end - 2) == 'p' && value.charAt(end - 1) == 'x';
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  /** Whether {@code c} is whitespace as matched by {@code \s}, which separates values. */
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+  /** Skips leading characters {@link String#trim()} would remove. */
+  private static int trimStart(String value, int start, int end) {
+    while (start < end && value.charAt(start) <= ' ') {
+      start++;
+    }
+    return start;
+  }
+
+  /** Skips trailing characters {@link String#trim()} would remove. */
+  private static int trimEnd(String value, int start, int end) {
+    while (end > start && value.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    return end;
+  }
 }
@@ -6,6 +6,8 @@ package dev.jcputney.mjml.util;
  */
 public final class HtmlEscaper {
 
+  private static final long ATTRIBUTE_SPECIALS = CharScanner.mask('&', '"', '\'', '<', '>');
+
   private HtmlEscaper() {}
 
   /**
@@ -19,30 +21,25 @@ public final class HtmlEscaper {
     if (value == null || value.isEmpty()) {
       return value;
     }
-    // Quick check: if no special characters, return as-is
-    boolean needsEscape = false;
-    for (int i = 0; i < value.length(); i++) {
-      char c = value.charAt(i);
-      if (c == '&' || c == '"' || c == '\'' || c == '<' || c == '>') {
-        needsEscape = true;
-        break;
-      }
-    }
-    if (!needsEscape) {
+    int length = value.length();
+    int special = CharScanner.indexOfAny(value, 0, length, ATTRIBUTE_SPECIALS);
+    if (special < 0) {
       return value;
     }
-    StringBuilder sb = new StringBuilder(value.length() + 16);
-    for (int i = 0; i < value.length(); i++) {
-      char c = value.charAt(i);
-      switch (c) {
+    StringBuilder sb = new StringBuilder(length + 16);
+    int copied = 0;
+    while (special >= 0) {
+      sb.append(value, copied, special);
+      switch (value.charAt(special)) {
         case '&' -> sb.append("&amp;");
         case '"' -> sb.append("&quot;");
         case '\'' -> sb.append("&#39;");
         case '<' -> sb.append("&lt;");
-        case '>' -> sb.append("&gt;");
-        default -> sb.append(c);
+        default -> sb.append("&gt;");
       }
+      copied = special + 1;
+      special = CharScanner.indexOfAny(value, copied, length, ATTRIBUTE_SPECIALS);
     }
-    return sb.toString();
+    return sb.append(value, copied, length).toString();
   }
 }
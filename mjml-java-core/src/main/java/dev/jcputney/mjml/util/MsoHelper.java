@@ -18,9 +18,34 @@ public final class MsoHelper {
   public static final String MSO_TD_STYLE_HERO =
       "line-height:0;font-size:0;mso-line-height-rule:exactly;";
 
+  private static final String CONDITIONAL_START = "<!--[if mso | IE]>";
+
+  private static final String CONDITIONAL_END = "<![endif]-->";
+
+  private static final String TABLE_CLOSING = "</td></tr></table>";
+
   /** Pre-computed MSO conditional table closing string. */
   private static final String MSO_CONDITIONAL_TABLE_CLOSING =
-      "<!--[if mso | IE]></td></tr></table><![endif]-->";
+      CONDITIONAL_START + TABLE_CLOSING + CONDITIONAL_END;
+
+  /** The MSO table opening up to its class. */
+  private static final String TABLE_OPENING_START =
+      "<table align=\"center\" border=\"0\" cellpadding=\"0\" cellspacing=\"0\" class=\"";
+
+  /** The MSO table opening from the end of its class to its width. */
+  private static final String TABLE_OPENING_STYLE = "\" role=\"presentation\" style=\"width:";
+
+  /** The MSO table opening from the end of its table tag to its td style. */
+  private static final String TABLE_OPENING_CELL = "><tr><td style=\"";
+
+  /** Length of the fixed parts of an MSO table opening. */
+  private static final int TABLE_OPENING_FIXED_LENGTH =
+      TABLE_OPENING_START.length()
+          + "-outlook".length()
+          + TABLE_OPENING_STYLE.length()
+          + "px;\" width=\"\" ".length()
+          + TABLE_OPENING_CELL.length()
+          + "\">".length();
 
   private MsoHelper() {}
 
@@ -30,7 +55,7 @@ public final class MsoHelper {
    * @return {@code <!--[if mso | IE]>}
    */
   public static String conditionalStart() {
-    return "<!--[if mso | IE]>";
+    return CONDITIONAL_START;
   }
 
   /**
@@ -39,7 +64,7 @@ public final class MsoHelper {
    * @return {@code <![endif]-->}
    */
   public static String conditionalEnd() {
-    return "<![endif]-->";
+    return CONDITIONAL_END;
   }
 
   /**
@@ -54,12 +79,36 @@ public final class MsoHelper {
    * @return the MSO table opening markup (without conditional comments)
    */
   public static String msoTableOpening(int width, String cssClass, String bgColor, String tdStyle) {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb =
+        new StringBuilder(
+            TABLE_OPENING_FIXED_LENGTH
+                + cssClass.length()
+                // Two widths, then a bgcolor attribute if present
+                + 16
+                + (bgColor == null ? 0 : bgColor.length() + 11)
+                + tdStyle.length());
+    appendMsoTableOpening(sb, width, cssClass, bgColor, tdStyle);
+    return sb.toString();
+  }
+
+  /**
+   * Appends an MSO table opening, as built by {@link #msoTableOpening}, directly to a buffer.
+   *
+   * @param sb the buffer to append to
+   * @param width container width in pixels
+   * @param cssClass CSS class for the table (already escaped)
+   * @param bgColor background color, or null/empty to omit bgcolor attribute
+   * @param tdStyle style string for the inner td
+   * @return the buffer
+   */
+  public static StringBuilder appendMsoTableOpening(
+      StringBuilder sb, int width, String cssClass, String bgColor, String tdStyle) {
+    sb.append(TABLE_OPENING_START);
     // MJML appends "-outlook" suffix to css-class on MSO tables
-    String msoClass = cssClass.isEmpty() ? "" : cssClass + "-outlook";
-    sb.append("<table align=\"center\" border=\"0\" cellpadding=\"0\" cellspacing=\"0\" class=\"")
-        .append(msoClass)
-        .append("\" role=\"presentation\" style=\"width:")
+    if (!cssClass.isEmpty()) {
+      sb.append(cssClass).append("-outlook");
+    }
+    sb.append(TABLE_OPENING_STYLE)
         .append(width)
         .append("px;\" width=\"")
         .append(width)
@@ -67,8 +116,7 @@ public final class MsoHelper {
     if (bgColor != null && !bgColor.isEmpty()) {
       sb.append("bgcolor=\"").append(bgColor).append("\" ");
     }
-    sb.append("><tr><td style=\"").append(tdStyle).append("\">");
-    return sb.toString();
+    return sb.append(TABLE_OPENING_CELL).append(tdStyle).append("\">");
   }
 
   /**
@@ -77,7 +125,7 @@ public final class MsoHelper {
    * @return {@code </td></tr></table>}
    */
   public static String msoTableClosing() {
-    return "</td></tr></table>";
+    return TABLE_CLOSING;
   }
 
   /**
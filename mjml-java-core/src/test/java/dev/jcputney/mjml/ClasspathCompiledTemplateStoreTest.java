@@ -0,0 +1,62 @@
+package dev.jcputney.mjml;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import dev.jcputney.mjml.parser.CompiledTemplateCodec;
+import dev.jcputney.mjml.parser.MjmlParser;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for ClasspathCompiledTemplateStore. */
+class ClasspathCompiledTemplateStoreTest {
+
+  private static final String MJML =
+      """
+      <mjml>
+        <mj-body>
+          <mj-section><mj-column><mj-text>Precompiled</mj-text></mj-column></mj-section>
+        </mj-body>
+      </mjml>
+      """;
+
+  @TempDir Path tempDir;
+
+  @Test
+  void loadsPackagedTemplateByKey() throws IOException {
+    String key = CompiledTemplateCodec.key(MJML, MjmlConfiguration.defaults());
+    byte[] compiled = CompiledTemplateCodec.encode(MjmlParser.parse(MJML));
+    Files.createDirectories(tempDir.resolve("mjml-compiled"));
+    Files.write(tempDir.resolve("mjml-compiled/" + key + ".mjmlc"), compiled);
+
+    try (URLClassLoader loader = new URLClassLoader(new URL[] {tempDir.toUri().toURL()}, null)) {
+      ClasspathCompiledTemplateStore store =
+          new ClasspathCompiledTemplateStore(loader, "mjml-compiled");
+
+      assertArrayEquals(compiled, store.load(key));
+      assertNull(store.load("0123"));
+
+      MjmlConfiguration config = MjmlConfiguration.builder().compiledTemplateStore(store).build();
+      assertEquals(MjmlRenderer.render(MJML).html(), MjmlRenderer.render(MJML, config).html());
+    }
+  }
+
+  @Test
+  void rejectsInvalidKeysAndArguments() {
+    ClasspathCompiledTemplateStore store = new ClasspathCompiledTemplateStore("/mjml-compiled/");
+
+    assertThrows(IllegalArgumentException.class, () -> store.load("../secret"));
+    assertThrows(
+        IllegalArgumentException.class, () -> new ClasspathCompiledTemplateStore(null, "x"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ClasspathCompiledTemplateStore(getClass().getClassLoader(), null));
+  }
+}
@@ -1,5 +1,6 @@
 package dev.jcputney.mjml;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -8,6 +9,8 @@ import dev.jcputney.mjml.component.ComponentRegistry;
 import dev.jcputney.mjml.context.GlobalContext;
 import dev.jcputney.mjml.context.RenderContext;
 import dev.jcputney.mjml.parser.MjmlNode;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 
@@ -274,6 +277,36 @@ class CustomComponentTest {
         html.contains("Container override"), "Overridden component should render the text content");
   }
 
+  @Test
+  void customComponentStyleMapsOutliveTheRender() {
+    List<Map<String, String>> kept = new ArrayList<>();
+    MjmlConfiguration config =
+        MjmlConfiguration.builder()
+            .registerComponent(
+                "mj-badge", (node, global, context) -> new MjBadge(node, global, context, kept))
+            .build();
+    String mjml =
+        // language=MJML
+        """
+        <mjml>
+          <mj-body>
+            <mj-section>
+              <mj-column>
+                <mj-badge color="#111111" />
+              </mj-column>
+            </mj-section>
+          </mj-body>
+        </mjml>
+        """;
+
+    String html = MjmlRenderer.render(mjml, config).html();
+    MjmlRenderer.render(mjml.replace("#111111", "#222222"), config);
+
+    assertTrue(html.contains("color:#111111"));
+    assertEquals(Map.of("color", "#111111"), kept.get(0));
+    assertEquals(Map.of("color", "#222222"), kept.get(1));
+  }
+
   /** A simple custom component that renders a greeting. */
   static class MjGreeting extends BodyComponent {
 
@@ -301,6 +334,38 @@ class CustomComponentTest {
     }
   }
 
+  /** A custom component that keeps the style map it rendered with. */
+  static class MjBadge extends BodyComponent {
+
+    private final List<Map<String, String>> kept;
+
+    MjBadge(
+        MjmlNode node,
+        GlobalContext globalContext,
+        RenderContext renderContext,
+        List<Map<String, String>> kept) {
+      super(node, globalContext, renderContext);
+      this.kept = kept;
+    }
+
+    @Override
+    public String getTagName() {
+      return "mj-badge";
+    }
+
+    @Override
+    public Map<String, String> getDefaultAttributes() {
+      return Map.of("color", "#000000");
+    }
+
+    @Override
+    public String render() {
+      Map<String, String> styles = orderedMap("color", getAttribute("color"));
+      kept.add(styles);
+      return "<span style=\"" + buildStyle(styles) + "\">Badge</span>";
+    }
+  }
+
   /** A custom component that overrides the built-in mj-text. */
   static class MjCustomText extends BodyComponent {
 
@@ -0,0 +1,172 @@
+package dev.jcputney.mjml;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.jcputney.mjml.parser.CompiledTemplateCodec;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for FileSystemCompiledTemplateStore and compiled template reuse during rendering. */
+class FileSystemCompiledTemplateStoreTest {
+
+  private static final String MJML =
+      """
+      <mjml>
+        <mj-body>
+          <mj-include path="header.mjml" />
+          <mj-section>
+            <mj-column>
+              <mj-text>Main content</mj-text>
+            </mj-column>
+          </mj-section>
+        </mj-body>
+      </mjml>
+      """;
+
+  private static final String HEADER =
+      "<mj-section><mj-column><mj-text>Included header</mj-text></mj-column></mj-section>";
+
+  @TempDir Path tempDir;
+
+  @Test
+  void storesAndLoadsBytes() {
+    FileSystemCompiledTemplateStore store = new FileSystemCompiledTemplateStore(tempDir);
+    byte[] data = {1, 2, 3};
+
+    assertNull(store.load("abc123"));
+    store.store("abc123", data);
+
+    assertArrayEquals(data, store.load("abc123"));
+    assertTrue(Files.exists(tempDir.resolve("abc123" + FileSystemCompiledTemplateStore.EXTENSION)));
+  }
+
+  @Test
+  void createsMissingDirectory() {
+    Path nested = tempDir.resolve("a/b");
+
+    FileSystemCompiledTemplateStore store = new FileSystemCompiledTemplateStore(nested);
+
+    assertTrue(Files.isDirectory(nested));
+    assertEquals(nested.toAbsolutePath().normalize(), store.getDirectory());
+  }
+
+  @Test
+  void rejectsKeysThatEscapeDirectory() {
+    FileSystemCompiledTemplateStore store = new FileSystemCompiledTemplateStore(tempDir);
+
+    assertThrows(IllegalArgumentException.class, () -> store.load("../evil"));
+    assertThrows(IllegalArgumentException.class, () -> store.store("a/b", new byte[0]));
+  }
+
+  @Test
+  void secondRenderLoadsCompiledTemplateWithoutResolvingIncludes() {
+    AtomicInteger resolves = new AtomicInteger();
+    IncludeResolver resolver =
+        (path, context) -> {
+          resolves.incrementAndGet();
+          return HEADER;
+        };
+    MjmlConfiguration config =
+        MjmlConfiguration.builder()
+            .includeResolver(resolver)
+            .compiledTemplateStore(new FileSystemCompiledTemplateStore(tempDir))
+            .build();
+
+    String first = MjmlRenderer.create(config).renderTemplate(MJML).html();
+    assertEquals(1, resolves.get());
+    assertTrue(
+        Files.exists(
+            tempDir.resolve(
+                CompiledTemplateCodec.key(MJML, config)
+                    + FileSystemCompiledTemplateStore.EXTENSION)));
+
+    // A fresh renderer (e.g. another node sharing the volume) reuses the stored tree
+    String second = MjmlRenderer.create(config).renderTemplate(MJML).html();
+    assertEquals(1, resolves.get(), "Stored template should not be re-resolved");
+    assertEquals(first, second);
+    assertTrue(second.contains("Included header"));
+  }
+
+  @Test
+  void newCompiledTemplateVersionPicksUpEditedPartials() {
+    FileSystemCompiledTemplateStore store = new FileSystemCompiledTemplateStore(tempDir);
+    MjmlConfiguration v1 =
+        MjmlConfiguration.builder()
+            .includeResolver((path, context) -> HEADER)
+            .compiledTemplateStore(store)
+            .compiledTemplateVersion("1")
+            .build();
+    MjmlRenderer.create(v1).renderTemplate(MJML);
+
+    MjmlConfiguration v2 =
+        v1.toBuilder()
+            .includeResolver((path, context) -> HEADER.replace("Included", "Edited"))
+            .compiledTemplateVersion("2")
+            .build();
+
+    assertTrue(MjmlRenderer.create(v2).renderTemplate(MJML).html().contains("Edited header"));
+    assertTrue(MjmlRenderer.create(v1).renderTemplate(MJML).html().contains("Included header"));
+  }
+
+  @Test
+  void templateCompiledWithoutResolverIsNotLoadedWithOne() {
+    FileSystemCompiledTemplateStore store = new FileSystemCompiledTemplateStore(tempDir);
+    MjmlConfiguration withoutResolver =
+        MjmlConfiguration.builder().compiledTemplateStore(store).build();
+    String unexpanded = MjmlRenderer.create(withoutResolver).renderTemplate(MJML).html();
+
+    MjmlConfiguration withResolver =
+        withoutResolver.toBuilder().includeResolver((path, context) -> HEADER).build();
+    String expanded = MjmlRenderer.create(withResolver).renderTemplate(MJML).html();
+
+    assertTrue(expanded.contains("Included header"));
+    assertEquals(unexpanded, MjmlRenderer.create(withoutResolver).renderTemplate(MJML).html());
+  }
+
+  @Test
+  void storedTemplateIsNotLoadedUnderStricterLimits() {
+    String largeHeader = HEADER.replace("Included header", "Included header ".repeat(40));
+    MjmlConfiguration config =
+        MjmlConfiguration.builder()
+            .includeResolver((path, context) -> largeHeader)
+            .compiledTemplateStore(new FileSystemCompiledTemplateStore(tempDir))
+            .build();
+    MjmlRenderer.create(config).renderTemplate(MJML);
+
+    // The template itself fits, but the include it was compiled from does not
+    MjmlConfiguration strict = config.toBuilder().maxInputSize(MJML.length()).build();
+
+    assertThrows(
+        MjmlValidationException.class, () -> MjmlRenderer.create(strict).renderTemplate(MJML));
+  }
+
+  @Test
+  void corruptStoredTemplateIsRecompiled() throws IOException {
+    FileSystemCompiledTemplateStore store = new FileSystemCompiledTemplateStore(tempDir);
+    MjmlConfiguration config =
+        MjmlConfiguration.builder()
+            .includeResolver((path, context) -> HEADER)
+            .compiledTemplateStore(store)
+            .build();
+    String key = CompiledTemplateCodec.key(MJML, config);
+    store.store(key, new byte[] {'M', 'J', 'M', 'C', 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 9});
+
+    String html = MjmlRenderer.create(config).renderTemplate(MJML).html();
+
+    assertTrue(html.contains("Included header"));
+    byte[] rewritten = Files.readAllBytes(tempDir.resolve(key + ".mjmlc"));
+    assertEquals(
+        MjmlRenderer.render(MJML, config).html(),
+        html,
+        "Rewritten entry should render identically");
+    assertTrue(rewritten.length > 15, "Corrupt entry should be replaced");
+  }
+}
@@ -73,6 +73,15 @@ class MjmlConfigurationEqualsHashCodeTest {
     assertNotEquals(a, b);
   }
 
+  @Test
+  void differentCompiledTemplateVersionNotEqual() {
+    MjmlConfiguration a = MjmlConfiguration.builder().compiledTemplateVersion("1").build();
+    MjmlConfiguration b = MjmlConfiguration.builder().compiledTemplateVersion("2").build();
+
+    assertNotEquals(a, b);
+    assertEquals(a, b.toBuilder().compiledTemplateVersion("1").build());
+  }
+
   @Test
   void sameIncludeResolverInstanceEqual() {
     IncludeResolver resolver = (path, ctx) -> "";
@@ -2,11 +2,15 @@ package dev.jcputney.mjml;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import dev.jcputney.mjml.parser.MjmlDocument;
+import dev.jcputney.mjml.parser.MjmlParser;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 
@@ -83,4 +87,43 @@ class ThreadSafetyTest {
     }
     assertEquals(THREAD_COUNT, results.size(), "All 32 threads should produce a result");
   }
+
+  @Test
+  void frozenDocumentIsSharedAcrossConcurrentRenders() throws Exception {
+    MjmlRenderer renderer =
+        MjmlRenderer.create(
+            MjmlConfiguration.builder()
+                .includeResolver(
+                    (path, context) ->
+                        "<mj-section><mj-column><mj-text>Included</mj-text></mj-column></mj-section>")
+                .build());
+    String template =
+        """
+        <mjml>
+          <mj-body>
+            <mj-include path="partial.mjml" />
+            <mj-section><mj-column><mj-text>Hello World</mj-text></mj-column></mj-section>
+          </mj-body>
+        </mjml>
+        """;
+    MjmlDocument document = MjmlParser.parse(template).freeze();
+    String expected = renderer.renderTemplate(template).html();
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+    try {
+      List<Future<String>> futures = new ArrayList<>();
+      for (int t = 0; t < THREAD_COUNT; t++) {
+        futures.add(executor.submit(() -> renderer.renderTemplate(document).html()));
+      }
+      for (Future<String> future : futures) {
+        assertEquals(expected, future.get(60, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(
+        1,
+        document.getBody().getChildrenByTag("mj-include").size(),
+        "Rendering must not expand includes in the shared document");
+  }
 }
@@ -0,0 +1,227 @@
+package dev.jcputney.mjml.codegen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.jcputney.mjml.MjmlRenderer;
+import dev.jcputney.mjml.MjmlValidationException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for the Java source produced by TemplateClassGenerator. */
+class TemplateClassGeneratorTest {
+
+  private static final String TEMPLATE =
+      """
+      <mjml>
+        <mj-body>
+          <mj-section>
+            <mj-column>
+              <mj-text>Hi {{ name }}, your order {{orderId}} shipped.</mj-text>
+              <mj-text>{{{signature}}} {{name}}</mj-text>
+            </mj-column>
+          </mj-section>
+        </mj-body>
+      </mjml>
+      """;
+
+  @Test
+  void generatesTypedParametersInOrderOfFirstUse() {
+    String source =
+        TemplateClassGenerator.builder()
+            .packageName("com.example.mail")
+            .className("OrderShipped")
+            .build()
+            .generate(TEMPLATE);
+
+    assertTrue(source.startsWith("package com.example.mail;"));
+    assertTrue(source.contains("public final class OrderShipped {"));
+    assertTrue(
+        source.contains(
+            "public static String render(String name, String orderId, String signature)"));
+    assertTrue(source.contains("appendEscaped(sb, name);"));
+    assertTrue(source.contains("sb.append(signature);"), "Triple braces should insert raw");
+    assertTrue(source.contains("public static final int CONSTANT_LENGTH = "));
+    assertFalse(source.contains("{{"), "Placeholders should not leak into constants");
+  }
+
+  @Test
+  void staticTemplateHasNoParametersOrEscaper() {
+    String source =
+        TemplateClassGenerator.builder()
+            .className("StaticMail")
+            .build()
+            .generate(
+                "<mjml><mj-body><mj-section><mj-column><mj-text>Café</mj-text>"
+                    + "</mj-column></mj-section></mj-body></mjml>");
+
+    assertFalse(source.startsWith("package"));
+    assertTrue(source.contains("public static String render() {"));
+    assertTrue(source.contains("Caf\\u00e9"), "Non-ASCII should be written as unicode escapes");
+    assertFalse(source.contains("appendEscaped"));
+  }
+
+  @Test
+  void reservedPlaceholderNamesAreRenamed() {
+    String source =
+        TemplateClassGenerator.builder()
+            .className("Reserved")
+            .build()
+            .generate(
+                "<mjml><mj-body><mj-section><mj-column><mj-text>{{class}} {{S0_0}} {{class_}}"
+                    + "</mj-text></mj-column></mj-section></mj-body></mjml>");
+
+    assertTrue(source.contains("render(String class_, String S0_0_, String class__)"), source);
+  }
+
+  @Test
+  void localVariableNamesAreRenamedButAllowedAsClassNames() {
+    String source =
+        TemplateClassGenerator.builder()
+            .className("sb")
+            .build()
+            .generate(
+                "<mjml><mj-body><mj-section><mj-column><mj-text>{{sb}}"
+                    + "</mj-text></mj-column></mj-section></mj-body></mjml>");
+
+    assertTrue(source.contains("public final class sb {"), source);
+    assertTrue(source.contains("render(String sb_)"), source);
+  }
+
+  @Test
+  void rejectsPlaceholderThatStartsAUrl() {
+    TemplateClassGenerator generator = TemplateClassGenerator.builder().className("Link").build();
+
+    for (String attributes :
+        new String[] {
+          "href=\"{{url}}\"",
+          "href=\"{{{url}}}\"",
+          "href=\"java{{rest}}\"",
+          "HREF=\"{{url}}\"",
+          "href=\" {{url}}\"",
+          "href=\"&#32;{{url}}\"",
+          "href=\"&#x6A;ava{{rest}}\""
+        }) {
+      assertThrows(
+          MjmlValidationException.class,
+          () ->
+              generator.generate(
+                  "<mjml><mj-body><mj-section><mj-column><mj-button "
+                      + attributes
+                      + ">Go</mj-button></mj-column></mj-section></mj-body></mjml>"),
+          attributes);
+    }
+    assertThrows(
+        MjmlValidationException.class,
+        () ->
+            generator.generate(
+                "<mjml><mj-body><mj-section><mj-column><mj-image src=\"{{image}}\" />"
+                    + "</mj-column></mj-section></mj-body></mjml>"));
+    assertThrows(
+        MjmlValidationException.class,
+        () ->
+            generator.generate(
+                "<mjml><mj-body><mj-section><mj-column><mj-text><a href='{{url}}'>Go</a>"
+                    + "</mj-text></mj-column></mj-section></mj-body></mjml>"));
+    for (String markup :
+        new String[] {
+          "<form action=\"{{url}}\"><button>Go</button></form>",
+          "<button FormAction='{{url}}'>Go</button>",
+          "<video poster={{image}}></video>",
+          "<svg><a xlink:href=\"{{url}}\">Go</a></svg>"
+        }) {
+      assertThrows(
+          MjmlValidationException.class,
+          () ->
+              generator.generate(
+                  "<mjml><mj-body><mj-section><mj-column><mj-text>"
+                      + markup
+                      + "</mj-text></mj-column></mj-section></mj-body></mjml>"),
+          markup);
+    }
+    assertThrows(
+        MjmlValidationException.class,
+        () ->
+            generator.generate(
+                "<mjml><mj-body><mj-section background-url=\"{{image}}\"><mj-column />"
+                    + "</mj-section></mj-body></mjml>"),
+        "URL attributes the renderer derives are checked in the rendered HTML");
+  }
+
+  @Test
+  void allowsPlaceholderAfterALiteralUrlPrefix() {
+    String source =
+        TemplateClassGenerator.builder()
+            .className("Link")
+            .build()
+            .generate(
+                "<mjml><mj-body><mj-section><mj-column>"
+                    + "<mj-button href=\"https://example.com/track/{{orderId}}\">Go</mj-button>"
+                    + "<mj-button href=\"/orders/{{orderId}}\">{{label}}</mj-button>"
+                    + "<mj-text>href={{label}}</mj-text>"
+                    + "<mj-text><a href=\"&#47;orders/{{orderId}}\">Go</a></mj-text>"
+                    + "</mj-column></mj-section></mj-body></mjml>");
+
+    assertTrue(source.contains("render(String orderId, String label)"), source);
+  }
+
+  @Test
+  void generatedClassMatchesRuntimeRendering(@TempDir Path dir) throws Exception {
+    String mjml =
+        """
+        <mjml>
+          <mj-body>
+            <mj-section>
+              <mj-column>
+                <mj-text>Hi {{name}}, {{{signature}}}</mj-text>
+                <mj-button href="https://example.com/orders/{{orderId}}">Track</mj-button>
+                <mj-image src="/images/{{orderId}}.png" alt="{{name}}" />
+              </mj-column>
+            </mj-section>
+          </mj-body>
+        </mjml>
+        """;
+    Path java = dir.resolve("OrderShipped.java");
+    Files.writeString(
+        java, TemplateClassGenerator.builder().className("OrderShipped").build().generate(mjml));
+    Path classes = Files.createDirectories(dir.resolve("classes"));
+    JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+    assertEquals(0, javac.run(null, null, null, "-d", classes.toString(), java.toString()));
+
+    try (URLClassLoader loader = new URLClassLoader(new URL[] {classes.toUri().toURL()})) {
+      Method render =
+          loader
+              .loadClass("OrderShipped")
+              .getMethod("render", String.class, String.class, String.class);
+      String html = (String) render.invoke(null, "Ada", "<b>Team</b>", "A-1");
+
+      String expected =
+          MjmlRenderer.render(
+                  mjml.replace("{{name}}", "Ada")
+                      .replace("{{{signature}}}", "<b>Team</b>")
+                      .replace("{{orderId}}", "A-1"))
+              .html();
+      assertEquals(expected, html);
+    }
+  }
+
+  @Test
+  void rejectsInvalidNames() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> TemplateClassGenerator.builder().className("not-valid").build());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> TemplateClassGenerator.builder().className("Ok").packageName("a..b").build());
+    assertThrows(NullPointerException.class, () -> TemplateClassGenerator.builder().build());
+  }
+}
@@ -107,4 +107,34 @@ class MjTextTest {
     assertTrue(html.contains("<!doctype html>"), "Should produce valid HTML even with empty text");
     assertTrue(html.contains("<div style=\""), "Should still render the wrapping div");
   }
+
+  @Test
+  void collapsesWhitespaceAndJoinsTagsSplitAcrossLines() {
+    String html =
+        render(
+            // language=MJML
+            """
+        <mjml>
+          <mj-body>
+            <mj-section>
+              <mj-column>
+                <mj-text>
+                  <P>First 	  line</P>
+                  <a
+                    href="#"
+                    >link</a>   tail
+                </mj-text>
+                <mj-text>  plain
+                  text  </mj-text>
+              </mj-column>
+            </mj-section>
+          </mj-body>
+        </mjml>
+        """);
+
+    assertTrue(
+        html.contains("\n<P>First line</P>\n<a href=\"#\">link</a> tail\n"),
+        "Should collapse text runs, keep newlines between blocks, and join the split tag");
+    assertTrue(html.contains(">plain text</div>"), "Should collapse plain text");
+  }
 }
@@ -0,0 +1,118 @@
+package dev.jcputney.mjml.context;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class RenderArenaTest {
+
+  @Test
+  void releasedBuildersAreReusedEmpty() {
+    RenderArena arena = RenderArena.detached();
+    StringBuilder sb = arena.acquireBuilder();
+    sb.append("<td>");
+
+    assertEquals("<td>", arena.releaseBuilder(sb));
+    StringBuilder again = arena.acquireBuilder();
+    assertSame(sb, again);
+    assertEquals(0, again.length());
+    assertNotSame(again, arena.acquireBuilder(), "A borrowed builder is not handed out twice");
+  }
+
+  @Test
+  void oversizedBuildersAreNotRetained() {
+    RenderArena arena = RenderArena.detached();
+    StringBuilder sb = arena.acquireBuilder();
+    sb.setLength(RenderArena.MAX_RETAINED_CAPACITY + 1);
+
+    arena.releaseBuilder(sb);
+    assertEquals(0, arena.retainedBuilders());
+  }
+
+  @Test
+  void retainedBuilderCapacityIsCappedPerArena() {
+    RenderArena arena = RenderArena.detached();
+    List<StringBuilder> large = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      StringBuilder sb = arena.acquireBuilder();
+      sb.ensureCapacity(RenderArena.MAX_RETAINED_CAPACITY);
+      large.add(sb);
+    }
+    large.forEach(arena::releaseBuilder);
+
+    assertEquals(2, arena.retainedBuilders());
+    assertTrue(arena.retainedCapacity() <= RenderArena.MAX_RETAINED_TOTAL_CAPACITY);
+    arena.acquireBuilder();
+    assertEquals(1, arena.retainedBuilders());
+    assertTrue(arena.retainedCapacity() <= RenderArena.MAX_RETAINED_CAPACITY);
+  }
+
+  @Test
+  void styleMapsAreClearedWhenReclaimed() {
+    RenderArena arena = RenderArena.detached();
+    Map<String, String> styles = arena.styleMap();
+    styles.put("color", "red");
+
+    arena.reset();
+    assertTrue(styles.isEmpty(), "Reclaimed maps should not keep the last render's strings");
+  }
+
+  @Test
+  void styleMapsKeepInsertionOrderAndAreReclaimedOnReset() {
+    RenderArena arena = RenderArena.detached();
+    Map<String, String> styles = arena.styleMap();
+    styles.put("border", "none");
+    styles.put("color", null);
+    styles.put("width", "100%");
+    styles.put("border", "0");
+    styles.remove("color");
+
+    List<String> entries = new ArrayList<>();
+    styles.forEach((name, value) -> entries.add(name + ":" + value));
+    assertEquals(List.of("border:0", "width:100%"), entries);
+    assertEquals(Map.of("border", "0", "width", "100%"), styles);
+
+    Iterator<Map.Entry<String, String>> iterator = styles.entrySet().iterator();
+    iterator.next().setValue("1px");
+    iterator.remove();
+    assertEquals(Map.of("width", "100%"), styles);
+
+    Map<String, String> other = arena.styleMap();
+    assertNotSame(styles, other, "Maps in use are not handed out twice");
+    arena.reset();
+    Map<String, String> reused = arena.styleMap();
+    assertSame(styles, reused);
+    assertTrue(reused.isEmpty());
+  }
+
+  @Test
+  void unpooledArenasHandOutNewStyleMaps() {
+    RenderArena arena = RenderArena.unpooled();
+    Map<String, String> styles = arena.styleMap();
+    arena.close();
+    assertNotSame(styles, arena.styleMap());
+  }
+
+  @Test
+  void derivedContextsShareTheArenaAndAreReusedWhenUnchanged() {
+    RenderArena arena = RenderArena.detached();
+    RenderContext root = new RenderContext(600, arena);
+
+    assertSame(root, root.withPosition(0, true, true));
+    assertSame(root, root.withWidth(600));
+    assertSame(root, root.withInsideWrapper(false));
+    assertSame(root, root.withInsideGroup(false));
+    assertSame(root, root.withColumnWidth(600, null));
+
+    RenderContext column = root.withColumnWidth(300, "50").withPosition(1, false, true);
+    assertNotSame(root, column);
+    assertSame(arena, column.getArena());
+    assertEquals(300, column.getContainerWidth());
+    assertEquals("50", column.getColumnWidthSpec());
+    assertEquals(1, column.getIndex());
+  }
+}
@@ -0,0 +1,113 @@
+package dev.jcputney.mjml.css;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/** Tests for selectors compiled into specialized matchers. */
+class CompiledSelectorTest {
+
+  private HtmlElement el(String tag, Map<String, String> attrs) {
+    return new HtmlElement(tag, attrs);
+  }
+
+  private boolean matches(String selector, HtmlElement element) {
+    return CompiledSelector.compile(CssSelectorParser.parse(selector)).matches(element);
+  }
+
+  /** Builds {@code div.wrap > p#intro.lead + ul[data-kind="list nav"] > li.item} with two items. */
+  private HtmlElement[] tree() {
+    HtmlElement div = el("div", Map.of("class", "wrap"));
+    HtmlElement p = el("p", Map.of("id", "intro", "class", "lead"));
+    HtmlElement ul = el("ul", Map.of("data-kind", "list nav", "lang", "en-US"));
+    HtmlElement first = el("li", Map.of("class", "item"));
+    HtmlElement second = el("li", Map.of("class", "item last"));
+    div.addChild(p);
+    div.addChild(ul);
+    ul.addChild(first);
+    ul.addChild(second);
+    return new HtmlElement[] {div, p, ul, first, second};
+  }
+
+  @Test
+  void matchesSimpleAndCompoundSelectors() {
+    HtmlElement[] tree = tree();
+    assertTrue(matches("*", tree[0]));
+    assertTrue(matches("LI", tree[3]));
+    assertTrue(matches("p.lead#intro", tree[1]));
+    assertFalse(matches("p.lead#other", tree[1]));
+    assertTrue(matches("h1, .last", tree[4]));
+    assertFalse(matches("h1, .last", tree[3]));
+    assertFalse(matches("li:hover", tree[3]));
+    assertFalse(matches("p::before", tree[1]));
+  }
+
+  @Test
+  void resolvesEachAttributeOperator() {
+    HtmlElement ul = tree()[2];
+    assertTrue(matches("[DATA-KIND]", ul));
+    assertTrue(matches("[data-kind=\"list nav\"]", ul));
+    assertTrue(matches("[lang|=en]", ul));
+    assertFalse(matches("[lang|=e]", ul));
+    assertTrue(matches("[lang^=en]", ul));
+    assertTrue(matches("[lang$=US]", ul));
+    assertTrue(matches("[lang*=n-U]", ul));
+    assertFalse(matches("[lang*=fr]", ul));
+  }
+
+  @Test
+  void matchesRightToLeftThroughCombinatorChains() {
+    HtmlElement[] tree = tree();
+    assertTrue(matches("div.wrap > ul > li.item", tree[3]));
+    assertTrue(matches(".wrap p#intro + ul li", tree[4]));
+    assertFalse(matches("p > li", tree[3]));
+    assertFalse(matches("li.last ~ li", tree[3]));
+    assertTrue(matches("li ~ li.last", tree[4]));
+  }
+
+  @Test
+  void wordAttributeMatchesWholeWordsOnly() {
+    HtmlElement a = el("a", Map.of("rel", "nofollow  noopener\tnoreferrer"));
+    assertTrue(matches("[rel~=nofollow]", a));
+    assertTrue(matches("[rel~=noopener]", a));
+    assertTrue(matches("[rel~=noreferrer]", a));
+    assertFalse(matches("[rel~=noop]", a));
+    assertFalse(matches("[rel~=follow]", a));
+    assertFalse(matches("[href~=x]", a));
+  }
+
+  @Test
+  void nullSelectorAndElementNeverMatch() {
+    assertFalse(CompiledSelector.compile(null).matches(el("div", Map.of())));
+    assertFalse(CompiledSelector.compile(CssSelectorParser.parse("*")).matches(null));
+  }
+
+  @Test
+  void matchesWithinIgnoresElementsOutsideTheRange() {
+    String html = "<body><div class=\"pre\"></div><div><p>x</p></div></body>";
+    HtmlElement root = HtmlDocumentParser.parse(html);
+    HtmlElement p = root.allDescendants().get(3);
+    int start = html.indexOf("<div><p>");
+    int end = html.indexOf("</body>");
+
+    assertTrue(matches("body p", p));
+    assertFalse(
+        CompiledSelector.compile(CssSelectorParser.parse("body p")).matchesWithin(p, start, end));
+    assertTrue(
+        CompiledSelector.compile(CssSelectorParser.parse("div > p")).matchesWithin(p, start, end));
+    assertFalse(
+        CompiledSelector.compile(CssSelectorParser.parse(".pre + div p"))
+            .matchesWithin(p, start, end));
+    assertFalse(CompiledSelector.compile(CssSelectorParser.parse("p")).matchesWithin(p, 0, start));
+  }
+
+  @Test
+  void selectorsWithoutCombinatorsAreContextFree() {
+    assertTrue(CompiledSelector.compile(CssSelectorParser.parse("td.cell[align]")).isContextFree());
+    assertTrue(CompiledSelector.compile(CssSelectorParser.parse("p, .a, #b")).isContextFree());
+    assertFalse(CompiledSelector.compile(CssSelectorParser.parse("p, .a b")).isContextFree());
+    assertFalse(CompiledSelector.compile(CssSelectorParser.parse("li + li")).isContextFree());
+  }
+}
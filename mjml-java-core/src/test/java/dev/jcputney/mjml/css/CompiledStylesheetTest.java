@@ -0,0 +1,77 @@
+package dev.jcputney.mjml.css;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Tests for compiling a stylesheet once and inlining it into many documents. */
+class CompiledStylesheetTest {
+
+  private static final String CSS =
+      """
+      .red { color: red; }
+      a:hover { color: blue; }
+      td p, .note { margin: 0; }
+      @media (max-width: 480px) { .red { color: green; } }
+      """;
+
+  @Test
+  void partitionsInlineableAndPreservedRules() {
+    CompiledStylesheet stylesheet = CompiledStylesheet.compile(CSS);
+
+    assertEquals(CSS, stylesheet.source());
+    assertEquals(2, stylesheet.inlineableRuleCount());
+    assertEquals(1, stylesheet.preservedRules().size());
+    assertEquals("a:hover", stylesheet.preservedRules().get(0).selectorText());
+    assertEquals(1, stylesheet.preservedAtRules().size());
+  }
+
+  @Test
+  void compiledStylesheetMatchesStringApiAcrossDocuments() {
+    CompiledStylesheet stylesheet = CompiledStylesheet.compile(CSS);
+    List<String> documents =
+        List.of(
+            "<html><head></head><body><div class=\"red\">A</div></body></html>",
+            "<html><body><table><tr><td><p>B</p></td></tr></table><p class=\"note\">C</p></body>"
+                + "</html>",
+            "<html><head><style>div { padding: 1px; }</style></head>"
+                + "<body><div class=\"red\">D</div></body></html>");
+
+    for (String html : documents) {
+      assertEquals(
+          CssInliner.inlineAdditionalOnly(html, CSS),
+          CssInliner.inlineAdditionalOnly(html, stylesheet));
+      assertEquals(CssInliner.inline(html, CSS), CssInliner.inline(html, stylesheet));
+    }
+  }
+
+  @Test
+  void preservesSourceOrderWhenDocumentHasStyleBlocks() {
+    // The document's <style> comes first, so the compiled rule of equal specificity wins
+    String html =
+        "<html><head><style>.red { color: blue; }</style></head>"
+            + "<body><div class=\"red\">A</div></body></html>";
+
+    String result = CssInliner.inline(html, CompiledStylesheet.compile(".red { color: red; }"));
+    assertTrue(result.contains("style=\"color: red;\""), result);
+  }
+
+  @Test
+  void emptyStylesheetLeavesHtmlUnchanged() {
+    String html = "<html><body><div>A</div></body></html>";
+
+    assertSame(html, CssInliner.inlineAdditionalOnly(html, CompiledStylesheet.compile(null)));
+    assertSame(html, CssInliner.inline(html, CompiledStylesheet.compile("")));
+  }
+
+  @Test
+  void contextFreeOnlyWithoutCombinatorsInInlineableRules() {
+    assertTrue(
+        CompiledStylesheet.compile("p, .a { color: red; } a:hover b { x: y; }").isContextFree());
+    assertFalse(CompiledStylesheet.compile(".a p { color: red; }").isContextFree());
+  }
+}
@@ -319,4 +319,47 @@ class CssInlinerTest {
     assertTrue(html.contains("Styled text"));
     // The inline CSS engine should process mj-style inline="inline" styles
   }
+
+  @Test
+  void appliesRulesFromDifferentBucketsInCascadeOrder() {
+    // Rules keyed by id, class, tag, and universal selectors land in separate buckets; the merged
+    // result must still follow specificity, then source order
+    String html =
+        """
+        <html><head></head>
+        <body><p id="main" class="a b">Hello</p></body>
+        </html>""";
+    String css =
+        """
+        #main { color: red; }
+        .a { color: blue; margin: 1px; }
+        p { margin: 2px; padding: 3px; }
+        .b { margin: 4px; }
+        * { padding: 5px; border: 0; }
+        """;
+
+    String result = CssInliner.inlineAdditionalOnly(html, css);
+    assertTrue(
+        result.contains(
+            "class=\"a b\" style=\"padding: 3px; border: 0; margin: 4px; color: red;\""),
+        result);
+  }
+
+  @Test
+  void appliesSelectorListRuleOnceWhenSeveralAlternativesMatch() {
+    String html =
+        """
+        <html><head></head>
+        <body><td class="x" id="y">Cell</td></body>
+        </html>""";
+    String css =
+        """
+        .x, #y, td { color: red; }
+        .x { color: blue; }
+        """;
+
+    // The list takes its highest specificity (#y), so it beats the later .x rule
+    String result = CssInliner.inlineAdditionalOnly(html, css);
+    assertTrue(result.contains("style=\"color: red;\""), result);
+  }
 }
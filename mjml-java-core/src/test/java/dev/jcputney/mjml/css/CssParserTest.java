@@ -1,6 +1,7 @@
 package dev.jcputney.mjml.css;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
@@ -54,6 +55,37 @@ class CssParserTest {
     assertEquals(".footer", rules.get(1).selectorText());
   }
 
+  @Test
+  void stripsCommentsInsideSelectorsAndDeclarations() {
+    CssParser.ParseResult result =
+        CssParser.parse(
+            "p /* a */ > a { color: /* x */ red; /* gone: 1; */ margin: 0 }"
+                + " @media /* m */ (max-width: 480px) { /* y */ .b { color: blue; } }");
+    List<CssRule> rules = result.rules();
+    assertEquals(1, rules.size());
+    assertEquals("p  > a", rules.get(0).selectorText());
+    assertEquals(2, rules.get(0).declarations().size());
+    assertEquals("red", rules.get(0).declarations().get(0).value());
+    assertEquals("margin", rules.get(0).declarations().get(1).property());
+    assertEquals(
+        List.of("@media  (max-width: 480px) {  .b { color: blue; } }"), result.preservedAtRules());
+  }
+
+  @Test
+  void ignoresBracesInsideComments() {
+    List<CssRule> rules = CssParser.parseRules(".a { color: red; /* } */ } .b { color: blue; }");
+    assertEquals(2, rules.size());
+    assertEquals(".b", rules.get(1).selectorText());
+  }
+
+  @Test
+  void sharesKnownPropertyNames() {
+    CssDeclaration first = CssParser.parseRules(".a { COLOR: red; }").get(0).declarations().get(0);
+    CssDeclaration second = StyleAttribute.parse("Color: blue").get(0);
+    assertEquals("color", first.property());
+    assertSame(first.property(), second.property());
+  }
+
   @Test
   void preservesMediaQueries() {
     CssParser.ParseResult result =
@@ -4,6 +4,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import dev.jcputney.mjml.css.CssSelector.AttributeSelector;
 import dev.jcputney.mjml.css.CssSelector.ClassSelector;
@@ -174,4 +177,17 @@ class CssSelectorParserTest {
     assertEquals(
         new CssSpecificity(1, 1, 1), CssSelectorParser.parse("#nav .item a").specificity());
   }
+
+  @Test
+  void sharesParsedSelectorsByText() {
+    long hits = CssSelectorParser.cacheStats().hits();
+    CssSelector first = CssSelectorParser.parse("div.cache-test > a, p");
+    CssSelector second = CssSelectorParser.parse("div.cache-test > a, p");
+
+    assertSame(first, second);
+    assertTrue(CssSelectorParser.cacheStats().hits() > hits);
+    assertThrows(
+        UnsupportedOperationException.class,
+        () -> ((SelectorList) first).selectors().add(new UniversalSelector()));
+  }
 }
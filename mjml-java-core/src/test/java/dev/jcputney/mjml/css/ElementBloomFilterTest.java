@@ -0,0 +1,103 @@
+package dev.jcputney.mjml.css;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the ancestor and sibling Bloom filters used to fast-reject combinator selectors. */
+class ElementBloomFilterTest {
+
+  private HtmlElement el(String tag, Map<String, String> attrs) {
+    return new HtmlElement(tag, attrs);
+  }
+
+  /** Builds {@code table.footer > tr > td#cell > a.link} plus a sibling span after the anchor. */
+  private HtmlElement[] tree() {
+    HtmlElement table = el("table", Map.of("class", "footer wide"));
+    HtmlElement tr = el("tr", Map.of());
+    HtmlElement td = el("td", Map.of("id", "cell"));
+    HtmlElement a = el("a", Map.of("class", "link"));
+    HtmlElement span = el("span", Map.of());
+    table.addChild(tr);
+    tr.addChild(td);
+    td.addChild(a);
+    td.addChild(span);
+    return new HtmlElement[] {table, tr, td, a, span};
+  }
+
+  private boolean matches(String selector, HtmlElement element) {
+    return CssSelectorMatcher.matches(CssSelectorParser.parse(selector), element);
+  }
+
+  @Test
+  void ancestorFilterContainsEveryAncestorKey() {
+    HtmlElement a = tree()[3];
+    long[] filter = a.ancestorFilter();
+
+    assertTrue(ElementBloomFilter.mightContain(filter, ElementBloomFilter.tagKey("table")));
+    assertTrue(ElementBloomFilter.mightContain(filter, ElementBloomFilter.classKey("footer")));
+    assertTrue(ElementBloomFilter.mightContain(filter, ElementBloomFilter.classKey("wide")));
+    assertTrue(ElementBloomFilter.mightContain(filter, ElementBloomFilter.idKey("cell")));
+    assertFalse(ElementBloomFilter.mightContain(filter, ElementBloomFilter.tagKey("a")));
+    assertFalse(ElementBloomFilter.mightContain(filter, ElementBloomFilter.classKey("link")));
+  }
+
+  @Test
+  void siblingsShareTheAncestorFilter() {
+    HtmlElement[] tree = tree();
+    assertSame(tree[3].ancestorFilter(), tree[4].ancestorFilter());
+  }
+
+  @Test
+  void precedingSiblingFilterContainsOnlyEarlierSiblings() {
+    HtmlElement[] tree = tree();
+    long[] filter = tree[4].precedingSiblingFilter();
+
+    assertTrue(ElementBloomFilter.mightContain(filter, ElementBloomFilter.classKey("link")));
+    assertFalse(ElementBloomFilter.mightContain(filter, ElementBloomFilter.tagKey("span")));
+    assertFalse(
+        ElementBloomFilter.mightContain(
+            tree[3].precedingSiblingFilter(), ElementBloomFilter.classKey("link")));
+    assertSame(tree[3], tree[4].previousSibling());
+  }
+
+  @Test
+  void descendantSelectorsMatchThroughFilter() {
+    HtmlElement a = tree()[3];
+
+    assertTrue(matches(".footer td a", a));
+    assertTrue(matches("table.footer #cell > a.link", a));
+    assertTrue(matches(".footer tr > td a", a));
+    assertFalse(matches(".header td a", a));
+    assertFalse(matches(".footer div a", a));
+    assertFalse(matches("table.narrow a", a));
+  }
+
+  @Test
+  void generalSiblingSelectorsMatchThroughFilter() {
+    HtmlElement span = tree()[4];
+
+    assertTrue(matches("a.link ~ span", span));
+    assertTrue(matches(".footer a ~ span", span));
+    assertFalse(matches("img ~ span", span));
+    assertFalse(matches("span ~ span", span));
+  }
+
+  @Test
+  void deepNestingMatchesSameAsWithoutFilter() {
+    HtmlElement root = el("div", Map.of("class", "root"));
+    HtmlElement current = root;
+    for (int i = 0; i < 200; i++) {
+      HtmlElement child = el(i % 2 == 0 ? "table" : "td", Map.of("class", "level" + i));
+      current.addChild(child);
+      current = child;
+    }
+
+    assertTrue(matches(".root .level10 .level150 td", current));
+    assertFalse(matches(".root .level150 .level10 td", current));
+    assertFalse(matches(".missing td", current));
+  }
+}
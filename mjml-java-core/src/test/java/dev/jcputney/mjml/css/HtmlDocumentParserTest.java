@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 
 class HtmlDocumentParserTest {
@@ -138,4 +139,24 @@ class HtmlDocumentParserTest {
     long divCount = allElements.stream().filter(e -> "div".equals(e.getTagName())).count();
     assertEquals(1, divCount, "Only the real div should be parsed");
   }
+
+  @Test
+  void readsAttributeValuesFromTheSource() {
+    HtmlElement root =
+        HtmlDocumentParser.parse("<TD Class='a b a' ALIGN=left data-x=\"1\" data-x=\"2\">x</TD>");
+    HtmlElement td = root.getChildren().get(0);
+    assertEquals("td", td.getTagName());
+    assertEquals("left", td.getAttribute("align"));
+    assertEquals("left", td.getAttribute("Align"));
+    assertEquals("2", td.getAttribute("data-x"), "The last duplicate attribute wins");
+    assertEquals(Set.of("a", "b"), td.getClassNames());
+    assertEquals(List.of("class", "align", "data-x"), List.copyOf(td.getAttributes().keySet()));
+  }
+
+  @Test
+  void leafElementsHaveNoChildren() {
+    HtmlElement root = HtmlDocumentParser.parse("<p><br/></p>");
+    HtmlElement br = root.getChildren().get(0).getChildren().get(0);
+    assertTrue(br.getChildren().isEmpty());
+  }
 }
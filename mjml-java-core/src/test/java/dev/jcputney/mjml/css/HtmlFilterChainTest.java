@@ -0,0 +1,163 @@
+package dev.jcputney.mjml.css;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+
+/** Tests for streaming HTML through a chain of filters in one pass. */
+class HtmlFilterChainTest {
+
+  private static final String DOCUMENT =
+      "<!doctype html>\n<html><head><style>p > a { color: red; }</style></head>"
+          + "<body><!--[if mso | IE]><table><tr><td><![endif]-->"
+          + "<p class=\"x\">a <b>b</b><br/></p><img src=\"i.png\" />tail";
+
+  @Test
+  void writesTokensBackUnchanged() {
+    HtmlFilter identity = (token, next) -> next.accept(token);
+    assertEquals(DOCUMENT, HtmlFilterChain.of(List.of(identity)).apply(DOCUMENT));
+    assertEquals(DOCUMENT, HtmlFilterChain.of(List.of()).apply(DOCUMENT));
+  }
+
+  @Test
+  void keepsConditionalCommentsAndRawTextWhole() {
+    List<String> tokens = new ArrayList<>();
+    HtmlFilter recorder =
+        (token, next) -> {
+          tokens.add(token.type() + ":" + token.text());
+          next.accept(token);
+        };
+    HtmlFilterChain.of(List.of(recorder)).apply("<style>a<b</style><!--[if mso]><td><![endif]-->");
+
+    assertEquals(
+        List.of(
+            "START_TAG:<style>",
+            "TEXT:a<b",
+            "END_TAG:</style>",
+            "COMMENT:<!--[if mso]><td><![endif]-->"),
+        tokens);
+  }
+
+  @Test
+  void buildsElementsOnlyWhenAFilterUsesThem() {
+    List<HtmlElement> seen = new ArrayList<>();
+    HtmlFilter collect =
+        (token, next) -> {
+          if (token.type() == HtmlToken.Type.START_TAG) {
+            seen.add(token.element());
+          }
+          next.accept(token);
+        };
+    HtmlFilterChain.of(List.of(collect)).apply("<div><p>x</p></div>");
+    assertEquals(2, seen.size());
+    assertNull(seen.get(0));
+
+    seen.clear();
+    HtmlFilterChain.of(List.of(collect, usingElements())).apply("<div><p>x</p></div>");
+    assertNotNull(seen.get(1));
+    assertEquals("div", seen.get(1).getParent().getTagName());
+  }
+
+  @Test
+  void appliesElementChangesWhenWritingStartTags() {
+    HtmlFilter trackLinks =
+        new HtmlFilter() {
+          @Override
+          public void filter(HtmlToken token, Consumer<HtmlToken> next) {
+            HtmlElement element = token.element();
+            if (element != null && "a".equals(element.getTagName())) {
+              element.setAttribute("data-tracked", "true");
+            }
+            next.accept(token);
+          }
+
+          @Override
+          public boolean usesElements() {
+            return true;
+          }
+        };
+    CompiledStylesheet stylesheet = CompiledStylesheet.compile("p > a { color: red; }");
+
+    assertEquals(
+        "<p><a href=\"#\" data-tracked=\"true\" style=\"color: red;\">x</a></p>"
+            + "<a href=\"#\" data-tracked=\"true\">y</a>",
+        HtmlFilterChain.of(List.of(CssInliner.filter(stylesheet), trackLinks))
+            .apply("<p><a href=\"#\">x</a></p><a href=\"#\">y</a>"));
+  }
+
+  @Test
+  void inlinesContextFreeStylesheetsWithoutBuildingElements() {
+    CompiledStylesheet stylesheet =
+        CompiledStylesheet.compile("td { padding: 0; } .x { color: red; }");
+    List<HtmlElement> seen = new ArrayList<>();
+    HtmlFilter collect =
+        (token, next) -> {
+          if (token.type() == HtmlToken.Type.START_TAG) {
+            seen.add(token.element());
+          }
+          next.accept(token);
+        };
+
+    assertEquals(
+        "<tr><td style=\"padding: 0;\">a</td><td class=\"x\" style=\"padding: 0; color: red;\">b</td>"
+            + "<td style=\"padding: 0;\">c</td></tr>",
+        HtmlFilterChain.of(List.of(CssInliner.filter(stylesheet), collect))
+            .apply("<tr><td>a</td><td class=\"x\">b</td><td>c</td></tr>"));
+    assertEquals(4, seen.size());
+    assertNull(seen.get(1));
+  }
+
+  @Test
+  void streamsPartsAsOneDocument() {
+    CompiledStylesheet stylesheet = CompiledStylesheet.compile("div p { color: red; }");
+
+    assertEquals(
+        "<div><p style=\"color: red;\">x</p></div>",
+        HtmlFilterChain.of(List.of(CssInliner.filter(stylesheet)))
+            .apply("<div>", "<p>x</p>", "</div>"));
+  }
+
+  @Test
+  void finishReleasesHeldTokens() {
+    HtmlFilter holdLast =
+        new HtmlFilter() {
+          private HtmlToken held;
+
+          @Override
+          public void filter(HtmlToken token, Consumer<HtmlToken> next) {
+            if (held != null) {
+              next.accept(held);
+            }
+            held = token;
+          }
+
+          @Override
+          public void finish(Consumer<HtmlToken> next) {
+            next.accept(HtmlToken.text("["));
+            next.accept(held);
+            next.accept(HtmlToken.text("]"));
+          }
+        };
+
+    assertEquals("<p>x[</p>]", HtmlFilterChain.of(List.of(holdLast)).apply("<p>x</p>"));
+  }
+
+  private static HtmlFilter usingElements() {
+    return new HtmlFilter() {
+      @Override
+      public void filter(HtmlToken token, Consumer<HtmlToken> next) {
+        next.accept(token);
+      }
+
+      @Override
+      public boolean usesElements() {
+        return true;
+      }
+    };
+  }
+}
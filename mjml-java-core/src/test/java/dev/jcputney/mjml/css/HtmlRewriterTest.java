@@ -0,0 +1,65 @@
+package dev.jcputney.mjml.css;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+/** Tests for writing the changes of a parsed element tree back into its source HTML. */
+class HtmlRewriterTest {
+
+  @Test
+  void returnsSourceWhenNothingChanged() {
+    String html = "<div class=\"a\"><p style=\"color: red\">x</p></div>";
+    assertSame(html, HtmlRewriter.rewrite(html, HtmlDocumentParser.parse(html)));
+  }
+
+  @Test
+  void replacesChangedStylesAndAppendsAddedAttributesInOnePass() {
+    String html = "<div class=\"a\"><p style=\"color: red\">x</p><img src=\"y.png\" /><br></div>";
+    HtmlElement root = HtmlDocumentParser.parse(html);
+    HtmlElement div = root.getChildren().get(0);
+    HtmlElement p = div.getChildren().get(0);
+    HtmlElement img = div.getChildren().get(1);
+    HtmlElement br = div.getChildren().get(2);
+
+    div.setAttribute("data-id", "1");
+    p.setStyle("color: blue;");
+    p.setAttribute("title", "t");
+    img.setStyle("border: 0;");
+    br.setAttribute("class", "gap");
+
+    assertEquals(
+        "<div class=\"a\" data-id=\"1\"><p style=\"color: blue;\" title=\"t\">x</p>"
+            + "<img src=\"y.png\" style=\"border: 0;\" /><br class=\"gap\"></div>",
+        HtmlRewriter.rewrite(html, root));
+  }
+
+  @Test
+  void writesStyleWithTheAddedStyleAttribute() {
+    String html = "<td style=\"padding: 0\">x</td>";
+    HtmlElement root = HtmlDocumentParser.parse(html);
+    HtmlElement td = root.getChildren().get(0);
+
+    td.setAttribute("style", "color: red");
+    td.setStyle("color: green;");
+
+    assertEquals(
+        "<td style=\"padding: 0\" style=\"color: green;\">x</td>",
+        HtmlRewriter.rewrite(html, root));
+  }
+
+  @Test
+  void addedClassesTakePartInLaterMatching() {
+    String html = "<table><tr><td>x</td></tr></table>";
+    HtmlElement root = HtmlDocumentParser.parse(html);
+    HtmlElement td = root.allDescendants().get(2);
+    CompiledSelector selector = CompiledSelector.compile(CssSelectorParser.parse("tr .cell"));
+    assertEquals(0, selector.selectWithin(root, 0, html.length()).size());
+
+    td.setAttribute("class", "cell");
+
+    assertEquals(1, selector.selectWithin(root, 0, html.length()).size());
+    assertSame(td, selector.selectWithin(root, 0, html.length()).get(0));
+  }
+}
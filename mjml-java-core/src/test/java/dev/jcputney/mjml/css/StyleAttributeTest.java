@@ -1,6 +1,8 @@
 package dev.jcputney.mjml.css;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
@@ -45,6 +47,13 @@ class StyleAttributeTest {
     assertEquals("color: red; font-size: 14px !important;", result);
   }
 
+  @Test
+  void serializesIntoBuffer() {
+    StringBuilder out = new StringBuilder("style=\"");
+    StyleAttribute.serialize(StyleAttribute.parse("color:red; margin : 0 ! important"), out);
+    assertEquals("style=\"color: red; margin: 0 !important;", out.toString());
+  }
+
   @Test
   void mergesNewProperty() {
     List<CssDeclaration> existing = StyleAttribute.parse("color:red");
@@ -86,4 +95,17 @@ class StyleAttributeTest {
     assertEquals(0, StyleAttribute.parse(null).size());
     assertEquals("", StyleAttribute.serialize(List.of()));
   }
+
+  @Test
+  void sharesParsedStylesByText() {
+    long hits = StyleAttribute.cacheStats().hits();
+    List<CssDeclaration> first = StyleAttribute.parse("color: #cache01; padding: 0");
+    List<CssDeclaration> second = StyleAttribute.parse("color: #cache01; padding: 0");
+
+    assertSame(first, second);
+    assertTrue(StyleAttribute.cacheStats().hits() > hits);
+    assertThrows(
+        UnsupportedOperationException.class,
+        () -> first.add(new CssDeclaration("margin", "0", false)));
+  }
 }
@@ -0,0 +1,111 @@
+package dev.jcputney.mjml.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.jcputney.mjml.MjmlConfiguration;
+import dev.jcputney.mjml.MjmlParseException;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the binary compiled-template format. */
+class CompiledTemplateCodecTest {
+
+  private static final String MJML =
+      """
+      <mjml>
+        <mj-head>
+          <mj-title>Hello &amp; welcome</mj-title>
+          <mj-style inline="inline">.x { color: red; }</mj-style>
+        </mj-head>
+        <mj-body>
+          <!-- a comment -->
+          <mj-section padding="10px">
+            <mj-column>
+              <mj-text css-class="x">Café <b>bold</b> 😀</mj-text>
+              <mj-text css-class="x">Café <b>bold</b> 😀</mj-text>
+            </mj-column>
+          </mj-section>
+        </mj-body>
+      </mjml>
+      """;
+
+  @Test
+  void roundTripPreservesTree() {
+    MjmlDocument original = MjmlParser.parse(MJML);
+
+    MjmlDocument decoded = CompiledTemplateCodec.decode(CompiledTemplateCodec.encode(original));
+
+    assertEquals(original.root().getOuterHtml(), decoded.root().getOuterHtml());
+    assertEquals(original.getBody().getChildren().size(), decoded.getBody().getChildren().size());
+    MjmlNode section = decoded.getBody().getFirstChildByTag("mj-section");
+    assertEquals("10px", section.getAttribute("padding"));
+    assertEquals(decoded.getBody(), section.getParent());
+  }
+
+  @Test
+  void keyIsStableHexDigest() {
+    MjmlConfiguration config = MjmlConfiguration.defaults();
+    String key = CompiledTemplateCodec.key(MJML, config);
+
+    assertEquals(64, key.length());
+    assertTrue(key.matches("[0-9a-f]{64}"));
+    assertEquals(key, CompiledTemplateCodec.key(MJML, MjmlConfiguration.builder().build()));
+    assertNotEquals(key, CompiledTemplateCodec.key(MJML + " ", config));
+  }
+
+  @Test
+  void keyCoversLimitsAndCompiledTemplateVersion() {
+    String key = CompiledTemplateCodec.key(MJML, MjmlConfiguration.defaults());
+
+    for (MjmlConfiguration config :
+        new MjmlConfiguration[] {
+          MjmlConfiguration.builder().maxInputSize(1000).build(),
+          MjmlConfiguration.builder().maxNestingDepth(10).build(),
+          MjmlConfiguration.builder().maxIncludeDepth(3).build(),
+          MjmlConfiguration.builder().includeResolver((path, context) -> "").build(),
+          MjmlConfiguration.builder().compiledTemplateVersion("2").build()
+        }) {
+      assertNotEquals(key, CompiledTemplateCodec.key(MJML, config), config.toString());
+    }
+  }
+
+  @Test
+  void rejectsCorruptedPayload() {
+    byte[] data = CompiledTemplateCodec.encode(MjmlParser.parse(MJML));
+    data[data.length - 5] ^= 0x01;
+
+    MjmlParseException ex =
+        assertThrows(MjmlParseException.class, () -> CompiledTemplateCodec.decode(data));
+    assertTrue(ex.getMessage().contains("checksum"));
+  }
+
+  @Test
+  void rejectsTruncatedData() {
+    byte[] data = CompiledTemplateCodec.encode(MjmlParser.parse(MJML));
+
+    assertThrows(
+        MjmlParseException.class,
+        () -> CompiledTemplateCodec.decode(Arrays.copyOf(data, data.length - 1)));
+    assertThrows(MjmlParseException.class, () -> CompiledTemplateCodec.decode(new byte[3]));
+  }
+
+  @Test
+  void rejectsOtherFormatVersion() {
+    byte[] data = CompiledTemplateCodec.encode(MjmlParser.parse(MJML));
+    data[5] = (byte) (CompiledTemplateCodec.FORMAT_VERSION + 1);
+
+    MjmlParseException ex =
+        assertThrows(MjmlParseException.class, () -> CompiledTemplateCodec.decode(data));
+    assertTrue(ex.getMessage().contains("version"));
+  }
+
+  @Test
+  void enforcesMaxNestingDepth() {
+    byte[] data = CompiledTemplateCodec.encode(MjmlParser.parse(MJML));
+
+    assertThrows(MjmlParseException.class, () -> CompiledTemplateCodec.decode(data, 2));
+  }
+}
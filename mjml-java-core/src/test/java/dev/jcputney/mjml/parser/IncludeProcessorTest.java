@@ -1,16 +1,21 @@
 package dev.jcputney.mjml.parser;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import dev.jcputney.mjml.IncludeResolver;
 import dev.jcputney.mjml.MjmlConfiguration;
 import dev.jcputney.mjml.MjmlException;
+import dev.jcputney.mjml.MjmlIncludeException;
 import dev.jcputney.mjml.MjmlRenderer;
 import dev.jcputney.mjml.ResolverContext;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 
@@ -318,6 +323,255 @@ class IncludeProcessorTest {
     assertFalse(html.isEmpty());
   }
 
+  @Test
+  void repeatedIncludeIsResolvedOncePerRender() {
+    CountingIncludeResolver resolver =
+        new CountingIncludeResolver()
+            .put(
+                "spacer.mjml",
+                """
+                <mj-section>
+                  <mj-column>
+                    <mj-text>Repeated partial</mj-text>
+                  </mj-column>
+                </mj-section>
+                """);
+
+    String mjml =
+        // language=MJML
+        """
+        <mjml>
+          <mj-body>
+            <mj-include path="spacer.mjml" />
+            <mj-include path="spacer.mjml" />
+            <mj-include path="spacer.mjml" />
+          </mj-body>
+        </mjml>
+        """;
+
+    MjmlDocument document = MjmlParser.parse(mjml);
+    new IncludeProcessor(resolver).process(document);
+
+    List<MjmlNode> sections = document.getBody().getChildrenByTag("mj-section");
+    assertEquals(3, sections.size(), "Every occurrence should be expanded");
+    assertEquals(1, resolver.count("spacer.mjml"), "Include should be resolved only once");
+    assertNotSame(sections.get(0), sections.get(1), "Occurrences should be independent copies");
+    assertSame(document.getBody(), sections.get(2).getParent());
+  }
+
+  @Test
+  void expandingAFrozenDocumentCopiesOnlyThePathsToIncludes() {
+    MapIncludeResolver resolver =
+        new MapIncludeResolver()
+            .put(
+                "partial.mjml",
+                "<mj-section><mj-column><mj-text>Partial</mj-text></mj-column></mj-section>");
+
+    MjmlDocument document =
+        MjmlParser.parse(
+                """
+                <mjml>
+                  <mj-head><mj-title>Shared</mj-title></mj-head>
+                  <mj-body>
+                    <mj-section><mj-column><mj-text>Static</mj-text></mj-column></mj-section>
+                    <mj-include path="partial.mjml" />
+                    <mj-include path="partial.mjml" />
+                  </mj-body>
+                </mjml>
+                """)
+            .freeze();
+
+    MjmlDocument expanded = new IncludeProcessor(resolver).expand(document);
+
+    assertEquals(2, document.getBody().getChildrenByTag("mj-include").size());
+    assertNotSame(document.root(), expanded.root());
+    assertSame(document.getHead(), expanded.getHead(), "Subtrees without includes are shared");
+    List<MjmlNode> sections = expanded.getBody().getChildrenByTag("mj-section");
+    assertEquals(3, sections.size());
+    assertSame(document.getBody().getChildren().get(0), sections.get(0));
+    assertSame(expanded.getBody(), sections.get(1).getParent());
+    assertNotSame(sections.get(1), sections.get(2));
+    MjmlNode column = sections.get(1).getChildren().get(0);
+    assertNotSame(column, sections.get(2).getChildren().get(0));
+    assertSame(sections.get(1), column.getParent(), "Included content is parented by its copy");
+    assertThrows(
+        IllegalStateException.class, () -> new IncludeProcessor(resolver).process(document));
+  }
+
+  @Test
+  void processedIncludesStayMutable() {
+    MapIncludeResolver resolver =
+        new MapIncludeResolver()
+            .put(
+                "partial.mjml",
+                "<mj-section><mj-column><mj-text>Partial</mj-text></mj-column></mj-section>");
+    MjmlDocument document =
+        MjmlParser.parse("<mjml><mj-body><mj-include path=\"partial.mjml\" /></mj-body></mjml>");
+
+    new IncludeProcessor(resolver).process(document);
+
+    MjmlNode text =
+        document.getBody().getChildren().get(0).getChildren().get(0).getChildren().get(0);
+    assertEquals("mj-text", text.getTagName());
+    assertFalse(text.isFrozen());
+    text.setAttribute("color", "#ff0000");
+    assertEquals("#ff0000", text.getAttribute("color"));
+    assertSame(document.getBody(), text.getParent().getParent().getParent());
+  }
+
+  @Test
+  void includedAccordionElementsInheritAccordionAttributes() {
+    String element =
+        """
+        <mj-accordion-element>
+          <mj-accordion-title>Question</mj-accordion-title>
+          <mj-accordion-text>Answer</mj-accordion-text>
+        </mj-accordion-element>
+        """;
+    MjmlConfiguration config =
+        MjmlConfiguration.builder()
+            .includeResolver(new MapIncludeResolver().put("element.mjml", element))
+            .build();
+    String template =
+        """
+        <mjml>
+          <mj-body>
+            <mj-section>
+              <mj-column>
+                <mj-accordion border="7px dotted red" icon-position="left">
+                  %s
+                </mj-accordion>
+              </mj-column>
+            </mj-section>
+          </mj-body>
+        </mjml>
+        """;
+
+    String included =
+        MjmlRenderer.render(template.formatted("<mj-include path=\"element.mjml\" />"), config)
+            .html();
+    String inlined = MjmlRenderer.render(template.formatted(element), config).html();
+
+    assertEquals(inlined, included);
+    // The border is drawn on the accordion, its title, and its text
+    assertEquals(3, included.split("7px dotted red", -1).length - 1);
+  }
+
+  @Test
+  void includedNavbarLinksInheritNavbarAttributes() {
+    String link = "<mj-navbar-link href=\"/about\">About</mj-navbar-link>";
+    MjmlConfiguration config =
+        MjmlConfiguration.builder()
+            .includeResolver(new MapIncludeResolver().put("links.mjml", link))
+            .build();
+    String template =
+        """
+        <mjml>
+          <mj-body>
+            <mj-section>
+              <mj-column>
+                <mj-navbar base-url="https://example.com">%s</mj-navbar>
+              </mj-column>
+            </mj-section>
+          </mj-body>
+        </mjml>
+        """;
+
+    String included =
+        MjmlRenderer.render(template.formatted("<mj-include path=\"links.mjml\" />"), config)
+            .html();
+    String inlined = MjmlRenderer.render(template.formatted(link), config).html();
+
+    assertEquals(inlined, included);
+    assertTrue(included.contains("https://example.com/about"));
+  }
+
+  @Test
+  void repeatedNestedIncludeResolvedOncePerIncludingPath() {
+    CountingIncludeResolver resolver =
+        new CountingIncludeResolver()
+            .put("row.mjml", "<mj-include path=\"divider.mjml\" />")
+            .put("divider.mjml", "<mj-section><mj-column><mj-divider /></mj-column></mj-section>");
+
+    String mjml =
+        // language=MJML
+        """
+        <mjml>
+          <mj-body>
+            <mj-include path="row.mjml" />
+            <mj-include path="row.mjml" />
+            <mj-include path="divider.mjml" />
+          </mj-body>
+        </mjml>
+        """;
+
+    MjmlDocument document = MjmlParser.parse(mjml);
+    new IncludeProcessor(resolver).process(document);
+
+    assertEquals(3, document.getBody().getChildrenByTag("mj-section").size());
+    assertEquals(1, resolver.count("row.mjml"));
+    // Resolved once from row.mjml and once from the root document
+    assertEquals(2, resolver.count("divider.mjml"));
+  }
+
+  @Test
+  void repeatedNestedIncludeResolvedOncePerDepth() {
+    // footer.mjml includes links.mjml, and is reached both from the root and from page.mjml, so
+    // links.mjml is resolved from the same including path at depths 1 and 2
+    MapIncludeResolver files =
+        new MapIncludeResolver()
+            .put("page.mjml", "<mj-include path=\"footer.mjml\" />")
+            .put("footer.mjml", "<mj-include path=\"links.mjml\" />");
+    IncludeResolver resolver =
+        (path, context) ->
+            "links.mjml".equals(path)
+                ? "<mj-section><mj-column><mj-text>depth "
+                    + context.depth()
+                    + "</mj-text></mj-column></mj-section>"
+                : files.resolve(path, context);
+
+    MjmlDocument document =
+        MjmlParser.parse(
+            """
+            <mjml>
+              <mj-body>
+                <mj-include path="footer.mjml" />
+                <mj-include path="page.mjml" />
+              </mj-body>
+            </mjml>
+            """);
+    new IncludeProcessor(resolver).process(document);
+
+    String body = document.getBody().getInnerHtml();
+    assertTrue(body.contains("depth 1"), body);
+    assertTrue(body.contains("depth 2"), body);
+  }
+
+  @Test
+  void detectsCircularIncludeOnRepeatedOccurrence() {
+    CountingIncludeResolver resolver =
+        new CountingIncludeResolver()
+            .put("a.mjml", "<mj-include path=\"b.mjml\" />")
+            .put("b.mjml", "<mj-include path=\"a.mjml\" />");
+
+    String mjml =
+        // language=MJML
+        """
+        <mjml>
+          <mj-body>
+            <mj-include path="a.mjml" />
+            <mj-include path="a.mjml" />
+          </mj-body>
+        </mjml>
+        """;
+
+    MjmlDocument document = MjmlParser.parse(mjml);
+    IncludeProcessor processor = new IncludeProcessor(resolver);
+    MjmlIncludeException ex =
+        assertThrows(MjmlIncludeException.class, () -> processor.process(document));
+    assertTrue(ex.getMessage().contains("Circular include"));
+  }
+
   @Test
   void worksWithoutResolver() {
     // When no include resolver is configured, mj-include should be silently skipped
@@ -637,4 +891,24 @@ class IncludeProcessorTest {
       return super.resolve(path, context);
     }
   }
+
+  private static class CountingIncludeResolver extends MapIncludeResolver {
+    private final Map<String, Integer> counts = new HashMap<>();
+
+    @Override
+    CountingIncludeResolver put(String path, String content) {
+      super.put(path, content);
+      return this;
+    }
+
+    @Override
+    public String resolve(String path, ResolverContext context) {
+      counts.merge(path, 1, Integer::sum);
+      return super.resolve(path, context);
+    }
+
+    int count(String path) {
+      return counts.getOrDefault(path, 0);
+    }
+  }
 }
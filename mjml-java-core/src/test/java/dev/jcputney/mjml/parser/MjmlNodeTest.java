@@ -3,10 +3,12 @@ package dev.jcputney.mjml.parser;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 
 /** Tests for MjmlNode tree manipulation and serialization. */
@@ -42,6 +44,21 @@ class MjmlNodeTest {
         2, secondSnapshot.size(), "Adding a child should invalidate the unmodifiable cache");
   }
 
+  @Test
+  void getChildrenReturnsTheCachedView() {
+    MjmlNode parent = new MjmlNode("mj-body");
+    parent.addChild(new MjmlNode("mj-section"));
+
+    List<MjmlNode> view = parent.getChildren();
+    assertSame(view, parent.getChildren());
+
+    parent.setChildren(List.of(new MjmlNode("mj-wrapper"), new MjmlNode("mj-section")));
+    assertSame(view, parent.getChildren());
+    assertEquals(2, view.size(), "The view should reflect replaced children");
+    assertEquals("mj-wrapper", view.get(0).getTagName());
+    assertEquals(1, parent.getChildrenByTag("mj-section").size());
+  }
+
   @Test
   void replaceWithInParent() {
     MjmlNode parent = new MjmlNode("mj-body");
@@ -134,4 +151,85 @@ class MjmlNodeTest {
     assertTrue(outer.contains("alt=\"Photo\""), "Should contain alt attribute");
     assertTrue(outer.endsWith("/>"), "Self-closing tag should end with />");
   }
+
+  @Test
+  void deepCopyIsDetachedAndIndependent() {
+    MjmlNode parent = new MjmlNode("mj-body");
+    MjmlNode section = new MjmlNode("mj-section");
+    section.setAttribute("padding", "10px");
+    MjmlNode text = new MjmlNode("#text");
+    text.setTextContent("hello");
+    section.addChild(text);
+    parent.addChild(section);
+
+    MjmlNode copy = section.deepCopy();
+
+    assertNull(copy.getParent(), "Copy should have no parent");
+    assertEquals(section.getOuterHtml(), copy.getOuterHtml());
+    assertSame(copy, copy.getChildren().get(0).getParent());
+
+    copy.setAttribute("padding", "0px");
+    copy.getChildren().get(0).setTextContent("changed");
+    assertEquals("10px", section.getAttribute("padding"));
+    assertEquals("hello", text.getTextContent());
+  }
+
+  @Test
+  void attributesKeepTheirOrderAndAreReplacedInPlace() {
+    MjmlNode node = new MjmlNode("mj-image");
+    Map<String, String> view = node.getAttributes();
+    for (String name : List.of("src", "alt", "width", "height", "href")) {
+      node.setAttribute(name, name + "-value");
+    }
+    node.setAttribute("alt", "replaced");
+
+    assertEquals(List.of("src", "alt", "width", "height", "href"), List.copyOf(view.keySet()));
+    assertEquals("replaced", view.get("alt"));
+    assertTrue(view.containsKey("href"));
+    assertEquals("fallback", node.getAttribute("title", "fallback"));
+    assertEquals(Map.of("a", "1"), withAttribute("a", "1").getAttributes());
+    assertThrows(UnsupportedOperationException.class, () -> view.put("title", "x"));
+  }
+
+  @Test
+  void leavesHaveNoChildren() {
+    MjmlNode text = new MjmlNode("#text");
+    text.setTextContent("hello");
+
+    assertTrue(text.getChildren().isEmpty());
+    assertTrue(text.getAttributes().isEmpty());
+    assertEquals("hello", text.getInnerHtml());
+    assertThrows(UnsupportedOperationException.class, () -> text.getChildren().add(text));
+  }
+
+  private static MjmlNode withAttribute(String name, String value) {
+    MjmlNode node = new MjmlNode("mj-text");
+    node.setAttribute(name, value);
+    return node;
+  }
+
+  @Test
+  void frozenNodesRejectChangesAndThawIntoShallowCopies() {
+    MjmlNode section = withAttribute("padding", "0");
+    MjmlNode column = new MjmlNode("mj-column");
+    section.addChild(column);
+    section.freeze();
+
+    assertTrue(column.isFrozen(), "Freezing should reach descendants");
+    assertThrows(IllegalStateException.class, () -> section.setAttribute("padding", "1px"));
+    assertThrows(IllegalStateException.class, () -> column.addChild(new MjmlNode("mj-text")));
+    assertThrows(IllegalStateException.class, () -> column.setTextContent("x"));
+    assertThrows(IllegalStateException.class, () -> column.replaceWith(List.of()));
+
+    MjmlNode copy = section.thaw();
+    copy.setAttribute("padding", "1px");
+    copy.addChild(new MjmlNode("mj-column"));
+
+    assertEquals("0", section.getAttribute("padding"));
+    assertEquals(1, section.getChildren().size());
+    assertSame(column, copy.getChildren().get(0), "Children should be shared, not copied");
+    assertSame(section, column.getParent(), "A shared frozen child keeps its parent");
+    assertSame(copy, copy.getChildren().get(1).getParent());
+    assertSame(copy, copy.thaw(), "A mutable node thaws to itself");
+  }
 }
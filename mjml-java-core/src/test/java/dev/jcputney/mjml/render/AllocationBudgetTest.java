@@ -0,0 +1,172 @@
+package dev.jcputney.mjml.render;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import dev.jcputney.mjml.MjmlRenderer;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Catches allocation regressions on the render hot path without a JMH run. Each golden template in
+ * src/test/resources/golden/ is rendered after a warm-up, and the bytes the rendering thread
+ * allocates per render, as counted by {@link com.sun.management.ThreadMXBean}, must stay within
+ * {@value #DEFAULT_TOLERANCE_PERCENT}% of the baseline committed in {@value #BUDGET_FILE}.
+ *
+ * <p>Every run writes a per-template report of measured bytes and their change from the baseline to
+ * {@value #REPORT_FILE}. After an intended change in allocation, regenerate the baseline with:
+ *
+ * <pre>{@code
+ * mvn test -pl mjml-java-core -Dtest=AllocationBudgetTest -Dmjml.allocation.update=true
+ * }</pre>
+ *
+ * <p>The tolerance can be overridden with {@code -Dmjml.allocation.tolerance=<percent>}.
+ */
+class AllocationBudgetTest {
+
+  private static final Path GOLDEN_DIR = Path.of("src/test/resources/golden");
+  private static final String BUDGET_FILE = "src/test/resources/allocation-budget.properties";
+  private static final String REPORT_FILE = "target/allocation-report.txt";
+  private static final int DEFAULT_TOLERANCE_PERCENT = 25;
+
+  // Every template is rendered this many times before any is measured, so the JIT has compiled the
+  // shared render path and the process-wide caches are warm
+  private static final int WARMUP_PASSES = 40;
+  // Per-render bytes are the lowest batch average, which discards batches that ran into a cache
+  // eviction or a deoptimization
+  private static final int BATCHES = 5;
+  private static final int RENDERS_PER_BATCH = 10;
+
+  @Test
+  void rendersStayWithinAllocationBudget() throws IOException {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(
+        threads.isThreadAllocatedMemorySupported(), "Thread allocation counting is unsupported");
+    threads.setThreadAllocatedMemoryEnabled(true);
+
+    Map<String, String> templates = loadTemplates();
+    assertFalse(templates.isEmpty(), "No golden templates found in " + GOLDEN_DIR);
+
+    MjmlRenderer renderer = MjmlRenderer.create();
+    for (int pass = 0; pass < WARMUP_PASSES; pass++) {
+      for (String template : templates.values()) {
+        renderer.renderTemplate(template);
+      }
+    }
+
+    Map<String, Long> measured = new LinkedHashMap<>();
+    for (Map.Entry<String, String> template : templates.entrySet()) {
+      measured.put(template.getKey(), bytesPerRender(threads, renderer, template.getValue()));
+    }
+
+    Path budgetFile = Path.of(BUDGET_FILE);
+    if (Boolean.getBoolean("mjml.allocation.update")) {
+      writeBudget(budgetFile, measured);
+    }
+    Map<String, Long> budget = readBudget(budgetFile);
+    int tolerance = Integer.getInteger("mjml.allocation.tolerance", DEFAULT_TOLERANCE_PERCENT);
+
+    List<String> failures = new ArrayList<>();
+    StringBuilder report = new StringBuilder();
+    report.append(
+        String.format("%-36s %14s %14s %9s%n", "template", "baseline B", "measured B", "change"));
+    for (Map.Entry<String, Long> entry : measured.entrySet()) {
+      String name = entry.getKey();
+      long bytes = entry.getValue();
+      Long baseline = budget.get(name);
+      if (baseline == null) {
+        report.append(String.format("%-36s %14s %,14d %9s%n", name, "-", bytes, "new"));
+        failures.add(name + ": no baseline in " + BUDGET_FILE);
+        continue;
+      }
+      double change = (bytes - baseline) * 100.0 / baseline;
+      report.append(String.format("%-36s %,14d %,14d %+8.1f%%%n", name, baseline, bytes, change));
+      if (change > tolerance) {
+        failures.add(
+            String.format(
+                "%s: %,d B per render, %+.1f%% over the baseline of %,d B",
+                name, bytes, change, baseline));
+      }
+    }
+    Path reportFile = Path.of(REPORT_FILE);
+    Files.createDirectories(reportFile.getParent());
+    Files.writeString(reportFile, report);
+
+    assertTrue(
+        failures.isEmpty(),
+        "Allocation per render grew more than "
+            + tolerance
+            + "% for:\n  "
+            + String.join("\n  ", failures)
+            + "\nSee "
+            + REPORT_FILE
+            + "; if the growth is intended, rerun with -Dmjml.allocation.update=true");
+  }
+
+  private static long bytesPerRender(
+      com.sun.management.ThreadMXBean threads, MjmlRenderer renderer, String template) {
+    long lowest = Long.MAX_VALUE;
+    for (int batch = 0; batch < BATCHES; batch++) {
+      long before = threads.getCurrentThreadAllocatedBytes();
+      for (int i = 0; i < RENDERS_PER_BATCH; i++) {
+        renderer.renderTemplate(template);
+      }
+      long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+      lowest = Math.min(lowest, allocated / RENDERS_PER_BATCH);
+    }
+    return lowest;
+  }
+
+  private static Map<String, String> loadTemplates() throws IOException {
+    Map<String, String> templates = new TreeMap<>();
+    if (!Files.exists(GOLDEN_DIR)) {
+      return templates;
+    }
+    try (Stream<Path> files = Files.list(GOLDEN_DIR)) {
+      for (Path path : (Iterable<Path>) files::iterator) {
+        String file = path.getFileName().toString();
+        if (file.endsWith(".mjml")) {
+          templates.put(file.substring(0, file.length() - 5), Files.readString(path));
+        }
+      }
+    }
+    return templates;
+  }
+
+  private static Map<String, Long> readBudget(Path budgetFile) throws IOException {
+    Map<String, Long> budget = new TreeMap<>();
+    if (!Files.exists(budgetFile)) {
+      return budget;
+    }
+    Properties properties = new Properties();
+    try (var reader = Files.newBufferedReader(budgetFile)) {
+      properties.load(reader);
+    }
+    for (String name : properties.stringPropertyNames()) {
+      budget.put(name, Long.parseLong(properties.getProperty(name).trim()));
+    }
+    return budget;
+  }
+
+  private static void writeBudget(Path budgetFile, Map<String, Long> measured) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    sb.append("# Bytes allocated per render of each golden template, measured by\n");
+    sb.append("# AllocationBudgetTest. Regenerate with -Dmjml.allocation.update=true.\n");
+    for (Map.Entry<String, Long> entry : new TreeMap<>(measured).entrySet()) {
+      sb.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+    }
+    Files.writeString(budgetFile, sb);
+  }
+}
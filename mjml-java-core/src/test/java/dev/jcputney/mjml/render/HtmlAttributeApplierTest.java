@@ -1,10 +1,15 @@
 package dev.jcputney.mjml.render;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import dev.jcputney.mjml.MjmlConfiguration;
 import dev.jcputney.mjml.MjmlRenderer;
+import dev.jcputney.mjml.css.HtmlFilter;
+import dev.jcputney.mjml.css.HtmlToken;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -195,4 +200,120 @@ class HtmlAttributeApplierTest {
     }
     assertTrue(count >= 2, "Should add attribute to multiple matching elements, found " + count);
   }
+
+  @Test
+  void inlineStylesSeeClassesAddedByHtmlAttributes() {
+    String html =
+        render(
+            // language=MJML
+            """
+        <mjml>
+          <mj-head>
+            <mj-html-attributes>
+              <mj-selector path=".promo td">
+                <mj-html-attribute name="class">promo-cell</mj-html-attribute>
+              </mj-selector>
+            </mj-html-attributes>
+            <mj-style inline="inline">.promo-cell { border-top: 2px solid red; }</mj-style>
+          </mj-head>
+          <mj-body>
+            <mj-section css-class="promo">
+              <mj-column>
+                <mj-text>Promo</mj-text>
+              </mj-column>
+            </mj-section>
+          </mj-body>
+        </mjml>
+        """);
+
+    assertTrue(html.contains("class=\"promo-cell\""), "Should add the class attribute");
+    assertTrue(
+        html.contains("border-top: 2px solid red"),
+        "Inline styles should match the class added by mj-html-attributes");
+  }
+
+  @Test
+  void selectorsDoNotMatchOutsideTheRenderedBody() {
+    String html =
+        render(
+            // language=MJML
+            """
+        <mjml>
+          <mj-head>
+            <mj-html-attributes>
+              <mj-selector path="body > div">
+                <mj-html-attribute name="data-outer">yes</mj-html-attribute>
+              </mj-selector>
+            </mj-html-attributes>
+            <mj-style inline="inline">p { margin: 0; }</mj-style>
+          </mj-head>
+          <mj-body>
+            <mj-section>
+              <mj-column>
+                <mj-text>Body</mj-text>
+              </mj-column>
+            </mj-section>
+          </mj-body>
+        </mjml>
+        """);
+
+    assertFalse(
+        html.contains("data-outer"), "The skeleton's body element is not part of the fragment");
+  }
+
+  @Test
+  void tagByTagMatchingAgreesWithTheElementTree() {
+    String mjml =
+        // language=MJML
+        """
+        <mjml>
+          <mj-head>
+            <mj-html-attributes>
+              <mj-selector path=".promo, td[align=left]">
+                <mj-html-attribute name="class">promo-cell</mj-html-attribute>
+                <mj-html-attribute name="data-kind">promo</mj-html-attribute>
+              </mj-selector>
+            </mj-html-attributes>
+            <mj-style inline="inline">
+              .promo-cell { border-top: 2px solid red; }
+              p, img { margin: 0; }
+            </mj-style>
+          </mj-head>
+          <mj-body>
+            <mj-section css-class="promo">
+              <mj-column>
+                <mj-text><p>One</p></mj-text>
+                <mj-image src="https://example.com/a.png" />
+              </mj-column>
+            </mj-section>
+            <mj-section css-class="promo">
+              <mj-column>
+                <mj-text><p>Two</p></mj-text>
+              </mj-column>
+            </mj-section>
+          </mj-body>
+        </mjml>
+        """;
+    // A filter that reads elements makes the whole chain match on the element tree
+    HtmlFilter usesElements =
+        new HtmlFilter() {
+          @Override
+          public void filter(HtmlToken token, Consumer<HtmlToken> next) {
+            next.accept(token);
+          }
+
+          @Override
+          public boolean usesElements() {
+            return true;
+          }
+        };
+    MjmlConfiguration treeConfig =
+        MjmlConfiguration.builder().addHtmlFilter(() -> usesElements).build();
+
+    String html = render(mjml);
+    assertTrue(html.contains("data-kind=\"promo\""));
+    assertTrue(html.contains("border-top: 2px solid red"));
+    assertTrue(html.contains("<p style=\"margin: 0;\">One</p>"));
+    assertEquals(MjmlRenderer.render(mjml, treeConfig).html(), html);
+  }
 }
@@ -1,9 +1,16 @@
 package dev.jcputney.mjml.render;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import dev.jcputney.mjml.CacheStats;
 import dev.jcputney.mjml.MjmlConfiguration;
 import dev.jcputney.mjml.MjmlRenderer;
+import dev.jcputney.mjml.context.GlobalContext;
+import dev.jcputney.mjml.parser.MjmlDocument;
+import dev.jcputney.mjml.parser.MjmlParser;
+import dev.jcputney.mjml.util.BoundedCache;
 import java.lang.reflect.Field;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
@@ -51,4 +58,110 @@ class RenderPipelineCacheTest {
     assertTrue(
         cache.size() <= maxSize, "Registry cache should stay bounded at " + maxSize + " entries");
   }
+
+  private static final String HEAD_MJML =
+      // language=MJML
+      """
+      <mjml>
+        <mj-head>
+          <mj-title>Cached head</mj-title>
+          <mj-attributes>
+            <mj-text color="%s" />
+          </mj-attributes>
+          <mj-style>.cached { color: blue; }</mj-style>
+        </mj-head>
+        <mj-body>
+          <mj-section>
+            <mj-column>
+              <mj-text css-class="cached">Head cache test</mj-text>
+            </mj-column>
+          </mj-section>
+        </mj-body>
+      </mjml>
+      """;
+
+  private static CacheStats readHeadCacheStats() throws Exception {
+    Field cacheField = RenderPipeline.class.getDeclaredField("HEAD_CACHE");
+    cacheField.setAccessible(true);
+    return ((BoundedCache<?, ?>) cacheField.get(null)).stats();
+  }
+
+  @Test
+  void processedHeadIsReusedAcrossRenders() throws Exception {
+    String mjml = HEAD_MJML.formatted("#123456");
+    String first = MjmlRenderer.render(mjml).html();
+    long hits = readHeadCacheStats().hits();
+
+    String second = MjmlRenderer.render(mjml).html();
+
+    assertEquals(first, second);
+    assertTrue(readHeadCacheStats().hits() > hits);
+    assertTrue(second.contains("color:#123456"));
+    assertTrue(second.contains("<title>Cached head</title>"));
+  }
+
+  @Test
+  void differentHeadsAreProcessedSeparately() {
+    String red = MjmlRenderer.render(HEAD_MJML.formatted("#ff0000")).html();
+    String green = MjmlRenderer.render(HEAD_MJML.formatted("#00ff00")).html();
+
+    assertTrue(red.contains("color:#ff0000"));
+    assertFalse(red.contains("color:#00ff00"));
+    assertTrue(green.contains("color:#00ff00"));
+  }
+
+  private static CacheStats readDocumentStartCacheStats() throws Exception {
+    Field cacheField = HtmlSkeleton.class.getDeclaredField("DOCUMENT_START_CACHE");
+    cacheField.setAccessible(true);
+    return ((BoundedCache<?, ?>) cacheField.get(null)).stats();
+  }
+
+  @Test
+  void documentStartIsReusedForTheSameHead() throws Exception {
+    RenderPipeline pipeline = new RenderPipeline(MjmlConfiguration.defaults());
+    MjmlDocument template = MjmlParser.parse(HEAD_MJML.formatted("#345678")).freeze();
+    String first = pipeline.render(template).html();
+    long hits = readDocumentStartCacheStats().hits();
+
+    String second = pipeline.render(template).html();
+
+    assertEquals(first, second);
+    assertTrue(readDocumentStartCacheStats().hits() > hits);
+  }
+
+  @Test
+  void perRecipientTitleAndPreviewShareTheCachedHead() throws Exception {
+    String mjml =
+        HEAD_MJML
+            .formatted("#456789")
+            .replace(
+                "<mj-title>Cached head</mj-title>",
+                "<mj-title>Hello %s</mj-title><mj-preview>For %s</mj-preview>");
+    String ada = MjmlRenderer.render(mjml.formatted("Ada", "Ada")).html();
+    long headHits = readHeadCacheStats().hits();
+    long startHits = readDocumentStartCacheStats().hits();
+
+    String grace = MjmlRenderer.render(mjml.formatted("Grace", "Grace")).html();
+
+    assertTrue(readHeadCacheStats().hits() > headHits);
+    assertTrue(readDocumentStartCacheStats().hits() > startHits);
+    assertTrue(grace.contains("<title>Hello Grace</title>"));
+    assertTrue(grace.contains("For Grace"));
+    assertFalse(grace.contains("Ada"));
+    assertEquals(ada.replace("Ada", "Grace"), grace);
+  }
+
+  @Test
+  void documentStartWithoutCachedHeadUsesTheContext() {
+    GlobalContext context = new GlobalContext(MjmlConfiguration.builder().build());
+    context.metadata().setTitle("Uncached & fresh");
+    context.metadata().setPreviewText("Preview");
+    context.styles().addStyle(".a { color: red; }");
+
+    String start = HtmlSkeleton.documentStart(context);
+
+    assertTrue(start.contains("<title>Uncached &amp; fresh</title>"));
+    assertTrue(start.contains("color: red"));
+    assertTrue(start.endsWith("Preview</div>\n"));
+  }
 }
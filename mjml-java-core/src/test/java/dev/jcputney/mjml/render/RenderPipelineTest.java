@@ -1,6 +1,7 @@
 package dev.jcputney.mjml.render;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -9,6 +10,10 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import dev.jcputney.mjml.MjmlConfiguration;
 import dev.jcputney.mjml.MjmlRenderer;
 import dev.jcputney.mjml.MjmlValidationException;
+import dev.jcputney.mjml.css.HtmlElement;
+import dev.jcputney.mjml.css.HtmlFilter;
+import dev.jcputney.mjml.css.HtmlToken;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.Test;
 
 /** Tests for the RenderPipeline orchestration logic. */
@@ -298,4 +303,94 @@ class RenderPipelineTest {
         html.contains("A /> B"),
         "Post-processing for inlined CSS should not alter plain text content");
   }
+
+  @Test
+  void configuredHtmlFiltersSeeTheRewrittenDocument() {
+    String mjml =
+        // language=MJML
+        """
+        <mjml>
+          <mj-head>
+            <mj-style inline="inline">
+              .cta { color: #ff0000; }
+            </mj-style>
+          </mj-head>
+          <mj-body>
+            <mj-section>
+              <mj-column>
+                <mj-text css-class="cta"><a href="https://example.com">Go</a></mj-text>
+              </mj-column>
+            </mj-section>
+          </mj-body>
+        </mjml>
+        """;
+    HtmlFilter trackLinks =
+        new HtmlFilter() {
+          @Override
+          public void filter(HtmlToken token, Consumer<HtmlToken> next) {
+            HtmlElement element = token.element();
+            if (element != null && "a".equals(element.getTagName())) {
+              element.setAttribute("data-tracked", "true");
+            }
+            next.accept(token);
+          }
+
+          @Override
+          public boolean usesElements() {
+            return true;
+          }
+        };
+    MjmlConfiguration config = MjmlConfiguration.builder().addHtmlFilter(() -> trackLinks).build();
+
+    String html = render(mjml, config);
+    assertTrue(html.contains("<a href=\"https://example.com\" data-tracked=\"true\">Go</a>"));
+    assertTrue(html.contains("color:#ff0000") || html.contains("color: #ff0000"));
+    assertEquals(render(mjml), html.replace(" data-tracked=\"true\"", ""));
+  }
+
+  @Test
+  void configuredHtmlFilterChangesSurviveSerializationAfterInlining() {
+    String mjml =
+        // language=MJML
+        """
+        <mjml>
+          <mj-head>
+            <mj-style inline="inline">
+              .hero img { border: 0; }
+            </mj-style>
+          </mj-head>
+          <mj-body>
+            <mj-section>
+              <mj-column>
+                <mj-image css-class="hero" src="https://example.com/a.png" alt="" />
+              </mj-column>
+            </mj-section>
+          </mj-body>
+        </mjml>
+        """;
+    HtmlFilter trackImages =
+        new HtmlFilter() {
+          @Override
+          public void filter(HtmlToken token, Consumer<HtmlToken> next) {
+            HtmlElement element = token.element();
+            if (element != null && "img".equals(element.getTagName())) {
+              element.setAttribute("data-tracked", "true");
+            }
+            next.accept(token);
+          }
+
+          @Override
+          public boolean usesElements() {
+            return true;
+          }
+        };
+    MjmlConfiguration config = MjmlConfiguration.builder().addHtmlFilter(() -> trackImages).build();
+
+    String html = render(mjml, config);
+    int img = html.indexOf("<img");
+    String tag = html.substring(img, html.indexOf('>', img) + 1);
+    assertTrue(tag.contains("data-tracked=\"true\""), tag);
+    assertFalse(tag.contains("/>"), "Tags should still be serialized as cheerio writes them");
+    assertEquals(render(mjml), html.replace(" data-tracked=\"true\"", ""));
+  }
 }
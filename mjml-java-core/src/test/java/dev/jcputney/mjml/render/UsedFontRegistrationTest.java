@@ -6,10 +6,10 @@ import dev.jcputney.mjml.MjmlRenderer;
 import org.junit.jupiter.api.Test;
 
 /**
- * Tests for the FontScanner class that auto-registers default fonts. FontScanner is
- * package-private, so we test it indirectly through the render pipeline.
+ * Tests for the auto-registration of default fonts, which body components perform as they are
+ * created during rendering. Tested through the render pipeline.
  */
-class FontScannerTest {
+class UsedFontRegistrationTest {
 
   private String render(String mjml) {
     String html = MjmlRenderer.render(mjml).html();
@@ -46,7 +46,7 @@ class FontScannerTest {
 
   @Test
   void handlesNullBodyGracefully() {
-    // A document with only a head and no body should not crash the font scanner
+    // A document with only a head and no body should not crash font registration
     String html =
         render(
             // language=MJML
@@ -86,7 +86,7 @@ class FontScannerTest {
 
   @Test
   void handlesUnknownTagWithoutCrashing() {
-    // If there's an unknown tag in the tree, the FontScanner should handle it gracefully
+    // If there's an unknown tag in the tree, font registration should handle it gracefully
     // (the registry.createComponent returns null for unknown tags)
     assertDoesNotThrow(
         () ->
@@ -107,7 +107,7 @@ class FontScannerTest {
 
   @Test
   void skipsHashTagNames() {
-    // #text and #comment nodes should be skipped by the scanner
+    // #text and #comment nodes should be skipped when creating components
     // This is tested indirectly - if they weren't skipped, we'd get errors
     // trying to create components for "#text" tags
     String html =
@@ -132,7 +132,7 @@ class FontScannerTest {
   @Test
   void cachingDoesNotAffectResults() {
     // Rendering the same template twice should produce the same font registration
-    // (tests that the defaultsCache works correctly)
+    // (tests that per-render font state does not leak between renders)
     String mjml =
         // language=MJML
         """
@@ -155,4 +155,35 @@ class FontScannerTest {
     assertEquals(
         hasLato1, hasLato2, "Both renders should produce the same font registration result");
   }
+
+  @Test
+  void registersFontsInDocumentOrder() {
+    String html =
+        render(
+            // language=MJML
+            """
+        <mjml>
+          <mj-head>
+            <mj-attributes>
+              <mj-class name="lato" font-family="Lato, sans-serif" />
+            </mj-attributes>
+          </mj-head>
+          <mj-body>
+            <mj-section>
+              <mj-column>
+                <mj-text font-family="Roboto, sans-serif">First</mj-text>
+                <mj-text mj-class="lato">Second</mj-text>
+                <mj-button font-family="Roboto, sans-serif">Again</mj-button>
+              </mj-column>
+            </mj-section>
+          </mj-body>
+        </mjml>
+        """);
+
+    int roboto = html.indexOf("family=Roboto");
+    int lato = html.indexOf("family=Lato");
+    assertTrue(roboto > 0 && lato > roboto, "Fonts should be linked in order of first use");
+    String link = "<link href=\"https://fonts.googleapis.com/css?family=Roboto";
+    assertEquals(html.indexOf(link), html.lastIndexOf(link), "Each font is linked once");
+  }
 }
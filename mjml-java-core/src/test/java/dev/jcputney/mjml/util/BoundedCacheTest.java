@@ -0,0 +1,71 @@
+package dev.jcputney.mjml.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import dev.jcputney.mjml.CacheStats;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class BoundedCacheTest {
+
+  @Test
+  void computesEachKeyOnceAndCountsHits() {
+    BoundedCache<String, String> cache = new BoundedCache<>(8);
+    AtomicInteger loads = new AtomicInteger();
+
+    String first = cache.get("a", key -> key + loads.incrementAndGet());
+    String second = cache.get("a", key -> key + loads.incrementAndGet());
+
+    assertSame(first, second);
+    assertEquals(1, loads.get());
+    assertEquals(new CacheStats(1, 1, 1, 8), cache.stats());
+    assertEquals(0.5, cache.stats().hitRate());
+  }
+
+  @Test
+  void staysWithinMaxSize() {
+    BoundedCache<Integer, Integer> cache = new BoundedCache<>(4);
+    for (int i = 0; i < 100; i++) {
+      cache.get(i, key -> key * 2);
+    }
+    assertEquals(4, cache.stats().size());
+    assertEquals(100, cache.stats().misses());
+  }
+
+  @Test
+  void keepsTheNewestEntryWhenEvicting() {
+    BoundedCache<Integer, Integer> cache = new BoundedCache<>(2);
+    for (int i = 0; i < 50; i++) {
+      cache.get(i, key -> key);
+      long hits = cache.stats().hits();
+      cache.get(i, key -> key);
+      assertEquals(hits + 1, cache.stats().hits());
+    }
+  }
+
+  @Test
+  void doesNotCacheNullValues() {
+    BoundedCache<String, String> cache = new BoundedCache<>(4);
+    assertNull(cache.get("x", key -> null));
+    assertNull(cache.get("x", key -> null));
+    assertEquals(new CacheStats(0, 2, 0, 4), cache.stats());
+  }
+
+  @Test
+  void clearResetsEntriesAndStatistics() {
+    BoundedCache<String, String> cache = new BoundedCache<>(4);
+    cache.get("a", key -> key);
+    cache.get("a", key -> key);
+    cache.clear();
+    assertEquals(new CacheStats(0, 0, 0, 4), cache.stats());
+    assertEquals(0, cache.stats().hitRate());
+  }
+
+  @Test
+  void rejectsNonPositiveMaxSize() {
+    assertThrows(IllegalArgumentException.class, () -> new BoundedCache<>(0));
+  }
+}
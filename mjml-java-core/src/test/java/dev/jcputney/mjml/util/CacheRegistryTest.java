@@ -0,0 +1,76 @@
+package dev.jcputney.mjml.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.jcputney.mjml.CacheStats;
+import dev.jcputney.mjml.MjmlRenderer;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class CacheRegistryTest {
+
+  private static final String MJML =
+      // language=MJML
+      """
+      <mjml>
+        <mj-body>
+          <mj-section padding="12px 24px" background-url="https://example.com/bg.png">
+            <mj-column width="40%"><mj-text>a</mj-text></mj-column>
+            <mj-column><mj-text>b</mj-text></mj-column>
+          </mj-section>
+        </mj-body>
+      </mjml>
+      """;
+
+  @Test
+  void reportsRegisteredCachesByName() {
+    BoundedCache<String, String> cache = CacheRegistry.register("test.registry", 4);
+    cache.get("a", key -> key);
+    cache.get("a", key -> key);
+
+    assertEquals(new CacheStats(1, 1, 1, 4), CacheRegistry.stats().get("test.registry"));
+    assertThrows(IllegalStateException.class, () -> CacheRegistry.register("test.registry", 4));
+  }
+
+  @Test
+  void layoutComputationsAreCachedAcrossRenders() {
+    assertNotNull(MjmlRenderer.cacheStats().get("layout.shorthands"));
+    MjmlRenderer.render(MJML);
+    Map<String, CacheStats> before = MjmlRenderer.cacheStats();
+    MjmlRenderer.render(MJML);
+    Map<String, CacheStats> after = MjmlRenderer.cacheStats();
+
+    for (String name :
+        new String[] {
+          "layout.box-models",
+          "layout.column-widths",
+          "layout.column-width-specs",
+          "layout.background-positions",
+          "layout.backgrounds"
+        }) {
+      assertNotNull(after.get(name), name);
+      assertTrue(after.get(name).hits() > before.get(name).hits(), name);
+    }
+  }
+
+  @Test
+  void inlineStylesheetsAreCachedAcrossRenders() {
+    String mjml =
+        """
+        <mjml>
+          <mj-head><mj-style inline="inline">.cache-registry-test { color: red; }</mj-style></mj-head>
+          <mj-body><mj-section><mj-column><mj-text>a</mj-text></mj-column></mj-section></mj-body>
+        </mjml>
+        """;
+    MjmlRenderer.render(mjml);
+    CacheStats before = MjmlRenderer.cacheStats().get("render.stylesheets");
+    MjmlRenderer.render(mjml);
+    CacheStats after = MjmlRenderer.cacheStats().get("render.stylesheets");
+
+    assertNotNull(before);
+    assertTrue(after.hits() > before.hits());
+  }
+}
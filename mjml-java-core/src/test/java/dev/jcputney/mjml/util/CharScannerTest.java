@@ -0,0 +1,44 @@
+package dev.jcputney.mjml.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CharScannerTest {
+
+  private static final long SPECIALS = CharScanner.mask('&', '<', '>');
+
+  @Test
+  void findsAnyCharacterOfTheSet() {
+    assertEquals(5, CharScanner.indexOfAny("plain<b>", 0, 8, SPECIALS));
+    assertEquals(7, CharScanner.indexOfAny("plain<b>", 6, 8, SPECIALS));
+    assertEquals(-1, CharScanner.indexOfAny("plain<b>", 0, 5, SPECIALS));
+    assertEquals(-1, CharScanner.indexOfAny("ĦļĀ ~", 0, 5, SPECIALS));
+  }
+
+  @Test
+  void testsMembershipBelowSixtyFour() {
+    assertTrue(CharScanner.isAny('&', SPECIALS));
+    assertFalse(CharScanner.isAny('"', SPECIALS));
+    assertFalse(CharScanner.isAny((char) ('&' + 64), SPECIALS));
+    assertThrows(IllegalArgumentException.class, () -> CharScanner.mask('a'));
+  }
+
+  @Test
+  void findsControlCharacters() {
+    assertEquals(3, CharScanner.indexOfControl("abc\tdef", 0));
+    assertEquals(2, CharScanner.indexOfControl("ab\u007f", 0));
+    assertEquals(-1, CharScanner.indexOfControl("abc\tdef", 4));
+  }
+
+  @Test
+  void findsNeedlesIgnoringCase() {
+    assertEquals(3, CharScanner.indexOfIgnoreCase("<p><STYLE>", "<style", 0));
+    assertEquals(-1, CharScanner.indexOfIgnoreCase("<p><STYLE>", "<style", 4));
+    assertEquals(-1, CharScanner.indexOfIgnoreCase("<p><styl", "<style", 0));
+    assertEquals(0, CharScanner.indexOfIgnoreCase("</Script >", "</script", 0));
+  }
+}
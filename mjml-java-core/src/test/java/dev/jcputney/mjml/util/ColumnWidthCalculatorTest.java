@@ -88,4 +88,32 @@ class ColumnWidthCalculatorTest {
     assertEquals("75", specs[0]);
     assertEquals("150px", specs[1]);
   }
+
+  @Test
+  void cachedWidthsCannotBeChangedByCallers() {
+    MjmlNode col1 = new MjmlNode("mj-column");
+    col1.setAttribute("width", "123px");
+    MjmlNode col2 = new MjmlNode("mj-column");
+
+    double[] first = ColumnWidthCalculator.calculatePixelWidths(List.of(col1, col2), 500, false);
+    first[0] = -1;
+    String[] specs = ColumnWidthCalculator.calculateWidthSpecs(List.of(col1, col2));
+    specs[0] = "changed";
+
+    assertArrayEquals(
+        new double[] {123, 377},
+        ColumnWidthCalculator.calculatePixelWidths(List.of(col1, col2), 500, false));
+    assertArrayEquals(
+        new String[] {"123px", "50"},
+        ColumnWidthCalculator.calculateWidthSpecs(List.of(col1, col2)));
+  }
+
+  @Test
+  void widthsDependOnContainerWidth() {
+    MjmlNode col = new MjmlNode("mj-column");
+    col.setAttribute("width", "50%");
+
+    assertEquals(300.0, ColumnWidthCalculator.calculatePixelWidths(List.of(col), 600, true)[0]);
+    assertEquals(200.0, ColumnWidthCalculator.calculatePixelWidths(List.of(col), 400, true)[0]);
+  }
 }
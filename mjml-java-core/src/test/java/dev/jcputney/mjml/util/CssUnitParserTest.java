@@ -105,4 +105,71 @@ class CssUnitParserTest {
     double[] pad = CssUnitParser.parseShorthand("10px 20px 30px 40px");
     assertEquals(60.0, pad[1] + pad[3]);
   }
+
+  @Test
+  void parsesNumbersExactlyAsDoubleParseDouble() {
+    for (String number :
+        new String[] {
+          "0",
+          "-0",
+          "7",
+          "12.5",
+          "0.1",
+          "-3.75",
+          ".5",
+          "5.",
+          "123456789012345",
+          "0.333333333333333",
+          "1234567890123456789",
+          "1e3",
+          "+4",
+          "NaN",
+          "Infinity",
+          "0x10p0",
+          "10d"
+        }) {
+      assertEquals(Double.parseDouble(number), CssUnitParser.toPixels(number, 600), number);
+      assertEquals(Double.parseDouble(number), CssUnitParser.parsePx(number + "px", -1), number);
+    }
+    assertEquals(0.0, CssUnitParser.toPixels("12px34", 600));
+    assertEquals(-1.0, CssUnitParser.parsePx(".", -1));
+    assertEquals(12.0, CssUnitParser.toPixels(" 12 px ", 600));
+    assertEquals(0.0, CssUnitParser.toPixels("50em", 600));
+  }
+
+  @Test
+  void parsesShorthandIntoCallersArray() {
+    double[] result = new double[4];
+    CssUnitParser.parseShorthand(" 1px\t2.5px\n3 ", result);
+    assertArrayEquals(new double[] {1, 2.5, 3, 2.5}, result);
+    CssUnitParser.parseShorthand("1px 2px 3px 4px 5px", result);
+    assertArrayEquals(new double[] {1, 2, 3, 4}, result);
+    CssUnitParser.parseShorthand("  ", result);
+    assertArrayEquals(new double[] {0, 0, 0, 0}, result);
+    CssUnitParser.parseShorthand("auto 10px", result);
+    assertArrayEquals(new double[] {0, 10, 0, 10}, result);
+  }
+
+  @Test
+  void parseIntPxAcceptsOnlyPlainCssNumbers() {
+    assertEquals(10, CssUnitParser.parseIntPx(" 10.9px "));
+    assertEquals(-4, CssUnitParser.parseIntPx("-4"));
+    assertEquals(50, CssUnitParser.parseIntPx("50%"));
+    assertEquals(2, CssUnitParser.parseIntPx("2rem"));
+    assertEquals(0, CssUnitParser.parseIntPx("12px34"));
+    assertEquals(0, CssUnitParser.parseIntPx("abc123xyz"));
+    assertEquals(0, CssUnitParser.parseIntPx("10 px"));
+    assertEquals(0, CssUnitParser.parseIntPx("10."));
+    assertEquals(0, CssUnitParser.parseIntPx("+10"));
+  }
+
+  @Test
+  void parsePixelsReadsIntegers() {
+    assertEquals(600, CssUnitParser.parsePixels("600px", 0));
+    assertEquals(600, CssUnitParser.parsePixels(" 600 px ", 0));
+    assertEquals(-5, CssUnitParser.parsePixels("-5px", 0));
+    assertEquals(600, CssUnitParser.parsePixels("6px00", 0));
+    assertEquals(7, CssUnitParser.parsePixels("12.5px", 7));
+    assertEquals(7, CssUnitParser.parsePixels("9999999999", 7));
+  }
 }
@@ -59,4 +59,11 @@ class HtmlEscaperTest {
         "&quot;&gt;&lt;script&gt;alert(1)&lt;/script&gt;",
         HtmlEscaper.escapeAttributeValue("\"><script>alert(1)</script>"));
   }
+
+  @Test
+  void escapesEverySpecialCharacterBetweenCleanRuns() {
+    assertEquals(
+        "&lt;a title=&quot;it&#39;s&quot;&gt;x &amp;&amp; y",
+        HtmlEscaper.escapeAttributeValue("<a title=\"it's\">x && y"));
+  }
 }
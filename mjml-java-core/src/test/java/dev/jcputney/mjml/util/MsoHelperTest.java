@@ -40,6 +40,21 @@ class MsoHelperTest {
     assertFalse(result.contains("bgcolor"));
   }
 
+  @Test
+  void appendMsoTableOpeningWritesTheSameMarkupIntoTheBuffer() {
+    StringBuilder sb = new StringBuilder("<!--[if mso | IE]>");
+    MsoHelper.appendMsoTableOpening(sb, 600, "my-class", "#ffffff", MsoHelper.MSO_TD_STYLE);
+    assertEquals(
+        "<!--[if mso | IE]><table align=\"center\" border=\"0\" cellpadding=\"0\""
+            + " cellspacing=\"0\" class=\"my-class-outlook\" role=\"presentation\""
+            + " style=\"width:600px;\" width=\"600\" bgcolor=\"#ffffff\" ><tr><td"
+            + " style=\"line-height:0px;font-size:0px;mso-line-height-rule:exactly;\">",
+        sb.toString());
+    assertEquals(
+        sb.substring("<!--[if mso | IE]>".length()),
+        MsoHelper.msoTableOpening(600, "my-class", "#ffffff", MsoHelper.MSO_TD_STYLE));
+  }
+
   @Test
   void msoTableClosing() {
     assertEquals("</td></tr></table>", MsoHelper.msoTableClosing());
@@ -0,0 +1,177 @@
+package dev.jcputney.mjml.maven;
+
+import dev.jcputney.mjml.MjmlConfiguration;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Shared template scanning, compilation, and error reporting for the plugin's goals. Subclasses
+ * choose the output kind and register the output directory with the project.
+ */
+abstract class AbstractMjmlMojo extends AbstractMojo {
+
+  /** Directory scanned for {@code .mjml} templates. Includes are resolved relative to it. */
+  @Parameter(defaultValue = "${project.basedir}/src/main/mjml", required = true)
+  File sourceDirectory;
+
+  /** Glob patterns, relative to the source directory, of templates to process. */
+  @Parameter List<String> includes = new ArrayList<>(List.of("**.mjml"));
+
+  /** Glob patterns of files to skip. By default, partials whose name starts with {@code _}. */
+  @Parameter List<String> excludes = new ArrayList<>(List.of("**/_*.mjml", "_*.mjml"));
+
+  /** Language code for the rendered HTML document. */
+  @Parameter(defaultValue = "und")
+  String language;
+
+  /** Text direction for the rendered HTML document ({@code ltr}, {@code rtl}, {@code auto}). */
+  @Parameter(defaultValue = "auto")
+  String direction;
+
+  /**
+   * Version of the included partials that precompiled templates are keyed by. Renderers loading
+   * them must set the same {@code compiledTemplateVersion} and configure an include resolver.
+   */
+  @Parameter(property = "mjml.compiledTemplateVersion")
+  String compiledTemplateVersion;
+
+  /** Number of worker threads; {@code 0} uses one per available processor. */
+  @Parameter(property = "mjml.threads", defaultValue = "0")
+  int threads;
+
+  /** Skips the goal. */
+  @Parameter(property = "mjml.skip", defaultValue = "false")
+  boolean skip;
+
+  @Parameter(defaultValue = "${project}", readonly = true, required = true)
+  MavenProject project;
+
+  /** Returns the directory receiving the generated files. */
+  abstract File outputDirectory();
+
+  /** Returns the incremental build state file. */
+  abstract File stateFile();
+
+  /** Returns the kind of output to generate. */
+  abstract OutputFormat outputFormat();
+
+  /** Returns the resource prefix or base package passed to {@link TemplateCompiler}. */
+  abstract String prefix();
+
+  /** Registers the output directory with the project once generation succeeded. */
+  abstract void addOutput(MavenProject project);
+
+  @Override
+  public void execute() throws MojoExecutionException, MojoFailureException {
+    if (skip) {
+      getLog().info("Skipping MJML generation");
+      return;
+    }
+    Path source = sourceDirectory.toPath();
+    if (!Files.isDirectory(source)) {
+      getLog().info("No MJML source directory at " + source + ", skipping");
+      return;
+    }
+
+    List<Path> templates;
+    try {
+      templates = findTemplates(source);
+    } catch (IOException e) {
+      throw new MojoExecutionException("Failed to scan " + source, e);
+    }
+
+    MjmlConfiguration.Builder configuration =
+        MjmlConfiguration.builder()
+            .language(language)
+            .direction(direction)
+            .compiledTemplateVersion(
+                compiledTemplateVersion != null ? compiledTemplateVersion : "");
+    TemplateCompiler compiler =
+        new TemplateCompiler(
+            source,
+            outputDirectory().toPath(),
+            stateFile().toPath(),
+            outputFormat(),
+            prefix(),
+            configuration,
+            threads);
+
+    TemplateCompiler.Result result;
+    try {
+      result = compiler.compile(templates);
+    } catch (IOException e) {
+      throw new MojoExecutionException("Failed to generate MJML output", e);
+    }
+
+    getLog()
+        .info(
+            "MJML: "
+                + result.compiled().size()
+                + " template(s) generated, "
+                + result.skipped().size()
+                + " up to date");
+    if (!result.failures().isEmpty()) {
+      StringBuilder message = new StringBuilder();
+      message.append(result.failures().size()).append(" MJML template(s) failed:");
+      for (Map.Entry<String, String> failure : result.failures().entrySet()) {
+        getLog().error(failure.getKey() + ": " + failure.getValue());
+        message.append("\n  ").append(failure.getKey()).append(": ").append(failure.getValue());
+      }
+      throw new MojoFailureException(message.toString());
+    }
+
+    if (project != null) {
+      addOutput(project);
+    }
+  }
+
+  private List<Path> findTemplates(Path source) throws IOException {
+    FileSystem fs = source.getFileSystem();
+    List<PathMatcher> includeMatchers = matchers(fs, includes);
+    List<PathMatcher> excludeMatchers = matchers(fs, excludes);
+    try (Stream<Path> files = Files.walk(source)) {
+      return files
+          .filter(Files::isRegularFile)
+          .filter(
+              file -> {
+                Path relative = source.relativize(file);
+                return matchesAny(includeMatchers, relative)
+                    && !matchesAny(excludeMatchers, relative);
+              })
+          .sorted()
+          .toList();
+    }
+  }
+
+  private static List<PathMatcher> matchers(FileSystem fs, List<String> globs) {
+    List<PathMatcher> matchers = new ArrayList<>();
+    if (globs != null) {
+      for (String glob : globs) {
+        matchers.add(fs.getPathMatcher("glob:" + glob));
+      }
+    }
+    return matchers;
+  }
+
+  private static boolean matchesAny(List<PathMatcher> matchers, Path path) {
+    for (PathMatcher matcher : matchers) {
+      if (matcher.matches(path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
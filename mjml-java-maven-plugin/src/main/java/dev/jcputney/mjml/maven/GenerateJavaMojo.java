@@ -0,0 +1,80 @@
+package dev.jcputney.mjml.maven;
+
+import java.io.File;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Generates a Java emitter class for every MJML template under a source directory, using {@link
+ * dev.jcputney.mjml.codegen.TemplateClassGenerator}. The generated classes build the final HTML
+ * from string constants and {@code {{placeholder}}} parameters, with no MJML parsing or rendering
+ * at runtime.
+ *
+ * <p>Class names are derived from file names ({@code order-shipped.mjml} becomes {@code
+ * OrderShipped}) and subdirectories become sub-packages of {@link #packageName}. The output
+ * directory is added as a compile source root.
+ *
+ * <h2>Usage</h2>
+ *
+ * <pre>{@code
+ * <plugin>
+ *   <groupId>dev.jcputney</groupId>
+ *   <artifactId>mjml-java-maven-plugin</artifactId>
+ *   <executions>
+ *     <execution>
+ *       <goals><goal>generate-java</goal></goals>
+ *       <configuration>
+ *         <packageName>com.example.mail</packageName>
+ *       </configuration>
+ *     </execution>
+ *   </executions>
+ * </plugin>
+ * }</pre>
+ */
+@Mojo(name = "generate-java", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true)
+public class GenerateJavaMojo extends AbstractMjmlMojo {
+
+  /** Directory receiving the generated sources; added as a compile source root. */
+  @Parameter(defaultValue = "${project.build.directory}/generated-sources/mjml", required = true)
+  File outputDirectory;
+
+  /** File recording input fingerprints for incremental builds. */
+  @Parameter(
+      defaultValue = "${project.build.directory}/mjml-java-maven-plugin/java-state.properties",
+      required = true)
+  File stateFile;
+
+  /** Base package of the generated classes. */
+  @Parameter(required = true)
+  String packageName;
+
+  /** Creates a new {@code GenerateJavaMojo}. */
+  public GenerateJavaMojo() {}
+
+  @Override
+  File outputDirectory() {
+    return outputDirectory;
+  }
+
+  @Override
+  File stateFile() {
+    return stateFile;
+  }
+
+  @Override
+  OutputFormat outputFormat() {
+    return OutputFormat.JAVA;
+  }
+
+  @Override
+  String prefix() {
+    return packageName;
+  }
+
+  @Override
+  void addOutput(MavenProject project) {
+    project.addCompileSourceRoot(outputDirectory.getAbsolutePath());
+  }
+}
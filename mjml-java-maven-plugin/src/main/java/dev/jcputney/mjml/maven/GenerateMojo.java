@@ -0,0 +1,91 @@
+package dev.jcputney.mjml.maven;
+
+import java.io.File;
+import org.apache.maven.model.Resource;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Renders (or precompiles) every MJML template under a source directory at build time, so that
+ * static templates need no MJML work at runtime.
+ *
+ * <p>Templates are processed in parallel. Unchanged templates are skipped based on a hash of their
+ * source, their includes, and the plugin settings. Any parse or render error fails the build. The
+ * output directory is added to the project's resources so the results end up on the classpath.
+ *
+ * <h2>Usage</h2>
+ *
+ * <pre>{@code
+ * <plugin>
+ *   <groupId>dev.jcputney</groupId>
+ *   <artifactId>mjml-java-maven-plugin</artifactId>
+ *   <executions>
+ *     <execution>
+ *       <goals><goal>generate</goal></goals>
+ *     </execution>
+ *   </executions>
+ * </plugin>
+ * }</pre>
+ */
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_RESOURCES, threadSafe = true)
+public class GenerateMojo extends AbstractMjmlMojo {
+
+  /** Directory receiving the generated files; added to the project's resources. */
+  @Parameter(defaultValue = "${project.build.directory}/generated-resources/mjml", required = true)
+  File outputDirectory;
+
+  /** File recording input fingerprints for incremental builds. */
+  @Parameter(
+      defaultValue = "${project.build.directory}/mjml-java-maven-plugin/state.properties",
+      required = true)
+  File stateFile;
+
+  /** Output kind: {@code HTML} (rendered HTML) or {@code COMPILED} (binary compiled templates). */
+  @Parameter(property = "mjml.outputFormat", defaultValue = "HTML")
+  OutputFormat outputFormat;
+
+  /**
+   * Resource directory, relative to the output directory, for {@code COMPILED} output. Pass the
+   * same value to {@link dev.jcputney.mjml.ClasspathCompiledTemplateStore} at runtime.
+   */
+  @Parameter(defaultValue = "mjml-compiled")
+  String compiledPrefix;
+
+  /** Whether to add the output directory to the project's resources. */
+  @Parameter(defaultValue = "true")
+  boolean addResources;
+
+  /** Creates a new {@code GenerateMojo}. */
+  public GenerateMojo() {}
+
+  @Override
+  File outputDirectory() {
+    return outputDirectory;
+  }
+
+  @Override
+  File stateFile() {
+    return stateFile;
+  }
+
+  @Override
+  OutputFormat outputFormat() {
+    return outputFormat;
+  }
+
+  @Override
+  String prefix() {
+    return compiledPrefix;
+  }
+
+  @Override
+  void addOutput(MavenProject project) {
+    if (addResources) {
+      Resource resource = new Resource();
+      resource.setDirectory(outputDirectory.getAbsolutePath());
+      project.addResource(resource);
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package dev.jcputney.mjml.maven;
+
+/** What the plugin produces for each MJML template. */
+public enum OutputFormat {
+
+  /**
+   * Fully rendered HTML, written next to the template's relative path with an {@code .html}
+   * extension.
+   */
+  HTML,
+
+  /**
+   * Include-expanded binary compiled templates, written as {@code <prefix>/<key>.mjmlc} for loading
+   * with {@link dev.jcputney.mjml.ClasspathCompiledTemplateStore}.
+   */
+  COMPILED,
+
+  /**
+   * Java emitter classes generated with {@link dev.jcputney.mjml.codegen.TemplateClassGenerator},
+   * one per template, for the compile source root.
+   */
+  JAVA
+}
@@ -0,0 +1,395 @@
+package dev.jcputney.mjml.maven;
+
+import dev.jcputney.mjml.FileSystemIncludeResolver;
+import dev.jcputney.mjml.IncludeResolver;
+import dev.jcputney.mjml.MjmlConfiguration;
+import dev.jcputney.mjml.ResolverContext;
+import dev.jcputney.mjml.codegen.TemplateClassGenerator;
+import dev.jcputney.mjml.parser.CompiledTemplateCodec;
+import dev.jcputney.mjml.render.RenderPipeline;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Renders or precompiles a set of MJML templates in parallel, skipping templates whose source,
+ * includes, and settings are unchanged since the last run.
+ *
+ * <p>Up-to-date checks use a state file that maps each template's relative path to a SHA-256
+ * fingerprint over the compiler settings, the template source, and the content of every file it
+ * included, together with the list of those includes. The state file also records each template's
+ * output file, so outputs left behind by a template that was removed, or whose output moved (a
+ * precompiled template is named by its content key), are deleted.
+ */
+final class TemplateCompiler {
+
+  private static final String FINGERPRINT_SUFFIX = ".fingerprint";
+  private static final String INCLUDES_SUFFIX = ".includes";
+  private static final String OUTPUT_SUFFIX = ".output";
+
+  private final Path sourceDirectory;
+  private final Path outputDirectory;
+  private final Path stateFile;
+  private final OutputFormat format;
+  private final String prefix;
+  private final int threads;
+  private final RecordingIncludeResolver includeResolver;
+  private final MjmlConfiguration configuration;
+  private final RenderPipeline pipeline;
+  private final String settingsFingerprint;
+
+  /**
+   * Creates a compiler.
+   *
+   * @param sourceDirectory the template root; includes are resolved relative to it
+   * @param outputDirectory the directory receiving generated files
+   * @param stateFile the incremental build state file
+   * @param format what to generate
+   * @param prefix the resource directory for {@link OutputFormat#COMPILED} output, or the base
+   *     package for {@link OutputFormat#JAVA} output; ignored for {@link OutputFormat#HTML}
+   * @param configuration the rendering configuration (its include resolver is replaced)
+   * @param threads the number of worker threads, or {@code 0} for one per processor
+   */
+  TemplateCompiler(
+      Path sourceDirectory,
+      Path outputDirectory,
+      Path stateFile,
+      OutputFormat format,
+      String prefix,
+      MjmlConfiguration.Builder configuration,
+      int threads) {
+    this.sourceDirectory = sourceDirectory.toAbsolutePath().normalize();
+    this.outputDirectory = outputDirectory.toAbsolutePath().normalize();
+    this.stateFile = stateFile;
+    this.format = format;
+    this.prefix = prefix;
+    this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    this.includeResolver =
+        new RecordingIncludeResolver(new FileSystemIncludeResolver(this.sourceDirectory));
+    MjmlConfiguration config = configuration.includeResolver(includeResolver).build();
+    this.configuration = config;
+    this.pipeline = new RenderPipeline(config);
+    this.settingsFingerprint =
+        format
+            + "|"
+            + prefix
+            + "|"
+            + CompiledTemplateCodec.FORMAT_VERSION
+            + "|"
+            + config.getLanguage()
+            + "|"
+            + config.getDirection()
+            + "|"
+            + config.isSanitizeOutput();
+  }
+
+  /**
+   * Compiles every template that is out of date and updates the state file.
+   *
+   * @param templates absolute paths of templates below the source directory
+   * @return the outcome, including per-template failures
+   * @throws IOException if the state file cannot be read or written
+   */
+  Result compile(List<Path> templates) throws IOException {
+    Properties previous = loadState();
+    Properties next = new Properties();
+    Map<String, String> failures = new TreeMap<>();
+    List<String> compiled = new ArrayList<>();
+    List<String> skipped = new ArrayList<>();
+
+    ExecutorService executor =
+        Executors.newFixedThreadPool(Math.min(threads, templates.size() + 1));
+    try {
+      List<Future<Outcome>> futures = new ArrayList<>();
+      for (Path template : templates) {
+        futures.add(executor.submit(() -> compileIfStale(template, previous)));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        String relative = relativize(templates.get(i));
+        try {
+          Outcome outcome = futures.get(i).get();
+          if (outcome.fingerprint() != null) {
+            next.setProperty(relative + FINGERPRINT_SUFFIX, outcome.fingerprint());
+            next.setProperty(relative + INCLUDES_SUFFIX, String.join("\n", outcome.includes()));
+          }
+          next.setProperty(relative + OUTPUT_SUFFIX, outcome.output());
+          (outcome.skipped() ? skipped : compiled).add(relative);
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          failures.put(
+              relative, cause.getMessage() != null ? cause.getMessage() : cause.toString());
+          // Keep tracking the output of a failed template so a later run can still remove it
+          String previousOutput = previous.getProperty(relative + OUTPUT_SUFFIX);
+          if (previousOutput != null) {
+            next.setProperty(relative + OUTPUT_SUFFIX, previousOutput);
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while compiling MJML templates", e);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    deleteStaleOutputs(previous, next);
+    saveState(next);
+    return new Result(compiled, skipped, failures);
+  }
+
+  /**
+   * Deletes the outputs recorded in the previous state that no template produces any more. Two
+   * templates with the same source share a precompiled output, so an output is only deleted when no
+   * current template records it.
+   */
+  private void deleteStaleOutputs(Properties previous, Properties next) throws IOException {
+    Set<String> current = new HashSet<>();
+    for (String name : next.stringPropertyNames()) {
+      if (name.endsWith(OUTPUT_SUFFIX)) {
+        current.add(next.getProperty(name));
+      }
+    }
+    for (String name : previous.stringPropertyNames()) {
+      String output = previous.getProperty(name);
+      if (name.endsWith(OUTPUT_SUFFIX) && !current.contains(output)) {
+        Path file = outputDirectory.resolve(output).normalize();
+        if (file.startsWith(outputDirectory)) {
+          Files.deleteIfExists(file);
+        }
+      }
+    }
+  }
+
+  private Outcome compileIfStale(Path template, Properties previous) throws IOException {
+    String relative = relativize(template);
+    String source = Files.readString(template, StandardCharsets.UTF_8);
+
+    Path output = outputFor(relative, source);
+    String oldFingerprint = previous.getProperty(relative + FINGERPRINT_SUFFIX);
+    String oldIncludes = previous.getProperty(relative + INCLUDES_SUFFIX);
+    if (oldFingerprint != null && oldIncludes != null) {
+      List<String> includes = oldIncludes.isEmpty() ? List.of() : List.of(oldIncludes.split("\n"));
+      String current = fingerprint(source, includes);
+      if (current != null && current.equals(oldFingerprint) && Files.exists(output)) {
+        return new Outcome(current, includes, outputName(output), true);
+      }
+    }
+
+    Set<String> includes = new TreeSet<>();
+    includeResolver.start(includes);
+    try {
+      Files.createDirectories(output.getParent());
+      switch (format) {
+        case HTML ->
+            Files.writeString(output, pipeline.render(source).html(), StandardCharsets.UTF_8);
+        case COMPILED ->
+            Files.write(output, CompiledTemplateCodec.encode(pipeline.compile(source)));
+        case JAVA -> {
+          JavaName name = javaName(relative);
+          String java =
+              TemplateClassGenerator.builder()
+                  .packageName(name.packageName())
+                  .className(name.className())
+                  .configuration(configuration)
+                  .build()
+                  .generate(source);
+          Files.writeString(output, java, StandardCharsets.UTF_8);
+        }
+      }
+    } finally {
+      includeResolver.stop();
+    }
+    List<String> includeList = List.copyOf(includes);
+    return new Outcome(fingerprint(source, includeList), includeList, outputName(output), false);
+  }
+
+  /** Returns the output path relative to the output directory, as recorded in the state file. */
+  private String outputName(Path output) {
+    return outputDirectory.relativize(output).toString().replace('\\', '/');
+  }
+
+  private Path outputFor(String relative, String source) {
+    if (format == OutputFormat.COMPILED) {
+      return outputDirectory
+          .resolve(prefix)
+          .resolve(CompiledTemplateCodec.key(source, configuration) + ".mjmlc");
+    }
+    if (format == OutputFormat.JAVA) {
+      JavaName name = javaName(relative);
+      String dir = name.packageName().replace('.', '/');
+      return outputDirectory.resolve(dir).resolve(name.className() + ".java");
+    }
+    String base =
+        relative.endsWith(".mjml") ? relative.substring(0, relative.length() - 5) : relative;
+    return outputDirectory.resolve(base + ".html");
+  }
+
+  /** Returns the fingerprint, or {@code null} if an include can no longer be read. */
+  private String fingerprint(String source, List<String> includes) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+    digest.update(settingsFingerprint.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+    digest.update(source.getBytes(StandardCharsets.UTF_8));
+    for (String include : includes) {
+      Path file = sourceDirectory.resolve(include).normalize();
+      if (!file.startsWith(sourceDirectory) || !Files.isRegularFile(file)) {
+        return null;
+      }
+      digest.update((byte) 0);
+      digest.update(include.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      try {
+        digest.update(Files.readAllBytes(file));
+      } catch (IOException e) {
+        return null;
+      }
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * Maps a template path to a Java class: subdirectories become sub-packages of the base package
+   * and the file name becomes a PascalCase class name ({@code mail/order-shipped.mjml} becomes
+   * {@code <base>.mail.OrderShipped}).
+   */
+  static JavaName javaName(String relative, String basePackage) {
+    String[] parts = relative.split("/");
+    StringBuilder pkg = new StringBuilder(basePackage);
+    for (int i = 0; i < parts.length - 1; i++) {
+      String segment = parts[i].toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_]", "_");
+      if (segment.isEmpty() || Character.isDigit(segment.charAt(0))) {
+        segment = "_" + segment;
+      }
+      if (!pkg.isEmpty()) {
+        pkg.append('.');
+      }
+      pkg.append(segment);
+    }
+    String file = parts[parts.length - 1];
+    if (file.endsWith(".mjml")) {
+      file = file.substring(0, file.length() - 5);
+    }
+    StringBuilder cls = new StringBuilder();
+    boolean upper = true;
+    for (int i = 0; i < file.length(); i++) {
+      char c = file.charAt(i);
+      if (Character.isLetterOrDigit(c)) {
+        cls.append(upper ? Character.toUpperCase(c) : c);
+        upper = false;
+      } else {
+        upper = true;
+      }
+    }
+    if (cls.isEmpty() || Character.isDigit(cls.charAt(0))) {
+      cls.insert(0, "Template");
+    }
+    return new JavaName(pkg.toString(), cls.toString());
+  }
+
+  private JavaName javaName(String relative) {
+    return javaName(relative, prefix);
+  }
+
+  private String relativize(Path template) {
+    return sourceDirectory
+        .relativize(template.toAbsolutePath().normalize())
+        .toString()
+        .replace('\\', '/');
+  }
+
+  private Properties loadState() throws IOException {
+    Properties state = new Properties();
+    if (Files.isRegularFile(stateFile)) {
+      try (InputStream in = Files.newInputStream(stateFile)) {
+        state.load(in);
+      }
+    }
+    return state;
+  }
+
+  private void saveState(Properties state) throws IOException {
+    Path parent = stateFile.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    try (OutputStream out = Files.newOutputStream(stateFile)) {
+      state.store(out, "mjml-java-maven-plugin incremental build state");
+    }
+  }
+
+  /**
+   * Outcome of a {@link #compile(List)} run. Paths are relative to the source directory.
+   *
+   * @param compiled templates that were (re)compiled
+   * @param skipped templates that were up to date
+   * @param failures error messages for templates that failed, keyed by template
+   */
+  record Result(List<String> compiled, List<String> skipped, Map<String, String> failures) {}
+
+  /**
+   * Fully qualified name of a generated Java class.
+   *
+   * @param packageName the package, or empty for the unnamed package
+   * @param className the simple class name
+   */
+  record JavaName(String packageName, String className) {}
+
+  private record Outcome(
+      String fingerprint, List<String> includes, String output, boolean skipped) {}
+
+  /**
+   * Delegates to a {@link FileSystemIncludeResolver} and records the include paths resolved by the
+   * calling thread, so each template's dependencies can be tracked while compiling in parallel.
+   */
+  private static final class RecordingIncludeResolver implements IncludeResolver {
+
+    private final IncludeResolver delegate;
+    private final ThreadLocal<Set<String>> recorded = new ThreadLocal<>();
+
+    RecordingIncludeResolver(IncludeResolver delegate) {
+      this.delegate = delegate;
+    }
+
+    void start(Set<String> sink) {
+      recorded.set(sink);
+    }
+
+    void stop() {
+      recorded.remove();
+    }
+
+    @Override
+    public String resolve(String path, ResolverContext context) {
+      String content = delegate.resolve(path, context);
+      Set<String> sink = recorded.get();
+      if (sink != null) {
+        sink.add(path);
+      }
+      return content;
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package dev.jcputney.mjml.maven;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for the generate goal's template selection and error handling. */
+class GenerateMojoTest {
+
+  @TempDir Path tempDir;
+
+  private GenerateMojo mojo(Path source) {
+    GenerateMojo mojo = new GenerateMojo();
+    mojo.sourceDirectory = source.toFile();
+    mojo.outputDirectory = tempDir.resolve("out").toFile();
+    mojo.stateFile = tempDir.resolve("state.properties").toFile();
+    mojo.outputFormat = OutputFormat.HTML;
+    mojo.compiledPrefix = "mjml-compiled";
+    mojo.language = "en";
+    mojo.direction = "ltr";
+    return mojo;
+  }
+
+  @Test
+  void rendersTemplatesAndSkipsPartials() throws Exception {
+    Path source = Files.createDirectories(tempDir.resolve("src/nested"));
+    Files.writeString(
+        source.resolve("_partial.mjml"),
+        "<mj-section><mj-column><mj-text>Partial</mj-text></mj-column></mj-section>");
+    Files.writeString(
+        source.resolve("page.mjml"),
+        "<mjml><mj-body><mj-include path=\"nested/_partial.mjml\" /></mj-body></mjml>");
+
+    mojo(tempDir.resolve("src")).execute();
+
+    Path html = tempDir.resolve("out/nested/page.html");
+    assertTrue(Files.readString(html).contains("Partial"));
+    assertTrue(Files.readString(html).contains("lang=\"en\""));
+    assertFalse(Files.exists(tempDir.resolve("out/nested/_partial.html")));
+  }
+
+  @Test
+  void failsBuildOnParseError() throws IOException {
+    Path source = Files.createDirectories(tempDir.resolve("src"));
+    Files.writeString(source.resolve("broken.mjml"), "<mjml><mj-body>");
+
+    MojoFailureException ex =
+        assertThrows(MojoFailureException.class, () -> mojo(source).execute());
+    assertTrue(ex.getMessage().contains("broken.mjml"));
+  }
+
+  @Test
+  void skipsMissingSourceDirectory() throws Exception {
+    mojo(tempDir.resolve("missing")).execute();
+
+    assertFalse(Files.exists(tempDir.resolve("out")));
+  }
+}
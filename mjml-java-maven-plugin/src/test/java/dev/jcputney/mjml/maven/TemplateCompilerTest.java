@@ -0,0 +1,225 @@
+package dev.jcputney.mjml.maven;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.jcputney.mjml.ClasspathCompiledTemplateStore;
+import dev.jcputney.mjml.FileSystemIncludeResolver;
+import dev.jcputney.mjml.IncludeResolver;
+import dev.jcputney.mjml.MjmlConfiguration;
+import dev.jcputney.mjml.MjmlRenderer;
+import dev.jcputney.mjml.parser.CompiledTemplateCodec;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for build-time template compilation and incremental up-to-date checks. */
+class TemplateCompilerTest {
+
+  private static final String TEMPLATE =
+      """
+      <mjml>
+        <mj-body>
+          <mj-include path="_header.mjml" />
+          <mj-section><mj-column><mj-text>Body text</mj-text></mj-column></mj-section>
+        </mj-body>
+      </mjml>
+      """;
+
+  @TempDir Path tempDir;
+
+  private Path source;
+  private Path output;
+  private Path state;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    source = Files.createDirectories(tempDir.resolve("src"));
+    output = tempDir.resolve("out");
+    state = tempDir.resolve("state/state.properties");
+    Files.writeString(
+        source.resolve("_header.mjml"),
+        "<mj-section><mj-column><mj-text>Header v1</mj-text></mj-column></mj-section>");
+    Files.createDirectories(source.resolve("mail"));
+    Files.writeString(source.resolve("mail/welcome.mjml"), TEMPLATE);
+  }
+
+  private TemplateCompiler compiler(OutputFormat format) {
+    return new TemplateCompiler(
+        source, output, state, format, "mjml-compiled", MjmlConfiguration.builder(), 2);
+  }
+
+  private List<String> compiledOutputs() throws IOException {
+    try (Stream<Path> files = Files.list(output.resolve("mjml-compiled"))) {
+      return files.map(file -> file.getFileName().toString()).toList();
+    }
+  }
+
+  @Test
+  void rendersHtmlAndSkipsUnchangedTemplates() throws IOException {
+    List<Path> templates = List.of(source.resolve("mail/welcome.mjml"));
+
+    TemplateCompiler.Result first = compiler(OutputFormat.HTML).compile(templates);
+    assertEquals(List.of("mail/welcome.mjml"), first.compiled());
+    String html = Files.readString(output.resolve("mail/welcome.html"));
+    assertTrue(html.contains("Header v1"));
+    assertTrue(html.contains("Body text"));
+
+    TemplateCompiler.Result second = compiler(OutputFormat.HTML).compile(templates);
+    assertEquals(List.of(), second.compiled());
+    assertEquals(List.of("mail/welcome.mjml"), second.skipped());
+  }
+
+  @Test
+  void recompilesWhenIncludeChanges() throws IOException {
+    List<Path> templates = List.of(source.resolve("mail/welcome.mjml"));
+    compiler(OutputFormat.HTML).compile(templates);
+
+    Files.writeString(
+        source.resolve("_header.mjml"),
+        "<mj-section><mj-column><mj-text>Header v2</mj-text></mj-column></mj-section>");
+    TemplateCompiler.Result result = compiler(OutputFormat.HTML).compile(templates);
+
+    assertEquals(List.of("mail/welcome.mjml"), result.compiled());
+    assertTrue(Files.readString(output.resolve("mail/welcome.html")).contains("Header v2"));
+  }
+
+  @Test
+  void recompilesWhenOutputIsMissing() throws IOException {
+    List<Path> templates = List.of(source.resolve("mail/welcome.mjml"));
+    compiler(OutputFormat.HTML).compile(templates);
+    Files.delete(output.resolve("mail/welcome.html"));
+
+    TemplateCompiler.Result result = compiler(OutputFormat.HTML).compile(templates);
+
+    assertEquals(List.of("mail/welcome.mjml"), result.compiled());
+  }
+
+  @Test
+  void deletesOutputsOfEditedAndRemovedTemplates() throws IOException {
+    Path welcome = source.resolve("mail/welcome.mjml");
+    Path receipt = source.resolve("mail/receipt.mjml");
+    Files.writeString(receipt, TEMPLATE.replace("Body text", "Receipt"));
+    compiler(OutputFormat.COMPILED).compile(List.of(welcome, receipt));
+    assertEquals(2, compiledOutputs().size());
+
+    Files.writeString(welcome, TEMPLATE.replace("Body text", "Edited"));
+    Files.delete(receipt);
+    compiler(OutputFormat.COMPILED).compile(List.of(welcome));
+
+    MjmlConfiguration config =
+        MjmlConfiguration.builder().includeResolver((path, context) -> "").build();
+    assertEquals(
+        List.of(CompiledTemplateCodec.key(Files.readString(welcome), config) + ".mjmlc"),
+        compiledOutputs());
+  }
+
+  @Test
+  void compiledOutputLoadsFromClasspath() throws IOException {
+    Path template = source.resolve("mail/welcome.mjml");
+    compiler(OutputFormat.COMPILED).compile(List.of(template));
+
+    String mjml = Files.readString(template);
+    // The include was expanded at build time, so the runtime resolver is never called
+    IncludeResolver unused =
+        (path, context) -> {
+          throw new AssertionError("Precompiled template should not resolve " + path);
+        };
+    assertTrue(
+        Files.exists(
+            output.resolve(
+                "mjml-compiled/"
+                    + CompiledTemplateCodec.key(
+                        mjml, MjmlConfiguration.builder().includeResolver(unused).build())
+                    + ".mjmlc")));
+
+    try (URLClassLoader loader = new URLClassLoader(new URL[] {output.toUri().toURL()}, null)) {
+      MjmlConfiguration config =
+          MjmlConfiguration.builder()
+              .includeResolver(unused)
+              .compiledTemplateStore(new ClasspathCompiledTemplateStore(loader, "mjml-compiled"))
+              .build();
+      String html = MjmlRenderer.render(mjml, config).html();
+      assertTrue(html.contains("Header v1"));
+    }
+  }
+
+  @Test
+  void javaOutputCompilesAndMatchesRuntimeRendering() throws Exception {
+    Files.writeString(
+        source.resolve("mail/order-shipped.mjml"),
+        """
+        <mjml>
+          <mj-body>
+            <mj-include path="_header.mjml" />
+            <mj-section><mj-column>
+              <mj-text>Hi {{name}}, {{{signature}}}</mj-text>
+              <mj-button href="https://x.io/track/{{orderId}}">Track</mj-button>
+            </mj-column></mj-section>
+          </mj-body>
+        </mjml>
+        """);
+    new TemplateCompiler(
+            source, output, state, OutputFormat.JAVA, "com.example", MjmlConfiguration.builder(), 2)
+        .compile(List.of(source.resolve("mail/order-shipped.mjml")));
+
+    Path java = output.resolve("com/example/mail/OrderShipped.java");
+    assertTrue(Files.exists(java));
+    Path classes = tempDir.resolve("classes");
+    JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+    assertEquals(0, javac.run(null, null, null, "-d", classes.toString(), java.toString()));
+
+    try (URLClassLoader loader = new URLClassLoader(new URL[] {classes.toUri().toURL()})) {
+      Method render =
+          loader
+              .loadClass("com.example.mail.OrderShipped")
+              .getMethod("render", String.class, String.class, String.class);
+      String html = (String) render.invoke(null, "Ada & Co", "<b>Team</b>", "A-1");
+
+      String expected =
+          MjmlRenderer.render(
+                  Files.readString(source.resolve("mail/order-shipped.mjml"))
+                      .replace("{{name}}", "Ada &amp; Co")
+                      .replace("{{{signature}}}", "<b>Team</b>")
+                      .replace("{{orderId}}", "A-1"),
+                  MjmlConfiguration.builder()
+                      .includeResolver(new FileSystemIncludeResolver(source))
+                      .build())
+              .html();
+      assertEquals(expected, html);
+    }
+  }
+
+  @Test
+  void derivesJavaNamesFromTemplatePaths() {
+    assertEquals(
+        new TemplateCompiler.JavaName("com.example.mail", "OrderShipped"),
+        TemplateCompiler.javaName("mail/order-shipped.mjml", "com.example"));
+    assertEquals(
+        new TemplateCompiler.JavaName("_2024", "Template1Welcome"),
+        TemplateCompiler.javaName("2024/1 welcome.mjml", ""));
+  }
+
+  @Test
+  void reportsParseErrorsPerTemplate() throws IOException {
+    Files.writeString(source.resolve("broken.mjml"), "<mjml><mj-body><mj-section></mjml>");
+    List<Path> templates =
+        List.of(source.resolve("broken.mjml"), source.resolve("mail/welcome.mjml"));
+
+    TemplateCompiler.Result result = compiler(OutputFormat.HTML).compile(templates);
+
+    assertEquals(List.of("mail/welcome.mjml"), result.compiled());
+    assertEquals(1, result.failures().size());
+    assertTrue(result.failures().containsKey("broken.mjml"));
+  }
+}